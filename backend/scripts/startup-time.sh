@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Uygulamanın başlatılmasından ilk HTTP cevabına kadar geçen süreyi ölçer.
+#
+#   scripts/startup-time.sh [tekrar] -- <java argümanları>
+#
+#   scripts/startup-time.sh 5 -- -jar target/fistein-backend-0.0.1-SNAPSHOT.jar
+#   scripts/startup-time.sh 5 -- -XX:SharedArchiveFile=target/app/application.jsa -Dspring.aot.enabled=true \
+#       -jar target/app/fistein-backend-0.0.1-SNAPSHOT.jar
+#
+# Ölçüm PostgreSQL gerektirmesin diye varsayılan olarak bellek içi H2 kullanılır (FISTEIN_STARTUP_DB=postgres ile kapatılır).
+set -euo pipefail
+
+runs=${1:-5}
+shift || true
+[[ "${1:-}" == "--" ]] && shift
+port=${PORT:-18080}
+url="http://localhost:${port}/actuator/health"
+
+db_args=()
+if [[ "${FISTEIN_STARTUP_DB:-h2}" == "h2" ]]; then
+  db_args=(--spring.datasource.url="jdbc:h2:mem:startup;MODE=PostgreSQL;NON_KEYWORDS=GROUPS,USER,VALUE"
+           --spring.datasource.driver-class-name=org.h2.Driver
+           --spring.datasource.username=sa --spring.datasource.password=
+           --spring.jpa.database-platform=org.hibernate.dialect.H2Dialect
+           --spring.jpa.show-sql=false)
+fi
+
+total=0
+for ((i = 1; i <= runs; i++)); do
+  start=$(date +%s%N)
+  java "$@" --server.port="$port" --google.oauth.prefetch-keys=false "${db_args[@]}" >/tmp/fistein-startup.log 2>&1 &
+  pid=$!
+  # 401 de bir cevaptır: ölçülen, sunucunun istek karşılamaya başladığı an
+  until [[ "$(curl -s -o /dev/null -w '%{http_code}' "$url" || true)" != "000" ]]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Uygulama başlamadan kapandı, bkz. /tmp/fistein-startup.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  echo "Çalıştırma $i: ${elapsed} ms"
+  total=$((total + elapsed))
+done
+echo "Ortalama: $((total / runs)) ms"
@@ -2,12 +2,34 @@ package com.fistein;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class FisteinBackendApplication {
 
+	// Kaydedilecek en fazla başlangıç adımı; uygulama ~2000 adım üretiyor
+	private static final int STARTUP_STEP_CAPACITY = 10_000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(FisteinBackendApplication.class, args);
+		SpringApplication application = new SpringApplication(FisteinBackendApplication.class);
+		if (startupTimelineEnabled(args)) {
+			// Adımlar /actuator/startup'tan okunur, en yavaşları StartupTimelineReporter loglar
+			application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+		}
+		application.run(args);
+	}
+
+	// application.yml henüz okunmadı: --fistein.startup.timeline, -D veya FISTEIN_STARTUP_TIMELINE
+	private static boolean startupTimelineEnabled(String[] args) {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+		return environment.getProperty("fistein.startup.timeline", Boolean.class, false);
 	}
 
 }
@@ -0,0 +1,73 @@
+package com.fistein.config;
+
+import com.fistein.exception.FisteinException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link RetryOnConflict} ile işaretli servis metotlarını iyimser kilitleme ve kilit çakışmalarında yeniden dener.
+ * Transaction advisor'ı varsayılan olarak en düşük öncelikte olduğundan bu aspect onun dışında kalır:
+ * her deneme kendi transaction'ını açar ve commit sırasında alınan çakışmalar da yakalanır.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(0)
+public class ConflictRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public ConflictRetryAspect(MeterRegistry meterRegistry,
+                               @Value("${fistein.conflict-retry.max-attempts:8}") int maxAttempts,
+                               @Value("${fistein.conflict-retry.initial-backoff:5ms}") Duration initialBackoff,
+                               @Value("${fistein.conflict-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("fistein.conflict.exhausted", "operation", operation).increment();
+                    log.warn("{} {} denemede çakışmadan kurtulamadı: {}", operation, attempt, e.getMessage());
+                    throw new FisteinException(retryOnConflict.message(), FisteinException.ErrorType.CONFLICT);
+                }
+                meterRegistry.counter("fistein.conflict.retries", "operation", operation).increment();
+                log.debug("{} çakıştı, {}. deneme: {}", operation, attempt + 1, e.getMessage());
+                Thread.sleep(backoffMillis(attempt));
+            }
+        }
+    }
+
+    // Üstel artış ve tam jitter: aynı anda çakışan istekler aynı anda yeniden denemesin
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -37,7 +37,8 @@ public class CorsConfig {
                 "X-Requested-With",
                 "Cache-Control",
                 "Pragma",
-                "Expires"
+                "Expires",
+                "Idempotency-Key"
         ));
         
         // Credential'ların gönderilmesine izin ver
@@ -47,7 +48,7 @@ public class CorsConfig {
         configuration.setMaxAge(60L);
         
         // Response'da görünmesine izin verilen header'lar
-        configuration.setExposedHeaders(List.of("Authorization", "Cache-Control"));
+        configuration.setExposedHeaders(List.of("Authorization", "Cache-Control", "Idempotent-Replayed"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
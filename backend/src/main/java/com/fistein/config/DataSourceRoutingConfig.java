@@ -0,0 +1,82 @@
+package com.fistein.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(prefix = "fistein.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig implements DisposableBean {
+
+    @Value("${fistein.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${fistein.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${fistein.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${fistein.datasource.replica.maximum-pool-size:10}")
+    private int replicaMaximumPoolSize;
+
+    @Value("${fistein.datasource.primary.maximum-pool-size:10}")
+    private int primaryMaximumPoolSize;
+
+    // Kullanıcının kendi yazmasından sonra primary'den okumaya devam edeceği süre (replica gecikmesi payı)
+    @Value("${fistein.datasource.replica.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties) {
+        primaryPool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primaryPool.setPoolName("fistein-primary");
+        primaryPool.setMaximumPoolSize(primaryMaximumPoolSize);
+
+        replicaPool = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        replicaPool.setPoolName("fistein-replica");
+        replicaPool.setMaximumPoolSize(replicaMaximumPoolSize);
+        replicaPool.setReadOnly(true);
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(readYourWritesWindow, Clock.systemUTC());
+        routingDataSource.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primaryPool,
+                ReplicaRoutingDataSource.REPLICA, replicaPool
+        ));
+        routingDataSource.setDefaultTargetDataSource(primaryPool);
+        routingDataSource.afterPropertiesSet();
+
+        // Fiziksel bağlantı ilk statement'a kadar ertelenir; bu sayede read-only bayrağı
+        // transaction başladıktan sonra yönlendirme anahtarına yansır.
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Override
+    public void destroy() {
+        if (replicaPool != null) {
+            replicaPool.close();
+        }
+        if (primaryPool != null) {
+            primaryPool.close();
+        }
+    }
+}
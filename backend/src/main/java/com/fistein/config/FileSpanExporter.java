@@ -0,0 +1,138 @@
+package com.fistein.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Span'leri yerel bir dosyaya satır başına bir JSON nesnesi olarak ekler (JSON Lines). Collector
+ * olmadan izleme içindir. Dosya döndürülmez; uzun süre açık kalacaksa logrotate gibi bir araçla
+ * (copytruncate) yönetilmeli. Yazma hatası isteği etkilemez, yalnızca sayaç ve uyarı bırakır.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Counter exported;
+    private final Counter failed;
+    private BufferedWriter writer;
+
+    // Boş alanlar (kök span'de parentSpanId, olaysız span'de events) satıra yazılmaz
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record SpanRecord(String traceId, String spanId, String parentSpanId, String name, String kind,
+                      String start, long durationMicros, String status, Map<String, Object> attributes,
+                      List<EventRecord> events) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record EventRecord(String name, long offsetMicros, Map<String, Object> attributes) {
+    }
+
+    public FileSpanExporter(Path path, ObjectMapper objectMapper, MeterRegistry meterRegistry) throws IOException {
+        this.path = path.toAbsolutePath();
+        this.objectMapper = objectMapper;
+        this.exported = meterRegistry.counter("fistein.tracing.file.spans", "result", "written");
+        this.failed = meterRegistry.counter("fistein.tracing.file.spans", "result", "failed");
+        Path parent = this.path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(this.path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        log.info("Span'ler dosyaya yazılıyor: {}", this.path);
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (writer == null) {
+            return CompletableResultCode.ofFailure();
+        }
+        try {
+            for (SpanData span : spans) {
+                writer.write(objectMapper.writeValueAsString(toRecord(span)));
+                writer.newLine();
+            }
+            writer.flush();
+            exported.increment(spans.size());
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            failed.increment(spans.size());
+            log.warn("{} span {} dosyasına yazılamadı: {}", spans.size(), path, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode flush() {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer == null) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            writer.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        } finally {
+            writer = null;
+        }
+    }
+
+    private static SpanRecord toRecord(SpanData span) {
+        List<EventRecord> events = new ArrayList<>(span.getEvents().size());
+        for (EventData event : span.getEvents()) {
+            events.add(new EventRecord(event.getName(),
+                    (event.getEpochNanos() - span.getStartEpochNanos()) / 1_000,
+                    attributes(event.getAttributes())));
+        }
+        return new SpanRecord(
+                span.getTraceId(),
+                span.getSpanId(),
+                span.getParentSpanContext().isValid() ? span.getParentSpanId() : null,
+                span.getName(),
+                span.getKind().name(),
+                Instant.ofEpochSecond(0, span.getStartEpochNanos()).toString(),
+                (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000,
+                span.getStatus().getStatusCode().name(),
+                attributes(span.getAttributes()),
+                events.isEmpty() ? null : events);
+    }
+
+    private static Map<String, Object> attributes(Attributes attributes) {
+        if (attributes.isEmpty()) {
+            return null;
+        }
+        // Anahtar sırası sabit olsun; dosya satırları karşılaştırılabilir kalır
+        Map<String, Object> values = new TreeMap<>();
+        attributes.forEach((key, value) -> values.put(key.getKey(), value));
+        return values;
+    }
+}
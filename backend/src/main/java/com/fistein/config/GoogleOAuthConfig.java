@@ -0,0 +1,41 @@
+package com.fistein.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.Collections;
+
+@Configuration
+public class GoogleOAuthConfig {
+
+    @Value("${google.oauth.client-id:your-google-client-id}")
+    private String googleClientId;
+
+    // Testlerde yerel bir sertifika sunucusuna yönlendirilebilir
+    @Value("${google.oauth.certs-url:https://www.googleapis.com/oauth2/v1/certs}")
+    private String certsUrl;
+
+    // Tek bir HTTP istemcisi ve anahtar önbelleği tüm girişler arasında paylaşılır.
+    // Lazy: Google istemci sınıfları başlangıçta yüklenmez, ilk Google girişinde veya anahtar ön yüklemesinde oluşur
+    @Bean
+    @Lazy
+    public GooglePublicKeysManager googlePublicKeysManager() {
+        return new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(certsUrl)
+                .build();
+    }
+
+    @Bean
+    @Lazy
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager) {
+        return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+                .setAudience(Collections.singletonList(googleClientId))
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package com.fistein.config;
+
+import com.fistein.exception.ProblemDetailWriter;
+import com.fistein.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    // Parmak izi için gövde önceden okunup bellekte tutulur
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final IdempotencyService idempotencyService;
+    private final ProblemDetailWriter problemDetailWriter;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return request.getHeader(HEADER) == null
+                || !MUTATING_METHODS.contains(request.getMethod())
+                || !(uri.startsWith("/api/expenses/") || uri.startsWith("/api/groups"));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            // Yetkisiz istek; güvenlik zinciri 401/403 döndürecek
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            problemDetailWriter.write(response, HttpStatus.BAD_REQUEST, "Invalid Idempotency Key",
+                    "Idempotency-Key 1-" + MAX_KEY_LENGTH + " karakter olmalıdır");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            problemDetailWriter.write(response, HttpStatus.PAYLOAD_TOO_LARGE, "Payload Too Large",
+                    "Idempotency-Key ile gönderilen istek gövdesi en fazla " + MAX_BODY_BYTES + " bayt olabilir");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+
+        String scopedKey = authentication.getName() + ":" + key;
+        // Aynı anahtar aynı uca farklı gövdeyle gelirse ilk cevap tekrarlanmaz, MISMATCH döner
+        String fingerprint = fingerprint(request, body);
+
+        IdempotencyService.Claim claim = idempotencyService.claim(scopedKey, fingerprint);
+        switch (claim.outcome()) {
+            case REPLAY -> replay(claim.response(), response);
+            case IN_PROGRESS -> problemDetailWriter.write(response, HttpStatus.CONFLICT, "Request In Progress",
+                    "Aynı Idempotency-Key ile bir istek hâlâ işleniyor");
+            case MISMATCH -> problemDetailWriter.write(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency Key Reused",
+                    "Bu Idempotency-Key farklı bir istek için kullanılmış");
+            case ACQUIRED -> execute(scopedKey, fingerprint, cachedRequest, response, filterChain);
+        }
+    }
+
+    private void execute(String scopedKey, String fingerprint, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+
+            int status = responseWrapper.getStatus();
+            // Yalnızca başarılı cevaplar saklanır; hatalı istekler aynı anahtarla tekrar denenebilir
+            if (status >= 200 && status < 300) {
+                String body = new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
+                idempotencyService.complete(scopedKey, new IdempotencyService.StoredResponse(
+                        fingerprint, status, responseWrapper.getContentType(), body));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.release(scopedKey);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    // Sorgu dizesi ve gövde özetlenir; kolon uzunluğu istek boyutundan bağımsız kalır
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return request.getMethod() + " " + request.getRequestURI() + " " + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void replay(IdempotencyService.StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null && !stored.body().isEmpty()) {
+            response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // Parmak izi için okunan gövdeyi controller'a yeniden sunar
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(@NonNull byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding())
+                    : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
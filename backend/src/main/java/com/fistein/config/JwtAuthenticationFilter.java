@@ -1,6 +1,8 @@
 package com.fistein.config;
 
 import com.fistein.util.JwtUtil;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +24,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -32,7 +35,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,9 +42,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        
+        // Token çözümü ve kullanıcı yüklemesi ayrı bir span; zincirin geri kalanı bunun dışında kalır
+        Observation.createNotStarted("fistein.security.jwt", observationRegistry)
+                .observe(() -> authenticate(request, jwt));
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(HttpServletRequest request, String jwt) {
         try {
-            userEmail = jwtUtil.extractUsername(jwt);
+            String userEmail = jwtUtil.extractUsername(jwt);
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 var userDetails = this.userDetailsService.loadUserByUsername(userEmail);
@@ -62,7 +71,5 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             // Token geçersiz ise sessizce devam et
         }
-
-        filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,285 @@
+package com.fistein.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Arrays;
+
+/**
+ * Bağlantıları, statement'ları ve sonuç kümelerini saran JDBC katmanı. Her çalıştırmanın süresi,
+ * döndürdüğü ya da etkilediği satır sayısı ve bağlanan parametre tipleri {@link SqlProfiler}'a iletilir.
+ * Parametre değerleri yalnızca eşiği aşan çalıştırmalarda, EXPLAIN için kopyalanır.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private static final ClassLoader CLASS_LOADER = ProfilingDataSource.class.getClassLoader();
+
+    private final SqlProfiler profiler;
+
+    public ProfilingDataSource(DataSource target, SqlProfiler profiler) {
+        super(target);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Proxy arayüzünü isteyen çağırana proxy'nin kendisi, diğerlerine asıl nesne verilir
+    private static Object unwrap(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        Class<?> type = (Class<?>) args[0];
+        if (method.getName().equals("isWrapperFor")) {
+            return type.isInstance(proxy) || (Boolean) invoke(target, method, args);
+        }
+        return type.isInstance(proxy) ? proxy : invoke(target, method, args);
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("unwrap") || name.equals("isWrapperFor")) {
+                return unwrap(proxy, target, method, args);
+            }
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = name.startsWith("prepare") ? (String) args[0] : null;
+                return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{method.getReturnType()},
+                        new StatementHandler((Connection) proxy, statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final Statement target;
+        private final String preparedSql;
+        private Object[] binds = new Object[8];
+        private int bindCount;
+        private String batchSql;
+        // executeQuery sonrası satırlar sonuç kümesi kapanana kadar sayılır
+        private PendingQuery pending;
+
+        StatementHandler(Connection connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery", "executeUpdate", "executeLargeUpdate", "execute" -> {
+                    return execute(method, args);
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    return executeBatch(method, args);
+                }
+                case "getResultSet" -> {
+                    Object result = ProfilingDataSource.invoke(target, method, args);
+                    return result == null || pending == null ? result : pending.wrap((ResultSet) result);
+                }
+                case "addBatch" -> {
+                    if (args != null && args.length == 1) {
+                        batchSql = (String) args[0];
+                    }
+                }
+                case "clearParameters" -> bindCount = 0;
+                case "close" -> completePending();
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "unwrap", "isWrapperFor" -> {
+                    return unwrap(proxy, target, method, args);
+                }
+                default -> {
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        bind(index, name, args);
+                    }
+                }
+            }
+            return ProfilingDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            completePending();
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = ProfilingDataSource.invoke(target, method, args);
+            } catch (SQLException e) {
+                profiler.record(getTargetDataSource(), sql, bindShape(), System.nanoTime() - start, 0, null, true);
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            Object[] slowBinds = profiler.isSlow(nanos) ? copyBinds() : null;
+
+            if (result instanceof ResultSet resultSet) {
+                pending = new PendingQuery(sql, bindShape(), nanos, slowBinds);
+                return pending.wrap(resultSet);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                // execute(): sonuç kümesi getResultSet ile alınacak
+                pending = new PendingQuery(sql, bindShape(), nanos, slowBinds);
+                return result;
+            }
+            long rows = result instanceof Number count ? count.longValue() : Math.max(0, target.getUpdateCount());
+            profiler.record(getTargetDataSource(), sql, bindShape(), nanos, rows, slowBinds, false);
+            return result;
+        }
+
+        private Object executeBatch(Method method, Object[] args) throws Throwable {
+            completePending();
+            String sql = preparedSql != null ? preparedSql : batchSql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = ProfilingDataSource.invoke(target, method, args);
+            } catch (SQLException e) {
+                profiler.record(getTargetDataSource(), sql, bindShape(), System.nanoTime() - start, 0, null, true);
+                throw e;
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(0, count);
+                }
+            }
+            profiler.record(getTargetDataSource(), sql, bindShape(), System.nanoTime() - start, rows, null, false);
+            return result;
+        }
+
+        private void bind(int index, String setter, Object[] args) {
+            if (index < 1) {
+                return;
+            }
+            if (index > binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+            }
+            Object value = args[1];
+            if (setter.equals("setNull")) {
+                value = new SqlProfiler.NullValue((Integer) args[1]);
+            } else if (value instanceof InputStream || value instanceof Reader || value instanceof Blob
+                    || value instanceof Clob) {
+                value = SqlProfiler.UNBINDABLE;
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private String bindShape() {
+            if (bindCount == 0) {
+                return "";
+            }
+            StringBuilder shape = new StringBuilder();
+            for (int i = 0; i < bindCount; i++) {
+                if (i > 0) {
+                    shape.append(',');
+                }
+                Object value = binds[i];
+                shape.append(value == null || value instanceof SqlProfiler.NullValue ? "null"
+                        : value == SqlProfiler.UNBINDABLE ? "stream" : value.getClass().getSimpleName());
+            }
+            return shape.toString();
+        }
+
+        private Object[] copyBinds() {
+            Object[] copy = Arrays.copyOf(binds, bindCount);
+            for (Object value : copy) {
+                if (value == SqlProfiler.UNBINDABLE) {
+                    return null;
+                }
+            }
+            return copy;
+        }
+
+        private void completePending() {
+            if (pending != null) {
+                pending.complete();
+                pending = null;
+            }
+        }
+    }
+
+    private final class PendingQuery {
+
+        private final String sql;
+        private final String bindShape;
+        private final long nanos;
+        private final Object[] binds;
+        private long rows;
+        private boolean completed;
+
+        PendingQuery(String sql, String bindShape, long nanos, Object[] binds) {
+            this.sql = sql;
+            this.bindShape = bindShape;
+            this.nanos = nanos;
+            this.binds = binds;
+        }
+
+        ResultSet wrap(ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("unwrap") || name.equals("isWrapperFor")) {
+                            return unwrap(proxy, resultSet, method, args);
+                        }
+                        Object result = ProfilingDataSource.invoke(resultSet, method, args);
+                        if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                            rows++;
+                        } else if (name.equals("close")) {
+                            complete();
+                        }
+                        return result;
+                    });
+        }
+
+        void complete() {
+            if (!completed) {
+                completed = true;
+                profiler.record(getTargetDataSource(), sql, bindShape, nanos, rows, binds, false);
+            }
+        }
+    }
+}
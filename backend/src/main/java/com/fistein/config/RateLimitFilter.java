@@ -0,0 +1,109 @@
+package com.fistein.config;
+
+import com.fistein.exception.ProblemDetailWriter;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.security.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final ProblemDetailWriter problemDetailWriter;
+    private final GroupMemberRepository groupMemberRepository;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || properties.getRoutes().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String path = request.getRequestURI();
+        List<RateLimiter.BucketKey> keys = new ArrayList<>();
+
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if (!matches(route, request.getMethod(), path)) {
+                continue;
+            }
+            String key = resolveKey(route, authentication, request, path);
+            if (key != null) {
+                keys.add(new RateLimiter.BucketKey(route, key));
+            }
+        }
+
+        Duration retryAfter = keys.isEmpty() ? Duration.ZERO : rateLimiter.tryAcquire(keys);
+        if (!retryAfter.isZero()) {
+            long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+            problemDetailWriter.write(response, HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                    "Çok fazla istek gönderildi. Lütfen " + seconds + " saniye sonra tekrar deneyin.");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean matches(RateLimitProperties.Route route, String method, String path) {
+        if (route.getMethod() != null && !route.getMethod().equalsIgnoreCase(method)) {
+            return false;
+        }
+        return pathMatcher.match(route.getPattern(), path);
+    }
+
+    private String resolveKey(RateLimitProperties.Route route, Authentication authentication,
+                              HttpServletRequest request, String path) {
+        String user = authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+        return switch (route.getScope()) {
+            // Kimliği doğrulanmamış istekler güvenlik zincirinde zaten reddedilir
+            case USER -> user;
+            case GROUP -> {
+                // Anonim istek grubun kovasını tüketemez; IP başına ayrı kovaya düşer
+                if (user == null) {
+                    yield "ip:" + request.getRemoteAddr();
+                }
+                // Yalnızca aktif üyeler grubun kovasını tüketir; üye olmayanın isteği serviste reddedilir
+                // ve kendi kullanıcı kovasıyla sınırlanır
+                Long groupId = groupId(route, path);
+                yield groupId != null && groupMemberRepository.existsByGroupIdAndUserEmailAndIsActiveTrue(groupId, user)
+                        ? groupId.toString() : null;
+            }
+        };
+    }
+
+    private Long groupId(RateLimitProperties.Route route, String path) {
+        Map<String, String> variables = pathMatcher.extractUriTemplateVariables(route.getPattern(), path);
+        try {
+            return Long.valueOf(variables.get("groupId"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fistein.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "fistein.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Bellekte tutulacak en fazla kova sayısı; aşılırsa dolu (boşta) kovalar atılır
+    private int maxBuckets = 100_000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String name;
+        // Ant tarzı desen; GROUP kapsamı için {groupId} değişkeni içermelidir
+        private String pattern;
+        // Boş ise tüm HTTP metodlarına uygulanır
+        private String method;
+        private Scope scope = Scope.USER;
+        private int capacity;
+        private int refillTokens;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+
+    public enum Scope {
+        USER,
+        GROUP
+    }
+}
@@ -0,0 +1,94 @@
+package com.fistein.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only transaction'ları replica'ya, diğer her şeyi primary'ye yönlendirir.
+ * Kullanıcı kendi yazma işleminden sonra {@code readYourWritesWindow} süresince
+ * primary'den okur, böylece replica gecikmesi yüzünden kendi değişikliğini kaybetmez.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final int MAX_TRACKED_WRITERS = 10_000;
+
+    private final Duration readYourWritesWindow;
+    private final Clock clock;
+    // Kullanıcı (email) -> son commit edilen yazma zamanı (epoch millis)
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(Duration readYourWritesWindow, Clock clock) {
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.clock = clock;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                registerWriteAfterCommit(user);
+            }
+            return PRIMARY;
+        }
+
+        if (user != null && recentlyWrote(user)) {
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+
+    public void recordWrite(String user) {
+        if (lastWriteByUser.size() >= MAX_TRACKED_WRITERS) {
+            evictExpired();
+        }
+        lastWriteByUser.put(user, clock.millis());
+    }
+
+    boolean recentlyWrote(String user) {
+        Long lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (clock.millis() - lastWrite < readYourWritesWindow.toMillis()) {
+            return true;
+        }
+        lastWriteByUser.remove(user, lastWrite);
+        return false;
+    }
+
+    private void registerWriteAfterCommit(String user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordWrite(user);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(user);
+            }
+        });
+    }
+
+    private void evictExpired() {
+        long cutoff = clock.millis() - readYourWritesWindow.toMillis();
+        lastWriteByUser.values().removeIf(lastWrite -> lastWrite <= cutoff);
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.fistein.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Metot, sürüm (@Version) çakışması veya kilit beklemesi nedeniyle başarısız olursa yeni bir transaction'da
+ * sınırlı sayıda yeniden çalıştırılır. Metot dışarıdan bir transaction içinde çağrılırsa yeniden deneme yapılmaz;
+ * aynı transaction'ı tekrarlamak eski veriyi tekrar okumaktan öteye geçmez.
+ *
+ * @see ConflictRetryAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+
+    /**
+     * Denemeler tükendiğinde istemciye 409 ile dönen mesaj.
+     */
+    String message() default "Kayıt aynı anda başka bir işlemle değiştirildi, lütfen tekrar deneyin";
+}
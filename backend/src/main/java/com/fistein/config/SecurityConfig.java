@@ -17,6 +17,10 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authorization.AuthorizationDecision;
+
+import java.util.Set;
 
 @Configuration
 @EnableWebSecurity
@@ -34,6 +38,15 @@ public class SecurityConfig {
     // CacheControlHeaderFilter, her response'a Cache-Control header'ı ekler.
     @Autowired
     private CacheControlHeaderFilter cacheControlHeaderFilter;
+    // IdempotencyFilter, Idempotency-Key header'ı taşıyan tekrar denemeleri saklanan cevapla karşılar.
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+    // RateLimitFilter, kullanıcı ve grup bazlı token bucket limitlerini uygular.
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+    // health dışındaki yönetim uçlarına (slowqueries, metrics, startup) erişebilen kullanıcılar
+    @Value("${fistein.actuator.admin-emails:}")
+    private Set<String> actuatorAdminEmails;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -48,6 +61,13 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // "/api/auth/**" altındaki tüm isteklere kimlik doğrulaması olmadan erişim izni verir.
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Sağlık kontrolü giriş yapmış her kullanıcıya açıktır.
+                        .requestMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                        // Diğer yönetim uçları SQL metinleri, planlar, metrikler ve bean/sınıf adları içerdiği için
+                        // yalnızca yöneticilere açıktır.
+                        .requestMatchers("/actuator", "/actuator/**")
+                        .access((authentication, context) -> new AuthorizationDecision(
+                                actuatorAdminEmails.contains(authentication.get().getName())))
                         // Diğer tüm isteklere kimlik doğrulaması yapılmış kullanıcıların erişmesine izin verir.
                         .anyRequest().authenticated()
                 )
@@ -61,6 +81,10 @@ public class SecurityConfig {
                 // JWT kimlik doğrulama filtresini UsernamePasswordAuthenticationFilter'dan önce ekler.
                 // Bu, her istekte JWT token'ını kontrol etmeyi sağlar.
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Rate limit filtresi kullanıcı kimliği belli olduktan sonra, JWT filtresinin hemen ardından çalışır.
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+                // Idempotency filtresi kullanıcıyı bilmesi gerektiği için JWT ve rate limit filtrelerinden sonra çalışır.
+                .addFilterAfter(idempotencyFilter, RateLimitFilter.class)
                 // Cache-Control header filtresini UsernamePasswordAuthenticationFilter'dan önce ekler.
                 .addFilterBefore(cacheControlHeaderFilter, UsernamePasswordAuthenticationFilter.class);
 
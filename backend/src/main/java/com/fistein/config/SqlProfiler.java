@@ -0,0 +1,342 @@
+package com.fistein.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ProfilingDataSource}'un ölçtüğü statement'ları normalize edilmiş SQL başına toplar. En fazla
+ * {@code maxStatements} farklı SQL tutulur; dolunca toplam süresi en düşük olan atılır, böylece pahalı
+ * sorgular kalır. Eşiği aşan SELECT'lerin planı arka planda EXPLAIN ile alınır; plandaki bağlı değerler
+ * (e-posta, isim, id) maskelendikten sonra loglanır ve raporda sunulur.
+ */
+@Slf4j
+public class SqlProfiler implements DisposableBean {
+
+    private static final int MAX_BIND_SHAPES = 8;
+    private static final int MAX_ORIGINS = 8;
+    private static final String OTHER = "(diğer)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Plan içindeki sayılar; cost=0.00..8.27, rows=1 gibi tahminler ve tanımlayıcılardaki rakamlar hariç
+    private static final Pattern PLAN_NUMBER = Pattern.compile("(?<![=.\\w])\\d+(?:\\.\\d+)?\\b");
+
+    /** setNull ile bağlanan parametre; EXPLAIN'de aynı tiple yeniden bağlanır. */
+    record NullValue(int sqlType) {
+    }
+
+    /** Akış ya da LOB gibi yeniden okunamayan parametre; bu çalıştırmanın planı alınmaz. */
+    static final Object UNBINDABLE = new Object();
+
+    public record Report(Instant since, long executions, int trackedStatements, int evictedStatements,
+                         Duration slowThreshold, List<StatementReport> statements) {
+    }
+
+    public record StatementReport(String sql, long count, long errors, double totalMillis, double meanMillis,
+                                  double maxMillis, long rows, long maxRows, long slowCount,
+                                  Map<String, Long> bindShapes, List<String> origins,
+                                  Instant lastSlowAt, String plan, Instant planCapturedAt,
+                                  Double planTriggerMillis) {
+    }
+
+    private final ObservationRegistry observationRegistry;
+    private final int maxStatements;
+    private final long slowThresholdNanos;
+    private final Duration slowThreshold;
+    private final long explainIntervalMillis;
+    private final int explainTimeoutSeconds;
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    // Hibernate aynı SQL metinlerini tekrar üretir; normalize regex'leri metin başına bir kez çalışır
+    private final Map<String, String> normalizedSql = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private volatile Instant since = Instant.now();
+
+    private final ThreadPoolExecutor explainer;
+    private final Counter slowStatements;
+    private final Counter plansCaptured;
+    private final Counter plansFailed;
+    private final Counter plansDropped;
+
+    public SqlProfiler(ObservationRegistry observationRegistry, MeterRegistry meterRegistry, int maxStatements,
+                       Duration slowThreshold, Duration explainInterval, Duration explainTimeout,
+                       int explainQueueCapacity) {
+        this.observationRegistry = observationRegistry;
+        this.maxStatements = maxStatements;
+        this.slowThreshold = slowThreshold;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.explainIntervalMillis = explainInterval.toMillis();
+        this.explainTimeoutSeconds = (int) Math.max(1, explainTimeout.toSeconds());
+        this.explainer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(explainQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sql-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.slowStatements = Counter.builder("fistein.sql.slow")
+                .description("Eşiği aşan statement çalıştırmaları")
+                .register(meterRegistry);
+        this.plansCaptured = meterRegistry.counter("fistein.sql.explain", "result", "captured");
+        this.plansFailed = meterRegistry.counter("fistein.sql.explain", "result", "failed");
+        this.plansDropped = meterRegistry.counter("fistein.sql.explain", "result", "dropped");
+        meterRegistry.gauge("fistein.sql.statements.tracked", statements, Map::size);
+    }
+
+    boolean isSlow(long nanos) {
+        return nanos >= slowThresholdNanos;
+    }
+
+    /**
+     * Bir çalıştırmayı kaydeder.
+     *
+     * @param source EXPLAIN'in çalıştırılacağı (ölçülmeyen) veri kaynağı
+     * @param binds  yalnızca yavaş çalıştırmalarda dolu; diğerlerinde null
+     */
+    void record(DataSource source, String sql, String bindShape, long nanos, long rows, Object[] binds,
+                boolean failed) {
+        executions.increment();
+        String normalized = normalizedSql.get(sql);
+        if (normalized == null) {
+            normalized = normalize(sql);
+            if (normalizedSql.size() < maxStatements * 4) {
+                normalizedSql.put(sql, normalized);
+            }
+        }
+        StatementStats stats = statements.get(normalized);
+        if (stats == null) {
+            stats = statements.computeIfAbsent(normalized, StatementStats::new);
+            if (statements.size() > maxStatements) {
+                evictCheapest(stats);
+            }
+        }
+        stats.add(bindShape, nanos, rows, failed, currentOrigin());
+
+        if (!failed && isSlow(nanos)) {
+            slowStatements.increment();
+            stats.slowCount.increment();
+            stats.lastSlowAt = Instant.now();
+            if (binds != null && isExplainable(sql) && stats.claimExplain(explainIntervalMillis)) {
+                scheduleExplain(source, stats, sql, binds, nanos);
+            }
+        }
+    }
+
+    public Report report(String sort, int limit) {
+        Comparator<StatementStats> order = switch (sort == null ? "total" : sort) {
+            case "mean" -> Comparator.comparingDouble(StatementStats::meanNanos);
+            case "max" -> Comparator.comparingLong(stats -> stats.maxNanos.get());
+            case "count" -> Comparator.comparingLong(stats -> stats.count.sum());
+            case "rows" -> Comparator.comparingLong(stats -> stats.rows.sum());
+            default -> Comparator.comparingLong(stats -> stats.totalNanos.sum());
+        };
+        List<StatementReport> top = statements.values().stream()
+                .sorted(order.reversed())
+                .limit(limit)
+                .map(StatementStats::toReport)
+                .toList();
+        return new Report(since, executions.sum(), statements.size(), (int) evicted.sum(), slowThreshold, top);
+    }
+
+    public void reset() {
+        statements.clear();
+        executions.reset();
+        evicted.reset();
+        since = Instant.now();
+    }
+
+    @Override
+    public void destroy() {
+        explainer.shutdownNow();
+    }
+
+    /**
+     * Satır sonları ve boşluklar tekleşir, sabit değerler ? olur, parametre listeleri (IN, VALUES)
+     * uzunluklarından bağımsız tek biçime iner.
+     */
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(?, ...)");
+    }
+
+    /**
+     * EXPLAIN bağlı değerlerle çalışır (planı değerler belirler) ve veritabanları bu değerleri plana
+     * yazar. Metin ve sayı sabitleri ? olur; maliyet ve satır tahminleri korunur.
+     */
+    static String maskLiterals(String plan) {
+        String masked = STRING_LITERAL.matcher(plan).replaceAll("'?'");
+        return PLAN_NUMBER.matcher(masked).replaceAll("?");
+    }
+
+    // Sorguyu başlatan repository ya da servis metodu (izleme gözlemlerinden)
+    private String currentOrigin() {
+        Observation observation = observationRegistry.getCurrentObservation();
+        if (observation == null) {
+            return null;
+        }
+        Observation.Context context = observation.getContext();
+        return context.getName().startsWith("fistein.") ? context.getContextualName() : null;
+    }
+
+    // EXPLAIN yalnızca okuma sorgularında; yazmalarda veritabanına göre çalıştırma riski var
+    private static boolean isExplainable(String sql) {
+        String head = sql.stripLeading();
+        return head.regionMatches(true, 0, "select", 0, 6) || head.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private void scheduleExplain(DataSource source, StatementStats stats, String sql, Object[] binds, long nanos) {
+        try {
+            explainer.execute(() -> explain(source, stats, sql, binds, nanos));
+        } catch (RejectedExecutionException e) {
+            stats.releaseExplain();
+            plansDropped.increment();
+        }
+    }
+
+    private void explain(DataSource source, StatementStats stats, String sql, Object[] binds, long nanos) {
+        try (Connection connection = source.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            statement.setQueryTimeout(explainTimeoutSeconds);
+            for (int i = 0; i < binds.length; i++) {
+                if (binds[i] instanceof NullValue nullValue) {
+                    statement.setNull(i + 1, nullValue.sqlType());
+                } else {
+                    statement.setObject(i + 1, binds[i]);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append('\n');
+                    }
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            stats.plan = maskLiterals(plan.toString());
+            stats.planCapturedAt = Instant.now();
+            stats.planTriggerNanos = nanos;
+            plansCaptured.increment();
+            log.warn("Yavaş sorgu ({} ms, eşik {} ms): {}\nPlan:\n{}",
+                    nanos / 1_000_000, slowThreshold.toMillis(), stats.sql, stats.plan);
+        } catch (SQLException | RuntimeException e) {
+            plansFailed.increment();
+            log.warn("Yavaş sorgunun ({} ms) planı alınamadı: {} - {}", nanos / 1_000_000, stats.sql,
+                    e.getMessage() == null ? null : maskLiterals(e.getMessage()));
+        }
+    }
+
+    // Tablo dolu: yeni gelen hariç toplam süresi en düşük olan atılır
+    private synchronized void evictCheapest(StatementStats keep) {
+        while (statements.size() > maxStatements) {
+            StatementStats cheapest = null;
+            for (StatementStats stats : statements.values()) {
+                if (stats != keep && (cheapest == null || stats.totalNanos.sum() < cheapest.totalNanos.sum())) {
+                    cheapest = stats;
+                }
+            }
+            if (cheapest == null || !statements.remove(cheapest.sql, cheapest)) {
+                return;
+            }
+            evicted.increment();
+        }
+    }
+
+    static final class StatementStats {
+
+        final String sql;
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxRows = new AtomicLong();
+        final LongAdder slowCount = new LongAdder();
+        final Map<String, LongAdder> bindShapes = new ConcurrentHashMap<>();
+        final Set<String> origins = ConcurrentHashMap.newKeySet();
+        private final AtomicLong lastExplainMillis = new AtomicLong();
+        volatile Instant lastSlowAt;
+        volatile String plan;
+        volatile Instant planCapturedAt;
+        volatile long planTriggerNanos;
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        void add(String bindShape, long nanos, long rowCount, boolean failed, String origin) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (failed) {
+                errors.increment();
+            } else {
+                rows.add(rowCount);
+                maxRows.accumulateAndGet(rowCount, Math::max);
+            }
+            LongAdder shapeCount = bindShapes.get(bindShape);
+            if (shapeCount == null) {
+                shapeCount = bindShapes.size() < MAX_BIND_SHAPES
+                        ? bindShapes.computeIfAbsent(bindShape, key -> new LongAdder())
+                        : bindShapes.computeIfAbsent(OTHER, key -> new LongAdder());
+            }
+            shapeCount.increment();
+            if (origin != null && origins.size() < MAX_ORIGINS) {
+                origins.add(origin);
+            }
+        }
+
+        // Aynı sorgunun planı aralık başına bir kez alınır
+        boolean claimExplain(long intervalMillis) {
+            long now = System.currentTimeMillis();
+            long last = lastExplainMillis.get();
+            return (last == 0 || now - last >= intervalMillis) && lastExplainMillis.compareAndSet(last, now);
+        }
+
+        void releaseExplain() {
+            lastExplainMillis.set(0);
+        }
+
+        double meanNanos() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) totalNanos.sum() / n;
+        }
+
+        StatementReport toReport() {
+            Map<String, Long> shapes = new TreeMap<>();
+            bindShapes.forEach((shape, shapeCount) -> shapes.put(shape, shapeCount.sum()));
+            return new StatementReport(sql, count.sum(), errors.sum(), millis(totalNanos.sum()), millis(meanNanos()),
+                    millis(maxNanos.get()), rows.sum(), maxRows.get(), slowCount.sum(), shapes,
+                    origins.stream().sorted().toList(), lastSlowAt, plan, planCapturedAt,
+                    plan == null ? null : millis(planTriggerNanos));
+        }
+
+        private static double millis(double nanos) {
+            return Math.round(nanos / 1_000) / 1_000.0;
+        }
+    }
+}
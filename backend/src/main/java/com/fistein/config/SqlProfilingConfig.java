@@ -0,0 +1,81 @@
+package com.fistein.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Uygulamanın veri kaynağını {@link ProfilingDataSource} ile sarar ve toplanan sorgu istatistiklerini
+ * /actuator/slowqueries altında sunar. Uç yalnızca fistein.actuator.admin-emails listesindeki
+ * kullanıcılara açıktır (bkz. SecurityConfig).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "fistein.sql-profiling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilingConfig {
+
+    @Bean
+    public SqlProfiler sqlProfiler(ObservationRegistry observationRegistry, MeterRegistry meterRegistry,
+                                   @Value("${fistein.sql-profiling.max-statements:500}") int maxStatements,
+                                   @Value("${fistein.sql-profiling.slow-threshold:200ms}") Duration slowThreshold,
+                                   @Value("${fistein.sql-profiling.explain-interval:10m}") Duration explainInterval,
+                                   @Value("${fistein.sql-profiling.explain-timeout:5s}") Duration explainTimeout,
+                                   @Value("${fistein.sql-profiling.explain-queue-capacity:32}") int explainQueueCapacity) {
+        return new SqlProfiler(observationRegistry, meterRegistry, maxStatements, slowThreshold, explainInterval,
+                explainTimeout, explainQueueCapacity);
+    }
+
+    // Statik: veri kaynağından önce oluşturulmalı; profiler ilk sarmada alınır
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> profiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource, profiler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SqlProfiler profiler) {
+        return new SlowQueryEndpoint(profiler);
+    }
+
+    @Endpoint(id = "slowqueries")
+    public static class SlowQueryEndpoint {
+
+        private static final int DEFAULT_LIMIT = 20;
+
+        private final SqlProfiler profiler;
+
+        SlowQueryEndpoint(SqlProfiler profiler) {
+            this.profiler = profiler;
+        }
+
+        // sort: total (varsayılan), mean, max, count, rows
+        @ReadOperation
+        public SqlProfiler.Report report(@Nullable String sort, @Nullable Integer limit) {
+            return profiler.report(sort, limit == null ? DEFAULT_LIMIT : limit);
+        }
+
+        // Bir değişiklikten önce ve sonra karşılaştırmak için istatistikleri sıfırlar
+        @DeleteOperation
+        public void reset() {
+            profiler.reset();
+        }
+    }
+}
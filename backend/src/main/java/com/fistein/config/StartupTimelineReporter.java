@@ -0,0 +1,51 @@
+package com.fistein.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * fistein.startup.timeline açıkken başlangıcın en uzun süren adımlarını loglar. Adımlar iç içedir
+ * (bean oluşturma, bağımlılıklarının süresini de içerir); tam zaman çizelgesi /actuator/startup'tadır.
+ */
+@Slf4j
+@Component
+public class StartupTimelineReporter {
+
+    private static final int REPORTED_STEPS = 20;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        // getBufferedTimeline adımları silmez; actuator ucu aynı kaydı görmeye devam eder
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        List<StartupTimeline.TimelineEvent> slowest = timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(REPORTED_STEPS)
+                .toList();
+
+        StringBuilder report = new StringBuilder("Başlangıçta en uzun süren ").append(slowest.size()).append(" adım:");
+        for (StartupTimeline.TimelineEvent step : slowest) {
+            report.append(String.format("%n%8d ms  %s %s", step.getDuration().toMillis(),
+                    step.getStartupStep().getName(), tags(step.getStartupStep())));
+        }
+        log.info(report.toString());
+    }
+
+    private static String tags(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.fistein.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servis arayüzü metotlarını ve repository çağrılarını Observation olarak sarar; izleme açıksa her biri
+ * bir span, her durumda bir zamanlayıcı olur. Repository span'lerine dönen (ya da @Modifying için
+ * etkilenen) satır sayısı eklenir. En dışta çalışır: yeniden denemeler ve commit servis span'inin içinde kalır.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingAspect {
+
+    private final ObservationRegistry observationRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public TracingAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Around("execution(public * com.fistein.service.*Service.*(..))")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = ClassUtils.getShortName(AopUtils.getTargetClass(joinPoint.getTarget()));
+        if (service.endsWith("Impl")) {
+            service = service.substring(0, service.length() - "Impl".length());
+        }
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted("fistein.service", observationRegistry)
+                .contextualName(service + "." + method)
+                .lowCardinalityKeyValue("service", service)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), TracingAspect::repositoryName);
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String method = signature.getName();
+        Observation observation = Observation.createNotStarted("fistein.repository", observationRegistry)
+                .contextualName(repository + "." + method)
+                .lowCardinalityKeyValue("repository", repository)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            Object result = joinPoint.proceed();
+            long rows = rowCount(result, signature.getMethod().isAnnotationPresent(Modifying.class));
+            if (rows >= 0) {
+                observation.highCardinalityKeyValue("db.rows", Long.toString(rows));
+            }
+            return result;
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    // Dönen satır sayısı; @Modifying sorgularda etkilenen satır, bilinmiyorsa -1
+    static long rowCount(Object result, boolean modifying) {
+        if (result == null) {
+            return modifying ? -1 : 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (modifying && result instanceof Number affected) {
+            return affected.longValue();
+        }
+        if (result instanceof Iterable<?> || result instanceof java.util.stream.BaseStream<?, ?>) {
+            return -1;
+        }
+        // Tekil varlık, sayım ya da toplam: tek satır
+        return 1;
+    }
+
+    // Spring Data proxy'si; miras alınan metotlarda da (findById) uygulamanın repository adı kullanılır
+    private static String repositoryName(Class<?> proxyClass) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(proxyClass)) {
+            if (Repository.class.isAssignableFrom(type) && type.getName().startsWith("com.fistein.")) {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getShortName(proxyClass);
+    }
+}
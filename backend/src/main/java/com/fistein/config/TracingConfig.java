@@ -0,0 +1,73 @@
+package com.fistein.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+
+/**
+ * İzleme: HTTP isteği, güvenlik zinciri ve zamanlanmış işler Spring Boot'un kendi gözlemleriyle;
+ * servis ve repository çağrıları {@link TracingAspect} ile; JSON yazımı buradaki dönüştürücüyle span olur.
+ * Örnekleme oranı management.tracing.sampling.probability ile verilir.
+ */
+@Configuration
+public class TracingConfig {
+
+    // Boot'un OpenTelemetry yapılandırması SpanExporter bean'lerini batch işlemciye bağlar
+    @Bean
+    @ConditionalOnProperty(name = "fistein.tracing.file.enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(
+            @Value("${fistein.tracing.file.path:traces/spans.jsonl}") Path path,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) throws IOException {
+        return new FileSpanExporter(path, objectMapper, meterRegistry);
+    }
+
+    // Boot'un varsayılan dönüştürücüsünün yerine geçer; aynı ObjectMapper kullanılır
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper, ObservationRegistry observationRegistry) {
+        return new ObservedJacksonConverter(objectMapper, observationRegistry);
+    }
+
+    static class ObservedJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+        private final ObservationRegistry observationRegistry;
+
+        ObservedJacksonConverter(ObjectMapper objectMapper, ObservationRegistry observationRegistry) {
+            super(objectMapper);
+            this.observationRegistry = observationRegistry;
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            Object body = object instanceof MappingJacksonValue value ? value.getValue() : object;
+            String bodyType = body == null ? "null" : ClassUtils.getShortName(body.getClass());
+            Observation observation = Observation.createNotStarted("fistein.http.serialization", observationRegistry)
+                    .lowCardinalityKeyValue("type", bodyType)
+                    .start();
+            try (Observation.Scope scope = observation.openScope()) {
+                super.writeInternal(object, type, outputMessage);
+            } catch (IOException | RuntimeException e) {
+                observation.error(e);
+                throw e;
+            } finally {
+                observation.stop();
+            }
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.fistein.controller;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fistein.dto.*;
+import com.fistein.entity.User;
 import com.fistein.security.CustomUserDetailsService;
+import com.fistein.service.ExpenseArchiveService;
 import com.fistein.service.ExpenseService;
+import com.fistein.service.RecurringExpenseService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -10,10 +15,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -21,6 +29,8 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseArchiveService expenseArchiveService;
+    private final RecurringExpenseService recurringExpenseService;
     private final CustomUserDetailsService userDetailsService;
 
     @PostMapping("/groups/{groupId}")
@@ -34,24 +44,82 @@ public class ExpenseController {
     }
 
     @GetMapping("/{expenseId}")
-    public ResponseEntity<ExpenseResponse> getExpense(
+    public ResponseEntity<MappingJacksonValue> getExpense(
             @PathVariable Long expenseId,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Set<String> fields,
             Authentication authentication) {
         var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
-        ExpenseResponse response = expenseService.getExpenseById(expenseId, currentUser);
-        return ResponseEntity.ok(response);
+        ExpenseView expenseView = resolveView(view, fields);
+        ExpenseResponse response;
+        if (expenseView == ExpenseView.SUMMARY) {
+            response = expenseService.getExpenseSummary(expenseId, currentUser);
+        } else if (expenseView == ExpenseView.FULL) {
+            response = expenseService.getExpenseWithUserTable(expenseId, currentUser);
+        } else {
+            response = expenseService.getExpenseById(expenseId, currentUser);
+        }
+        return ResponseEntity.ok(withFields(response, fields));
+    }
+
+    // Okuma isteği; id listesi sorgu dizesine sığmayabileceği için gövdede gelir
+    @PostMapping("/batch-get")
+    public ResponseEntity<ExpenseBatchResponse> batchGetExpenses(
+            @Valid @RequestBody BatchGetExpensesRequest request,
+            Authentication authentication) {
+        var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        return ResponseEntity.ok(expenseService.getExpensesByIds(request.getIds(), currentUser));
     }
 
     @GetMapping("/groups/{groupId}")
-    public ResponseEntity<Page<ExpenseResponse>> getGroupExpenses(
+    public ResponseEntity<MappingJacksonValue> getGroupExpenses(
             @PathVariable Long groupId,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) Set<String> fields,
             @PageableDefault(size = 20) Pageable pageable,
             Authentication authentication) {
         var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
-        Page<ExpenseResponse> expenses = expenseService.getGroupExpenses(groupId, currentUser, pageable);
+        Object expenses = loadGroupExpenses(groupId, resolveView(view, fields), currentUser, pageable);
+        return ResponseEntity.ok(withFields(expenses, fields));
+    }
+
+    @GetMapping("/groups/{groupId}/archive")
+    public ResponseEntity<Page<ExpenseResponse>> getArchivedGroupExpenses(
+            @PathVariable Long groupId,
+            @PageableDefault(size = 20) Pageable pageable,
+            Authentication authentication) {
+        var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        Page<ExpenseResponse> expenses = expenseArchiveService.getArchivedExpenses(groupId, currentUser, pageable);
         return ResponseEntity.ok(expenses);
     }
 
+    @PostMapping("/groups/{groupId}/recurring")
+    public ResponseEntity<RecurringExpenseResponse> createRecurringExpense(
+            @PathVariable Long groupId,
+            @Valid @RequestBody CreateRecurringExpenseRequest request,
+            Authentication authentication) {
+        var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        RecurringExpenseResponse response = recurringExpenseService.createRecurringExpense(groupId, request, currentUser);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/groups/{groupId}/recurring")
+    public ResponseEntity<List<RecurringExpenseResponse>> getGroupRecurringExpenses(
+            @PathVariable Long groupId,
+            Authentication authentication) {
+        var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        return ResponseEntity.ok(recurringExpenseService.getGroupRecurringExpenses(groupId, currentUser));
+    }
+
+    @DeleteMapping("/recurring/{recurringExpenseId}")
+    public ResponseEntity<Void> deactivateRecurringExpense(
+            @PathVariable Long recurringExpenseId,
+            Authentication authentication) {
+        var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        recurringExpenseService.deactivateRecurringExpense(recurringExpenseId, currentUser);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{expenseId}")
     public ResponseEntity<ExpenseResponse> updateExpense(
             @PathVariable Long expenseId,
@@ -98,4 +166,37 @@ public class ExpenseController {
         UserBalanceResponse balance = expenseService.getUserBalance(groupId, currentUser);
         return ResponseEntity.ok(balance);
     }
-}
\ No newline at end of file
+
+    private Object loadGroupExpenses(Long groupId, ExpenseView view, User currentUser, Pageable pageable) {
+        if (view == ExpenseView.SUMMARY) {
+            return expenseService.getGroupExpenseSummaries(groupId, currentUser, pageable);
+        }
+        if (view == ExpenseView.FULL) {
+            return expenseService.getGroupExpensesWithUserTable(groupId, currentUser, pageable);
+        }
+        return expenseService.getGroupExpenses(groupId, currentUser, pageable);
+    }
+
+    // view verilmezse eski cevap şekli korunur; fields paylaşımları istemiyorsa paylaşımlar hiç yüklenmez
+    private ExpenseView resolveView(String view, Set<String> fields) {
+        if (view != null) {
+            return ExpenseView.from(view);
+        }
+        if (fields != null && !fields.contains("shares")) {
+            return ExpenseView.SUMMARY;
+        }
+        return null;
+    }
+
+    private MappingJacksonValue withFields(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            Set<String> included = new HashSet<>(fields);
+            included.add("id");
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(ExpenseResponse.FIELD_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(included))
+                    .setFailOnUnknownId(false));
+        }
+        return value;
+    }
+}
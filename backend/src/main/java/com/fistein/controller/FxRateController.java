@@ -0,0 +1,44 @@
+package com.fistein.controller;
+
+import com.fistein.dto.FxRatesResponse;
+import com.fistein.dto.UpdateFxRatesRequest;
+import com.fistein.security.CustomUserDetailsService;
+import com.fistein.service.FxRateService;
+import com.fistein.service.FxRateSnapshot;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/fx-rates")
+@RequiredArgsConstructor
+public class FxRateController {
+
+    private final FxRateService fxRateService;
+    private final CustomUserDetailsService userDetailsService;
+
+    @GetMapping
+    public FxRatesResponse getCurrentRates() {
+        return toResponse(fxRateService.current());
+    }
+
+    // Yalnızca fistein.fx.admin-emails listesindeki kullanıcılar
+    @PutMapping
+    public FxRatesResponse updateRates(@Valid @RequestBody UpdateFxRatesRequest request,
+                                       Authentication authentication) {
+        var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        return toResponse(fxRateService.updateRates(request.getDate(), request.getRates(), currentUser));
+    }
+
+    private FxRatesResponse toResponse(FxRateSnapshot snapshot) {
+        return FxRatesResponse.builder()
+                .date(snapshot.date())
+                .base(FxRateSnapshot.PIVOT)
+                .defaultCurrency(fxRateService.defaultCurrency())
+                .rates(new TreeMap<>(snapshot.ratesPerPivot()))
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package com.fistein.controller;
 
 import com.fistein.dto.*;
 import com.fistein.security.CustomUserDetailsService;
+import com.fistein.service.ExpenseSearchService;
 import com.fistein.service.GroupService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,7 @@ public class GroupController {
 
     private final GroupService groupService;
     private final CustomUserDetailsService userDetailsService;
+    private final ExpenseSearchService expenseSearchService;
 
     @PostMapping
     public ResponseEntity<GroupResponse> createGroup(
@@ -74,6 +76,18 @@ public class GroupController {
         return ResponseEntity.ok(members);
     }
 
+    @GetMapping("/{groupId}/expenses/search")
+    public ResponseEntity<ExpenseSearchResponse> searchExpenses(
+            @PathVariable Long groupId,
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        var currentUser = userDetailsService.loadUserEntityByEmail(authentication.getName());
+        ExpenseSearchResponse response = expenseSearchService.search(groupId, q, cursor, size, currentUser);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{groupId}")
     public ResponseEntity<GroupResponse> updateGroup(
             @PathVariable Long groupId,
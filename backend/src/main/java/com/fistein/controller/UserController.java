@@ -1,10 +1,18 @@
 package com.fistein.controller;
 
+import com.fistein.dto.AcceptSettleUpRequest;
+import com.fistein.dto.SettleUpPlanResponse;
+import com.fistein.dto.UserBalancesResponse;
 import com.fistein.dto.UserResponse;
 import com.fistein.security.CustomUserDetailsService;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.SettleUpService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -14,6 +22,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserController {
 
     private final CustomUserDetailsService customUserDetailsService;
+    private final ExpenseService expenseService;
+    private final SettleUpService settleUpService;
 
     @GetMapping("/me")
     public UserResponse getCurrentUser(Authentication authentication) {
@@ -26,4 +36,23 @@ public class UserController {
                 .email(user.getEmail())
                 .build();
     }
+
+    @GetMapping("/me/balances")
+    public UserBalancesResponse getCurrentUserBalances(Authentication authentication) {
+        var user = customUserDetailsService.loadUserEntityByEmail(authentication.getName());
+        return expenseService.getUserBalances(user);
+    }
+
+    @GetMapping("/me/settle-up")
+    public SettleUpPlanResponse getSettleUpPlan(Authentication authentication) {
+        var user = customUserDetailsService.loadUserEntityByEmail(authentication.getName());
+        return settleUpService.getPlan(user);
+    }
+
+    @PostMapping("/me/settle-up")
+    public SettleUpPlanResponse acceptSettleUpPlan(@Valid @RequestBody AcceptSettleUpRequest request,
+                                                   Authentication authentication) {
+        var user = customUserDetailsService.loadUserEntityByEmail(authentication.getName());
+        return settleUpService.acceptPlan(request, user);
+    }
 }
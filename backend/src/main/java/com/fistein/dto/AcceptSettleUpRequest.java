@@ -0,0 +1,12 @@
+package com.fistein.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class AcceptSettleUpRequest {
+
+    // GET /api/users/me/settle-up cevabındaki fingerprint; plan o zamandan beri değiştiyse 409 döner
+    @NotBlank(message = "Plan parmak izi boş olamaz")
+    private String fingerprint;
+}
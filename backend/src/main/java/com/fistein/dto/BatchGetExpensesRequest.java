@@ -0,0 +1,16 @@
+package com.fistein.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchGetExpensesRequest {
+
+    @NotEmpty(message = "Harcama ID'leri boş olamaz")
+    @Size(max = 100, message = "Tek istekte en fazla 100 harcama istenebilir")
+    private List<@NotNull(message = "Harcama ID'si boş olamaz") Long> ids;
+}
@@ -4,6 +4,7 @@ import com.fistein.entity.Expense;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -19,6 +20,10 @@ public class CreateExpenseRequest {
     @NotNull(message = "Tutar boş olamaz")
     @DecimalMin(value = "0.01", message = "Tutar 0'dan büyük olmalıdır")
     private BigDecimal amount;
+
+    // Boşsa grubun para birimi
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Para birimi üç harfli ISO kodu olmalı")
+    private String currency;
     
     private LocalDateTime expenseDate;
     
@@ -1,6 +1,7 @@
 package com.fistein.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 @Data
@@ -10,4 +11,8 @@ public class CreateGroupRequest {
     private String name;
     
     private String description;
+
+    // Boşsa varsayılan para birimi (fistein.fx.default-currency) kullanılır
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Para birimi üç harfli ISO kodu olmalı")
+    private String baseCurrency;
 }
\ No newline at end of file
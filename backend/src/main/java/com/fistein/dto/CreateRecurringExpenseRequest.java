@@ -0,0 +1,40 @@
+package com.fistein.dto;
+
+import com.fistein.entity.Expense;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class CreateRecurringExpenseRequest {
+
+    @NotBlank(message = "Açıklama boş olamaz")
+    private String description;
+
+    @NotNull(message = "Tutar boş olamaz")
+    @DecimalMin(value = "0.01", message = "Tutar 0'dan büyük olmalıdır")
+    private BigDecimal amount;
+
+    // Boşsa grubun para birimi
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Para birimi üç harfli ISO kodu olmalı")
+    private String currency;
+
+    @NotNull(message = "Paylaşım tipi boş olamaz")
+    private Expense.SplitType splitType;
+
+    private List<CreateExpenseRequest.ExpenseShareRequest> shares;
+
+    private String notes;
+
+    @NotBlank(message = "Tekrar planı boş olamaz")
+    private String schedule; // "0 0 9 1 * *" (her ayın 1'i 09:00) veya @monthly
+
+    private LocalDateTime startsAt; // İlk tarih bundan sonra aranır; boşsa şimdi
+    private LocalDateTime endsAt;
+}
@@ -0,0 +1,45 @@
+package com.fistein.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Çoklu harcama okuma cevabı: bulunan harcamalar ve okunamayanların hataları istenen id ile
+ * anahtarlanır; bir id'nin hatası diğerlerini etkilemez.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseBatchResponse {
+
+    @Builder.Default
+    private Map<Long, ExpenseResponse> expenses = new LinkedHashMap<>();
+
+    @Builder.Default
+    private Map<Long, ItemError> errors = new LinkedHashMap<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        private int status;
+        private String title;
+        private String detail;
+
+        // Başlıklar tekil uçların ProblemDetail cevaplarıyla aynı
+        public static ItemError notFound(String detail) {
+            return new ItemError(404, "NOT_FOUND", detail);
+        }
+
+        public static ItemError forbidden(String detail) {
+            return new ItemError(403, "FORBIDDEN", detail);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.fistein.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * view=full liste cevabı: harcamalar kullanıcılara id ile referans verir, her kullanıcı
+ * sayfa başına yalnızca bir kez users listesinde yazılır.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpensePageResponse {
+    private List<ExpenseResponse> content;
+    private List<UserResponse> users;
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -1,5 +1,7 @@
 package com.fistein.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fistein.entity.Expense;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,18 +16,31 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(ExpenseResponse.FIELD_FILTER)
 public class ExpenseResponse {
+
+    // ?fields= ile istenmeyen alanları çıkaran Jackson filtresinin adı
+    public static final String FIELD_FILTER = "expenseFields";
+
     private Long id;
     private String description;
     private BigDecimal amount;
+    private String currency;
     private Long groupId;
     private String groupName;
+    // summary/full görünümlerin boş bıraktığı alanlar yazılmaz; varsayılan cevap şekli değişmez
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private UserResponse paidBy;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long paidById; // view=full: kullanıcı bilgisi users tablosunda
     private LocalDateTime createdAt;
     private LocalDateTime expenseDate;
     private Expense.SplitType splitType;
     private String notes;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<ExpenseShareResponse> shares;
     private BigDecimal currentUserShare;
     private Boolean isCurrentUserPayer;
-}
\ No newline at end of file
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<UserResponse> users; // view=full tekil harcama cevabında
+}
@@ -0,0 +1,17 @@
+package com.fistein.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseSearchResponse {
+    private List<ExpenseResponse> content; // view=summary biçiminde, en alakalı önce
+    private String nextCursor; // Sonraki sayfa için ?cursor= değeri; son sayfada yok
+}
@@ -1,5 +1,6 @@
 package com.fistein.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,7 +14,11 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class ExpenseShareResponse {
     private Long id;
+    // view=full'da user, diğer görünümlerde userId boştur ve yazılmaz
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private UserResponse user;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long userId; // view=full: kullanıcı bilgisi users tablosunda
     private BigDecimal shareAmount;
     private BigDecimal percentage;
     private Boolean isSettled;
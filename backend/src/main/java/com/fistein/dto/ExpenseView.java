@@ -0,0 +1,19 @@
+package com.fistein.dto;
+
+import com.fistein.exception.FisteinException;
+
+import java.util.Locale;
+
+public enum ExpenseView {
+    SUMMARY,    // Paylaşımlar olmadan: açıklama, tutar, ödeyen ve kullanıcının payı
+    FULL;       // Paylaşımlar dahil, kullanıcılar ayrı users tablosunda bir kez
+
+    public static ExpenseView from(String value) {
+        try {
+            return ExpenseView.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new FisteinException("Geçersiz view değeri: " + value + " (summary veya full olmalı)",
+                    FisteinException.ErrorType.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.fistein.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRatesResponse {
+    private LocalDate date;
+    private String base; // Kurlar 1 birim base karşılığıdır
+    private String defaultCurrency;
+    private Map<String, BigDecimal> rates;
+}
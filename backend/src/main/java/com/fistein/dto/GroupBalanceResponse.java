@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -15,9 +16,12 @@ import java.util.List;
 public class GroupBalanceResponse {
     private Long groupId;
     private String groupName;
+    private String currency; // Tüm tutarlar grubun para biriminde
     private BigDecimal totalExpenses;
     private List<UserBalanceInfo> userBalances;
     private List<DebtInfo> debts;
+    private LocalDateTime computedAt;
+    private Boolean stale; // true ise son hesaplamadan sonra yazılan değişiklikler henüz yansımadı
     
     @Data
     @Builder
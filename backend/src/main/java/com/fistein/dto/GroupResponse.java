@@ -15,6 +15,7 @@ public class GroupResponse {
     private Long id;
     private String name;
     private String description;
+    private String baseCurrency;
     private UserResponse createdBy;
     private LocalDateTime createdAt;
     private Integer memberCount;
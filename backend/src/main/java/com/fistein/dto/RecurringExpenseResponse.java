@@ -0,0 +1,31 @@
+package com.fistein.dto;
+
+import com.fistein.entity.Expense;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringExpenseResponse {
+    private Long id;
+    private Long groupId;
+    private String description;
+    private BigDecimal amount;
+    private String currency;
+    private Expense.SplitType splitType;
+    private String notes;
+    private UserResponse paidBy;
+    private String schedule;
+    private LocalDateTime nextOccurrence;
+    private LocalDateTime endsAt;
+    private Boolean active;
+    private List<ExpenseShareResponse> shares; // Yalnızca EXACT ve PERCENTAGE şablonları
+}
@@ -0,0 +1,43 @@
+package com.fistein.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Kullanıcının tüm aktif gruplarındaki borç ve alacaklarının kişi bazında netleştirilmiş hali:
+ * her karşı tarafla en fazla bir ödeme. Onaylanınca ilgili tüm gruplardaki paylar birlikte kapanır.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettleUpPlanResponse {
+    private String currency; // Tutarlar varsayılan para biriminde
+    private String fingerprint;
+    private int transferCount;
+    private int transferCountWithoutNetting; // Her grupta ayrı ödeşilseydi gereken ödeme sayısı
+    private List<Transfer> transfers;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Transfer {
+        private UserResponse counterparty;
+        private Direction direction;
+        private BigDecimal amount;
+        private List<Long> groupIds;
+        private long shareCount;
+    }
+
+    public enum Direction {
+        PAY,     // Kullanıcı karşı tarafa öder
+        RECEIVE, // Karşı taraf kullanıcıya öder
+        NONE     // Borçlar birbirini götürür; yalnızca paylar kapanır
+    }
+}
@@ -1,6 +1,7 @@
 package com.fistein.dto;
 
 import com.fistein.entity.Expense;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -11,6 +12,8 @@ import java.util.List;
 public class UpdateExpenseRequest {
     private String description;
     private BigDecimal amount;
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Para birimi üç harfli ISO kodu olmalı")
+    private String currency;
     private LocalDateTime expenseDate;
     private Expense.SplitType splitType;
     private List<CreateExpenseRequest.ExpenseShareRequest> shares;
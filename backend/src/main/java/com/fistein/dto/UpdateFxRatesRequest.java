@@ -0,0 +1,20 @@
+package com.fistein.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+public class UpdateFxRatesRequest {
+
+    @NotNull(message = "Tarih boş olamaz")
+    private LocalDate date;
+
+    // Para birimi -> 1 EUR karşılığı; o günün mevcut kurlarının yerine geçer
+    @NotEmpty(message = "En az bir kur gerekli")
+    private Map<String, BigDecimal> rates;
+}
@@ -1,5 +1,6 @@
 package com.fistein.dto;
 
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 @Data
@@ -7,4 +8,8 @@ public class UpdateGroupRequest {
     private String name;
     private String description;
     private Boolean isActive;
+
+    // Bakiyeler hesaplama anında çevrildiği için değiştirmek geçmiş harcamaları etkilemez
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Para birimi üç harfli ISO kodu olmalı")
+    private String baseCurrency;
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ public class UserBalanceResponse {
     private UserResponse user;
     private Long groupId;
     private String groupName;
+    private String currency; // Tutarların para birimi
     private BigDecimal totalPaid;
     private BigDecimal totalOwed;
     private BigDecimal balance;
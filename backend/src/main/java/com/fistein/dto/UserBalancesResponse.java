@@ -0,0 +1,27 @@
+package com.fistein.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Kullanıcının tüm aktif gruplarındaki bakiyesi ve gruplar genelinde kişi bazında borç/alacakları.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBalancesResponse {
+    private UserResponse user;
+    private String currency; // Toplamlar ve kişi bazında tutarlar bu para biriminde
+    private BigDecimal totalPaid;
+    private BigDecimal totalOwed;
+    private BigDecimal balance;
+    private List<UserBalanceResponse> groups; // Grup başına totalPaid, totalOwed, balance
+    private List<UserBalanceResponse.DebtDetail> debts;
+    private List<UserBalanceResponse.CreditDetail> credits;
+}
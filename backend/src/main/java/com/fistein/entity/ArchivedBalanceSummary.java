@@ -0,0 +1,49 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Bir üyenin bir gruptaki arşivlenmiş harcamalarının para birimi başına özeti. Arşivlenen paylaşımların
+ * hepsi ödenmiş olduğundan bakiyeye yalnızca ödenen tutar katkı yapar; çevrim canlı harcamalar gibi
+ * bakiye hesaplanırken yapılır.
+ */
+@Entity
+@Table(name = "archived_balance_summaries",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"group_id", "user_id", "currency"}),
+       indexes = @Index(name = "idx_archived_balance_summaries_user", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedBalanceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    // Üyenin ödediği arşivlenmiş harcamaların toplamı
+    @Column(name = "total_paid", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    // Üyenin arşivlenmiş (ödenmiş) paylarının toplamı; bilgi amaçlı
+    @Column(name = "total_settled_share", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal totalSettledShare = BigDecimal.ZERO;
+
+    @Column(name = "paid_expense_count", nullable = false)
+    @Builder.Default
+    private Integer paidExpenseCount = 0;
+}
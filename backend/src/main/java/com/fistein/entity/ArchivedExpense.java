@@ -0,0 +1,66 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Tamamı ödenmiş ve arşiv ufkundan eski harcamanın soğuk kopyası. Paylaşımlar ayrı satırlar
+ * yerine tek bir JSON sütununda tutulur; bakiyeye katkısı ArchivedBalanceSummary'dedir.
+ */
+@Entity
+@Table(name = "archived_expenses",
+       indexes = @Index(name = "idx_archived_expenses_group_date", columnList = "group_id, expense_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedExpense {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Canlı tablodaki id; /api/expenses/{expenseId} arşivden okurken kullanır
+    @Column(name = "expense_id", nullable = false, unique = true)
+    private Long expenseId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "paid_by_user_id", nullable = false)
+    private Long paidByUserId;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expense_date")
+    private LocalDateTime expenseDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", nullable = false)
+    private Expense.SplitType splitType;
+
+    private String notes;
+
+    // [{"userId":1,"shareAmount":25.00,"percentage":null}, ...]
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "shares_json", nullable = false)
+    private String sharesJson;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -2,7 +2,9 @@ package com.fistein.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.PartitionKey;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,29 +12,51 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses",
+       indexes = @Index(name = "idx_expenses_group_created", columnList = "group_id, created_at"),
+       uniqueConstraints = @UniqueConstraint(name = "uk_expenses_recurring_occurrence",
+               columnNames = {"recurring_expense_id", "expense_date"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EqualsAndHashCode(exclude = {"group", "paidBy", "shares"})
+@EqualsAndHashCode(exclude = {"group", "paidBy", "shares", "version"})
 @ToString(exclude = {"group", "paidBy", "shares"})
 public class Expense {
 
+    // SEQUENCE: tekrarlayan harcama üretimi binlerce harcamayı JDBC batch ile ekleyebilsin
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
+    // Eşzamanlı güncelleme/silme birbirinin üzerine yazmasın; JDBC ile eklenen satırlar için varsayılan 0
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String description;
 
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
+    // ISO 4217 kodu; bakiyeler hesaplanırken grubun para birimine çevrilir
+    @Column(nullable = false, length = 3)
+    private String currency;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", nullable = false)
     private Group group;
 
+    // Bölümleme anahtarı: UPDATE/DELETE'lere group_id eklenir, PostgreSQL yalnızca ilgili bölüme bakar.
+    // Sütunu group ilişkisi yazar; bu alan yalnızca okunur
+    @PartitionKey
+    @Column(name = "group_id", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private Long groupId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paid_by_user_id", nullable = false)
     private User paidBy;
@@ -55,6 +79,15 @@ public class Expense {
 
     private String notes;
 
+    // Tekrarlayan bir tanımdan üretildiyse kaynağı; aynı tarih iki kez üretilemez
+    @Column(name = "recurring_expense_id")
+    private Long recurringExpenseId;
+
+    @PrePersist
+    void assignGroupId() {
+        groupId = group.getId();
+    }
+
     public enum SplitType {
         EQUAL,      // Eşit paylaşım
         EXACT,      // Belirli miktarlar
@@ -0,0 +1,95 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Grup harcama listesi için okuma modeli. Ödeyen ve pay sahipleri satıra gömülüdür; liste
+ * (group_id, created_at) indeksinde tek aralık taramasıyla, birleştirme yapılmadan okunur.
+ * Harcama yazan servisler aynı transaction'da günceller.
+ */
+@Entity
+@Table(name = "expense_view",
+       indexes = @Index(name = "idx_expense_view_group_created", columnList = "group_id, created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseListing implements Persistable<Long> {
+
+    // expenses.id; yeni satırlar merge yerine doğrudan persist edilsin diye Persistable
+    @Id
+    @Column(name = "expense_id")
+    private Long expenseId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "paid_by_user_id", nullable = false)
+    private Long paidByUserId;
+
+    @Column(name = "paid_by_name", nullable = false)
+    private String paidByName;
+
+    @Column(name = "paid_by_email", nullable = false)
+    private String paidByEmail;
+
+    @Column(name = "expense_date")
+    private LocalDateTime expenseDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", nullable = false)
+    private Expense.SplitType splitType;
+
+    private String notes;
+
+    @Column(name = "share_count", nullable = false)
+    private Integer shareCount;
+
+    // [{"id":7,"userId":1,"name":"Ayşe","email":"...","shareAmount":25.00,"percentage":null,"isSettled":false}, ...]
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "shares_json", nullable = false)
+    private String sharesJson;
+
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted = false;
+
+    @Override
+    public Long getId() {
+        return expenseId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -2,24 +2,34 @@ package com.fistein.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.PartitionKey;
 
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "expense_shares",
+       indexes = @Index(name = "idx_expense_shares_group_user", columnList = "group_id, user_id"),
        uniqueConstraints = @UniqueConstraint(columnNames = {"expense_id", "user_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EqualsAndHashCode(exclude = {"expense", "user"})
 @ToString(exclude = {"expense", "user"})
 public class ExpenseShare {
 
+    // SEQUENCE: IDENTITY'nin aksine Hibernate'in insert'leri JDBC batch olarak göndermesine izin verir
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_share_seq")
+    @SequenceGenerator(name = "expense_share_seq", sequenceName = "expense_shares_seq", allocationSize = 50)
     private Long id;
 
+    // Ödeme onayı ile pay yeniden hesaplaması aynı satırda çakışabilir
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "expense_id", nullable = false)
     private Expense expense;
@@ -28,6 +38,11 @@ public class ExpenseShare {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Harcamanın grubu; grup kapsamlı pay sorguları expenses ile birleşmeden tek bölüme iner
+    @PartitionKey
+    @Column(name = "group_id", nullable = false, updatable = false)
+    private Long groupId;
+
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal shareAmount;
 
@@ -37,4 +52,22 @@ public class ExpenseShare {
     @Column(name = "is_settled")
     @Builder.Default
     private Boolean isSettled = false;
-}
\ No newline at end of file
+
+    @PrePersist
+    void assignGroupId() {
+        if (groupId == null) {
+            groupId = expense.getGroup().getId();
+        }
+    }
+
+    // Kimlik eşitliği: henüz id'si olmayan aynı tutarlı paylaşımlar Set içinde birbirini ezmemeli
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+}
@@ -0,0 +1,34 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Günlük döviz kuru. Kurlar ECB bülteni gibi tek bir pivot para birimine (EUR) göre tutulur:
+ * rate, 1 EUR'nun o para biriminde kaç birim ettiğidir. İki para birimi arası çevrim pivot üzerinden yapılır.
+ */
+@Entity
+@Table(name = "fx_rates",
+       uniqueConstraints = @UniqueConstraint(name = "uk_fx_rates_date_currency", columnNames = {"rate_date", "currency"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 19, scale = 8)
+    private BigDecimal rate;
+}
@@ -2,6 +2,7 @@ package com.fistein.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -14,7 +15,7 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EqualsAndHashCode(exclude = {"members", "expenses"})
+@EqualsAndHashCode(exclude = {"members", "expenses", "version"})
 @ToString(exclude = {"members", "expenses"})
 public class Group {
 
@@ -22,11 +23,21 @@ public class Group {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
     private String description;
 
+    // Bakiyelerin gösterildiği para birimi; harcamalar farklı para biriminde olabilir
+    @Column(name = "base_currency", nullable = false, length = 3)
+    @Builder.Default
+    private String baseCurrency = "TRY";
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_id", nullable = false)
     private User createdBy;
@@ -0,0 +1,52 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys",
+       indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Kullanıcıya göre kapsamlanmış anahtar: "<email>:<Idempotency-Key>"
+    @Column(name = "scoped_key", nullable = false, unique = true, length = 320)
+    private String scopedKey;
+
+    // Aynı anahtarın farklı bir endpoint için tekrar kullanılmasını yakalamak için "METHOD URI"
+    @Column(name = "request_fingerprint", nullable = false, length = 512)
+    private String requestFingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(name = "response_body")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
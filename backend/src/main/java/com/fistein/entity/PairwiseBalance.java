@@ -0,0 +1,52 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Bir grupta borçlunun alacaklıya (harcamayı ödeyene) ödenmemiş paylarının para birimi başına toplamı.
+ * "A, B'ye bu grupta ne kadar borçlu" sorusu paylar taranmadan tek satırdan okunur. Paylaşımları
+ * değiştiren servisler aynı transaction'da fark uygular; satır sürümlenmez, artış tek UPDATE ile yapılır.
+ */
+@Entity
+@Table(name = "pairwise_balances",
+       uniqueConstraints = @UniqueConstraint(name = "uk_pairwise_balances_pair",
+               columnNames = {"group_id", "debtor_id", "creditor_id", "currency"}),
+       indexes = {
+               @Index(name = "idx_pairwise_balances_group_creditor", columnList = "group_id, creditor_id"),
+               @Index(name = "idx_pairwise_balances_debtor", columnList = "debtor_id"),
+               @Index(name = "idx_pairwise_balances_creditor", columnList = "creditor_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PairwiseBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "debtor_id", nullable = false)
+    private Long debtorId;
+
+    @Column(name = "creditor_id", nullable = false)
+    private Long creditorId;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    // Toplama giren ödenmemiş pay sayısı; 0 ise çift arasında açık borç yok
+    @Column(name = "share_count", nullable = false)
+    @Builder.Default
+    private Long shareCount = 0L;
+}
@@ -0,0 +1,95 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kira, abonelik gibi düzenli harcamaların tanımı. Zamanlayıcı vadesi gelen her tarih için
+ * bir Expense üretir ve nextOccurrence'ı bir sonraki tarihe taşır.
+ */
+@Entity
+@Table(name = "recurring_expenses",
+       indexes = @Index(name = "idx_recurring_expenses_due", columnList = "active, next_occurrence"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(exclude = {"group", "paidBy", "shares"})
+@ToString(exclude = {"group", "paidBy", "shares"})
+public class RecurringExpense {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paid_by_user_id", nullable = false)
+    private User paidBy;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", nullable = false)
+    @Builder.Default
+    private Expense.SplitType splitType = Expense.SplitType.EQUAL;
+
+    private String notes;
+
+    // Spring cron biçimi ("0 0 9 1 * *") veya @monthly, @weekly gibi makrolar
+    @Column(nullable = false, length = 100)
+    private String schedule;
+
+    @Column(name = "next_occurrence", nullable = false)
+    private LocalDateTime nextOccurrence;
+
+    @Column(name = "ends_at")
+    private LocalDateTime endsAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // EXACT ve PERCENTAGE için pay şablonu; EQUAL'da her tarih için o tarihe kadar katılmış aktif üyeler kullanılır
+    @ElementCollection
+    @CollectionTable(name = "recurring_expense_shares",
+                     joinColumns = @JoinColumn(name = "recurring_expense_id"))
+    @Builder.Default
+    private List<ShareTemplate> shares = new ArrayList<>();
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShareTemplate {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(precision = 10, scale = 2)
+        private BigDecimal amount;
+
+        @Column(precision = 5, scale = 2)
+        private BigDecimal percentage;
+    }
+}
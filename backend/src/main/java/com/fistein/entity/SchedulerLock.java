@@ -0,0 +1,29 @@
+package com.fistein.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Birden çok sunucuda aynı zamanlanmış işin tek bir düğümde çalışması için süreli kilit.
+ * Kilidi alan düğüm çökerse lockedUntil geçince başka bir düğüm devralır.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchedulerLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+}
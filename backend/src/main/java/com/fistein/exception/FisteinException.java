@@ -29,6 +29,7 @@ public class FisteinException extends RuntimeException {
         FORBIDDEN,
         BAD_REQUEST,
         CONFLICT,
+        SERVICE_UNAVAILABLE,
         INTERNAL_ERROR
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.fistein.repository;
+
+import com.fistein.entity.ArchivedBalanceSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedBalanceSummaryRepository extends JpaRepository<ArchivedBalanceSummary, Long> {
+
+    List<ArchivedBalanceSummary> findByGroupId(Long groupId);
+
+    // Arşivleme özetleri okuyup artırır; satırlar transaction sonuna kadar kilitli kalır
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ArchivedBalanceSummary s WHERE s.groupId IN :groupIds")
+    List<ArchivedBalanceSummary> lockByGroupIdIn(@Param("groupIds") Collection<Long> groupIds);
+
+    List<ArchivedBalanceSummary> findByUserId(Long userId);
+
+    List<ArchivedBalanceSummary> findByGroupIdAndUserId(Long groupId, Long userId);
+}
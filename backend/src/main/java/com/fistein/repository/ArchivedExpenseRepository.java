@@ -0,0 +1,19 @@
+package com.fistein.repository;
+
+import com.fistein.entity.ArchivedExpense;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedExpenseRepository extends JpaRepository<ArchivedExpense, Long> {
+
+    Page<ArchivedExpense> findByGroupIdOrderByExpenseDateDescIdDesc(Long groupId, Pageable pageable);
+
+    Optional<ArchivedExpense> findByExpenseId(Long expenseId);
+
+    List<ArchivedExpense> findByExpenseIdIn(Collection<Long> expenseIds);
+}
@@ -0,0 +1,13 @@
+package com.fistein.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Bakiye sorgularının GROUP BY satırı: id, gruplanan anahtara göre grup veya karşı taraf kullanıcıdır.
+ */
+public record BalanceAggregateRow(
+        Long id,
+        BigDecimal amount,
+        Long expenseCount
+) {
+}
@@ -0,0 +1,15 @@
+package com.fistein.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Para birimine göre de gruplanmış bakiye satırı. Tutarlar harcamanın kendi para birimindedir;
+ * çevrim satır başına değil, bu toplamlar üzerinden bir kez yapılır.
+ */
+public record CurrencyAggregateRow(
+        Long id,
+        String currency,
+        BigDecimal amount,
+        Long expenseCount
+) {
+}
@@ -0,0 +1,10 @@
+package com.fistein.repository;
+
+/**
+ * Harcama id'si ile grubu; grup id'si bölümlenmiş tablolarda sonraki okumanın bölümleme anahtarıdır.
+ */
+public record ExpenseKey(
+        Long id,
+        Long groupId
+) {
+}
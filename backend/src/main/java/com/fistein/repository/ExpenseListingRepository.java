@@ -0,0 +1,40 @@
+package com.fistein.repository;
+
+import com.fistein.entity.ExpenseListing;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ExpenseListingRepository extends JpaRepository<ExpenseListing, Long> {
+
+    Page<ExpenseListing> findByGroupIdOrderByCreatedAtDesc(Long groupId, Pageable pageable);
+
+    // Aynı harcamanın satırını yazan transaction'lar (ve onarım) sırayla ilerler
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM ExpenseListing v WHERE v.expenseId IN :expenseIds ORDER BY v.expenseId")
+    List<ExpenseListing> lockByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+
+    // Kaynak harcaması kalmamış satırlar; id sırasıyla sayfalanır
+    @Query("SELECT new com.fistein.repository.ExpenseKey(v.expenseId, v.groupId) FROM ExpenseListing v " +
+           "WHERE v.expenseId > :afterId AND NOT EXISTS (" +
+           "SELECT e.id FROM Expense e WHERE e.id = v.expenseId AND e.groupId = v.groupId) " +
+           "ORDER BY v.expenseId")
+    List<ExpenseKey> findOrphanedKeys(@Param("afterId") Long afterId, Pageable limit);
+
+    // Bölümlenmemiş tablodan birincil anahtarla; bölümlenmiş tabloların okumasına grup id'sini verir
+    @Query("SELECT new com.fistein.repository.ExpenseKey(v.expenseId, v.groupId) FROM ExpenseListing v " +
+           "WHERE v.expenseId IN :expenseIds")
+    List<ExpenseKey> findKeysByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseListing v WHERE v.expenseId IN :ids")
+    int deleteByExpenseIdIn(@Param("ids") Collection<Long> ids);
+}
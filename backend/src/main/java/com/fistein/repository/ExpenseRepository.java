@@ -3,13 +3,19 @@ package com.fistein.repository;
 import com.fistein.entity.Expense;
 import com.fistein.entity.Group;
 import com.fistein.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,16 +26,98 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> findByGroupAndCreatedAtBetween(Group group, LocalDateTime startDate, LocalDateTime endDate);
     
     @Query("SELECT e FROM Expense e " +
-           "JOIN FETCH e.shares s " +
-           "WHERE e.id = :expenseId")
-    Optional<Expense> findByIdWithShares(@Param("expenseId") Long expenseId);
+           "LEFT JOIN FETCH e.shares s " +
+           "LEFT JOIN FETCH s.user " +
+           "WHERE e.group.id = :groupId AND e.id = :expenseId")
+    Optional<Expense> findByIdWithShares(@Param("groupId") Long groupId, @Param("expenseId") Long expenseId);
+
+    Optional<Expense> findByIdAndGroupId(Long id, Long groupId);
+
+    // Okuma modelinde satırı henüz olmayan harcamanın grubu; bölümleme anahtarı bilinmediği için tüm bölümlere bakar
+    @Query("SELECT e.groupId FROM Expense e WHERE e.id = :expenseId")
+    Optional<Long> findGroupIdById(@Param("expenseId") Long expenseId);
     
+    String SUMMARY_SELECT = "SELECT new com.fistein.repository.ExpenseSummaryRow(" +
+           "e.id, e.description, e.amount, e.currency, e.createdAt, e.expenseDate, e.splitType, e.notes, " +
+           "g.id, g.name, p.id, p.email, p.name, s.shareAmount) " +
+           "FROM Expense e JOIN e.group g JOIN e.paidBy p " +
+           "LEFT JOIN e.shares s ON s.user.id = :userId AND s.groupId = g.id ";
+
+    @Query(value = SUMMARY_SELECT + "WHERE g.id = :groupId ORDER BY e.createdAt DESC",
+           countQuery = "SELECT COUNT(e) FROM Expense e WHERE e.group.id = :groupId")
+    Page<ExpenseSummaryRow> findSummariesByGroupId(@Param("groupId") Long groupId,
+                                                   @Param("userId") Long userId,
+                                                   Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE g.id = :groupId AND e.id IN :expenseIds")
+    List<ExpenseSummaryRow> findSummariesByIds(@Param("groupId") Long groupId,
+                                               @Param("expenseIds") Collection<Long> expenseIds,
+                                               @Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "WHERE g.id = :groupId AND e.id = :expenseId")
+    Optional<ExpenseSummaryRow> findSummaryById(@Param("groupId") Long groupId,
+                                                @Param("expenseId") Long expenseId,
+                                                @Param("userId") Long userId);
+
+    @Query("SELECT DISTINCT e FROM Expense e " +
+           "JOIN FETCH e.group " +
+           "JOIN FETCH e.paidBy " +
+           "LEFT JOIN FETCH e.shares s " +
+           "LEFT JOIN FETCH s.user " +
+           "WHERE e.group.id IN :groupIds AND e.id IN :ids")
+    List<Expense> findWithSharesByGroupIdInAndIdIn(@Param("groupIds") Collection<Long> groupIds,
+                                                   @Param("ids") Collection<Long> ids);
+
+    // Tüm tabloyu gezen denetim için; grup id'si sonraki okumaların bölümleme anahtarıdır
+    @Query("SELECT new com.fistein.repository.ExpenseKey(e.id, e.groupId) FROM Expense e " +
+           "WHERE e.id > :afterId ORDER BY e.id")
+    List<ExpenseKey> findKeysAfter(@Param("afterId") Long afterId, Pageable limit);
+
     @Query("SELECT e FROM Expense e " +
            "WHERE e.group = :group AND e.paidBy = :user")
     List<Expense> findByGroupAndPaidBy(@Param("group") Group group, @Param("user") User user);
     
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(e.group.id, e.currency, SUM(e.amount), COUNT(e)) " +
+           "FROM Expense e " +
+           "WHERE e.paidBy = :user AND e.group.id IN (" +
+           "SELECT gm.group.id FROM GroupMember gm WHERE gm.user = :user AND gm.isActive = true) " +
+           "GROUP BY e.group.id, e.currency")
+    List<CurrencyAggregateRow> sumPaidPerActiveGroup(@Param("user") User user);
+
+    // Grupta ödeyen kişi ve para birimi başına toplam; satır sayısı üye × para birimi kadardır
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(e.paidBy.id, e.currency, SUM(e.amount), COUNT(e)) " +
+           "FROM Expense e WHERE e.group.id = :groupId " +
+           "GROUP BY e.paidBy.id, e.currency")
+    List<CurrencyAggregateRow> sumPaidPerUser(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(e.paidBy.id, e.currency, SUM(e.amount), COUNT(e)) " +
+           "FROM Expense e WHERE e.group.id = :groupId AND e.paidBy = :user " +
+           "GROUP BY e.paidBy.id, e.currency")
+    List<CurrencyAggregateRow> sumPaidByUser(@Param("groupId") Long groupId, @Param("user") User user);
+
     @Query("SELECT e FROM Expense e " +
            "JOIN e.shares s " +
-           "WHERE e.group = :group AND s.user = :user AND s.isSettled = false")
+           "WHERE e.group = :group AND s.groupId = e.group.id AND s.user = :user AND s.isSettled = false")
     List<Expense> findUnsettledExpensesByGroupAndUser(@Param("group") Group group, @Param("user") User user);
-}
\ No newline at end of file
+
+    // Gruptaki arşivlenebilir harcamalar: tarihi ufuktan eski ve ödenmemiş payı olmayan; id sırasıyla sayfalanır
+    @Query("SELECT e.id FROM Expense e " +
+           "WHERE e.group.id = :groupId AND e.id > :afterId AND COALESCE(e.expenseDate, e.createdAt) < :cutoff " +
+           "AND NOT EXISTS (SELECT s.id FROM ExpenseShare s " +
+           "WHERE s.groupId = :groupId AND s.expense = e AND (s.isSettled = false OR s.isSettled IS NULL)) " +
+           "ORDER BY e.id")
+    List<Long> findArchivableIds(@Param("groupId") Long groupId,
+                                 @Param("afterId") Long afterId,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable limit);
+
+    // Canlı bir işlemin kilitlediği satırlar beklenmeden atlanır (SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId AND e.id IN :ids")
+    List<Expense> lockForArchival(@Param("groupId") Long groupId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.group.id = :groupId AND e.id IN :ids")
+    int deleteByGroupIdAndIdIn(@Param("groupId") Long groupId, @Param("ids") Collection<Long> ids);
+}
@@ -3,11 +3,15 @@ package com.fistein.repository;
 import com.fistein.entity.Expense;
 import com.fistein.entity.ExpenseShare;
 import com.fistein.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long> {
@@ -15,13 +19,66 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long
     List<ExpenseShare> findByExpenseAndIsSettledFalse(Expense expense);
     
     List<ExpenseShare> findByUserAndIsSettledFalse(User user);
+
+    @Query("SELECT es FROM ExpenseShare es " +
+           "JOIN FETCH es.user " +
+           "WHERE es.groupId = :groupId AND es.expense.id IN :expenseIds " +
+           "ORDER BY es.id")
+    List<ExpenseShare> findWithUserByExpenseIds(@Param("groupId") Long groupId,
+                                                @Param("expenseIds") Collection<Long> expenseIds);
     
     @Query("SELECT SUM(es.shareAmount) FROM ExpenseShare es " +
-           "WHERE es.user = :user AND es.expense.group.id = :groupId AND es.isSettled = false")
+           "WHERE es.user = :user AND es.groupId = :groupId AND es.isSettled = false")
     BigDecimal calculateTotalDebtByUserAndGroup(@Param("user") User user, @Param("groupId") Long groupId);
     
+    // Bölümleme anahtarı iki tarafta da verilir: PostgreSQL hem payların hem harcamaların tek bölümünü okur
+    String IN_GROUP = "es.groupId = :groupId AND e.group.id = :groupId";
+
+
+    String ACTIVE_GROUPS_OF_USER = "e.group.id IN (" +
+           "SELECT gm.group.id FROM GroupMember gm WHERE gm.user = :user AND gm.isActive = true)";
+
+    // Grup listesi çağırandan gelir; PostgreSQL yalnızca bu grupların bölümlerini okur
+    String IN_GROUPS = "es.groupId IN :groupIds AND e.group.id IN :groupIds";
+
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(e.group.id, e.currency, SUM(es.shareAmount), COUNT(es)) " +
+           "FROM ExpenseShare es JOIN es.expense e " +
+           "WHERE es.user = :user AND es.isSettled = false AND " + ACTIVE_GROUPS_OF_USER + " " +
+           "GROUP BY e.group.id, e.currency")
+    List<CurrencyAggregateRow> sumUnsettledOwedPerActiveGroup(@Param("user") User user);
+
+    // Hesaplaşma planının kapattığı paylar: verilen gruplarda kullanıcının borçlu ya da ödeyen olduğu,
+    // karşı tarafı başkası olanlar
+    @Query("SELECT es FROM ExpenseShare es JOIN FETCH es.expense e " +
+           "WHERE es.isSettled = false AND " + IN_GROUPS + " AND (" +
+           "(es.user = :user AND e.paidBy <> :user) OR (e.paidBy = :user AND es.user <> :user))")
+    List<ExpenseShare> findUnsettledWithCounterparties(@Param("user") User user,
+                                                       @Param("groupIds") Collection<Long> groupIds);
+
+    // Grupta borçlu kişi ve para birimi başına ödenmemiş paylar
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(es.user.id, e.currency, SUM(es.shareAmount), COUNT(es)) " +
+           "FROM ExpenseShare es JOIN es.expense e " +
+           "WHERE " + IN_GROUP + " AND es.isSettled = false " +
+           "GROUP BY es.user.id, e.currency")
+    List<CurrencyAggregateRow> sumUnsettledOwedPerUser(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(es.user.id, e.currency, SUM(es.shareAmount), COUNT(es)) " +
+           "FROM ExpenseShare es JOIN es.expense e " +
+           "WHERE " + IN_GROUP + " AND es.user = :user AND es.isSettled = false " +
+           "GROUP BY es.user.id, e.currency")
+    List<CurrencyAggregateRow> sumUnsettledOwedByUser(@Param("groupId") Long groupId, @Param("user") User user);
+
     @Query("SELECT es FROM ExpenseShare es " +
-           "JOIN es.expense e " +
-           "WHERE e.group.id = :groupId AND es.user = :user AND es.isSettled = false")
+           "WHERE es.groupId = :groupId AND es.user = :user AND es.isSettled = false")
     List<ExpenseShare> findUnsettledSharesByGroupAndUser(@Param("groupId") Long groupId, @Param("user") User user);
-}
\ No newline at end of file
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT es FROM ExpenseShare es WHERE es.groupId = :groupId AND es.expense.id IN :expenseIds")
+    List<ExpenseShare> lockByExpenseIds(@Param("groupId") Long groupId,
+                                        @Param("expenseIds") Collection<Long> expenseIds);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseShare es WHERE es.groupId = :groupId AND es.expense.id IN :expenseIds")
+    int deleteByGroupIdAndExpenseIdIn(@Param("groupId") Long groupId,
+                                      @Param("expenseIds") Collection<Long> expenseIds);
+}
@@ -0,0 +1,28 @@
+package com.fistein.repository;
+
+import com.fistein.entity.Expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Liste görünümü için harcama satırı; paylaşımlar yüklenmez, yalnızca mevcut
+ * kullanıcının payı tek bir LEFT JOIN ile okunur.
+ */
+public record ExpenseSummaryRow(
+        Long id,
+        String description,
+        BigDecimal amount,
+        String currency,
+        LocalDateTime createdAt,
+        LocalDateTime expenseDate,
+        Expense.SplitType splitType,
+        String notes,
+        Long groupId,
+        String groupName,
+        Long paidById,
+        String paidByEmail,
+        String paidByName,
+        BigDecimal currentUserShare
+) {
+}
@@ -0,0 +1,22 @@
+package com.fistein.repository;
+
+import com.fistein.entity.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+
+    @Query("SELECT MAX(r.rateDate) FROM FxRate r")
+    LocalDate findLatestRateDate();
+
+    List<FxRate> findByRateDate(LocalDate rateDate);
+
+    @Modifying
+    @Query("DELETE FROM FxRate r WHERE r.rateDate = :rateDate")
+    int deleteByRateDate(@Param("rateDate") LocalDate rateDate);
+}
@@ -4,17 +4,51 @@ import com.fistein.entity.Group;
 import com.fistein.entity.GroupMember;
 import com.fistein.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface GroupMemberRepository extends JpaRepository<GroupMember, Long> {
     
     Optional<GroupMember> findByGroupAndUser(Group group, User user);
     
     List<GroupMember> findByGroupAndIsActiveTrue(Group group);
+
+    @Query("SELECT gm FROM GroupMember gm " +
+           "JOIN FETCH gm.user " +
+           "WHERE gm.group = :group AND gm.isActive = true")
+    List<GroupMember> findActiveWithUserByGroup(@Param("group") Group group);
+
+    @Query("SELECT gm FROM GroupMember gm " +
+           "JOIN FETCH gm.user " +
+           "WHERE gm.group.id IN :groupIds AND gm.isActive = true")
+    List<GroupMember> findActiveWithUserByGroupIdIn(@Param("groupIds") Collection<Long> groupIds);
     
     List<GroupMember> findByUserAndIsActiveTrue(User user);
+
+    @Query("SELECT gm FROM GroupMember gm " +
+           "JOIN FETCH gm.group " +
+           "WHERE gm.user = :user AND gm.isActive = true " +
+           "ORDER BY gm.group.id")
+    List<GroupMember> findActiveWithGroupByUser(@Param("user") User user);
     
     boolean existsByGroupAndUserAndIsActiveTrue(Group group, User user);
+
+    boolean existsByGroupIdAndUserAndIsActiveTrue(Long groupId, User user);
+
+    boolean existsByGroupIdAndUserEmailAndIsActiveTrue(Long groupId, String email);
+
+    // Kullanıcının aktif üyesi olduğu grupların id'leri; bölümlenmiş tabloları okuyan sorgulara anahtar olur
+    @Query("SELECT gm.group.id FROM GroupMember gm WHERE gm.user = :user AND gm.isActive = true")
+    Set<Long> findActiveGroupIdsByUser(@Param("user") User user);
+
+    // Verilen gruplardan kullanıcının aktif üyesi olduklarının id'leri; çoklu okumada tek sorgu
+    @Query("SELECT gm.group.id FROM GroupMember gm " +
+           "WHERE gm.user = :user AND gm.isActive = true AND gm.group.id IN :groupIds")
+    Set<Long> findActiveGroupIdsByUserAndGroupIdIn(@Param("user") User user,
+                                                   @Param("groupIds") Collection<Long> groupIds);
 }
\ No newline at end of file
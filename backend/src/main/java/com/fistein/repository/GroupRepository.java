@@ -2,10 +2,14 @@ package com.fistein.repository;
 
 import com.fistein.entity.Group;
 import com.fistein.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +29,17 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
            "FROM GroupMember m " +
            "WHERE m.group.id = :groupId AND m.user.id = :userId AND m.isActive = true")
     boolean isUserMemberOfGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT g.id FROM Group g WHERE g.id > :afterId ORDER BY g.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    // pairwise_balances'a fark yazanlar paylaşımlı kilit alır; aynı grubu yeniden kuran onların commit'ini bekler
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT g FROM Group g WHERE g.id IN :groupIds ORDER BY g.id")
+    List<Group> lockSharedByIdIn(@Param("groupIds") Collection<Long> groupIds);
+
+    // Grubun pairwise_balances satırlarını yeniden kuran özel kilit alır; bu sırada fark yazılmaz
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Group g WHERE g.id = :groupId")
+    Optional<Group> lockById(@Param("groupId") Long groupId);
+}
@@ -0,0 +1,23 @@
+package com.fistein.repository;
+
+import com.fistein.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByScopedKey(String scopedKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.scopedKey = :scopedKey")
+    int deleteByScopedKey(@Param("scopedKey") String scopedKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
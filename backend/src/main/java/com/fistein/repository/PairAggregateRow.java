@@ -0,0 +1,16 @@
+package com.fistein.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Kullanıcı ile bir karşı taraf arasındaki ödenmemiş payların grup ve para birimi başına toplamı.
+ * Tutar harcamanın kendi para birimindedir.
+ */
+public record PairAggregateRow(
+        Long counterpartyId,
+        Long groupId,
+        String currency,
+        BigDecimal amount,
+        Long shareCount
+) {
+}
@@ -0,0 +1,100 @@
+package com.fistein.repository;
+
+import com.fistein.entity.PairwiseBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface PairwiseBalanceRepository extends JpaRepository<PairwiseBalance, Long> {
+
+    String ACTIVE_GROUPS_OF_USER = "p.groupId IN (" +
+           "SELECT gm.group.id FROM GroupMember gm WHERE gm.user.id = :userId AND gm.isActive = true)";
+
+    // Tek koşullu UPDATE: eşzamanlı yazanlar satır kilidinde sıraya girer, artışlar kaybolmaz
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE PairwiseBalance p SET p.amount = p.amount + :amount, p.shareCount = p.shareCount + :shareCount " +
+           "WHERE p.groupId = :groupId AND p.debtorId = :debtorId AND p.creditorId = :creditorId " +
+           "AND p.currency = :currency")
+    int increment(@Param("groupId") Long groupId,
+                  @Param("debtorId") Long debtorId,
+                  @Param("creditorId") Long creditorId,
+                  @Param("currency") String currency,
+                  @Param("amount") BigDecimal amount,
+                  @Param("shareCount") Long shareCount);
+
+    // Eşzamanlı ekleyen varsa onun commit'ini bekler ve hiçbir şey yapmaz; aynı transaction'da kalır
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO pairwise_balances (group_id, debtor_id, creditor_id, currency, amount, share_count) " +
+                   "VALUES (:groupId, :debtorId, :creditorId, :currency, 0, 0) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("groupId") Long groupId,
+                       @Param("debtorId") Long debtorId,
+                       @Param("creditorId") Long creditorId,
+                       @Param("currency") String currency);
+
+    // Grubun satırları paylardan yeniden kurulmadan önce silinir; grup satırı kilitliyken çağrılmalı
+    @Modifying
+    @Query("DELETE FROM PairwiseBalance p WHERE p.groupId = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+
+    // Grubun ödenmemiş paylarından yeniden kurulum; grubun satırları silinmişken çağrılmalı
+    @Modifying
+    @Query("INSERT INTO PairwiseBalance (groupId, debtorId, creditorId, currency, amount, shareCount) " +
+           "SELECT es.groupId, es.user.id, e.paidBy.id, e.currency, SUM(es.shareAmount), COUNT(es) " +
+           "FROM ExpenseShare es JOIN es.expense e " +
+           "WHERE es.groupId = :groupId AND es.isSettled = false AND es.user <> e.paidBy " +
+           "GROUP BY es.groupId, es.user.id, e.paidBy.id, e.currency")
+    int insertFromUnsettledShares(@Param("groupId") Long groupId);
+
+    // Açık çiftler: toplamı ya da pay sayısı sıfır olmayan satırlar
+    @Query("SELECT new com.fistein.repository.PairwiseBalanceRow(p.debtorId, p.creditorId, p.currency, p.amount, p.shareCount) " +
+           "FROM PairwiseBalance p " +
+           "WHERE p.groupId = :groupId AND (p.shareCount <> 0 OR p.amount <> 0)")
+    List<PairwiseBalanceRow> findOpenByGroupId(@Param("groupId") Long groupId);
+
+    // Denetimde tabloyla karşılaştırılan beklenen satırlar
+    @Query("SELECT new com.fistein.repository.PairwiseBalanceRow(es.user.id, e.paidBy.id, e.currency, SUM(es.shareAmount), COUNT(es)) " +
+           "FROM ExpenseShare es JOIN es.expense e " +
+           "WHERE es.groupId = :groupId AND es.isSettled = false AND es.user <> e.paidBy " +
+           "GROUP BY es.user.id, e.paidBy.id, e.currency")
+    List<PairwiseBalanceRow> sumUnsettledSharesByGroupId(@Param("groupId") Long groupId);
+
+    // Grupta kullanıcının alacaklılara borçları
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(p.creditorId, p.currency, p.amount, p.shareCount) " +
+           "FROM PairwiseBalance p " +
+           "WHERE p.groupId = :groupId AND p.debtorId = :userId AND p.shareCount > 0")
+    List<CurrencyAggregateRow> findDebtsInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    // Grupta borçluların kullanıcıya borçları
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(p.debtorId, p.currency, p.amount, p.shareCount) " +
+           "FROM PairwiseBalance p " +
+           "WHERE p.groupId = :groupId AND p.creditorId = :userId AND p.shareCount > 0")
+    List<CurrencyAggregateRow> findCreditsInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(p.creditorId, p.currency, SUM(p.amount), SUM(p.shareCount)) " +
+           "FROM PairwiseBalance p " +
+           "WHERE p.debtorId = :userId AND p.shareCount > 0 AND " + ACTIVE_GROUPS_OF_USER + " " +
+           "GROUP BY p.creditorId, p.currency")
+    List<CurrencyAggregateRow> sumDebtsPerCreditor(@Param("userId") Long userId);
+
+    @Query("SELECT new com.fistein.repository.CurrencyAggregateRow(p.debtorId, p.currency, SUM(p.amount), SUM(p.shareCount)) " +
+           "FROM PairwiseBalance p " +
+           "WHERE p.creditorId = :userId AND p.shareCount > 0 AND " + ACTIVE_GROUPS_OF_USER + " " +
+           "GROUP BY p.debtorId, p.currency")
+    List<CurrencyAggregateRow> sumCreditsPerDebtor(@Param("userId") Long userId);
+
+    // Gruplar arası hesaplaşma: satırlar zaten (grup, karşı taraf, para birimi) başına
+    @Query("SELECT new com.fistein.repository.PairAggregateRow(p.creditorId, p.groupId, p.currency, p.amount, p.shareCount) " +
+           "FROM PairwiseBalance p " +
+           "WHERE p.debtorId = :userId AND p.shareCount > 0 AND " + ACTIVE_GROUPS_OF_USER)
+    List<PairAggregateRow> findDebtsPerCreditorAndGroup(@Param("userId") Long userId);
+
+    @Query("SELECT new com.fistein.repository.PairAggregateRow(p.debtorId, p.groupId, p.currency, p.amount, p.shareCount) " +
+           "FROM PairwiseBalance p " +
+           "WHERE p.creditorId = :userId AND p.shareCount > 0 AND " + ACTIVE_GROUPS_OF_USER)
+    List<PairAggregateRow> findCreditsPerDebtorAndGroup(@Param("userId") Long userId);
+}
@@ -0,0 +1,16 @@
+package com.fistein.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Bir gruptaki (borçlu, alacaklı, para birimi) çiftinin toplamı; pairwise_balances satırını
+ * paylardan hesaplanan karşılığıyla karşılaştırmak için kullanılır.
+ */
+public record PairwiseBalanceRow(
+        Long debtorId,
+        Long creditorId,
+        String currency,
+        BigDecimal amount,
+        Long shareCount
+) {
+}
@@ -0,0 +1,47 @@
+package com.fistein.repository;
+
+import com.fistein.entity.RecurringExpense;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+
+    @Query("SELECT r.id FROM RecurringExpense r " +
+           "WHERE r.active = true AND r.nextOccurrence <= :now " +
+           "ORDER BY r.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Partiyi sahiplenir: iptal eden kullanıcının ya da kilidi süresi dolmuş başka bir üreticinin
+    // tuttuğu satırlar beklenmeden atlanır (SKIP LOCKED) ve koşul kilit altında yeniden doğrulanır
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM RecurringExpense r " +
+           "WHERE r.id IN :ids AND r.active = true AND r.nextOccurrence <= :now")
+    List<RecurringExpense> lockDueForGeneration(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Bir üretim partisindeki tanımlar grup, ödeyen ve pay şablonuyla tek sorguda
+    @Query("SELECT DISTINCT r FROM RecurringExpense r " +
+           "JOIN FETCH r.group " +
+           "JOIN FETCH r.paidBy " +
+           "LEFT JOIN FETCH r.shares " +
+           "WHERE r.id IN :ids " +
+           "ORDER BY r.id")
+    List<RecurringExpense> findWithSharesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT r FROM RecurringExpense r " +
+           "JOIN FETCH r.paidBy " +
+           "LEFT JOIN FETCH r.shares " +
+           "WHERE r.group.id = :groupId AND r.active = true " +
+           "ORDER BY r.nextOccurrence, r.id")
+    List<RecurringExpense> findActiveWithSharesByGroupId(@Param("groupId") Long groupId);
+}
@@ -2,10 +2,22 @@ package com.fistein.repository;
 
 import com.fistein.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Arada parola değiştiyse yeni hash'i yazma
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :userId AND u.password = :currentHash")
+    int updatePasswordIfUnchanged(@Param("userId") Long userId,
+                                  @Param("currentHash") String currentHash,
+                                  @Param("newHash") String newHash);
 }
@@ -0,0 +1,62 @@
+package com.fistein.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Google public key'lerini süreleri dolmadan arka planda yeniler. Böylece anahtar
+ * indirme maliyeti hiçbir zaman bir giriş isteğinin üzerine binmez.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GooglePublicKeysRefresher {
+
+    // Lazy bean; yönetici ilk kullanıldığında oluşturulur
+    private final ObjectProvider<GooglePublicKeysManager> publicKeysManager;
+
+    @Value("${google.oauth.prefetch-keys:true}")
+    private boolean prefetchKeys;
+
+    // GooglePublicKeysManager kendi başına süre bitiminden 5 dk önce istek thread'inde yeniler; bundan önce davran
+    @Value("${google.oauth.refresh-ahead:10m}")
+    private Duration refreshAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetch() {
+        if (prefetchKeys) {
+            refreshIfExpiring();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${google.oauth.refresh-check-interval:1m}",
+               initialDelayString = "${google.oauth.refresh-check-interval:1m}")
+    public void refreshIfExpiring() {
+        GooglePublicKeysManager manager = publicKeysManager.getObject();
+        if (!prefetchKeys && manager.getExpirationTimeMilliseconds() == 0) {
+            // Ön yükleme kapalı ve henüz hiç giriş olmadı; anahtarlar ilk girişte yüklenecek
+            return;
+        }
+        long remainingMillis = manager.getExpirationTimeMilliseconds() - System.currentTimeMillis();
+        if (remainingMillis > refreshAhead.toMillis()) {
+            return;
+        }
+        try {
+            manager.refresh();
+            log.debug("Google public key'leri yenilendi, geçerlilik: {} ms",
+                    manager.getExpirationTimeMilliseconds() - System.currentTimeMillis());
+        } catch (Exception e) {
+            // Mevcut anahtarlar hâlâ geçerliyse girişler etkilenmez; bir sonraki kontrolde tekrar denenir
+            log.warn("Google public key'leri yenilenemedi: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.fistein.security;
+
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt işlemlerini Tomcat thread'lerinden ayrı, sınırlı bir havuzda çalıştırır.
+ * Kuyruk dolduğunda istek beklemeden 503 ile reddedilir; böylece bir giriş dalgası
+ * diğer endpoint'lerin thread'lerini tüketemez.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService implements DisposableBean {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final int bcryptStrength;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    // Kullanıcı bulunamadığında da aynı süreyi harcamak için (kullanıcı listeleme saldırısına karşı)
+    private final String dummyHash;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  UserRepository userRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${fistein.password.hashing-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+                                  @Value("${fistein.password.queue-capacity:64}") int queueCapacity,
+                                  @Value("${fistein.password.timeout:5s}") Duration timeout,
+                                  @Value("${fistein.password.bcrypt-strength:10}") int bcryptStrength) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.timeout = timeout;
+        this.bcryptStrength = bcryptStrength;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("fistein.password.hash")
+                .description("BCrypt işlem süresi")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("fistein.password.hash")
+                .description("BCrypt işlem süresi")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        meterRegistry.gauge("fistein.password.hash.queue", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("fistein.password.hash.active", executor, ThreadPoolExecutor::getActiveCount);
+
+        this.dummyHash = passwordEncoder.encode("dummy-password-for-timing");
+    }
+
+    public String encode(String rawPassword) {
+        return submitAndWait(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        // Google ile kayıt olan kullanıcıların parolası yoktur; yine de aynı maliyeti öde
+        boolean hasPassword = encodedPassword != null && !encodedPassword.isEmpty();
+        String raw = rawPassword != null ? rawPassword : "";
+        String hash = hasPassword ? encodedPassword : dummyHash;
+        boolean matches = submitAndWait(() -> matchesTimer.record(() -> passwordEncoder.matches(raw, hash)));
+        return hasPassword && matches;
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    /**
+     * Girişi geciktirmemek için yeniden hash'leme arka planda yapılır; havuz doluysa
+     * bir sonraki girişe bırakılır.
+     */
+    public void rehashInBackground(Long userId, String rawPassword, String currentHash) {
+        try {
+            executor.execute(() -> {
+                try {
+                    String newHash = encodeTimer.record(() -> passwordEncoder.encode(rawPassword));
+                    userRepository.updatePasswordIfUnchanged(userId, currentHash, newHash);
+                } catch (RuntimeException e) {
+                    log.warn("Parola yeniden hash'lenemedi (kullanıcı {}): {}", userId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Hash kuyruğu dolu, kullanıcı {} için yeniden hash'leme ertelendi", userId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T submitAndWait(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new FisteinException("Sunucu şu anda yoğun. Lütfen biraz sonra tekrar deneyin.",
+                    FisteinException.ErrorType.SERVICE_UNAVAILABLE);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new FisteinException("Sunucu şu anda yoğun. Lütfen biraz sonra tekrar deneyin.",
+                    FisteinException.ErrorType.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FisteinException("Parola işlemi kesildi", e);
+        } catch (ExecutionException e) {
+            throw new FisteinException("Parola işlemi başarısız oldu", e.getCause());
+        }
+    }
+}
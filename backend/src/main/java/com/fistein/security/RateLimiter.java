@@ -0,0 +1,100 @@
+package com.fistein.security;
+
+import com.fistein.config.RateLimitProperties;
+import com.fistein.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> throttledCounters = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("fistein.ratelimit.buckets", buckets, Map::size);
+    }
+
+    /** Bir route'un belirli bir anahtar (kullanıcı, grup, IP) için kovası. */
+    public record BucketKey(RateLimitProperties.Route route, String key) {
+    }
+
+    /**
+     * İsteğin eşleştiği tüm kovalardan birer token tüketir. Kovalardan biri bile reddederse diğerlerinden
+     * alınan token'lar iade edilir; reddedilen istek kota harcamaz.
+     *
+     * @return 0 ise izin verildi; aksi halde istemcinin beklemesi gereken en uzun süre
+     */
+    public Duration tryAcquire(List<BucketKey> keys) {
+        long now = System.nanoTime();
+        List<TokenBucket> consumed = new ArrayList<>(keys.size());
+        long retryAfterNanos = 0;
+
+        for (BucketKey key : keys) {
+            TokenBucket bucket = bucket(key, now);
+            long waitNanos = bucket.tryConsume(now);
+            if (waitNanos == 0) {
+                consumed.add(bucket);
+            } else {
+                throttledCounter(key.route()).increment();
+                retryAfterNanos = Math.max(retryAfterNanos, waitNanos);
+            }
+        }
+
+        if (retryAfterNanos == 0) {
+            return Duration.ZERO;
+        }
+        consumed.forEach(TokenBucket::refund);
+        return Duration.ofNanos(retryAfterNanos);
+    }
+
+    private TokenBucket bucket(BucketKey key, long now) {
+        RateLimitProperties.Route route = key.route();
+        String bucketKey = route.getName() + '|' + key.key();
+
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            if (buckets.size() >= properties.getMaxBuckets()) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(
+                    route.getCapacity(), route.getRefillTokens(), route.getRefillPeriod(), now));
+        }
+        return bucket;
+    }
+
+    private void evict(long now) {
+        // Dolu kova ile hiç kova olmaması aynı davranışı verir; önce onları at
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        if (buckets.size() < properties.getMaxBuckets()) {
+            return;
+        }
+        // Hâlâ dolu ise rastgele bir kısmını sıfırla; sınırsız büyümeden iyidir
+        int toRemove = Math.max(1, properties.getMaxBuckets() / 10);
+        Iterator<String> iterator = buckets.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private Counter throttledCounter(RateLimitProperties.Route route) {
+        return throttledCounters.computeIfAbsent(route.getName(), name -> Counter.builder("fistein.ratelimit.throttled")
+                .description("Rate limit nedeniyle 429 ile reddedilen istekler")
+                .tag("route", name)
+                .tag("scope", route.getScope().name())
+                .register(meterRegistry));
+    }
+}
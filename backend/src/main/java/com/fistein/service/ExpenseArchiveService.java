@@ -0,0 +1,30 @@
+package com.fistein.service;
+
+import com.fistein.dto.ExpenseBatchResponse;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface ExpenseArchiveService {
+
+    /**
+     * cutoff'tan eski ve tüm payları ödenmiş harcamaları parça parça arşive taşır.
+     * @return arşivlenen harcama sayısı
+     */
+    int archiveSettledBefore(LocalDateTime cutoff);
+
+    Page<ExpenseResponse> getArchivedExpenses(Long groupId, User currentUser, Pageable pageable);
+
+    Optional<ExpenseResponse> findArchivedExpense(Long expenseId, User currentUser);
+
+    /**
+     * Arşivde bulunan id'leri erişim kontrolüyle birlikte döndürür; arşivde olmayan id'ler
+     * cevapta yer almaz.
+     */
+    ExpenseBatchResponse findArchivedExpenses(Collection<Long> expenseIds, User currentUser);
+}
@@ -0,0 +1,23 @@
+package com.fistein.service;
+
+public interface ExpensePartitioningService {
+
+    /**
+     * expenses ve expense_shares tabloları group_id'ye göre hash bölümlenmiş mi.
+     * PostgreSQL dışındaki veritabanlarında her zaman false.
+     */
+    boolean isPartitioned();
+
+    /**
+     * group_id'si boş kalmış eski payları id aralıkları halinde harcamanın grubuyla doldurur.
+     * @return doldurulan pay sayısı
+     */
+    long backfillShareGroupIds();
+
+    /**
+     * Mevcut tabloları uygulama çalışırken bölümlenmiş kopyalarına parça parça taşır ve sonunda
+     * kısa bir kilitle yer değiştirir. Yarıda kalırsa bir sonraki çağrıda kaldığı yerden tamamlanır.
+     * @return kopyalanan satır sayısı
+     */
+    long partitionTables();
+}
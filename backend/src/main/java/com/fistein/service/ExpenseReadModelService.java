@@ -0,0 +1,47 @@
+package com.fistein.service;
+
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ExpenseReadModelService {
+
+    /**
+     * Harcamaların liste satırlarını bellekteki haliyle yazar. Harcamayı değiştiren transaction
+     * içinden, ödeyen ve paylar (kullanıcılarıyla) yüklüyken çağrılmalı. Satırı olan harcamalar
+     * satır kilitlendikten sonra veritabanından yeniden okunur.
+     */
+    void refresh(Collection<Expense> expenses);
+
+    void remove(Collection<Long> expenseIds);
+
+    /**
+     * Harcamaların grup id'lerini bölümlenmemiş okuma modelinden döndürür; bölümlenmiş tabloları okuyan
+     * sorgular bunu bölümleme anahtarı olarak kullanır. Satırı olmayan harcamalar haritada yer almaz.
+     */
+    Map<Long, Long> findGroupIds(Collection<Long> expenseIds);
+
+    /**
+     * Grubun harcamalarını en yeniden eskiye okuma modelinden döndürür; üyelik kontrolü çağırandadır.
+     */
+    Page<ExpenseResponse> findGroupExpenses(Group group, User currentUser, Pageable pageable);
+
+    /**
+     * Okuma modelini kaynak tablolarla karşılaştırır; repair true ise eksik, eskimiş ve
+     * artık kaynağı olmayan satırları düzeltir.
+     */
+    ConsistencyReport checkConsistency(boolean repair);
+
+    record ConsistencyReport(long checked, long missing, long stale, long orphaned, long repaired) {
+
+        public boolean consistent() {
+            return missing == 0 && stale == 0 && orphaned == 0;
+        }
+    }
+}
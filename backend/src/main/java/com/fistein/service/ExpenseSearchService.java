@@ -0,0 +1,9 @@
+package com.fistein.service;
+
+import com.fistein.dto.ExpenseSearchResponse;
+import com.fistein.entity.User;
+
+public interface ExpenseSearchService {
+
+    ExpenseSearchResponse search(Long groupId, String query, String cursor, int size, User currentUser);
+}
@@ -14,6 +14,16 @@ public interface ExpenseService {
     ExpenseResponse getExpenseById(Long expenseId, User currentUser);
     
     Page<ExpenseResponse> getGroupExpenses(Long groupId, User currentUser, Pageable pageable);
+
+    Page<ExpenseResponse> getGroupExpenseSummaries(Long groupId, User currentUser, Pageable pageable);
+
+    ExpensePageResponse getGroupExpensesWithUserTable(Long groupId, User currentUser, Pageable pageable);
+
+    ExpenseResponse getExpenseSummary(Long expenseId, User currentUser);
+
+    ExpenseResponse getExpenseWithUserTable(Long expenseId, User currentUser);
+
+    ExpenseBatchResponse getExpensesByIds(List<Long> expenseIds, User currentUser);
     
     ExpenseResponse updateExpense(Long expenseId, UpdateExpenseRequest request, User currentUser);
     
@@ -24,4 +34,6 @@ public interface ExpenseService {
     void settleExpense(Long expenseId, SettleExpenseRequest request, User currentUser);
     
     UserBalanceResponse getUserBalance(Long groupId, User currentUser);
+
+    UserBalancesResponse getUserBalances(User currentUser);
 }
\ No newline at end of file
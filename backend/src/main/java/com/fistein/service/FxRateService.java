@@ -0,0 +1,28 @@
+package com.fistein.service;
+
+import com.fistein.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface FxRateService {
+
+    // Bellekteki güncel kurlar; ağ veya veritabanı erişimi yapmaz
+    FxRateSnapshot current();
+
+    // Gruplar arası toplamların ve yeni grupların para birimi
+    String defaultCurrency();
+
+    // Para biriminin geçerli ve kurunun bilinir olduğunu doğrular; büyük harfe çevrilmiş kodu döner
+    String requireSupported(String currency);
+
+    // Bir günün kurlarını yerine koyar ve bellekteki kopyayı yeniler
+    FxRateSnapshot updateRates(LocalDate date, Map<String, BigDecimal> ratesPerPivot, User currentUser);
+
+    // Yapılandırılan kur dosyasını içe aktarır; okunan gün sayısını döner
+    int importRatesFile();
+
+    // Veritabanındaki en güncel günün kurlarını belleğe alır
+    FxRateSnapshot refresh();
+}
@@ -0,0 +1,84 @@
+package com.fistein.service;
+
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.BalanceAggregateRow;
+import com.fistein.repository.CurrencyAggregateRow;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Belirli bir günün kurlarının değişmez kopyası. Yenileme yeni bir nesne kurup referansı değiştirir;
+ * okuyucular kilit almadan tutarlı bir kur kümesi görür.
+ *
+ * @param date           kurların geçerli olduğu gün; hiç kur yüklenmemişse null
+ * @param ratesPerPivot  1 EUR'nun para birimi başına karşılığı
+ */
+public record FxRateSnapshot(LocalDate date, Map<String, BigDecimal> ratesPerPivot) {
+
+    public static final String PIVOT = "EUR";
+
+    public FxRateSnapshot {
+        ratesPerPivot = Map.copyOf(ratesPerPivot);
+    }
+
+    public static FxRateSnapshot empty() {
+        return new FxRateSnapshot(null, Map.of());
+    }
+
+    public boolean supports(String currency) {
+        return PIVOT.equals(currency) || ratesPerPivot.containsKey(currency);
+    }
+
+    // 1 birim "from" kaç birim "to" eder; aynı para biriminde kur aranmaz
+    public BigDecimal factor(String from, String to) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        return rate(to).divide(rate(from), MathContext.DECIMAL64);
+    }
+
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        return scale(amount.multiply(factor(from, to)));
+    }
+
+    /**
+     * Para birimine göre gruplanmış toplamları id başına tek tutara indirir. Her (para birimi, hedef)
+     * çifti için çarpan bir kez hesaplanır; yuvarlama yalnızca sonuçta yapılır. Satırların ilk
+     * görüldüğü sıra korunur.
+     */
+    public List<BalanceAggregateRow> convertRows(List<CurrencyAggregateRow> rows, Function<Long, String> targetCurrency) {
+        Map<Long, BigDecimal> amounts = new LinkedHashMap<>();
+        Map<Long, Long> counts = new HashMap<>();
+        Map<String, BigDecimal> factors = new HashMap<>();
+        for (CurrencyAggregateRow row : rows) {
+            String target = targetCurrency.apply(row.id());
+            BigDecimal factor = factors.computeIfAbsent(row.currency() + ">" + target, k -> factor(row.currency(), target));
+            amounts.merge(row.id(), row.amount().multiply(factor), BigDecimal::add);
+            counts.merge(row.id(), row.expenseCount(), Long::sum);
+        }
+        List<BalanceAggregateRow> result = new ArrayList<>(amounts.size());
+        amounts.forEach((id, amount) -> result.add(new BalanceAggregateRow(id, scale(amount), counts.get(id))));
+        return result;
+    }
+
+    private BigDecimal rate(String currency) {
+        if (PIVOT.equals(currency)) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal rate = ratesPerPivot.get(currency);
+        if (rate == null) {
+            throw new FisteinException(currency + " için kur bilgisi yok",
+                    FisteinException.ErrorType.SERVICE_UNAVAILABLE);
+        }
+        return rate;
+    }
+
+    private static BigDecimal scale(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,25 @@
+package com.fistein.service;
+
+import com.fistein.dto.GroupBalanceResponse;
+
+public interface GroupBalanceSnapshotService {
+
+    /**
+     * Grubun en son hesaplanmış bakiyelerini döndürür; stale true ise henüz yansımamış
+     * yazmalar vardır. Grup için hiç hesaplama yoksa çağıran thread'de hesaplanır.
+     * Üyelik kontrolü çağırandadır.
+     */
+    GroupBalanceResponse getBalances(Long groupId);
+
+    /**
+     * Grubun bakiyelerini değiştiren bir yazmayı bildirir. Transaction içinden çağrılırsa
+     * commit sonrasına ertelenir; bir aralıktaki tekrarlar tek hesaplamada birleşir.
+     */
+    void markDirty(Long groupId);
+
+    /**
+     * Grubun bakiyelerini bellekten atar (ör. grup silindiğinde). Transaction içinden çağrılırsa
+     * commit sonrasına ertelenir.
+     */
+    void evict(Long groupId);
+}
@@ -0,0 +1,41 @@
+package com.fistein.service;
+
+public interface IdempotencyService {
+
+    Claim claim(String scopedKey, String requestFingerprint);
+
+    void complete(String scopedKey, StoredResponse response);
+
+    void release(String scopedKey);
+
+    int purgeExpired();
+
+    record StoredResponse(String requestFingerprint, int status, String contentType, String body) {
+    }
+
+    record Claim(Outcome outcome, StoredResponse response) {
+
+        public static Claim acquired() {
+            return new Claim(Outcome.ACQUIRED, null);
+        }
+
+        public static Claim replay(StoredResponse response) {
+            return new Claim(Outcome.REPLAY, response);
+        }
+
+        public static Claim of(Outcome outcome) {
+            return new Claim(outcome, null);
+        }
+    }
+
+    enum Outcome {
+        // Bu istek yazma yolunu çalıştırabilir
+        ACQUIRED,
+        // Daha önce tamamlanmış cevap tekrar gönderilmeli
+        REPLAY,
+        // Aynı anahtarla başka bir istek hâlâ işleniyor
+        IN_PROGRESS,
+        // Anahtar farklı bir endpoint için kullanılmış
+        MISMATCH
+    }
+}
@@ -0,0 +1,89 @@
+package com.fistein.service;
+
+import com.fistein.entity.Expense;
+import com.fistein.entity.ExpenseShare;
+import com.fistein.util.LongLongHashMap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Bir transaction'ın pairwise_balances tablosuna uygulayacağı farklar. Paylar değişmeden önce
+ * {@link #subtract}, değiştikten sonra {@link #add} ile eklenir; değeri değişmeyen çiftler birbirini
+ * götürür ve yazılmaz. Kalabalık gruplarda da yalnızca dokunulan (borçlu, alacaklı) çiftleri tutulur.
+ * Ödenmiş paylar ve ödeyenin kendi payı borç oluşturmaz.
+ */
+public class PairwiseBalanceDelta {
+
+    private static final Comparator<Entry> WRITE_ORDER = Comparator
+            .comparing(Entry::groupId)
+            .thenComparing(Entry::currency)
+            .thenComparingLong(Entry::debtorId)
+            .thenComparingLong(Entry::creditorId);
+
+    private record Ledger(Long groupId, String currency) {
+    }
+
+    // (grup, para birimi) -> borçlu -> alacaklı -> kuruş / pay sayısı
+    private final Map<Ledger, Map<Long, LongLongHashMap>> amounts = new HashMap<>();
+    private final Map<Ledger, Map<Long, LongLongHashMap>> shareCounts = new HashMap<>();
+
+    public record Entry(Long groupId, String currency, long debtorId, long creditorId,
+                        long amountCents, long shareCount) {
+
+        public BigDecimal amount() {
+            return BigDecimal.valueOf(amountCents, 2);
+        }
+    }
+
+    public PairwiseBalanceDelta add(Collection<ExpenseShare> shares) {
+        return accumulate(shares, 1);
+    }
+
+    public PairwiseBalanceDelta subtract(Collection<ExpenseShare> shares) {
+        return accumulate(shares, -1);
+    }
+
+    public boolean isEmpty() {
+        return entries().isEmpty();
+    }
+
+    /**
+     * Sıfırdan farklı farklar; eşzamanlı yazanlar satırları aynı sırada kilitlesin diye sıralı.
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>();
+        amounts.forEach((ledger, byDebtor) -> byDebtor.forEach((debtorId, byCreditor) -> {
+            LongLongHashMap counts = shareCounts.get(ledger).get(debtorId);
+            byCreditor.forEach((creditorId, cents) -> {
+                long shareCount = counts.get(creditorId);
+                if (cents != 0 || shareCount != 0) {
+                    entries.add(new Entry(ledger.groupId(), ledger.currency(), debtorId, creditorId, cents, shareCount));
+                }
+            });
+        }));
+        entries.sort(WRITE_ORDER);
+        return entries;
+    }
+
+    private PairwiseBalanceDelta accumulate(Collection<ExpenseShare> shares, int sign) {
+        for (ExpenseShare share : shares) {
+            Expense expense = share.getExpense();
+            Long debtorId = share.getUser().getId();
+            Long creditorId = expense.getPaidBy().getId();
+            if (Boolean.TRUE.equals(share.getIsSettled()) || debtorId.equals(creditorId)) {
+                continue;
+            }
+            Ledger ledger = new Ledger(expense.getGroupId(), expense.getCurrency());
+            long cents = share.getShareAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            amounts.computeIfAbsent(ledger, key -> new HashMap<>())
+                    .computeIfAbsent(debtorId, key -> new LongLongHashMap())
+                    .addTo(creditorId, sign * cents);
+            shareCounts.computeIfAbsent(ledger, key -> new HashMap<>())
+                    .computeIfAbsent(debtorId, key -> new LongLongHashMap())
+                    .addTo(creditorId, sign);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,31 @@
+package com.fistein.service;
+
+public interface PairwiseBalanceService {
+
+    /**
+     * Farkları pairwise_balances tablosuna yazar. Paylaşımları değiştiren transaction içinden
+     * çağrılmalı; tablo paylarla birlikte commit edilir ya da geri alınır.
+     */
+    void apply(PairwiseBalanceDelta delta);
+
+    /**
+     * Tabloyu ödenmemiş paylardan grup grup baştan kurar. Paylar toplu (JDBC ile) yüklendikten sonra ya da
+     * tablo ilk kez oluşturulduğunda kullanılır. Başka bir düğüm kurulum ya da denetim yapıyorsa 0 döner.
+     *
+     * @return yazılan (grup, borçlu, alacaklı, para birimi) satırı sayısı
+     */
+    int rebuild();
+
+    /**
+     * Her grubun satırlarını ödenmemiş paylardan hesaplanan toplamlarla karşılaştırır; repair true ise
+     * farklı çıkan grupları yeniden kurar.
+     */
+    ConsistencyReport checkConsistency(boolean repair);
+
+    record ConsistencyReport(long checkedGroups, long inconsistentGroups, long repairedGroups) {
+
+        public boolean consistent() {
+            return inconsistentGroups == 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.fistein.service;
+
+import com.fistein.dto.CreateRecurringExpenseRequest;
+import com.fistein.dto.RecurringExpenseResponse;
+import com.fistein.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RecurringExpenseService {
+
+    RecurringExpenseResponse createRecurringExpense(Long groupId, CreateRecurringExpenseRequest request, User currentUser);
+
+    List<RecurringExpenseResponse> getGroupRecurringExpenses(Long groupId, User currentUser);
+
+    void deactivateRecurringExpense(Long recurringExpenseId, User currentUser);
+
+    // Vadesi gelen tüm tarihleri üretir (kesinti sonrası kaçırılanlar dahil); üretilen harcama sayısını döner
+    int generateDueExpenses(LocalDateTime now);
+}
@@ -0,0 +1,16 @@
+package com.fistein.service;
+
+import com.fistein.dto.AcceptSettleUpRequest;
+import com.fistein.dto.SettleUpPlanResponse;
+import com.fistein.entity.User;
+
+public interface SettleUpService {
+
+    SettleUpPlanResponse getPlan(User currentUser);
+
+    /**
+     * Planı yeniden hesaplar; parmak izi istekteki ile aynıysa plandaki tüm payları tek
+     * transaction'da ödenmiş işaretler. Plan değiştiyse CONFLICT fırlatır.
+     */
+    SettleUpPlanResponse acceptPlan(AcceptSettleUpRequest request, User currentUser);
+}
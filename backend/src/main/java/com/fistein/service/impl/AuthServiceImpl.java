@@ -6,13 +6,12 @@ import com.fistein.dto.JwtResponse;
 import com.fistein.dto.UserResponse;
 import com.fistein.entity.User;
 import com.fistein.repository.UserRepository;
+import com.fistein.security.CustomUserDetailsService;
+import com.fistein.security.PasswordHashingService;
 import com.fistein.util.JwtUtil;
 import com.fistein.service.AuthService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
@@ -22,10 +21,9 @@ import java.time.format.DateTimeFormatter;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     public JwtResponse register(RegisterRequest request) {
@@ -37,44 +35,36 @@ public class AuthServiceImpl implements AuthService {
         var user = User.builder()
                 .name(request.getFullName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .build();
 
         // Kullanıcıyı kaydettikten sonra geri al (id ve createdAt için)
         user = userRepository.save(user);
 
-        // JWT token üretimi için UserDetails kullanılıyor
-        var userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        var jwtToken = jwtUtil.generateToken(userDetails);
-
-        // UserResponse oluşturma
-        var userResponse = UserResponse.builder()
-                .id(user.getId())
-                .username(user.getEmail()) // Email'i username olarak kullan
-                .email(user.getEmail())
-                .fullName(user.getName())
-                .createdAt(user.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                .build();
-
-        return new JwtResponse(jwtToken, userResponse);
+        return buildJwtResponse(user);
     }
 
     @Override
     public JwtResponse login(LoginRequest request) {
-        // AuthenticationManager ile kimlik doğrulama
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        // Kullanıcı yoksa da parola karşılaştırması yapılır, böylece cevap süresi email'in varlığını ele vermez
+        var user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        String storedHash = user != null ? user.getPassword() : null;
+
+        if (!passwordHashingService.matches(request.getPassword(), storedHash) || user == null) {
+            throw new BadCredentialsException("Geçersiz kimlik bilgileri");
+        }
+
+        // İş faktörü değiştiyse parolayı yeni maliyetle arka planda yeniden hash'le
+        if (passwordHashingService.needsRehash(storedHash)) {
+            passwordHashingService.rehashInBackground(user.getId(), request.getPassword(), storedHash);
+        }
 
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
+        return buildJwtResponse(user);
+    }
 
+    private JwtResponse buildJwtResponse(User user) {
         // JWT token üretimi için UserDetails kullanılıyor
-        var userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        var jwtToken = jwtUtil.generateToken(userDetails);
+        var jwtToken = jwtUtil.generateToken(userDetailsService.toUserDetails(user));
 
         // UserResponse oluşturma
         var userResponse = UserResponse.builder()
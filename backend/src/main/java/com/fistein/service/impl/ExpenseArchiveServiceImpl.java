@@ -0,0 +1,398 @@
+package com.fistein.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fistein.dto.ExpenseBatchResponse;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseShareResponse;
+import com.fistein.dto.UserResponse;
+import com.fistein.entity.*;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.*;
+import com.fistein.service.ExpenseArchiveService;
+import com.fistein.service.ExpenseReadModelService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ExpenseArchiveServiceImpl implements ExpenseArchiveService {
+
+    static final String LOCK_NAME = "expense-archive";
+    private static final TypeReference<List<ArchivedShare>> SHARE_LIST = new TypeReference<>() {
+    };
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final ArchivedExpenseRepository archivedExpenseRepository;
+    private final ArchivedBalanceSummaryRepository summaryRepository;
+    private final GroupRepository groupRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final UserRepository userRepository;
+    private final ExpenseReadModelService readModelService;
+    private final SchedulerLockManager lockManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${fistein.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fistein.archive.horizon:730d}")
+    private Duration horizon;
+
+    @Value("${fistein.archive.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${fistein.archive.pause-between-chunks:200ms}")
+    private Duration pauseBetweenChunks;
+
+    @Value("${fistein.archive.lock-lease:10m}")
+    private Duration lockLease;
+
+    // Arşivde paylaşımlar bu kısa biçimde JSON olarak saklanır
+    record ArchivedShare(Long userId, BigDecimal shareAmount, BigDecimal percentage) {
+    }
+
+    public ExpenseArchiveServiceImpl(ExpenseRepository expenseRepository,
+                                     ExpenseShareRepository expenseShareRepository,
+                                     ArchivedExpenseRepository archivedExpenseRepository,
+                                     ArchivedBalanceSummaryRepository summaryRepository,
+                                     GroupRepository groupRepository,
+                                     GroupMemberRepository groupMemberRepository,
+                                     UserRepository userRepository,
+                                     ExpenseReadModelService readModelService,
+                                     SchedulerLockManager lockManager,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
+        this.expenseRepository = expenseRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.archivedExpenseRepository = archivedExpenseRepository;
+        this.summaryRepository = summaryRepository;
+        this.groupRepository = groupRepository;
+        this.groupMemberRepository = groupMemberRepository;
+        this.userRepository = userRepository;
+        this.readModelService = readModelService;
+        this.lockManager = lockManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${fistein.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveSettledBefore(LocalDateTime.now().minus(horizon));
+        }
+    }
+
+    @Override
+    public int archiveSettledBefore(LocalDateTime cutoff) {
+        // Özetler okunup artırılarak yazılır; iki düğüm aynı anda çalışırsa biri diğerinin eklediğini ezer
+        Optional<String> lock = lockManager.tryLock(LOCK_NAME, lockLease);
+        if (lock.isEmpty()) {
+            log.debug("Harcama arşivleme başka bir düğümde çalışıyor");
+            return 0;
+        }
+
+        long afterGroupId = 0;
+        int archived = 0;
+        int chunks = 0;
+        try {
+            // Parçalar grup içinde kurulur: her sorgu bölümleme anahtarını taşır, PostgreSQL tek bölümü okur
+            groups:
+            while (true) {
+                List<Long> groupIds = groupRepository.findIdsAfter(afterGroupId, PageRequest.of(0, chunkSize));
+                if (groupIds.isEmpty()) {
+                    break;
+                }
+                afterGroupId = groupIds.get(groupIds.size() - 1);
+
+                for (Long groupId : groupIds) {
+                    long afterId = 0;
+                    while (true) {
+                        List<Long> ids = expenseRepository.findArchivableIds(groupId, afterId, cutoff,
+                                PageRequest.of(0, chunkSize));
+                        if (ids.isEmpty()) {
+                            break;
+                        }
+                        afterId = ids.get(ids.size() - 1);
+
+                        // Her parça kendi kısa transaction'ında: canlı bir grup üzerinde uzun kilit tutulmaz
+                        Integer count = transactionTemplate.execute(status -> archiveChunk(groupId, ids, cutoff));
+                        archived += count != null ? count : 0;
+                        chunks++;
+
+                        if (!pause()) {
+                            break groups;
+                        }
+                        if (!lockManager.extend(LOCK_NAME, lock.get(), lockLease)) {
+                            log.warn("Harcama arşivleme kilidi kaybedildi, arşivleme durduruldu");
+                            break groups;
+                        }
+                        if (ids.size() < chunkSize) {
+                            break;
+                        }
+                    }
+                }
+                if (groupIds.size() < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            lockManager.unlock(LOCK_NAME, lock.get());
+        }
+
+        if (archived > 0) {
+            log.info("{} harcama {} parçada arşivlendi (ufuk: {})", archived, chunks, cutoff);
+        }
+        return archived;
+    }
+
+    @Override
+    public Page<ExpenseResponse> getArchivedExpenses(Long groupId, User currentUser, Pageable pageable) {
+        return readOnlyTransaction.execute(status -> {
+            Group group = groupRepository.findById(groupId)
+                    .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
+
+            if (!groupMemberRepository.existsByGroupAndUserAndIsActiveTrue(group, currentUser)) {
+                throw new RuntimeException("Bu gruba erişim yetkiniz yok");
+            }
+
+            Page<ArchivedExpense> page = archivedExpenseRepository.findByGroupIdOrderByExpenseDateDescIdDesc(groupId, pageable);
+            Map<Long, List<ArchivedShare>> shares = new HashMap<>();
+            page.forEach(archived -> shares.put(archived.getId(), readShares(archived)));
+            Map<Long, UserResponse> users = loadUsers(page.getContent(), shares);
+            return page.map(archived -> mapToExpenseResponse(archived, group, shares.get(archived.getId()), users, currentUser));
+        });
+    }
+
+    @Override
+    public Optional<ExpenseResponse> findArchivedExpense(Long expenseId, User currentUser) {
+        return readOnlyTransaction.execute(status -> archivedExpenseRepository.findByExpenseId(expenseId)
+                .map(archived -> {
+                    Group group = groupRepository.findById(archived.getGroupId())
+                            .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
+                    if (!groupMemberRepository.existsByGroupAndUserAndIsActiveTrue(group, currentUser)) {
+                        throw new RuntimeException("Bu harcamaya erişim yetkiniz yok");
+                    }
+                    List<ArchivedShare> shares = readShares(archived);
+                    Map<Long, UserResponse> users = loadUsers(List.of(archived), Map.of(archived.getId(), shares));
+                    return mapToExpenseResponse(archived, group, shares, users, currentUser);
+                }));
+    }
+
+    @Override
+    public ExpenseBatchResponse findArchivedExpenses(Collection<Long> expenseIds, User currentUser) {
+        return readOnlyTransaction.execute(status -> {
+            ExpenseBatchResponse response = new ExpenseBatchResponse();
+            List<ArchivedExpense> archives = archivedExpenseRepository.findByExpenseIdIn(expenseIds);
+            if (archives.isEmpty()) {
+                return response;
+            }
+            Set<Long> groupIds = archives.stream().map(ArchivedExpense::getGroupId).collect(Collectors.toSet());
+            Set<Long> memberOf = groupMemberRepository.findActiveGroupIdsByUserAndGroupIdIn(currentUser, groupIds);
+            List<ArchivedExpense> readable = new ArrayList<>();
+            for (ArchivedExpense archived : archives) {
+                if (memberOf.contains(archived.getGroupId())) {
+                    readable.add(archived);
+                } else {
+                    response.getErrors().put(archived.getExpenseId(),
+                            ExpenseBatchResponse.ItemError.forbidden("Bu harcamaya erişim yetkiniz yok"));
+                }
+            }
+            if (readable.isEmpty()) {
+                return response;
+            }
+
+            Map<Long, Group> groups = groupRepository.findAllById(memberOf).stream()
+                    .collect(Collectors.toMap(Group::getId, group -> group));
+            Map<Long, List<ArchivedShare>> shares = new HashMap<>();
+            readable.forEach(archived -> shares.put(archived.getId(), readShares(archived)));
+            Map<Long, UserResponse> users = loadUsers(readable, shares);
+            for (ArchivedExpense archived : readable) {
+                response.getExpenses().put(archived.getExpenseId(), mapToExpenseResponse(archived,
+                        groups.get(archived.getGroupId()), shares.get(archived.getId()), users, currentUser));
+            }
+            return response;
+        });
+    }
+
+    private int archiveChunk(Long groupId, List<Long> ids, LocalDateTime cutoff) {
+        // Canlı işlemlerin kilitlediği harcamalar atlanır, bir sonraki çalıştırmada tekrar denenir
+        List<Expense> locked = expenseRepository.lockForArchival(groupId, ids);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<ExpenseShare>> sharesByExpense = expenseShareRepository
+                .lockByExpenseIds(groupId, locked.stream().map(Expense::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(share -> share.getExpense().getId()));
+
+        Map<SummaryKey, ArchivedBalanceSummary> summaries = new HashMap<>();
+        for (ArchivedBalanceSummary summary : summaryRepository.lockByGroupIdIn(Set.of(groupId))) {
+            summaries.put(new SummaryKey(summary.getGroupId(), summary.getUserId(), summary.getCurrency()), summary);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedExpense> archives = new ArrayList<>();
+        List<Long> archivedIds = new ArrayList<>();
+        for (Expense expense : locked) {
+            List<ExpenseShare> shares = sharesByExpense.getOrDefault(expense.getId(), List.of());
+            // Kilit alınana kadar durum değişmiş olabilir
+            LocalDateTime date = expense.getExpenseDate() != null ? expense.getExpenseDate() : expense.getCreatedAt();
+            if (!date.isBefore(cutoff) || shares.stream().anyMatch(share -> !Boolean.TRUE.equals(share.getIsSettled()))) {
+                continue;
+            }
+
+            String currency = expense.getCurrency();
+            ArchivedBalanceSummary payer = summaryFor(summaries, groupId, expense.getPaidBy().getId(), currency);
+            payer.setTotalPaid(payer.getTotalPaid().add(expense.getAmount()));
+            payer.setPaidExpenseCount(payer.getPaidExpenseCount() + 1);
+
+            List<ArchivedShare> archivedShares = new ArrayList<>(shares.size());
+            for (ExpenseShare share : shares) {
+                Long userId = share.getUser().getId();
+                ArchivedBalanceSummary member = summaryFor(summaries, groupId, userId, currency);
+                member.setTotalSettledShare(member.getTotalSettledShare().add(share.getShareAmount()));
+                archivedShares.add(new ArchivedShare(userId, share.getShareAmount(), share.getPercentage()));
+            }
+
+            archives.add(ArchivedExpense.builder()
+                    .expenseId(expense.getId())
+                    .groupId(groupId)
+                    .paidByUserId(expense.getPaidBy().getId())
+                    .description(expense.getDescription())
+                    .amount(expense.getAmount())
+                    .currency(expense.getCurrency())
+                    .createdAt(expense.getCreatedAt())
+                    .expenseDate(expense.getExpenseDate())
+                    .splitType(expense.getSplitType())
+                    .notes(expense.getNotes())
+                    .sharesJson(writeShares(archivedShares))
+                    .archivedAt(now)
+                    .build());
+            archivedIds.add(expense.getId());
+        }
+
+        if (archivedIds.isEmpty()) {
+            return 0;
+        }
+        archivedExpenseRepository.saveAll(archives);
+        summaryRepository.saveAll(summaries.values());
+        expenseShareRepository.deleteByGroupIdAndExpenseIdIn(groupId, archivedIds);
+        expenseRepository.deleteByGroupIdAndIdIn(groupId, archivedIds);
+        readModelService.remove(archivedIds);
+        return archivedIds.size();
+    }
+
+    private record SummaryKey(Long groupId, Long userId, String currency) {
+    }
+
+    private static ArchivedBalanceSummary summaryFor(Map<SummaryKey, ArchivedBalanceSummary> summaries,
+                                                     Long groupId, Long userId, String currency) {
+        return summaries.computeIfAbsent(new SummaryKey(groupId, userId, currency), k -> ArchivedBalanceSummary.builder()
+                .groupId(groupId)
+                .userId(userId)
+                .currency(currency)
+                .build());
+    }
+
+    private boolean pause() {
+        if (pauseBetweenChunks.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Sayfadaki tüm ödeyen ve pay sahipleri tek sorguda
+    private Map<Long, UserResponse> loadUsers(List<ArchivedExpense> archives, Map<Long, List<ArchivedShare>> shares) {
+        Set<Long> userIds = new HashSet<>();
+        for (ArchivedExpense archived : archives) {
+            userIds.add(archived.getPaidByUserId());
+            shares.get(archived.getId()).forEach(share -> userIds.add(share.userId()));
+        }
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, this::mapToUserResponse));
+    }
+
+    private String writeShares(List<ArchivedShare> shares) {
+        try {
+            return objectMapper.writeValueAsString(shares);
+        } catch (JsonProcessingException e) {
+            throw new FisteinException("Arşiv paylaşımları yazılamadı", e);
+        }
+    }
+
+    private List<ArchivedShare> readShares(ArchivedExpense archived) {
+        try {
+            return objectMapper.readValue(archived.getSharesJson(), SHARE_LIST);
+        } catch (JsonProcessingException e) {
+            throw new FisteinException("Arşiv paylaşımları okunamadı", e);
+        }
+    }
+
+    private ExpenseResponse mapToExpenseResponse(ArchivedExpense archived, Group group, List<ArchivedShare> shares,
+                                                 Map<Long, UserResponse> users, User currentUser) {
+        List<ExpenseShareResponse> shareResponses = shares.stream()
+                .map(share -> ExpenseShareResponse.builder()
+                        .user(users.get(share.userId()))
+                        .shareAmount(share.shareAmount())
+                        .percentage(share.percentage())
+                        .isSettled(true)
+                        .build())
+                .collect(Collectors.toList());
+
+        BigDecimal currentUserShare = shares.stream()
+                .filter(share -> share.userId().equals(currentUser.getId()))
+                .map(ArchivedShare::shareAmount)
+                .findFirst()
+                .orElse(BigDecimal.ZERO);
+
+        return ExpenseResponse.builder()
+                .id(archived.getExpenseId())
+                .description(archived.getDescription())
+                .amount(archived.getAmount())
+                .currency(archived.getCurrency())
+                .groupId(group.getId())
+                .groupName(group.getName())
+                .paidBy(users.get(archived.getPaidByUserId()))
+                .createdAt(archived.getCreatedAt())
+                .expenseDate(archived.getExpenseDate())
+                .splitType(archived.getSplitType())
+                .notes(archived.getNotes())
+                .shares(shareResponses)
+                .currentUserShare(currentUserShare)
+                .isCurrentUserPayer(archived.getPaidByUserId().equals(currentUser.getId()))
+                .build();
+    }
+
+    private UserResponse mapToUserResponse(User user) {
+        return UserResponse.builder()
+                .id(user.getId())
+                .username(user.getEmail())
+                .email(user.getEmail())
+                .fullName(user.getName())
+                .build();
+    }
+}
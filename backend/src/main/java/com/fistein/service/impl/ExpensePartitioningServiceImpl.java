@@ -0,0 +1,459 @@
+package com.fistein.service.impl;
+
+import com.fistein.service.ExpensePartitioningService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL'de expenses ve expense_shares tablolarını group_id'ye göre hash bölümlenmiş kopyalarına taşır.
+ * <ol>
+ *     <li>Eski paylara group_id doldurulur.</li>
+ *     <li>Bölümlenmiş tablolar ve eski tablolardaki her değişikliği onlara yansıtan tetikleyiciler tek
+ *     transaction'da oluşturulur.</li>
+ *     <li>Satırlar id sırasıyla kısa transaction'larda kopyalanır; kopyalanan satırlar FOR KEY SHARE ile
+ *     kilitlendiği için eşzamanlı bir silme eski kopyayı geri getiremez.</li>
+ *     <li>Kısa bir ACCESS EXCLUSIVE kilidiyle kopyalar asıl adları alır, ardından eski tablolar silinir.</li>
+ * </ol>
+ * Deneyseldir: taşıma yalnızca PostgreSQL'de çalışır ve testler H2 üzerinde koştuğu için gerçek bir
+ * PostgreSQL'de uçtan uca doğrulanmamıştır; servis {@code fistein.partitioning.enabled=true} verilmedikçe
+ * oluşturulmaz. Hibernate şemayı yeniden kurarsa bölümlenmiş tablolar silinir ya da yabancı anahtarlar geri
+ * eklenir; bu yüzden PostgreSQL'de {@code spring.jpa.hibernate.ddl-auto} none ya da validate olmadıkça
+ * uygulama başlamaz.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "fistein.partitioning", name = "enabled", havingValue = "true")
+public class ExpensePartitioningServiceImpl implements ExpensePartitioningService {
+
+    static final String LOCK_NAME = "expense-partitioning";
+
+    private static final String EXPENSES = "expenses";
+    private static final String SHARES = "expense_shares";
+    // Kopyalar bu ekle oluşturulur, yer değiştirmede asıl adları alır
+    private static final String SUFFIX = "_partitioned";
+    // Yer değiştirmeden sonra eski tablolar silinene kadar bu ekle durur
+    private static final String LEGACY_SUFFIX = "_unpartitioned";
+    private static final String MIRROR_TRIGGER = "fistein_partition_mirror";
+    // Bölümlenmiş tablolara dokunmayan şema yönetimi modları
+    private static final Set<String> SAFE_DDL_AUTO = Set.of("none", "validate");
+
+    private static final String BACKFILL_SHARE_GROUP_IDS =
+            "UPDATE expense_shares SET group_id = " +
+            "(SELECT e.group_id FROM expenses e WHERE e.id = expense_shares.expense_id) " +
+            "WHERE id > ? AND id <= ? AND group_id IS NULL";
+
+    // Bölümlenmiş tablodaki adı -> yer değiştirmeden sonraki adı
+    private static final Map<String, String> INDEX_NAMES = new LinkedHashMap<>();
+
+    static {
+        INDEX_NAMES.put("expenses" + SUFFIX + "_pkey", "expenses_pkey");
+        INDEX_NAMES.put("expense_shares" + SUFFIX + "_pkey", "expense_shares_pkey");
+        INDEX_NAMES.put("uk_expense_shares_expense_user" + SUFFIX, "uk_expense_shares_expense_user");
+        INDEX_NAMES.put("uk_expenses_recurring_occurrence" + SUFFIX, "uk_expenses_recurring_occurrence");
+        INDEX_NAMES.put("idx_expenses_group_created" + SUFFIX, "idx_expenses_group_created");
+        INDEX_NAMES.put("idx_expenses_search" + SUFFIX, "idx_expenses_search");
+        INDEX_NAMES.put("idx_expense_shares_group_user" + SUFFIX, "idx_expense_shares_group_user");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLockManager lockManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${fistein.partitioning.partitions:16}")
+    private int partitions;
+
+    @Value("${fistein.partitioning.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${fistein.partitioning.pause-between-batches:100ms}")
+    private Duration pauseBetweenBatches;
+
+    @Value("${fistein.partitioning.lock-timeout:500ms}")
+    private Duration lockTimeout;
+
+    @Value("${fistein.partitioning.lock-attempts:20}")
+    private int lockAttempts;
+
+    @Value("${fistein.partitioning.lock-lease:10m}")
+    private Duration lockLease;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    private volatile Boolean postgres;
+
+    public ExpensePartitioningServiceImpl(JdbcTemplate jdbcTemplate,
+                                          SchedulerLockManager lockManager,
+                                          PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockManager = lockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Başlangıçta bağlantı açılmaz; veritabanı türü yapılandırılmış adresten okunur
+    @PostConstruct
+    void verifySchemaManagement() {
+        if (datasourceUrl.startsWith("jdbc:postgresql:")) {
+            requireSafeDdlAuto(ddlAuto);
+        }
+    }
+
+    // create/create-drop yeniden başlatmada bölümlenmiş tabloları siler, update silinen yabancı anahtarları geri ekler
+    static void requireSafeDdlAuto(String ddlAuto) {
+        if (!SAFE_DDL_AUTO.contains(ddlAuto.trim().toLowerCase(Locale.ROOT))) {
+            throw new IllegalStateException("fistein.partitioning.enabled=true iken spring.jpa.hibernate.ddl-auto "
+                    + "none ya da validate olmalı (şu an: " + ddlAuto + ")");
+        }
+    }
+
+    // Yarıda kalan ya da kilit alınamadığı için ertelenen taşıma bir sonraki kontrolde tamamlanır
+    @Scheduled(initialDelayString = "${fistein.partitioning.initial-delay:10s}",
+               fixedDelayString = "${fistein.partitioning.check-interval:1h}")
+    public void scheduledPartitioning() {
+        if (isPostgres() && (!isPartitioned() || exists(EXPENSES + LEGACY_SUFFIX)
+                || exists(SHARES + LEGACY_SUFFIX))) {
+            partitionTables();
+        }
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        if (!isPostgres()) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE oid = to_regclass(?) AND relkind = 'p'", Integer.class, EXPENSES);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public long backfillShareGroupIds() {
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT MIN(id) AS lo, MAX(id) AS hi FROM expense_shares WHERE group_id IS NULL");
+        Number lo = (Number) range.get("lo");
+        Number hi = (Number) range.get("hi");
+        if (lo == null) {
+            return 0;
+        }
+
+        long filled = 0;
+        for (long from = lo.longValue() - 1; from < hi.longValue(); from += batchSize) {
+            long rangeStart = from;
+            long rangeEnd = Math.min(from + batchSize, hi.longValue());
+            Integer updated = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(BACKFILL_SHARE_GROUP_IDS, rangeStart, rangeEnd));
+            filled += updated != null ? updated : 0;
+            if (!pause()) {
+                break;
+            }
+        }
+        log.info("{} paya group_id dolduruldu", filled);
+        return filled;
+    }
+
+    @Override
+    public long partitionTables() {
+        if (!isPostgres()) {
+            log.info("Tablo bölümleme yalnızca PostgreSQL'de desteklenir, atlandı");
+            return 0;
+        }
+        Optional<String> lock = lockManager.tryLock(LOCK_NAME, lockLease);
+        if (lock.isEmpty()) {
+            log.debug("Tablo bölümleme başka bir düğümde çalışıyor");
+            return 0;
+        }
+
+        try {
+            // Önceki bir geçişten silinememiş eski tablolar
+            if (!dropLegacyTables() || isPartitioned()) {
+                return 0;
+            }
+            long startNanos = System.nanoTime();
+            // Eski şemalarda sütun yoksa eklenir; PostgreSQL'de varsayılansız sütun eklemek tabloyu yeniden yazmaz
+            if (!columnsOf(SHARES).contains("group_id")) {
+                jdbcTemplate.execute("ALTER TABLE expense_shares ADD COLUMN group_id BIGINT");
+            }
+            backfillShareGroupIds();
+            if (!withShortLocks(this::prepare)) {
+                log.warn("Bölümlenmiş tablolar oluşturulamadı, sonraki kontrolde yeniden denenecek");
+                return 0;
+            }
+
+            // Paylar harcamalarına yabancı anahtarla bağlı: önce tüm harcamalar kopyalanır
+            Long expenses = copyRows(EXPENSES, lock.get());
+            Long shares = expenses != null ? copyRows(SHARES, lock.get()) : null;
+            if (shares == null) {
+                log.warn("Tablo bölümleme kilidi kaybedildi ya da kesildi; sonraki kontrolde devam edilecek");
+                return 0;
+            }
+
+            if (!withShortLocks(this::swap)) {
+                log.warn("Bölümlenmiş tablolara geçilemedi, sonraki kontrolde yeniden denenecek");
+                return 0;
+            }
+            log.info("expenses ve expense_shares {} bölüme taşındı: {} harcama, {} pay, {} ms",
+                    partitions, expenses, shares, (System.nanoTime() - startNanos) / 1_000_000);
+            if (!dropLegacyTables()) {
+                log.warn("Eski tablolar silinemedi, sonraki kontrolde yeniden denenecek");
+            }
+            return expenses + shares;
+        } finally {
+            lockManager.unlock(LOCK_NAME, lock.get());
+        }
+    }
+
+    private void prepare() {
+        if (exists(EXPENSES + SUFFIX)) {
+            // Önceki yarım kalan çalıştırmadan: tablolar ve tetikleyiciler aynı transaction'da oluşturuldu
+            if (hasMirrorTrigger(EXPENSES) && hasMirrorTrigger(SHARES)) {
+                return;
+            }
+            // Asıl tablolar sonradan yeniden oluşturulmuş (ör. şema sıfırlandı); kopyalar artık bayat
+            jdbcTemplate.execute("DROP TABLE " + SHARES + SUFFIX + ", " + EXPENSES + SUFFIX);
+        }
+        String expenses = EXPENSES + SUFFIX;
+        String shares = SHARES + SUFFIX;
+
+        List<String> ddl = new ArrayList<>();
+        // Birincil ve tekil anahtarlar bölümleme anahtarını içermek zorunda
+        ddl.add("CREATE TABLE " + expenses + " (LIKE expenses INCLUDING DEFAULTS INCLUDING CONSTRAINTS, " +
+                "PRIMARY KEY (id, group_id)) PARTITION BY HASH (group_id)");
+        ddl.add("CREATE TABLE " + shares + " (LIKE expense_shares INCLUDING DEFAULTS INCLUDING CONSTRAINTS, " +
+                "PRIMARY KEY (id, group_id)) PARTITION BY HASH (group_id)");
+        for (int i = 0; i < partitions; i++) {
+            ddl.add("CREATE TABLE " + expenses + "_p" + i + " PARTITION OF " + expenses +
+                    " FOR VALUES WITH (MODULUS " + partitions + ", REMAINDER " + i + ")");
+            ddl.add("CREATE TABLE " + shares + "_p" + i + " PARTITION OF " + shares +
+                    " FOR VALUES WITH (MODULUS " + partitions + ", REMAINDER " + i + ")");
+        }
+
+        // Tekrarlayan tanım ve harcama tek bir gruba ait; group_id eklemek tekilliği değiştirmez
+        ddl.add("ALTER TABLE " + expenses + " ADD CONSTRAINT uk_expenses_recurring_occurrence" + SUFFIX +
+                " UNIQUE (recurring_expense_id, expense_date, group_id)");
+        ddl.add("CREATE INDEX idx_expenses_group_created" + SUFFIX + " ON " + expenses + " (group_id, created_at)");
+        ddl.add("CREATE INDEX idx_expenses_search" + SUFFIX + " ON " + expenses + " " +
+                ExpenseSearchServiceImpl.PG_SEARCH_INDEX_DEFINITION);
+        ddl.add("ALTER TABLE " + expenses + " ADD CONSTRAINT fk_expenses_group" + SUFFIX +
+                " FOREIGN KEY (group_id) REFERENCES groups (id)");
+        ddl.add("ALTER TABLE " + expenses + " ADD CONSTRAINT fk_expenses_paid_by" + SUFFIX +
+                " FOREIGN KEY (paid_by_user_id) REFERENCES users (id)");
+
+        ddl.add("ALTER TABLE " + shares + " ADD CONSTRAINT uk_expense_shares_expense_user" + SUFFIX +
+                " UNIQUE (expense_id, user_id, group_id)");
+        ddl.add("CREATE INDEX idx_expense_shares_group_user" + SUFFIX + " ON " + shares + " (group_id, user_id)");
+        ddl.add("ALTER TABLE " + shares + " ADD CONSTRAINT fk_expense_shares_expense" + SUFFIX +
+                " FOREIGN KEY (expense_id, group_id) REFERENCES " + expenses + " (id, group_id)");
+        ddl.add("ALTER TABLE " + shares + " ADD CONSTRAINT fk_expense_shares_user" + SUFFIX +
+                " FOREIGN KEY (user_id) REFERENCES users (id)");
+        ddl.forEach(jdbcTemplate::execute);
+
+        installMirrorTrigger(EXPENSES, "");
+        // Kopyalanmamış bir harcamaya eklenen pay yabancı anahtara takılmasın: önce harcama taşınır
+        String expenseColumns = columnList(EXPENSES);
+        installMirrorTrigger(SHARES,
+                "    INSERT INTO " + expenses + " (" + expenseColumns + ") SELECT " + expenseColumns +
+                " FROM expenses WHERE id = NEW.expense_id ON CONFLICT (id, group_id) DO NOTHING;\n");
+        log.info("Bölümlenmiş tablolar oluşturuldu ({} bölüm), kopyalama başlıyor", partitions);
+    }
+
+    // Eski tablodaki her değişiklik kopyaya da yazılır; kopyalama sırasında gelen yazmalar kaybolmaz
+    private void installMirrorTrigger(String table, String beforeUpsert) {
+        List<String> columns = columnsOf(table);
+        String target = table + SUFFIX;
+        String function = "fistein_mirror_" + table;
+        String values = columns.stream().map(column -> "NEW." + column).collect(Collectors.joining(", "));
+        String updates = columns.stream().map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + function + "() RETURNS trigger LANGUAGE plpgsql AS $$\n" +
+                "BEGIN\n" +
+                "    IF TG_OP = 'DELETE' THEN\n" +
+                "        DELETE FROM " + target + " WHERE id = OLD.id AND group_id = OLD.group_id;\n" +
+                "        RETURN NULL;\n" +
+                "    END IF;\n" +
+                beforeUpsert +
+                "    INSERT INTO " + target + " (" + String.join(", ", columns) + ") VALUES (" + values + ")\n" +
+                "        ON CONFLICT (id, group_id) DO UPDATE SET " + updates + ";\n" +
+                "    RETURN NULL;\n" +
+                "END\n" +
+                "$$");
+        jdbcTemplate.execute("CREATE TRIGGER " + MIRROR_TRIGGER + " AFTER INSERT OR UPDATE OR DELETE ON " + table +
+                " FOR EACH ROW EXECUTE FUNCTION " + function + "()");
+    }
+
+    /**
+     * Satırları id sırasıyla parça parça kopyalar. Tetikleyicinin zaten yazdığı satırlar atlanır.
+     * @return kopyalanan satır sayısı; kilit kaybedildiyse ya da thread kesildiyse null
+     */
+    private Long copyRows(String table, String lockOwner) {
+        String columns = columnList(table);
+        String sql = "WITH batch AS (SELECT id FROM " + table + " WHERE id > ? ORDER BY id LIMIT ? FOR KEY SHARE), " +
+                "copied AS (INSERT INTO " + table + SUFFIX + " (" + columns + ") SELECT " + columns +
+                " FROM " + table + " WHERE id IN (SELECT id FROM batch) " +
+                "ON CONFLICT (id, group_id) DO NOTHING RETURNING 1) " +
+                "SELECT (SELECT MAX(id) FROM batch) AS last_id, (SELECT COUNT(*) FROM batch) AS batch_rows, " +
+                "(SELECT COUNT(*) FROM copied) AS copied";
+
+        long afterId = Long.MIN_VALUE;
+        long copied = 0;
+        int batches = 0;
+        while (true) {
+            long from = afterId;
+            Map<String, Object> result = transactionTemplate.execute(status ->
+                    jdbcTemplate.queryForMap(sql, from, batchSize));
+            copied += ((Number) result.get("copied")).longValue();
+            batches++;
+            Number lastId = (Number) result.get("last_id");
+            if (lastId == null || ((Number) result.get("batch_rows")).longValue() < batchSize) {
+                break;
+            }
+            afterId = lastId.longValue();
+
+            if (!lockManager.extend(LOCK_NAME, lockOwner, lockLease) || !pause()) {
+                return null;
+            }
+        }
+        log.info("{}: {} satır {} parçada kopyalandı", table, copied, batches);
+        return copied;
+    }
+
+    private void swap() {
+        jdbcTemplate.execute("LOCK TABLE expenses, expense_shares IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("DROP TRIGGER " + MIRROR_TRIGGER + " ON expense_shares");
+        jdbcTemplate.execute("DROP TRIGGER " + MIRROR_TRIGGER + " ON expenses");
+        // Eski tablolar burada silinmez: yabancı anahtarlarını kaldırmak users ve groups'u da kilitler
+        for (String table : List.of(EXPENSES, SHARES)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + table + LEGACY_SUFFIX);
+        }
+        INDEX_NAMES.values().forEach(name ->
+                jdbcTemplate.execute("ALTER INDEX IF EXISTS " + name + " RENAME TO " + name + LEGACY_SUFFIX));
+
+        for (String table : List.of(EXPENSES, SHARES)) {
+            // Bölüm sayısı yarım kalan bir çalıştırmada farklı ayarlanmış olabilir; katalogdan okunur
+            List<String> children = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                    "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)", String.class, table + SUFFIX);
+            jdbcTemplate.execute("ALTER TABLE " + table + SUFFIX + " RENAME TO " + table);
+            for (String child : children) {
+                jdbcTemplate.execute("ALTER TABLE " + child + " RENAME TO " + table + child.substring((table + SUFFIX).length()));
+            }
+            jdbcTemplate.execute("DROP FUNCTION fistein_mirror_" + table + "()");
+        }
+        INDEX_NAMES.forEach((from, to) -> jdbcTemplate.execute("ALTER INDEX " + from + " RENAME TO " + to));
+    }
+
+    /*
+     * Tetikleyiciler kalktığı için eski tablolar bayattır; geri dönüş için yedek kullanılmalı. Önce yabancı
+     * anahtarlar tek tek kaldırılır: her biri başvurduğu tabloyu (users, groups) kısa süre kilitler.
+     */
+    private boolean dropLegacyTables() {
+        for (String table : List.of(SHARES, EXPENSES)) {
+            String legacy = table + LEGACY_SUFFIX;
+            if (!exists(legacy)) {
+                continue;
+            }
+            List<String> foreignKeys = jdbcTemplate.queryForList("SELECT quote_ident(conname) FROM pg_constraint " +
+                    "WHERE conrelid = to_regclass(?) AND contype = 'f'", String.class, legacy);
+            for (String foreignKey : foreignKeys) {
+                if (!withShortLocks(() -> jdbcTemplate.execute("ALTER TABLE " + legacy + " DROP CONSTRAINT " + foreignKey))) {
+                    return false;
+                }
+            }
+            if (!withShortLocks(() -> jdbcTemplate.execute("DROP TABLE " + legacy))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * DDL kendi transaction'ında, kısa bir kilit beklemesiyle çalıştırılır ve gerekirse yeniden denenir.
+     * Bekleme PostgreSQL'in deadlock_timeout'undan (varsayılan 1s) kısa tutulur: tablolara ters sırayla erişen
+     * bir istekle kilitlenirsek dedektör isteği değil, zaman aşımıyla bizi düşürür. Beklerken gelen istekler
+     * de arkamızda sıraya girdiğinden uzun beklemek tüm trafiği durdururdu.
+     */
+    private boolean withShortLocks(Runnable ddl) {
+        for (int attempt = 1; attempt <= lockAttempts; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+                    ddl.run();
+                });
+                return true;
+            } catch (DataAccessException e) {
+                log.debug("Tablo kilitleri alınamadı ({}. deneme): {}", attempt, e.getMessage());
+                if (!pause()) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean exists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE oid = to_regclass(?)", Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private boolean hasMirrorTrigger(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_trigger WHERE tgname = ? AND tgrelid = to_regclass(?)",
+                Integer.class, MIRROR_TRIGGER, table);
+        return count != null && count > 0;
+    }
+
+    private List<String> columnsOf(String table) {
+        return jdbcTemplate.queryForList("SELECT quote_ident(column_name) FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? ORDER BY ordinal_position", String.class, table);
+    }
+
+    private String columnList(String table) {
+        return String.join(", ", columnsOf(table));
+    }
+
+    private boolean pause() {
+        if (pauseBetweenBatches.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatches.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,434 @@
+package com.fistein.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseShareResponse;
+import com.fistein.dto.UserResponse;
+import com.fistein.entity.*;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.ExpenseKey;
+import com.fistein.repository.ExpenseListingRepository;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.service.ExpenseReadModelService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * expense_view okuma modelini yazar ve okur. Yazma, harcamayı değiştiren transaction içinde yapılır;
+ * model kaynakla birlikte commit edilir ya da geri alınır. Periyodik denetim modeli kaynak
+ * tablolarla karşılaştırır ve farkları düzeltir.
+ */
+@Slf4j
+@Service
+public class ExpenseReadModelServiceImpl implements ExpenseReadModelService {
+
+    static final String LOCK_NAME = "expense-read-model-check";
+    private static final TypeReference<List<ListedShare>> SHARE_LIST = new TypeReference<>() {
+    };
+
+    private final ExpenseListingRepository listingRepository;
+    private final ExpenseRepository expenseRepository;
+    private final SchedulerLockManager lockManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${fistein.read-model.check-enabled:false}")
+    private boolean checkEnabled;
+
+    @Value("${fistein.read-model.repair:true}")
+    private boolean repair;
+
+    @Value("${fistein.read-model.batch-size:500}")
+    private int batchSize;
+
+    @Value("${fistein.read-model.pause-between-batches:50ms}")
+    private Duration pauseBetweenBatches;
+
+    @Value("${fistein.read-model.lock-lease:10m}")
+    private Duration lockLease;
+
+    // Okuma modelinde paylar bu biçimde, id sırasıyla JSON olarak saklanır
+    record ListedShare(Long id, Long userId, String name, String email, BigDecimal shareAmount,
+                       BigDecimal percentage, Boolean isSettled) {
+    }
+
+    private record BatchResult(List<ExpenseKey> missing, List<ExpenseKey> stale) {
+    }
+
+    public ExpenseReadModelServiceImpl(ExpenseListingRepository listingRepository,
+                                       ExpenseRepository expenseRepository,
+                                       SchedulerLockManager lockManager,
+                                       ObjectMapper objectMapper,
+                                       PlatformTransactionManager transactionManager) {
+        this.listingRepository = listingRepository;
+        this.expenseRepository = expenseRepository;
+        this.lockManager = lockManager;
+        this.objectMapper = objectMapper;
+        // Denetim replica'dan değil birincil veritabanından okur; gecikme tutarsızlık sayılmasın
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${fistein.read-model.check-initial-delay:30s}",
+               fixedDelayString = "${fistein.read-model.check-interval:6h}")
+    public void scheduledCheck() {
+        if (checkEnabled) {
+            checkConsistency(repair);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refresh(Collection<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        // created_at INSERT sırasında üretilir; yeni harcamalar önce yazılır. Sürüm çakışması da burada
+        // ortaya çıkar ve repository üzerinden çevrildiği için @RetryOnConflict yakalar
+        expenseRepository.flush();
+        Map<Long, ExpenseListing> existing = listingRepository.lockByExpenseIdIn(
+                        expenses.stream().map(Expense::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(ExpenseListing::getExpenseId, Function.identity()));
+
+        // Aynı harcamanın başka paylarına yazan (ör. ayrı bir ödeme onayı) satır kilidini bırakana kadar
+        // beklenir; paylar sonra tek sorguda veritabanından okunur, böylece onun değişikliği listeden silinmez
+        Map<Long, List<ListedShare>> currentShares = readShares(existing.values());
+
+        List<ExpenseListing> inserts = new ArrayList<>();
+        for (Expense expense : expenses) {
+            ExpenseListing current = existing.get(expense.getId());
+            if (current == null) {
+                inserts.add(toListing(expense));
+                continue;
+            }
+            BeanUtils.copyProperties(toListing(expense, currentShares.getOrDefault(expense.getId(), List.of())),
+                    current);
+        }
+        listingRepository.saveAll(inserts);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Collection<Long> expenseIds) {
+        if (!expenseIds.isEmpty()) {
+            listingRepository.deleteByExpenseIdIn(expenseIds);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> findGroupIds(Collection<Long> expenseIds) {
+        if (expenseIds.isEmpty()) {
+            return Map.of();
+        }
+        return listingRepository.findKeysByExpenseIdIn(expenseIds).stream()
+                .collect(Collectors.toMap(ExpenseKey::id, ExpenseKey::groupId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ExpenseResponse> findGroupExpenses(Group group, User currentUser, Pageable pageable) {
+        return listingRepository.findByGroupIdOrderByCreatedAtDesc(group.getId(), pageable)
+                .map(listing -> mapToExpenseResponse(listing, group, currentUser));
+    }
+
+    @Override
+    public ConsistencyReport checkConsistency(boolean repair) {
+        Optional<String> lock = lockManager.tryLock(LOCK_NAME, lockLease);
+        if (lock.isEmpty()) {
+            log.debug("Okuma modeli denetimi başka bir düğümde çalışıyor");
+            return new ConsistencyReport(0, 0, 0, 0, 0);
+        }
+
+        long checked = 0;
+        long missing = 0;
+        long stale = 0;
+        long orphaned = 0;
+        long repaired = 0;
+        try {
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<ExpenseKey> keys = transactionTemplate.execute(status ->
+                        expenseRepository.findKeysAfter(from, PageRequest.of(0, batchSize)));
+                if (keys.isEmpty()) {
+                    break;
+                }
+                afterId = keys.get(keys.size() - 1).id();
+
+                BatchResult result = transactionTemplate.execute(status -> compareBatch(keys));
+                checked += keys.size();
+                missing += result.missing().size();
+                stale += result.stale().size();
+                if (repair) {
+                    repaired += insertMissing(result.missing()) + repairAll(result.stale());
+                }
+
+                if (keys.size() < batchSize || !lockManager.extend(LOCK_NAME, lock.get(), lockLease) || !pause()) {
+                    break;
+                }
+            }
+
+            afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<ExpenseKey> keys = transactionTemplate.execute(status ->
+                        listingRepository.findOrphanedKeys(from, PageRequest.of(0, batchSize)));
+                if (keys.isEmpty()) {
+                    break;
+                }
+                afterId = keys.get(keys.size() - 1).id();
+                orphaned += keys.size();
+                if (repair) {
+                    repaired += repairAll(keys);
+                }
+                if (keys.size() < batchSize) {
+                    break;
+                }
+            }
+        } finally {
+            lockManager.unlock(LOCK_NAME, lock.get());
+        }
+
+        ConsistencyReport report = new ConsistencyReport(checked, missing, stale, orphaned, repaired);
+        if (report.consistent()) {
+            log.debug("Okuma modeli tutarlı ({} harcama)", checked);
+        } else {
+            log.warn("Okuma modeli tutarsız: {} harcama denetlendi, {} eksik, {} eskimiş, {} fazla satır, {} düzeltildi",
+                    checked, missing, stale, orphaned, repaired);
+        }
+        return report;
+    }
+
+    private BatchResult compareBatch(List<ExpenseKey> keys) {
+        List<Long> ids = keys.stream().map(ExpenseKey::id).collect(Collectors.toList());
+        Map<Long, ExpenseListing> listings = listingRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ExpenseListing::getExpenseId, Function.identity()));
+        List<ExpenseKey> missing = new ArrayList<>();
+        List<ExpenseKey> stale = new ArrayList<>();
+        for (Expense expense : expenseRepository.findWithSharesByGroupIdInAndIdIn(groupIds(keys), ids)) {
+            ExpenseListing listing = listings.get(expense.getId());
+            if (listing == null) {
+                missing.add(new ExpenseKey(expense.getId(), expense.getGroupId()));
+            } else if (!listing.equals(toListing(expense))) {
+                stale.add(new ExpenseKey(expense.getId(), expense.getGroupId()));
+            }
+        }
+        return new BatchResult(missing, stale);
+    }
+
+    // Eksik satırlar parça halinde eklenir: JDBC ile yüklenmiş veya modelden önce yazılmış harcamalar
+    private long insertMissing(List<ExpenseKey> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Long> expenseIds = keys.stream().map(ExpenseKey::id).collect(Collectors.toList());
+        try {
+            Integer inserted = transactionTemplate.execute(status -> {
+                Set<Long> present = listingRepository.findAllById(expenseIds).stream()
+                        .map(ExpenseListing::getExpenseId)
+                        .collect(Collectors.toSet());
+                List<ExpenseListing> listings = expenseRepository
+                        .findWithSharesByGroupIdInAndIdIn(groupIds(keys), expenseIds).stream()
+                        .filter(expense -> !present.contains(expense.getId()))
+                        .map(this::toListing)
+                        .collect(Collectors.toList());
+                listingRepository.saveAll(listings);
+                return listings.size();
+            });
+            return inserted != null ? inserted : 0;
+        } catch (DataAccessException e) {
+            // Bu arada bir yazar aynı satırı eklemiş; kalanlar bir sonraki denetimde eklenir
+            log.debug("Eksik okuma modeli satırları eklenemedi: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private long repairAll(List<ExpenseKey> keys) {
+        long repaired = 0;
+        for (ExpenseKey key : keys) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> repair(key)))) {
+                    repaired++;
+                }
+            } catch (DataAccessException e) {
+                log.debug("Okuma modeli satırı {} düzeltilemedi: {}", key.id(), e.getMessage());
+            }
+        }
+        return repaired;
+    }
+
+    // Satır kilitlendikten sonra kaynak yeniden okunur: bu sırada commit eden bir yazarın değişikliği kaybolmaz
+    private boolean repair(ExpenseKey key) {
+        Optional<ExpenseListing> current = listingRepository.lockByExpenseIdIn(List.of(key.id())).stream().findFirst();
+        Optional<Expense> expense = expenseRepository
+                .findWithSharesByGroupIdInAndIdIn(List.of(key.groupId()), List.of(key.id())).stream().findFirst();
+        if (expense.isEmpty()) {
+            current.ifPresent(listingRepository::delete);
+            return current.isPresent();
+        }
+        ExpenseListing expected = toListing(expense.get());
+        if (current.isEmpty()) {
+            listingRepository.save(expected);
+            return true;
+        }
+        if (current.get().equals(expected)) {
+            return false;
+        }
+        BeanUtils.copyProperties(expected, current.get());
+        return true;
+    }
+
+    private ExpenseListing toListing(Expense expense) {
+        return toListing(expense, expense.getShares().stream()
+                .sorted(Comparator.comparing(ExpenseShare::getId))
+                .map(share -> new ListedShare(share.getId(), share.getUser().getId(), share.getUser().getName(),
+                        share.getUser().getEmail(), scaled(share.getShareAmount()), scaled(share.getPercentage()),
+                        share.getIsSettled()))
+                .collect(Collectors.toList()));
+    }
+
+    private static Set<Long> groupIds(List<ExpenseKey> keys) {
+        return keys.stream().map(ExpenseKey::groupId).collect(Collectors.toSet());
+    }
+
+    // Skaler projeksiyon persistence context'teki payları değil tablodaki son hali okur; entity refresh'in
+    // aksine pay başına ayrı sorgu atmaz
+    private Map<Long, List<ListedShare>> readShares(Collection<ExpenseListing> listings) {
+        if (listings.isEmpty()) {
+            return Map.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT es.expense.id, es.id, u.id, u.name, u.email, es.shareAmount, es.percentage, es.isSettled " +
+                        "FROM ExpenseShare es JOIN es.user u " +
+                        "WHERE es.groupId IN :groupIds AND es.expense.id IN :expenseIds ORDER BY es.id", Object[].class)
+                .setParameter("groupIds", listings.stream().map(ExpenseListing::getGroupId).collect(Collectors.toSet()))
+                .setParameter("expenseIds", listings.stream().map(ExpenseListing::getExpenseId).collect(Collectors.toList()))
+                .getResultStream()
+                .collect(Collectors.groupingBy(row -> (Long) row[0], Collectors.mapping(row -> new ListedShare(
+                        (Long) row[1], (Long) row[2], (String) row[3], (String) row[4],
+                        scaled((BigDecimal) row[5]), scaled((BigDecimal) row[6]), (Boolean) row[7]),
+                        Collectors.toList())));
+    }
+
+    private ExpenseListing toListing(Expense expense, List<ListedShare> shares) {
+        User paidBy = expense.getPaidBy();
+        return ExpenseListing.builder()
+                .expenseId(expense.getId())
+                .groupId(expense.getGroup().getId())
+                .createdAt(expense.getCreatedAt())
+                .description(expense.getDescription())
+                .amount(expense.getAmount())
+                .currency(expense.getCurrency())
+                .paidByUserId(paidBy.getId())
+                .paidByName(paidBy.getName())
+                .paidByEmail(paidBy.getEmail())
+                .expenseDate(expense.getExpenseDate())
+                .splitType(expense.getSplitType())
+                .notes(expense.getNotes())
+                .shareCount(shares.size())
+                .sharesJson(writeShares(shares))
+                .build();
+    }
+
+    // Sütun ölçeği: bellekteki 50 ile veritabanından okunan 50.00 aynı JSON'u üretsin
+    private static BigDecimal scaled(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : null;
+    }
+
+    private boolean pause() {
+        if (pauseBetweenBatches.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatches.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String writeShares(List<ListedShare> shares) {
+        try {
+            return objectMapper.writeValueAsString(shares);
+        } catch (JsonProcessingException e) {
+            throw new FisteinException("Harcama paylaşımları yazılamadı", e);
+        }
+    }
+
+    private List<ListedShare> readShares(ExpenseListing listing) {
+        try {
+            return objectMapper.readValue(listing.getSharesJson(), SHARE_LIST);
+        } catch (JsonProcessingException e) {
+            throw new FisteinException("Harcama paylaşımları okunamadı", e);
+        }
+    }
+
+    private ExpenseResponse mapToExpenseResponse(ExpenseListing listing, Group group, User currentUser) {
+        BigDecimal currentUserShare = BigDecimal.ZERO;
+        List<ExpenseShareResponse> shareResponses = new ArrayList<>(listing.getShareCount());
+        for (ListedShare share : readShares(listing)) {
+            if (share.userId().equals(currentUser.getId())) {
+                currentUserShare = share.shareAmount();
+            }
+            shareResponses.add(ExpenseShareResponse.builder()
+                    .id(share.id())
+                    .user(mapToUserResponse(share.userId(), share.email(), share.name()))
+                    .shareAmount(share.shareAmount())
+                    .percentage(share.percentage())
+                    .isSettled(share.isSettled())
+                    .build());
+        }
+
+        return ExpenseResponse.builder()
+                .id(listing.getExpenseId())
+                .description(listing.getDescription())
+                .amount(listing.getAmount())
+                .currency(listing.getCurrency())
+                .groupId(group.getId())
+                .groupName(group.getName())
+                .paidBy(mapToUserResponse(listing.getPaidByUserId(), listing.getPaidByEmail(), listing.getPaidByName()))
+                .createdAt(listing.getCreatedAt())
+                .expenseDate(listing.getExpenseDate())
+                .splitType(listing.getSplitType())
+                .notes(listing.getNotes())
+                .shares(shareResponses)
+                .currentUserShare(currentUserShare)
+                .isCurrentUserPayer(listing.getPaidByUserId().equals(currentUser.getId()))
+                .build();
+    }
+
+    private static UserResponse mapToUserResponse(Long id, String email, String name) {
+        return UserResponse.builder()
+                .id(id)
+                .username(email)
+                .email(email)
+                .fullName(name)
+                .build();
+    }
+}
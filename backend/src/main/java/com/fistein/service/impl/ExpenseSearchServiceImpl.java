@@ -0,0 +1,200 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseSearchResponse;
+import com.fistein.entity.User;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.repository.ExpenseSummaryRow;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.service.ExpenseSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseSearchServiceImpl implements ExpenseSearchService {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TOKENS = 8;
+
+    // PostgreSQL'de GIN indeksi ve sorgu aynı ifadeyi kullanmalı, yoksa indeks devreye girmez
+    private static final String PG_DOCUMENT =
+            "to_tsvector('simple', coalesce(e.description, '') || ' ' || coalesce(e.notes, ''))";
+    // Bölümlenmiş tabloya geçişte de aynı indeks tanımı kullanılır
+    static final String PG_SEARCH_INDEX_DEFINITION =
+            "USING GIN (to_tsvector('simple', coalesce(description, '') || ' ' || coalesce(notes, '')))";
+    private static final String PG_SEARCH_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_expenses_search ON expenses " + PG_SEARCH_INDEX_DEFINITION;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ExpenseRepository expenseRepository;
+    private final GroupRepository groupRepository;
+    private final GroupMemberRepository groupMemberRepository;
+
+    private volatile Boolean postgres;
+
+    private record Hit(long id, double rank) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndex() {
+        if (isPostgres()) {
+            jdbcTemplate.getJdbcTemplate().execute(PG_SEARCH_INDEX);
+            log.info("Harcama arama indeksi hazır (idx_expenses_search)");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpenseSearchResponse search(Long groupId, String query, String cursor, int size, User currentUser) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Grup bulunamadı");
+        }
+        if (!groupMemberRepository.existsByGroupIdAndUserAndIsActiveTrue(groupId, currentUser)) {
+            throw new RuntimeException("Bu gruba erişim yetkiniz yok");
+        }
+
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            throw new FisteinException("Arama ifadesi en az bir harf veya rakam içermeli",
+                    FisteinException.ErrorType.BAD_REQUEST);
+        }
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Hit after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+
+        // Bir fazlası okunur: varsa sonraki sayfa vardır
+        List<Hit> hits = isPostgres()
+                ? searchPostgres(groupId, tokens, after, pageSize + 1)
+                : searchFallback(groupId, tokens, after, pageSize + 1);
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) {
+            hits = hits.subList(0, pageSize);
+        }
+
+        List<ExpenseResponse> content = List.of();
+        if (!hits.isEmpty()) {
+            Map<Long, ExpenseSummaryRow> rows = expenseRepository
+                    .findSummariesByIds(groupId, hits.stream().map(Hit::id).collect(Collectors.toList()), currentUser.getId())
+                    .stream()
+                    .collect(Collectors.toMap(ExpenseSummaryRow::id, Function.identity()));
+            // Sıralama alaka puanından gelir, IN sorgusunun sırasına güvenilmez
+            content = hits.stream()
+                    .map(hit -> rows.get(hit.id()))
+                    .filter(Objects::nonNull)
+                    .map(row -> ExpenseServiceImpl.mapToExpenseSummaryResponse(row, currentUser))
+                    .collect(Collectors.toList());
+        }
+
+        return ExpenseSearchResponse.builder()
+                .content(content)
+                .nextCursor(hasMore ? encodeCursor(hits.get(hits.size() - 1)) : null)
+                .build();
+    }
+
+    private List<Hit> searchPostgres(Long groupId, List<String> tokens, Hit after, int limit) {
+        // Her kelime önek olarak aranır: "tak rom" -> 'tak:* & rom:*'
+        String tsQuery = tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & "));
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("query", tsQuery)
+                .addValue("limit", limit);
+
+        String sql = "SELECT id, score FROM (" +
+                "SELECT e.id AS id, ts_rank(" + PG_DOCUMENT + ", q.query) AS score " +
+                "FROM expenses e, to_tsquery('simple', :query) AS q(query) " +
+                "WHERE e.group_id = :groupId AND " + PG_DOCUMENT + " @@ q.query) hits " +
+                keysetCondition(after, params) +
+                "ORDER BY score DESC, id DESC LIMIT :limit";
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new Hit(rs.getLong("id"), rs.getFloat("score")));
+    }
+
+    // H2 gibi tam metin desteği olmayan veritabanları için: kelime başı eşleşmesi, açıklama notlardan ağır basar
+    private List<Hit> searchFallback(Long groupId, List<String> tokens, Hit after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("limit", limit);
+
+        String description = "LOWER(COALESCE(e.description, ''))";
+        String notes = "LOWER(COALESCE(e.notes, ''))";
+        List<String> filters = new ArrayList<>();
+        List<String> scores = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            params.addValue("start" + i, tokens.get(i) + "%");
+            params.addValue("word" + i, "% " + tokens.get(i) + "%");
+            String inDescription = "(" + description + " LIKE :start" + i + " OR " + description + " LIKE :word" + i + ")";
+            String inNotes = "(" + notes + " LIKE :start" + i + " OR " + notes + " LIKE :word" + i + ")";
+            filters.add("(" + inDescription + " OR " + inNotes + ")");
+            scores.add("CASE WHEN " + inDescription + " THEN 2 ELSE 0 END + CASE WHEN " + inNotes + " THEN 1 ELSE 0 END");
+        }
+
+        String sql = "SELECT id, score FROM (" +
+                "SELECT e.id AS id, CAST(" + String.join(" + ", scores) + " AS DOUBLE PRECISION) AS score " +
+                "FROM expenses e WHERE e.group_id = :groupId AND " + String.join(" AND ", filters) + ") hits " +
+                keysetCondition(after, params) +
+                "ORDER BY score DESC, id DESC LIMIT :limit";
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new Hit(rs.getLong("id"), rs.getDouble("score")));
+    }
+
+    private String keysetCondition(Hit after, MapSqlParameterSource params) {
+        if (after == null) {
+            return "";
+        }
+        params.addValue("afterRank", after.rank());
+        params.addValue("afterId", after.id());
+        return "WHERE score < :afterRank OR (score = :afterRank AND id < :afterId) ";
+    }
+
+    static List<String> tokenize(String query) {
+        if (query == null) {
+            return List.of();
+        }
+        // Harf ve rakam dışındaki her şey ayırıcıdır; tsquery operatörleri böylece kullanıcıdan gelemez
+        return Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .limit(MAX_TOKENS)
+                .collect(Collectors.toList());
+    }
+
+    private static String encodeCursor(Hit hit) {
+        String raw = hit.rank() + ":" + hit.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Hit decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            return new Hit(Long.parseLong(raw.substring(separator + 1)), Double.parseDouble(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new FisteinException("Geçersiz cursor değeri", FisteinException.ErrorType.BAD_REQUEST);
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.getJdbcTemplate().execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = result;
+        }
+        return result;
+    }
+}
@@ -1,9 +1,17 @@
 package com.fistein.service.impl;
 
+import com.fistein.config.RetryOnConflict;
 import com.fistein.dto.*;
 import com.fistein.entity.*;
 import com.fistein.repository.*;
+import com.fistein.service.ExpenseArchiveService;
+import com.fistein.service.ExpenseReadModelService;
 import com.fistein.service.ExpenseService;
+import com.fistein.service.FxRateService;
+import com.fistein.service.FxRateSnapshot;
+import com.fistein.service.GroupBalanceSnapshotService;
+import com.fistein.service.PairwiseBalanceDelta;
+import com.fistein.service.PairwiseBalanceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,7 +19,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,6 +33,14 @@ public class ExpenseServiceImpl implements ExpenseService {
     private final GroupRepository groupRepository;
     private final GroupMemberRepository groupMemberRepository;
     private final UserRepository userRepository;
+    private final ExpenseShareCalculator shareCalculator;
+    private final ArchivedBalanceSummaryRepository archivedBalanceSummaryRepository;
+    private final ExpenseArchiveService expenseArchiveService;
+    private final FxRateService fxRateService;
+    private final ExpenseReadModelService readModelService;
+    private final GroupBalanceSnapshotService balanceSnapshotService;
+    private final PairwiseBalanceService pairwiseBalanceService;
+    private final PairwiseBalanceRepository pairwiseBalanceRepository;
 
     @Override
     public ExpenseResponse createExpense(Long groupId, CreateExpenseRequest request, User currentUser) {
@@ -39,6 +54,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         Expense expense = Expense.builder()
                 .description(request.getDescription())
                 .amount(request.getAmount())
+                .currency(request.getCurrency() != null
+                        ? fxRateService.requireSupported(request.getCurrency()) : group.getBaseCurrency())
                 .group(group)
                 .paidBy(currentUser)
                 .expenseDate(request.getExpenseDate() != null ? request.getExpenseDate() : LocalDateTime.now())
@@ -49,7 +66,11 @@ public class ExpenseServiceImpl implements ExpenseService {
         expense = expenseRepository.save(expense);
 
         // Paylaşımları oluştur
-        createExpenseShares(expense, request, group);
+        reconcileShares(expense, shareCalculator.calculate(group, expense.getSplitType(),
+                expense.getAmount(), request.getShares()));
+        pairwiseBalanceService.apply(new PairwiseBalanceDelta().add(expense.getShares()));
+        readModelService.refresh(List.of(expense));
+        balanceSnapshotService.markDirty(expense.getGroupId());
 
         return mapToExpenseResponse(expense, currentUser);
     }
@@ -57,8 +78,13 @@ public class ExpenseServiceImpl implements ExpenseService {
     @Override
     @Transactional(readOnly = true)
     public ExpenseResponse getExpenseById(Long expenseId, User currentUser) {
-        Expense expense = expenseRepository.findByIdWithShares(expenseId)
-                .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
+        Optional<Expense> live = findWithShares(expenseId);
+        if (live.isEmpty()) {
+            // Arşivlenmiş eski harcamalar aynı adresten okunmaya devam eder
+            return expenseArchiveService.findArchivedExpense(expenseId, currentUser)
+                    .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
+        }
+        Expense expense = live.get();
 
         if (!isUserMemberOfGroup(expense.getGroup(), currentUser)) {
             throw new RuntimeException("Bu harcamaya erişim yetkiniz yok");
@@ -77,19 +103,135 @@ public class ExpenseServiceImpl implements ExpenseService {
             throw new RuntimeException("Bu gruba erişim yetkiniz yok");
         }
 
+        // Ödeyen ve paylar okuma modelinde satıra gömülü; birleştirme ve ek sorgu yok
+        return readModelService.findGroupExpenses(group, currentUser, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ExpenseResponse> getGroupExpenseSummaries(Long groupId, User currentUser, Pageable pageable) {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
+
+        if (!isUserMemberOfGroup(group, currentUser)) {
+            throw new RuntimeException("Bu gruba erişim yetkiniz yok");
+        }
+
+        return expenseRepository.findSummariesByGroupId(groupId, currentUser.getId(), pageable)
+                .map(row -> mapToExpenseSummaryResponse(row, currentUser));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpensePageResponse getGroupExpensesWithUserTable(Long groupId, User currentUser, Pageable pageable) {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
+
+        if (!isUserMemberOfGroup(group, currentUser)) {
+            throw new RuntimeException("Bu gruba erişim yetkiniz yok");
+        }
+
         Page<Expense> expenses = expenseRepository.findByGroupOrderByCreatedAtDesc(group, pageable);
-        return expenses.map(expense -> mapToExpenseResponse(expense, currentUser));
+        Map<Long, List<ExpenseShare>> sharesByExpense = findSharesWithUsers(groupId, expenses.getContent());
+
+        // Sayfadaki her kullanıcı yalnızca bir kez yazılır
+        Map<Long, UserResponse> users = new LinkedHashMap<>();
+        List<ExpenseResponse> content = expenses.getContent().stream()
+                .map(expense -> mapToCompactExpenseResponse(expense,
+                        sharesByExpense.getOrDefault(expense.getId(), List.of()), currentUser, users))
+                .collect(Collectors.toList());
+
+        return ExpensePageResponse.builder()
+                .content(content)
+                .users(new ArrayList<>(users.values()))
+                .number(expenses.getNumber())
+                .size(expenses.getSize())
+                .totalElements(expenses.getTotalElements())
+                .totalPages(expenses.getTotalPages())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpenseResponse getExpenseSummary(Long expenseId, User currentUser) {
+        ExpenseSummaryRow row = findGroupId(expenseId)
+                .flatMap(groupId -> expenseRepository.findSummaryById(groupId, expenseId, currentUser.getId()))
+                .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
+
+        if (!groupMemberRepository.existsByGroupIdAndUserAndIsActiveTrue(row.groupId(), currentUser)) {
+            throw new RuntimeException("Bu harcamaya erişim yetkiniz yok");
+        }
+
+        return mapToExpenseSummaryResponse(row, currentUser);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpenseResponse getExpenseWithUserTable(Long expenseId, User currentUser) {
+        Expense expense = findGroupId(expenseId)
+                .flatMap(groupId -> expenseRepository.findByIdAndGroupId(expenseId, groupId))
+                .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
+
+        if (!isUserMemberOfGroup(expense.getGroup(), currentUser)) {
+            throw new RuntimeException("Bu harcamaya erişim yetkiniz yok");
+        }
+
+        Map<Long, UserResponse> users = new LinkedHashMap<>();
+        ExpenseResponse response = mapToCompactExpenseResponse(expense,
+                findSharesWithUsers(expense.getGroupId(), List.of(expense)).getOrDefault(expense.getId(), List.of()), currentUser, users);
+        response.setUsers(new ArrayList<>(users.values()));
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpenseBatchResponse getExpensesByIds(List<Long> expenseIds, User currentUser) {
+        // Aynı id birden çok kez istense de bir kez okunur; cevap istek sırasını korur
+        Set<Long> ids = new LinkedHashSet<>(expenseIds);
+        // Kullanıcının grupları bölümleme anahtarıdır: yalnızca okuyabileceği harcamaların bölümleri okunur
+        Set<Long> memberOf = groupMemberRepository.findActiveGroupIdsByUser(currentUser);
+        Map<Long, Expense> live = memberOf.isEmpty() ? Map.of()
+                : expenseRepository.findWithSharesByGroupIdInAndIdIn(memberOf, ids).stream()
+                        .collect(Collectors.toMap(Expense::getId, expense -> expense));
+
+        List<Long> notLive = ids.stream().filter(id -> !live.containsKey(id)).toList();
+        ExpenseBatchResponse archived = notLive.isEmpty() ? new ExpenseBatchResponse()
+                : expenseArchiveService.findArchivedExpenses(notLive, currentUser);
+        // Ne canlı ne arşivde bulunanlar: başka bir grubun harcaması mı yoksa hiç yok mu, okuma modeli söyler
+        List<Long> unresolved = notLive.stream()
+                .filter(id -> !archived.getExpenses().containsKey(id) && !archived.getErrors().containsKey(id))
+                .toList();
+        Set<Long> inOtherGroups = readModelService.findGroupIds(unresolved).keySet();
+
+        ExpenseBatchResponse response = new ExpenseBatchResponse();
+        for (Long id : ids) {
+            Expense expense = live.get(id);
+            if (expense != null) {
+                response.getExpenses().put(id, mapToExpenseResponse(expense, currentUser));
+            } else if (archived.getExpenses().containsKey(id)) {
+                response.getExpenses().put(id, archived.getExpenses().get(id));
+            } else if (inOtherGroups.contains(id)) {
+                response.getErrors().put(id, ExpenseBatchResponse.ItemError.forbidden("Bu harcamaya erişim yetkiniz yok"));
+            } else {
+                response.getErrors().put(id, archived.getErrors().getOrDefault(id,
+                        ExpenseBatchResponse.ItemError.notFound("Harcama bulunamadı")));
+            }
+        }
+        return response;
     }
 
     @Override
+    @RetryOnConflict
     public ExpenseResponse updateExpense(Long expenseId, UpdateExpenseRequest request, User currentUser) {
-        Expense expense = expenseRepository.findByIdWithShares(expenseId)
+        Expense expense = findWithShares(expenseId)
                 .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
 
         if (!expense.getPaidBy().getId().equals(currentUser.getId()) && 
             !isUserAdminOfGroup(expense.getGroup(), currentUser)) {
             throw new RuntimeException("Bu harcamayı güncelleme yetkiniz yok");
         }
+        // Ödeyen, para birimi ve paylar değişmeden önceki borçlar
+        PairwiseBalanceDelta delta = new PairwiseBalanceDelta().subtract(expense.getShares());
 
         // Temel bilgileri güncelle
         if (request.getDescription() != null) {
@@ -98,6 +240,9 @@ public class ExpenseServiceImpl implements ExpenseService {
         if (request.getAmount() != null) {
             expense.setAmount(request.getAmount());
         }
+        if (request.getCurrency() != null) {
+            expense.setCurrency(fxRateService.requireSupported(request.getCurrency()));
+        }
         if (request.getExpenseDate() != null) {
             expense.setExpenseDate(request.getExpenseDate());
         }
@@ -105,33 +250,27 @@ public class ExpenseServiceImpl implements ExpenseService {
             expense.setNotes(request.getNotes());
         }
 
-        // Paylaşım tipi veya paylaşımlar değiştiyse
+        // Paylaşım tipi veya paylaşımlar değiştiyse yalnızca farkları uygula
         if (request.getSplitType() != null || request.getShares() != null) {
-            // Mevcut paylaşımları sil
-            Set<ExpenseShare> sharesToDelete = new HashSet<>(expense.getShares());
-            expense.getShares().clear();
-            expenseShareRepository.deleteAll(sharesToDelete);
-
             if (request.getSplitType() != null) {
                 expense.setSplitType(request.getSplitType());
             }
 
-            // Yeni paylaşımları oluştur
-            CreateExpenseRequest createRequest = new CreateExpenseRequest();
-            createRequest.setSplitType(expense.getSplitType());
-            createRequest.setShares(request.getShares());
-            createRequest.setAmount(expense.getAmount());
-
-            createExpenseShares(expense, createRequest, expense.getGroup());
+            reconcileShares(expense, shareCalculator.calculate(expense.getGroup(), expense.getSplitType(),
+                    expense.getAmount(), request.getShares()));
         }
 
         expense = expenseRepository.save(expense);
+        pairwiseBalanceService.apply(delta.add(expense.getShares()));
+        readModelService.refresh(List.of(expense));
+        balanceSnapshotService.markDirty(expense.getGroupId());
         return mapToExpenseResponse(expense, currentUser);
     }
 
     @Override
+    @RetryOnConflict
     public void deleteExpense(Long expenseId, User currentUser) {
-        Expense expense = expenseRepository.findById(expenseId)
+        Expense expense = findWithShares(expenseId)
                 .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
 
         if (!expense.getPaidBy().getId().equals(currentUser.getId()) && 
@@ -139,13 +278,16 @@ public class ExpenseServiceImpl implements ExpenseService {
             throw new RuntimeException("Bu harcamayı silme yetkiniz yok");
         }
 
+        pairwiseBalanceService.apply(new PairwiseBalanceDelta().subtract(expense.getShares()));
         expenseRepository.delete(expense);
+        readModelService.remove(List.of(expenseId));
+        balanceSnapshotService.markDirty(expense.getGroupId());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ExpenseShareResponse> getExpenseShares(Long expenseId, User currentUser) {
-        Expense expense = expenseRepository.findByIdWithShares(expenseId)
+        Expense expense = findWithShares(expenseId)
                 .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
 
         if (!isUserMemberOfGroup(expense.getGroup(), currentUser)) {
@@ -158,14 +300,16 @@ public class ExpenseServiceImpl implements ExpenseService {
     }
 
     @Override
+    @RetryOnConflict
     public void settleExpense(Long expenseId, SettleExpenseRequest request, User currentUser) {
-        Expense expense = expenseRepository.findByIdWithShares(expenseId)
+        Expense expense = findWithShares(expenseId)
                 .orElseThrow(() -> new RuntimeException("Harcama bulunamadı"));
 
         if (!isUserMemberOfGroup(expense.getGroup(), currentUser)) {
             throw new RuntimeException("Bu harcamaya erişim yetkiniz yok");
         }
 
+        PairwiseBalanceDelta delta = new PairwiseBalanceDelta().subtract(expense.getShares());
         // Belirtilen paylaşımları ödenmiş olarak işaretle
         for (Long shareId : request.getShareIds()) {
             ExpenseShare share = expense.getShares().stream()
@@ -183,6 +327,9 @@ public class ExpenseServiceImpl implements ExpenseService {
         }
 
         expenseRepository.save(expense);
+        pairwiseBalanceService.apply(delta.add(expense.getShares()));
+        readModelService.refresh(List.of(expense));
+        balanceSnapshotService.markDirty(expense.getGroupId());
     }
 
     @Override
@@ -195,163 +342,196 @@ public class ExpenseServiceImpl implements ExpenseService {
             throw new RuntimeException("Bu gruba erişim yetkiniz yok");
         }
 
-        // Kullanıcının ödediği toplam
-        List<Expense> paidExpenses = expenseRepository.findByGroupAndPaidBy(group, currentUser);
-        BigDecimal totalPaid = paidExpenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Kullanıcının borçlu olduğu toplam
-        List<ExpenseShare> owedShares = expenseShareRepository
-                .findUnsettledSharesByGroupAndUser(groupId, currentUser);
-        BigDecimal totalOwed = owedShares.stream()
-                .map(ExpenseShare::getShareAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Bakiye hesapla
-        BigDecimal balance = totalPaid.subtract(totalOwed);
-
-        // Detaylı borç ve alacak bilgileri
-        Map<Long, UserBalanceResponse.DebtDetail> debtMap = new HashMap<>();
-        Map<Long, UserBalanceResponse.CreditDetail> creditMap = new HashMap<>();
-
-        // Borçları hesapla
-        for (ExpenseShare share : owedShares) {
-            if (!share.getExpense().getPaidBy().getId().equals(currentUser.getId())) {
-                Long creditorId = share.getExpense().getPaidBy().getId();
-                debtMap.computeIfAbsent(creditorId, k -> UserBalanceResponse.DebtDetail.builder()
-                        .creditor(mapToUserResponse(share.getExpense().getPaidBy()))
-                        .amount(BigDecimal.ZERO)
-                        .expenseCount(0)
-                        .build());
-
-                UserBalanceResponse.DebtDetail debt = debtMap.get(creditorId);
-                debt.setAmount(debt.getAmount().add(share.getShareAmount()));
-                debt.setExpenseCount(debt.getExpenseCount() + 1);
-            }
+        // Tutarlar (kişi, para birimi) başına toplanır ve grubun para birimine toplam üzerinden çevrilir
+        FxRateSnapshot rates = fxRateService.current();
+        String currency = group.getBaseCurrency();
+        List<CurrencyAggregateRow> paidRows = new ArrayList<>(expenseRepository.sumPaidByUser(groupId, currentUser));
+        // Arşivlenen harcamaların payları ödenmiş olduğundan bakiyeye yalnızca ödenen tutar girer
+        for (ArchivedBalanceSummary archived : archivedBalanceSummaryRepository.findByGroupIdAndUserId(groupId, currentUser.getId())) {
+            paidRows.add(new CurrencyAggregateRow(currentUser.getId(), archived.getCurrency(),
+                    archived.getTotalPaid(), archived.getPaidExpenseCount().longValue()));
         }
+        BigDecimal totalPaid = sumConverted(rates, paidRows, currency);
+        BigDecimal totalOwed = sumConverted(rates, expenseShareRepository.sumUnsettledOwedByUser(groupId, currentUser), currency);
+        BigDecimal balance = totalPaid.subtract(totalOwed);
 
-        // Alacakları hesapla
-        for (Expense expense : paidExpenses) {
-            for (ExpenseShare share : expense.getShares()) {
-                if (!share.getIsSettled() && !share.getUser().getId().equals(currentUser.getId())) {
-                    Long debtorId = share.getUser().getId();
-                    creditMap.computeIfAbsent(debtorId, k -> UserBalanceResponse.CreditDetail.builder()
-                            .debtor(mapToUserResponse(share.getUser()))
-                            .amount(BigDecimal.ZERO)
-                            .expenseCount(0)
-                            .build());
-
-                    UserBalanceResponse.CreditDetail credit = creditMap.get(debtorId);
-                    credit.setAmount(credit.getAmount().add(share.getShareAmount()));
-                    credit.setExpenseCount(credit.getExpenseCount() + 1);
-                }
-            }
-        }
+        // Detaylı borç ve alacak bilgileri: kişi çifti başına tutulan toplamlardan indeksle okunur
+        List<BalanceAggregateRow> debtRows = rates.convertRows(
+                pairwiseBalanceRepository.findDebtsInGroup(groupId, currentUser.getId()), id -> currency);
+        List<BalanceAggregateRow> creditRows = rates.convertRows(
+                pairwiseBalanceRepository.findCreditsInGroup(groupId, currentUser.getId()), id -> currency);
+        Map<Long, UserResponse> counterparties = loadCounterparties(debtRows, creditRows);
 
         return UserBalanceResponse.builder()
                 .user(mapToUserResponse(currentUser))
                 .groupId(group.getId())
                 .groupName(group.getName())
+                .currency(currency)
                 .totalPaid(totalPaid)
                 .totalOwed(totalOwed)
                 .balance(balance)
-                .debts(new ArrayList<>(debtMap.values()))
-                .credits(new ArrayList<>(creditMap.values()))
+                .debts(toDebtDetails(debtRows, counterparties))
+                .credits(toCreditDetails(creditRows, counterparties))
                 .build();
     }
 
-    private void createExpenseShares(Expense expense, CreateExpenseRequest request, Group group) {
-        Set<ExpenseShare> shares = new HashSet<>();
-        List<GroupMember> activeMembers = groupMemberRepository.findByGroupAndIsActiveTrue(group);
-
-        switch (expense.getSplitType()) {
-            case EQUAL:
-                createEqualShares(expense, activeMembers, shares);
-                break;
-            case EXACT:
-                createExactShares(expense, request, shares);
-                break;
-            case PERCENTAGE:
-                createPercentageShares(expense, request, shares);
-                break;
+    @Override
+    @Transactional(readOnly = true)
+    public UserBalancesResponse getUserBalances(User currentUser) {
+        // Grup sayısından bağımsız olarak sabit sayıda gruplanmış sorgu
+        List<GroupMember> memberships = groupMemberRepository.findActiveWithGroupByUser(currentUser);
+        Map<Long, String> groupCurrencies = memberships.stream()
+                .collect(Collectors.toMap(membership -> membership.getGroup().getId(),
+                        membership -> membership.getGroup().getBaseCurrency()));
+        String currency = fxRateService.defaultCurrency();
+        FxRateSnapshot rates = fxRateService.current();
+
+        List<CurrencyAggregateRow> paidRows = new ArrayList<>(expenseRepository.sumPaidPerActiveGroup(currentUser));
+        for (ArchivedBalanceSummary archived : archivedBalanceSummaryRepository.findByUserId(currentUser.getId())) {
+            if (!groupCurrencies.containsKey(archived.getGroupId())) {
+                continue;
+            }
+            paidRows.add(new CurrencyAggregateRow(archived.getGroupId(), archived.getCurrency(),
+                    archived.getTotalPaid(), archived.getPaidExpenseCount().longValue()));
+        }
+        // Grup toplamları grubun, kişi bazında tutarlar ve genel toplam varsayılan para biriminde
+        Map<Long, BigDecimal> paidByGroup = toAmountMap(rates.convertRows(paidRows, groupCurrencies::get));
+        Map<Long, BigDecimal> owedByGroup = toAmountMap(rates.convertRows(
+                expenseShareRepository.sumUnsettledOwedPerActiveGroup(currentUser), groupCurrencies::get));
+        List<BalanceAggregateRow> debtRows = rates.convertRows(
+                pairwiseBalanceRepository.sumDebtsPerCreditor(currentUser.getId()), id -> currency);
+        List<BalanceAggregateRow> creditRows = rates.convertRows(
+                pairwiseBalanceRepository.sumCreditsPerDebtor(currentUser.getId()), id -> currency);
+        Map<Long, UserResponse> counterparties = loadCounterparties(debtRows, creditRows);
+
+        BigDecimal totalPaid = BigDecimal.ZERO;
+        BigDecimal totalOwed = BigDecimal.ZERO;
+        List<UserBalanceResponse> groups = new ArrayList<>(memberships.size());
+        for (GroupMember membership : memberships) {
+            Group group = membership.getGroup();
+            BigDecimal paid = paidByGroup.getOrDefault(group.getId(), BigDecimal.ZERO);
+            BigDecimal owed = owedByGroup.getOrDefault(group.getId(), BigDecimal.ZERO);
+            totalPaid = totalPaid.add(rates.convert(paid, group.getBaseCurrency(), currency));
+            totalOwed = totalOwed.add(rates.convert(owed, group.getBaseCurrency(), currency));
+            groups.add(UserBalanceResponse.builder()
+                    .groupId(group.getId())
+                    .groupName(group.getName())
+                    .currency(group.getBaseCurrency())
+                    .totalPaid(paid)
+                    .totalOwed(owed)
+                    .balance(paid.subtract(owed))
+                    .build());
         }
 
-        expense.setShares(shares);
+        return UserBalancesResponse.builder()
+                .user(mapToUserResponse(currentUser))
+                .currency(currency)
+                .totalPaid(totalPaid)
+                .totalOwed(totalOwed)
+                .balance(totalPaid.subtract(totalOwed))
+                .groups(groups)
+                .debts(toDebtDetails(debtRows, counterparties))
+                .credits(toCreditDetails(creditRows, counterparties))
+                .build();
     }
 
-    private void createEqualShares(Expense expense, List<GroupMember> members, Set<ExpenseShare> shares) {
-        BigDecimal shareAmount = expense.getAmount()
-                .divide(BigDecimal.valueOf(members.size()), 2, RoundingMode.HALF_UP);
-
-        for (GroupMember member : members) {
-            ExpenseShare share = ExpenseShare.builder()
-                    .expense(expense)
-                    .user(member.getUser())
-                    .shareAmount(shareAmount)
-                    .isSettled(false)
-                    .build();
-            shares.add(share);
-        }
+    private static BigDecimal sumConverted(FxRateSnapshot rates, List<CurrencyAggregateRow> rows, String currency) {
+        return rates.convertRows(rows, id -> currency).stream()
+                .map(BalanceAggregateRow::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    private void createExactShares(Expense expense, CreateExpenseRequest request, Set<ExpenseShare> shares) {
-        if (request.getShares() == null || request.getShares().isEmpty()) {
-            throw new RuntimeException("Exact paylaşım için kullanıcı payları belirtilmelidir");
+    private Map<Long, UserResponse> loadCounterparties(List<BalanceAggregateRow> debtRows,
+                                                       List<BalanceAggregateRow> creditRows) {
+        Set<Long> counterpartyIds = new HashSet<>();
+        debtRows.forEach(row -> counterpartyIds.add(row.id()));
+        creditRows.forEach(row -> counterpartyIds.add(row.id()));
+        if (counterpartyIds.isEmpty()) {
+            return Map.of();
         }
+        return userRepository.findAllById(counterpartyIds).stream()
+                .collect(Collectors.toMap(User::getId, this::mapToUserResponse));
+    }
 
-        BigDecimal totalShares = request.getShares().stream()
-                .map(s -> s.getAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private static List<UserBalanceResponse.DebtDetail> toDebtDetails(List<BalanceAggregateRow> rows,
+                                                                      Map<Long, UserResponse> users) {
+        return rows.stream()
+                .map(row -> UserBalanceResponse.DebtDetail.builder()
+                        .creditor(users.get(row.id()))
+                        .amount(row.amount())
+                        .expenseCount(row.expenseCount().intValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
 
-        if (totalShares.compareTo(expense.getAmount()) != 0) {
-            throw new RuntimeException("Paylaşım toplamı harcama tutarına eşit olmalıdır");
-        }
+    private static List<UserBalanceResponse.CreditDetail> toCreditDetails(List<BalanceAggregateRow> rows,
+                                                                          Map<Long, UserResponse> users) {
+        return rows.stream()
+                .map(row -> UserBalanceResponse.CreditDetail.builder()
+                        .debtor(users.get(row.id()))
+                        .amount(row.amount())
+                        .expenseCount(row.expenseCount().intValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
 
-        for (CreateExpenseRequest.ExpenseShareRequest shareRequest : request.getShares()) {
-            User user = userRepository.findById(shareRequest.getUserId())
-                    .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
-
-            ExpenseShare share = ExpenseShare.builder()
-                    .expense(expense)
-                    .user(user)
-                    .shareAmount(shareRequest.getAmount())
-                    .isSettled(false)
-                    .build();
-            shares.add(share);
-        }
+    private static Map<Long, BigDecimal> toAmountMap(List<BalanceAggregateRow> rows) {
+        return rows.stream().collect(Collectors.toMap(BalanceAggregateRow::id, BalanceAggregateRow::amount));
     }
 
-    private void createPercentageShares(Expense expense, CreateExpenseRequest request, Set<ExpenseShare> shares) {
-        if (request.getShares() == null || request.getShares().isEmpty()) {
-            throw new RuntimeException("Percentage paylaşım için kullanıcı yüzdeleri belirtilmelidir");
+    /**
+     * Mevcut paylaşımları kullanıcı id'sine göre hedef paylaşımlarla karşılaştırır: yeni kullanıcılar
+     * eklenir, tutarı değişenler güncellenir, listede olmayanlar silinir. Tutarı değişmeyen
+     * paylaşımların ödeme durumu korunur. Değişiklikler flush sırasında JDBC batch olarak gider.
+     */
+    private void reconcileShares(Expense expense, List<ExpenseShareCalculator.PlannedShare> plannedShares) {
+        Map<Long, ExpenseShare> existingByUser = new HashMap<>();
+        for (ExpenseShare share : expense.getShares()) {
+            existingByUser.put(share.getUser().getId(), share);
         }
 
-        BigDecimal totalPercentage = request.getShares().stream()
-                .map(s -> s.getPercentage())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        if (totalPercentage.compareTo(new BigDecimal("100")) != 0) {
-            throw new RuntimeException("Yüzde toplamı 100 olmalıdır");
+        List<ExpenseShare> inserts = new ArrayList<>();
+        for (ExpenseShareCalculator.PlannedShare planned : plannedShares) {
+            ExpenseShare share = existingByUser.remove(planned.user().getId());
+            if (share == null) {
+                inserts.add(ExpenseShare.builder()
+                        .expense(expense)
+                        .user(planned.user())
+                        .shareAmount(planned.amount())
+                        .percentage(planned.percentage())
+                        .isSettled(false)
+                        .build());
+            } else {
+                if (!sameAmount(share.getShareAmount(), planned.amount())) {
+                    share.setShareAmount(planned.amount());
+                    share.setIsSettled(false);
+                }
+                // Ölçek farkı (50 ve 50.00) gereksiz UPDATE üretmesin
+                if (!sameAmount(share.getPercentage(), planned.percentage())) {
+                    share.setPercentage(planned.percentage());
+                }
+            }
         }
 
-        for (CreateExpenseRequest.ExpenseShareRequest shareRequest : request.getShares()) {
-            User user = userRepository.findById(shareRequest.getUserId())
-                    .orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı"));
-
-            BigDecimal shareAmount = expense.getAmount()
-                    .multiply(shareRequest.getPercentage())
-                    .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-
-            ExpenseShare share = ExpenseShare.builder()
-                    .expense(expense)
-                    .user(user)
-                    .shareAmount(shareAmount)
-                    .percentage(shareRequest.getPercentage())
-                    .isSettled(false)
-                    .build();
-            shares.add(share);
-        }
+        // Kalanlar artık paylaşımda değil; orphanRemoval ile silinir
+        expense.getShares().removeAll(existingByUser.values());
+        expense.getShares().addAll(inserts);
+        expenseShareRepository.saveAll(inserts);
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    // Bölümleme anahtarı okuma modelinin birincil anahtar okumasından gelir; satırı henüz olmayan
+    // (ör. JDBC ile yüklenmiş) harcamanın grubu tüm bölümlere bakılarak bulunur
+    private Optional<Long> findGroupId(Long expenseId) {
+        Long groupId = readModelService.findGroupIds(List.of(expenseId)).get(expenseId);
+        return groupId != null ? Optional.of(groupId) : expenseRepository.findGroupIdById(expenseId);
+    }
+
+    private Optional<Expense> findWithShares(Long expenseId) {
+        return findGroupId(expenseId).flatMap(groupId -> expenseRepository.findByIdWithShares(groupId, expenseId));
     }
 
     private boolean isUserMemberOfGroup(Group group, User user) {
@@ -379,6 +559,7 @@ public class ExpenseServiceImpl implements ExpenseService {
                 .id(expense.getId())
                 .description(expense.getDescription())
                 .amount(expense.getAmount())
+                .currency(expense.getCurrency())
                 .groupId(expense.getGroup().getId())
                 .groupName(expense.getGroup().getName())
                 .paidBy(mapToUserResponse(expense.getPaidBy()))
@@ -392,6 +573,78 @@ public class ExpenseServiceImpl implements ExpenseService {
                 .build();
     }
 
+    private Map<Long, List<ExpenseShare>> findSharesWithUsers(Long groupId, List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> expenseIds = expenses.stream().map(Expense::getId).collect(Collectors.toList());
+        return expenseShareRepository.findWithUserByExpenseIds(groupId, expenseIds).stream()
+                .collect(Collectors.groupingBy(share -> share.getExpense().getId()));
+    }
+
+    // Paysız liste satırı; arama sonuçları da aynı biçimde döner
+    static ExpenseResponse mapToExpenseSummaryResponse(ExpenseSummaryRow row, User currentUser) {
+        return ExpenseResponse.builder()
+                .id(row.id())
+                .description(row.description())
+                .amount(row.amount())
+                .currency(row.currency())
+                .groupId(row.groupId())
+                .groupName(row.groupName())
+                .paidBy(UserResponse.builder()
+                        .id(row.paidById())
+                        .username(row.paidByEmail())
+                        .email(row.paidByEmail())
+                        .fullName(row.paidByName())
+                        .build())
+                .createdAt(row.createdAt())
+                .expenseDate(row.expenseDate())
+                .splitType(row.splitType())
+                .notes(row.notes())
+                .currentUserShare(row.currentUserShare() != null ? row.currentUserShare() : BigDecimal.ZERO)
+                .isCurrentUserPayer(row.paidById().equals(currentUser.getId()))
+                .build();
+    }
+
+    private ExpenseResponse mapToCompactExpenseResponse(Expense expense, List<ExpenseShare> shares,
+                                                        User currentUser, Map<Long, UserResponse> users) {
+        users.computeIfAbsent(expense.getPaidBy().getId(), id -> mapToUserResponse(expense.getPaidBy()));
+
+        BigDecimal currentUserShare = BigDecimal.ZERO;
+        List<ExpenseShareResponse> shareResponses = new ArrayList<>(shares.size());
+        for (ExpenseShare share : shares) {
+            Long userId = share.getUser().getId();
+            users.computeIfAbsent(userId, id -> mapToUserResponse(share.getUser()));
+            if (userId.equals(currentUser.getId())) {
+                currentUserShare = share.getShareAmount();
+            }
+            shareResponses.add(ExpenseShareResponse.builder()
+                    .id(share.getId())
+                    .userId(userId)
+                    .shareAmount(share.getShareAmount())
+                    .percentage(share.getPercentage())
+                    .isSettled(share.getIsSettled())
+                    .build());
+        }
+
+        return ExpenseResponse.builder()
+                .id(expense.getId())
+                .description(expense.getDescription())
+                .amount(expense.getAmount())
+                .currency(expense.getCurrency())
+                .groupId(expense.getGroup().getId())
+                .groupName(expense.getGroup().getName())
+                .paidById(expense.getPaidBy().getId())
+                .createdAt(expense.getCreatedAt())
+                .expenseDate(expense.getExpenseDate())
+                .splitType(expense.getSplitType())
+                .notes(expense.getNotes())
+                .shares(shareResponses)
+                .currentUserShare(currentUserShare)
+                .isCurrentUserPayer(expense.getPaidBy().getId().equals(currentUser.getId()))
+                .build();
+    }
+
     private ExpenseShareResponse mapToExpenseShareResponse(ExpenseShare share) {
         return ExpenseShareResponse.builder()
                 .id(share.getId())
@@ -0,0 +1,161 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Paylaşım tipine göre her kullanıcının payını hesaplar. Entity oluşturmaz; mevcut
+ * paylaşımlarla karşılaştırma çağıran tarafa bırakılır.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpenseShareCalculator {
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final UserRepository userRepository;
+
+    public record PlannedShare(User user, BigDecimal amount, BigDecimal percentage) {
+    }
+
+    public List<PlannedShare> calculate(Group group, Expense.SplitType splitType, BigDecimal amount,
+                                        List<CreateExpenseRequest.ExpenseShareRequest> shareRequests) {
+        switch (splitType) {
+            case EXACT:
+                validateExact(amount, shareRequests);
+                return exactShares(shareRequests, loadUsers(shareRequests));
+            case PERCENTAGE:
+                validatePercentage(shareRequests);
+                return percentageShares(amount, shareRequests, loadUsers(shareRequests));
+            case EQUAL:
+            default:
+                return equalShares(activeMembers(group), amount);
+        }
+    }
+
+    // Toplu üretimde üyeler ve kullanıcılar önceden çözülür; burada sorgu atılmaz
+    public List<PlannedShare> calculate(Expense.SplitType splitType, BigDecimal amount, List<User> activeMembers,
+                                        List<CreateExpenseRequest.ExpenseShareRequest> shareRequests,
+                                        Map<Long, User> users) {
+        switch (splitType) {
+            case EXACT:
+                validateExact(amount, shareRequests);
+                return exactShares(shareRequests, users);
+            case PERCENTAGE:
+                validatePercentage(shareRequests);
+                return percentageShares(amount, shareRequests, users);
+            case EQUAL:
+            default:
+                return equalShares(activeMembers, amount);
+        }
+    }
+
+    private List<User> activeMembers(Group group) {
+        return groupMemberRepository.findActiveWithUserByGroup(group).stream()
+                .map(GroupMember::getUser)
+                .collect(Collectors.toList());
+    }
+
+    private List<PlannedShare> equalShares(List<User> members, BigDecimal amount) {
+        if (members == null || members.isEmpty()) {
+            throw new RuntimeException("Grupta aktif üye yok");
+        }
+        BigDecimal shareAmount = amount
+                .divide(BigDecimal.valueOf(members.size()), 2, RoundingMode.HALF_UP);
+
+        List<PlannedShare> shares = new ArrayList<>(members.size());
+        for (User member : members) {
+            shares.add(new PlannedShare(member, shareAmount, null));
+        }
+        return shares;
+    }
+
+    private void validateExact(BigDecimal amount, List<CreateExpenseRequest.ExpenseShareRequest> shareRequests) {
+        if (shareRequests == null || shareRequests.isEmpty()) {
+            throw new RuntimeException("Exact paylaşım için kullanıcı payları belirtilmelidir");
+        }
+
+        BigDecimal totalShares = shareRequests.stream()
+                .map(s -> s.getAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        if (totalShares.compareTo(amount) != 0) {
+            throw new RuntimeException("Paylaşım toplamı harcama tutarına eşit olmalıdır");
+        }
+    }
+
+    private List<PlannedShare> exactShares(List<CreateExpenseRequest.ExpenseShareRequest> shareRequests,
+                                           Map<Long, User> users) {
+        List<PlannedShare> shares = new ArrayList<>(shareRequests.size());
+        for (CreateExpenseRequest.ExpenseShareRequest shareRequest : shareRequests) {
+            shares.add(new PlannedShare(user(users, shareRequest), shareRequest.getAmount(), null));
+        }
+        return shares;
+    }
+
+    private void validatePercentage(List<CreateExpenseRequest.ExpenseShareRequest> shareRequests) {
+        if (shareRequests == null || shareRequests.isEmpty()) {
+            throw new RuntimeException("Percentage paylaşım için kullanıcı yüzdeleri belirtilmelidir");
+        }
+
+        BigDecimal totalPercentage = shareRequests.stream()
+                .map(s -> s.getPercentage())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        if (totalPercentage.compareTo(new BigDecimal("100")) != 0) {
+            throw new RuntimeException("Yüzde toplamı 100 olmalıdır");
+        }
+    }
+
+    private List<PlannedShare> percentageShares(BigDecimal amount,
+                                                List<CreateExpenseRequest.ExpenseShareRequest> shareRequests,
+                                                Map<Long, User> users) {
+        List<PlannedShare> shares = new ArrayList<>(shareRequests.size());
+        for (CreateExpenseRequest.ExpenseShareRequest shareRequest : shareRequests) {
+            BigDecimal shareAmount = amount
+                    .multiply(shareRequest.getPercentage())
+                    .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+            shares.add(new PlannedShare(user(users, shareRequest), shareAmount, shareRequest.getPercentage()));
+        }
+        return shares;
+    }
+
+    private static User user(Map<Long, User> users, CreateExpenseRequest.ExpenseShareRequest shareRequest) {
+        User user = users.get(shareRequest.getUserId());
+        if (user == null) {
+            throw new RuntimeException("Kullanıcı bulunamadı");
+        }
+        return user;
+    }
+
+    // Pay başına findById yerine tek sorgu
+    private Map<Long, User> loadUsers(List<CreateExpenseRequest.ExpenseShareRequest> shareRequests) {
+        List<Long> userIds = shareRequests.stream()
+                .map(CreateExpenseRequest.ExpenseShareRequest::getUserId)
+                .collect(Collectors.toList());
+        if (userIds.stream().distinct().count() != userIds.size()) {
+            throw new RuntimeException("Bir kullanıcı için birden fazla pay belirtilemez");
+        }
+
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        if (users.size() != userIds.size()) {
+            throw new RuntimeException("Kullanıcı bulunamadı");
+        }
+        return users;
+    }
+}
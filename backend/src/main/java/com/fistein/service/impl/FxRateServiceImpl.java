@@ -0,0 +1,219 @@
+package com.fistein.service.impl;
+
+import com.fistein.entity.FxRate;
+import com.fistein.entity.User;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.FxRateRepository;
+import com.fistein.service.FxRateService;
+import com.fistein.service.FxRateSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Kurlar dış bir servisten istenmez: günlük dosyadan veya yönetici ucundan veritabanına yazılır,
+ * her düğüm en güncel günü belleğe alır. Bakiye hesapları yalnızca bellekteki kopyayı okur.
+ */
+@Slf4j
+@Service
+public class FxRateServiceImpl implements FxRateService {
+
+    private final FxRateRepository fxRateRepository;
+    private final ResourceLoader resourceLoader;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicReference<FxRateSnapshot> snapshot = new AtomicReference<>(FxRateSnapshot.empty());
+
+    @Value("${fistein.fx.default-currency:TRY}")
+    private String defaultCurrency;
+
+    // Satır biçimi: tarih,para birimi,1 EUR karşılığı (2025-01-15,TRY,36.8123)
+    @Value("${fistein.fx.rates-file:classpath:fx-rates.csv}")
+    private String ratesFile;
+
+    @Value("${fistein.fx.admin-emails:}")
+    private Set<String> adminEmails;
+
+    public FxRateServiceImpl(FxRateRepository fxRateRepository,
+                             ResourceLoader resourceLoader,
+                             PlatformTransactionManager transactionManager) {
+        this.fxRateRepository = fxRateRepository;
+        this.resourceLoader = resourceLoader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        scheduledImport();
+    }
+
+    // Yeni günün dosyası yerine konduğunda içe aktarılır
+    @Scheduled(cron = "${fistein.fx.import-cron:0 30 17 * * *}")
+    public void scheduledImport() {
+        try {
+            importRatesFile();
+        } catch (RuntimeException e) {
+            log.warn("Kur dosyası içe aktarılamadı ({}): {}", ratesFile, e.getMessage());
+        }
+        refresh();
+    }
+
+    // Başka bir düğümde yönetici ucundan yapılan güncellemeler de bu yolla gelir
+    @Scheduled(fixedDelayString = "${fistein.fx.refresh-interval:10m}",
+               initialDelayString = "${fistein.fx.refresh-interval:10m}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    @Override
+    public FxRateSnapshot current() {
+        return snapshot.get();
+    }
+
+    @Override
+    public String defaultCurrency() {
+        return defaultCurrency;
+    }
+
+    @Override
+    public String requireSupported(String currency) {
+        String code = normalize(currency);
+        if (!current().supports(code)) {
+            throw new FisteinException(code + " için kur bilgisi yok", FisteinException.ErrorType.BAD_REQUEST);
+        }
+        return code;
+    }
+
+    @Override
+    public FxRateSnapshot updateRates(LocalDate date, Map<String, BigDecimal> ratesPerPivot, User currentUser) {
+        if (!adminEmails.contains(currentUser.getEmail())) {
+            throw new FisteinException("Kurları güncelleme yetkiniz yok", FisteinException.ErrorType.FORBIDDEN);
+        }
+        if (date == null || ratesPerPivot == null || ratesPerPivot.isEmpty()) {
+            throw new FisteinException("Tarih ve en az bir kur gerekli", FisteinException.ErrorType.BAD_REQUEST);
+        }
+        Map<String, BigDecimal> rates = new HashMap<>();
+        ratesPerPivot.forEach((currency, rate) -> rates.put(normalize(currency), requirePositive(currency, rate)));
+        replaceRates(date, rates);
+        return refresh();
+    }
+
+    @Override
+    public int importRatesFile() {
+        Resource resource = resourceLoader.getResource(ratesFile);
+        if (!resource.exists()) {
+            log.info("Kur dosyası bulunamadı: {}", ratesFile);
+            return 0;
+        }
+        Map<LocalDate, Map<String, BigDecimal>> ratesByDate = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("date")) {
+                    continue;
+                }
+                parseLine(line, lineNumber, ratesByDate);
+            }
+        } catch (IOException e) {
+            throw new FisteinException("Kur dosyası okunamadı", e);
+        }
+
+        // Dosya tüm geçmişi içerebilir; yalnızca son yüklenen gün ve sonrası yazılır
+        LocalDate latest = readOnlyTransaction.execute(status -> fxRateRepository.findLatestRateDate());
+        int imported = 0;
+        for (Map.Entry<LocalDate, Map<String, BigDecimal>> entry : ratesByDate.entrySet()) {
+            if (latest == null || !entry.getKey().isBefore(latest)) {
+                replaceRates(entry.getKey(), entry.getValue());
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    @Override
+    public FxRateSnapshot refresh() {
+        FxRateSnapshot loaded = readOnlyTransaction.execute(status -> {
+            LocalDate latest = fxRateRepository.findLatestRateDate();
+            if (latest == null) {
+                return FxRateSnapshot.empty();
+            }
+            return new FxRateSnapshot(latest, fxRateRepository.findByRateDate(latest).stream()
+                    .collect(Collectors.toMap(FxRate::getCurrency, FxRate::getRate)));
+        });
+        // Daha eski bir gün okunmuşsa (ör. gecikmeli replica) mevcut kopya korunur
+        FxRateSnapshot result = snapshot.updateAndGet(existing -> existing.date() == null
+                || (loaded.date() != null && !loaded.date().isBefore(existing.date())) ? loaded : existing);
+        log.debug("Kurlar yenilendi: {} ({} para birimi)", result.date(), result.ratesPerPivot().size());
+        return result;
+    }
+
+    private void replaceRates(LocalDate date, Map<String, BigDecimal> rates) {
+        transactionTemplate.executeWithoutResult(status -> {
+            fxRateRepository.deleteByRateDate(date);
+            fxRateRepository.flush();
+            fxRateRepository.saveAll(rates.entrySet().stream()
+                    .filter(entry -> !FxRateSnapshot.PIVOT.equals(entry.getKey()))
+                    .map(entry -> FxRate.builder().rateDate(date).currency(entry.getKey()).rate(entry.getValue()).build())
+                    .collect(Collectors.toList()));
+        });
+    }
+
+    private static void parseLine(String line, int lineNumber, Map<LocalDate, Map<String, BigDecimal>> ratesByDate) {
+        String[] parts = line.split(",");
+        if (parts.length != 3) {
+            throw new FisteinException("Kur dosyası satır " + lineNumber + ": üç sütun bekleniyor",
+                    FisteinException.ErrorType.BAD_REQUEST);
+        }
+        try {
+            String currency = normalize(parts[1]);
+            ratesByDate.computeIfAbsent(LocalDate.parse(parts[0].trim()), k -> new HashMap<>())
+                    .put(currency, requirePositive(currency, new BigDecimal(parts[2].trim())));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new FisteinException("Kur dosyası satır " + lineNumber + ": geçersiz değer",
+                    FisteinException.ErrorType.BAD_REQUEST);
+        }
+    }
+
+    private static String normalize(String currency) {
+        if (currency == null) {
+            throw new FisteinException("Para birimi gerekli", FisteinException.ErrorType.BAD_REQUEST);
+        }
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        try {
+            return Currency.getInstance(code).getCurrencyCode();
+        } catch (IllegalArgumentException e) {
+            throw new FisteinException("Geçersiz para birimi: " + currency, FisteinException.ErrorType.BAD_REQUEST);
+        }
+    }
+
+    private static BigDecimal requirePositive(String currency, BigDecimal rate) {
+        if (rate == null || rate.signum() <= 0) {
+            throw new FisteinException(currency + " kuru sıfırdan büyük olmalı", FisteinException.ErrorType.BAD_REQUEST);
+        }
+        return rate;
+    }
+}
@@ -5,19 +5,16 @@ import com.fistein.dto.JwtResponse;
 import com.fistein.dto.UserResponse;
 import com.fistein.entity.User;
 import com.fistein.repository.UserRepository;
+import com.fistein.security.CustomUserDetailsService;
 import com.fistein.service.GoogleOAuthService;
 import com.fistein.util.JwtUtil;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
@@ -25,21 +22,15 @@ public class GoogleOAuthServiceImpl implements GoogleOAuthService {
 
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
-
-    @Value("${google.oauth.client-id:your-google-client-id}")
-    private String googleClientId;
+    private final CustomUserDetailsService userDetailsService;
+    // Lazy bean; Google istemcisi ilk Google girişinde oluşturulur
+    private final ObjectProvider<GoogleIdTokenVerifier> verifier;
 
     @Override
     public JwtResponse authenticateWithGoogle(GoogleLoginRequest request) {
         try {
-            // Verify the Google ID token
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                    new NetHttpTransport(), GsonFactory.getDefaultInstance())
-                    .setAudience(Collections.singletonList(googleClientId))
-                    .build();
-
-            GoogleIdToken idToken = verifier.verify(request.getIdToken());
+            // Verify the Google ID token (public keys are cached by the shared verifier)
+            GoogleIdToken idToken = verifier.getObject().verify(request.getIdToken());
             if (idToken == null) {
                 throw new RuntimeException("Invalid Google ID token");
             }
@@ -54,8 +45,7 @@ public class GoogleOAuthServiceImpl implements GoogleOAuthService {
                     .orElseGet(() -> createNewGoogleUser(email, name, googleId));
 
             // Generate JWT token
-            var userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-            var jwtToken = jwtUtil.generateToken(userDetails);
+            var jwtToken = jwtUtil.generateToken(userDetailsService.toUserDetails(user));
 
             // Create UserResponse
             var userResponse = UserResponse.builder()
@@ -0,0 +1,111 @@
+package com.fistein.service.impl;
+
+import com.fistein.entity.ArchivedBalanceSummary;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.ArchivedBalanceSummaryRepository;
+import com.fistein.repository.BalanceAggregateRow;
+import com.fistein.repository.CurrencyAggregateRow;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.repository.ExpenseShareRepository;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.service.FxRateSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Grubun bakiyelerini ve borç eşleştirmesini verilen kurlarla hesaplar. Erişim kontrolü
+ * yapmaz; açık bir transaction içinden çağrılmalı.
+ */
+@Component
+@RequiredArgsConstructor
+public class GroupBalanceCalculator {
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final ArchivedBalanceSummaryRepository archivedBalanceSummaryRepository;
+
+    public GroupBalances calculate(Group group, FxRateSnapshot rates) {
+        // Grup üyelerini al; sıra üye listesinin sırasıdır
+        List<GroupMember> activeMembers = groupMemberRepository.findActiveWithUserByGroup(group);
+        Map<Long, User> users = new LinkedHashMap<>();
+        Map<Long, BigDecimal> userPaidMap = new HashMap<>();
+        Map<Long, BigDecimal> userOwedMap = new HashMap<>();
+        
+        // Kullanıcı bilgilerini hazırla
+        for (GroupMember member : activeMembers) {
+            User user = member.getUser();
+            users.put(user.getId(), user);
+            userPaidMap.put(user.getId(), BigDecimal.ZERO);
+            userOwedMap.put(user.getId(), BigDecimal.ZERO);
+        }
+
+        // Harcamalar satır satır yüklenmez: (kişi, para birimi) başına toplamlar tek seferde çevrilir
+        String currency = group.getBaseCurrency();
+        List<CurrencyAggregateRow> paidRows = new ArrayList<>(expenseRepository.sumPaidPerUser(group.getId()));
+        // Arşivlenmiş harcamalar: tüm payları ödenmiş, yalnızca ödenen tutar bakiyeye girer
+        for (ArchivedBalanceSummary archived : archivedBalanceSummaryRepository.findByGroupId(group.getId())) {
+            paidRows.add(new CurrencyAggregateRow(archived.getUserId(), archived.getCurrency(),
+                    archived.getTotalPaid(), archived.getPaidExpenseCount().longValue()));
+        }
+
+        BigDecimal totalExpenses = BigDecimal.ZERO;
+        for (BalanceAggregateRow row : rates.convertRows(paidRows, id -> currency)) {
+            totalExpenses = totalExpenses.add(row.amount());
+            userPaidMap.computeIfPresent(row.id(), (userId, paid) -> paid.add(row.amount()));
+        }
+        for (BalanceAggregateRow row : rates.convertRows(expenseShareRepository.sumUnsettledOwedPerUser(group.getId()),
+                id -> currency)) {
+            userOwedMap.computeIfPresent(row.id(), (userId, owed) -> owed.add(row.amount()));
+        }
+
+        // Kullanıcı bakiyelerini hesapla
+        List<GroupBalances.Member> members = new ArrayList<>(users.size());
+        for (User user : users.values()) {
+            members.add(new GroupBalances.Member(user.getId(), user.getName(), user.getEmail(),
+                    userPaidMap.get(user.getId()), userOwedMap.get(user.getId())));
+        }
+
+        return new GroupBalances(group.getId(), group.getName(), currency, totalExpenses, members,
+                calculateDebts(members));
+    }
+
+    // Basit borç eşleştirme; kalan tutarlar ayrı dizide izlenir, üye bakiyeleri değişmez
+    static List<GroupBalances.Debt> calculateDebts(List<GroupBalances.Member> members) {
+        BigDecimal[] remaining = new BigDecimal[members.size()];
+        List<Integer> creditors = new ArrayList<>();
+        List<Integer> debtors = new ArrayList<>();
+        for (int i = 0; i < remaining.length; i++) {
+            BigDecimal balance = members.get(i).balance();
+            remaining[i] = balance.abs();
+            if (balance.signum() > 0) {
+                creditors.add(i);
+            } else if (balance.signum() < 0) {
+                debtors.add(i);
+            }
+        }
+        // Alacaklılar ve borçlular tutara göre büyükten küçüğe
+        Comparator<Integer> largestFirst = (a, b) -> remaining[b].compareTo(remaining[a]);
+        creditors.sort(largestFirst);
+        debtors.sort(largestFirst);
+
+        List<GroupBalances.Debt> debts = new ArrayList<>();
+        for (int debtor : debtors) {
+            for (int creditor : creditors) {
+                if (remaining[debtor].signum() == 0) break;
+                if (remaining[creditor].signum() == 0) continue;
+
+                BigDecimal amount = remaining[debtor].min(remaining[creditor]);
+                debts.add(new GroupBalances.Debt(debtor, creditor, amount));
+                remaining[debtor] = remaining[debtor].subtract(amount);
+                remaining[creditor] = remaining[creditor].subtract(amount);
+            }
+        }
+        return debts;
+    }
+}
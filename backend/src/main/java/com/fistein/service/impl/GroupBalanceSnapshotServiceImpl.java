@@ -0,0 +1,341 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.GroupBalanceResponse;
+import com.fistein.entity.Group;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.GroupRepository;
+import com.fistein.service.FxRateService;
+import com.fistein.service.FxRateSnapshot;
+import com.fistein.service.GroupBalanceSnapshotService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grup bakiyelerini bellekte tutar ve yazmalardan sonra arka planda yeniden hesaplar.
+ * Kirli gruplar bir kümede birikir; aralık boyunca aynı gruba gelen tüm yazmalar tek
+ * hesaplamaya iner. Okumalar beklemeden son hesaplanan sonucu stale işaretiyle alır.
+ * Sonuçlar değişmez {@link GroupBalances} olarak, tahmini bellek boyutuyla sınırlı bir Caffeine
+ * önbelleğinde tutulur; idle-ttl boyunca okunmayan grup atılır.
+ */
+@Slf4j
+@Service
+public class GroupBalanceSnapshotServiceImpl implements GroupBalanceSnapshotService, DisposableBean {
+
+    private final GroupRepository groupRepository;
+    private final GroupBalanceCalculator calculator;
+    private final FxRateService fxRateService;
+    private final TransactionTemplate primaryTransaction;
+    private final Duration snapshotTtl;
+    private final Duration loadTimeout;
+
+    private final Cache<Long, Snapshot> snapshots;
+    // Son hesaplamadan sonra yazılan gruplar; aynı grubun tekrarları tek girişte birleşir
+    private final Set<Long> dirtyGroups = ConcurrentHashMap.newKeySet();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // İlk okumada aynı grubu isteyenler tek hesaplamayı bekler
+    private final Map<Long, CompletableFuture<Snapshot>> coldLoads = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService dispatcher;
+    private final Timer coldTimer;
+    private final Timer backgroundTimer;
+    private final Counter invalidations;
+
+    public GroupBalanceSnapshotServiceImpl(GroupRepository groupRepository,
+                                           GroupBalanceCalculator calculator,
+                                           FxRateService fxRateService,
+                                           PlatformTransactionManager transactionManager,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${fistein.balance.recompute-interval:1s}") Duration interval,
+                                           @Value("${fistein.balance.recompute-threads:2}") int threads,
+                                           @Value("${fistein.balance.queue-capacity:100}") int queueCapacity,
+                                           @Value("${fistein.balance.snapshot-ttl:60s}") Duration snapshotTtl,
+                                           @Value("${fistein.balance.idle-ttl:30m}") Duration idleTtl,
+                                           @Value("${fistein.balance.load-timeout:10s}") Duration loadTimeout,
+                                           @Value("${fistein.balance.cache-max-memory:64MB}") DataSize maxMemory) {
+        this.groupRepository = groupRepository;
+        this.calculator = calculator;
+        this.fxRateService = fxRateService;
+        this.snapshotTtl = snapshotTtl;
+        this.loadTimeout = loadTimeout;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((Long groupId, Snapshot snapshot) -> snapshot.balances.estimatedBytes())
+                .expireAfter(new IdleExpiry(idleTtl))
+                .recordStats()
+                .build();
+        // Read-only değil, yani primary'den okur: kirli işaret silindikten sonra replica gecikmesi eski veri vermesin
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> daemon(runnable, "balance-recompute-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "balance-dispatch"));
+        this.dispatcher.scheduleWithFixedDelay(this::dispatchSafely,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+
+        this.coldTimer = Timer.builder("fistein.balance.recompute")
+                .description("Grup bakiyesi hesaplama süresi")
+                .tag("trigger", "read")
+                .register(meterRegistry);
+        this.backgroundTimer = Timer.builder("fistein.balance.recompute")
+                .description("Grup bakiyesi hesaplama süresi")
+                .tag("trigger", "write")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("fistein.balance.invalidations")
+                .description("Bellekteki bakiyeyi eskiten yazma bildirimleri")
+                .register(meterRegistry);
+        meterRegistry.gauge("fistein.balance.recompute.queue", dirtyGroups, Set::size);
+        meterRegistry.gauge("fistein.balance.snapshots", snapshots, Cache::estimatedSize);
+        // cache.gets (hit/miss), cache.evictions; stale dönen okumalar da hit sayılır
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "group-balances");
+        meterRegistry.gauge("fistein.balance.cache.hit.ratio", snapshots, cache -> cache.stats().hitRate());
+        meterRegistry.gauge("fistein.balance.cache.memory", snapshots,
+                cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        // Tek hesaplamada birleşen bildirimlerin oranı: 0.9, on yazmanın bir hesaplamaya indiği anlamına gelir
+        meterRegistry.gauge("fistein.balance.recompute.coalescing", this, service -> service.coalescingRatio());
+    }
+
+    @Override
+    public GroupBalanceResponse getBalances(Long groupId) {
+        Snapshot snapshot = snapshots.getIfPresent(groupId);
+        if (snapshot == null) {
+            snapshot = loadCold(groupId);
+        }
+        long now = System.currentTimeMillis();
+
+        // Başka düğümdeki yazmalar buraya bildirilmez; süresi dolan sonuç da yeniden hesaplanır
+        boolean expired = now - snapshot.computedAtMillis > snapshotTtl.toMillis()
+                || snapshot.rates != fxRateService.current();
+        if (expired) {
+            enqueue(groupId);
+        }
+        boolean stale = expired || dirtyGroups.contains(groupId) || inFlight.contains(groupId);
+        return snapshot.balances.toResponse(snapshot.computedAt, stale);
+    }
+
+    @Override
+    public void markDirty(Long groupId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(groupId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(groupId);
+            }
+        });
+    }
+
+    @Override
+    public void evict(Long groupId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            discard(groupId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                discard(groupId);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        workers.shutdown();
+    }
+
+    /**
+     * Kirli grupları işçilere dağıtır. Hesaplaması süren grup bir sonraki tura kalır;
+     * kuyruk dolarsa kalanlar da.
+     */
+    void recomputeDirtyGroups() {
+        for (Long groupId : dirtyGroups) {
+            if (inFlight.contains(groupId) || coldLoads.containsKey(groupId)) {
+                continue;
+            }
+            if (!isCached(groupId)) {
+                // Okunmayan grup hesaplanmaz; ilk okuma güncel veriyle hesaplar
+                dirtyGroups.remove(groupId);
+                continue;
+            }
+            inFlight.add(groupId);
+            dirtyGroups.remove(groupId);
+            try {
+                workers.execute(() -> recompute(groupId));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(groupId);
+                dirtyGroups.add(groupId);
+                log.debug("Bakiye hesaplama kuyruğu dolu, {} kirli grup sonraki tura kaldı", dirtyGroups.size());
+                return;
+            }
+        }
+    }
+
+    double coalescingRatio() {
+        double notified = invalidations.count();
+        return notified == 0 ? 0 : Math.max(0, 1 - backgroundTimer.count() / notified);
+    }
+
+    private void enqueue(Long groupId) {
+        // Bellekte olmayan grup için bildirim tutulmaz; sonraki okuma zaten baştan hesaplar
+        if (!isCached(groupId) && !coldLoads.containsKey(groupId)) {
+            return;
+        }
+        invalidations.increment();
+        dirtyGroups.add(groupId);
+    }
+
+    private void recompute(Long groupId) {
+        try {
+            Snapshot fresh = compute(groupId, backgroundTimer);
+            // Güncelleme boşta kalma süresini uzatmaz (IdleExpiry); yazılıp okunmayan grup bellekten düşer
+            snapshots.asMap().computeIfPresent(groupId, (id, previous) -> fresh);
+        } catch (RuntimeException e) {
+            log.warn("Grup {} bakiyesi yeniden hesaplanamadı: {}", groupId, e.getMessage());
+            dirtyGroups.add(groupId);
+        } finally {
+            inFlight.remove(groupId);
+        }
+    }
+
+    // İlk okuma çağıranın thread'inde hesaplanır; havuz yalnızca arka plan yenilemeleri içindir ve dolu
+    // olması ilk okumayı reddetmez. Aynı grubu aynı anda isteyenler bu hesaplamayı bekler
+    private Snapshot loadCold(Long groupId) {
+        CompletableFuture<Snapshot> load = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = coldLoads.putIfAbsent(groupId, load);
+        if (running == null) {
+            try {
+                // Önceki ilk okuma biz sıraya girmeden bitmiş olabilir
+                Snapshot snapshot = snapshots.policy().getIfPresentQuietly(groupId);
+                if (snapshot == null) {
+                    dirtyGroups.remove(groupId);
+                    snapshot = compute(groupId, coldTimer);
+                    snapshots.put(groupId, snapshot);
+                }
+                load.complete(snapshot);
+                return snapshot;
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+                throw e;
+            } finally {
+                coldLoads.remove(groupId, load);
+            }
+        }
+
+        try {
+            return running.get(loadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw busy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FisteinException("Bakiye hesaplaması kesildi", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new FisteinException("Bakiye hesaplanamadı", e.getCause());
+        }
+    }
+
+    private Snapshot compute(Long groupId, Timer timer) {
+        return timer.record(() -> primaryTransaction.execute(status -> {
+            Group group = groupRepository.findById(groupId)
+                    .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
+            FxRateSnapshot rates = fxRateService.current();
+            return new Snapshot(calculator.calculate(group, rates), rates, LocalDateTime.now(),
+                    System.currentTimeMillis());
+        }));
+    }
+
+    private void dispatchSafely() {
+        try {
+            recomputeDirtyGroups();
+        } catch (RuntimeException e) {
+            log.warn("Bakiye hesaplama dağıtımı başarısız: {}", e.getMessage());
+        }
+    }
+
+    // Önbelleğe bakar; okuma istatistiğine ve boşta kalma süresine dokunmaz
+    private boolean isCached(Long groupId) {
+        return snapshots.policy().getIfPresentQuietly(groupId) != null;
+    }
+
+    private void discard(Long groupId) {
+        dirtyGroups.remove(groupId);
+        snapshots.invalidate(groupId);
+    }
+
+    private static FisteinException busy() {
+        return new FisteinException("Sunucu şu anda yoğun. Lütfen biraz sonra tekrar deneyin.",
+                FisteinException.ErrorType.SERVICE_UNAVAILABLE);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class Snapshot {
+        private final GroupBalances balances;
+        private final FxRateSnapshot rates;
+        private final LocalDateTime computedAt;
+        private final long computedAtMillis;
+
+        private Snapshot(GroupBalances balances, FxRateSnapshot rates, LocalDateTime computedAt,
+                         long computedAtMillis) {
+            this.balances = balances;
+            this.rates = rates;
+            this.computedAt = computedAt;
+            this.computedAtMillis = computedAtMillis;
+        }
+    }
+
+    // Yalnızca okumalar süreyi uzatır; arka plandaki yeniden hesaplama kalan süreyi korur
+    private record IdleExpiry(Duration idleTtl) implements Expiry<Long, Snapshot> {
+
+        @Override
+        public long expireAfterCreate(Long groupId, Snapshot snapshot, long currentTime) {
+            return idleTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long groupId, Snapshot snapshot, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Long groupId, Snapshot snapshot, long currentTime, long currentDuration) {
+            return idleTtl.toNanos();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.GroupBalanceResponse;
+import com.fistein.dto.UserResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hesaplanmış grup bakiyelerinin önbellekte tutulan değişmez biçimi. Üye bilgisi bir kez tutulur,
+ * borçlar üyelere sıra numarasıyla bağlanır; cevap nesneleri her okumada yeniden üretilir, böylece
+ * çağıranların DTO üzerinde yaptığı değişiklikler önbelleğe yansımaz.
+ */
+public record GroupBalances(long groupId, String groupName, String currency, BigDecimal totalExpenses,
+                            List<Member> members, List<Debt> debts) {
+
+    public record Member(long userId, String name, String email, BigDecimal totalPaid, BigDecimal totalOwed) {
+
+        BigDecimal balance() {
+            return totalPaid.subtract(totalOwed);
+        }
+    }
+
+    /** debtor ve creditor {@link #members} içindeki sıra numaralarıdır. */
+    public record Debt(int debtor, int creditor, BigDecimal amount) {
+    }
+
+    public GroupBalances {
+        members = List.copyOf(members);
+        debts = List.copyOf(debts);
+    }
+
+    public GroupBalanceResponse toResponse(LocalDateTime computedAt, boolean stale) {
+        List<UserResponse> users = new ArrayList<>(members.size());
+        List<GroupBalanceResponse.UserBalanceInfo> userBalances = new ArrayList<>(members.size());
+        for (Member member : members) {
+            UserResponse user = UserResponse.builder()
+                    .id(member.userId())
+                    .username(member.name())
+                    .email(member.email())
+                    .build();
+            users.add(user);
+            userBalances.add(GroupBalanceResponse.UserBalanceInfo.builder()
+                    .user(user)
+                    .totalPaid(member.totalPaid())
+                    .totalOwed(member.totalOwed())
+                    .balance(member.balance())
+                    .build());
+        }
+        List<GroupBalanceResponse.DebtInfo> debtInfos = new ArrayList<>(debts.size());
+        for (Debt debt : debts) {
+            debtInfos.add(GroupBalanceResponse.DebtInfo.builder()
+                    .debtor(users.get(debt.debtor()))
+                    .creditor(users.get(debt.creditor()))
+                    .amount(debt.amount())
+                    .build());
+        }
+        return GroupBalanceResponse.builder()
+                .groupId(groupId)
+                .groupName(groupName)
+                .currency(currency)
+                .totalExpenses(totalExpenses)
+                .userBalances(userBalances)
+                .debts(debtInfos)
+                .computedAt(computedAt)
+                .stale(stale)
+                .build();
+    }
+
+    /**
+     * Önbellek ağırlığı için kaba bellek tahmini (bayt): nesne başlıkları, BigDecimal'lar ve metinler.
+     * Kesin değil; farklı büyüklükteki grupları birbirine göre tartmaya yeter.
+     */
+    int estimatedBytes() {
+        int bytes = 160 + textBytes(groupName) + textBytes(currency) + 48;
+        for (Member member : members) {
+            bytes += 96 + textBytes(member.name()) + textBytes(member.email());
+        }
+        return bytes + debts.size() * 80;
+    }
+
+    private static int textBytes(String text) {
+        return text == null ? 0 : 48 + 2 * text.length();
+    }
+}
@@ -1,20 +1,20 @@
 package com.fistein.service.impl;
 
+import com.fistein.config.RetryOnConflict;
 import com.fistein.dto.*;
 import com.fistein.entity.Group;
 import com.fistein.entity.GroupMember;
 import com.fistein.entity.User;
-import com.fistein.repository.ExpenseRepository;
-import com.fistein.repository.ExpenseShareRepository;
 import com.fistein.repository.GroupMemberRepository;
 import com.fistein.repository.GroupRepository;
 import com.fistein.repository.UserRepository;
+import com.fistein.service.FxRateService;
+import com.fistein.service.GroupBalanceSnapshotService;
 import com.fistein.service.GroupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,14 +26,16 @@ public class GroupServiceImpl implements GroupService {
     private final GroupRepository groupRepository;
     private final GroupMemberRepository groupMemberRepository;
     private final UserRepository userRepository;
-    private final ExpenseRepository expenseRepository;
-    private final ExpenseShareRepository expenseShareRepository;
+    private final FxRateService fxRateService;
+    private final GroupBalanceSnapshotService balanceSnapshotService;
 
     @Override
     public GroupResponse createGroup(CreateGroupRequest request, User currentUser) {
         Group group = Group.builder()
                 .name(request.getName())
                 .description(request.getDescription())
+                .baseCurrency(request.getBaseCurrency() != null
+                        ? fxRateService.requireSupported(request.getBaseCurrency()) : fxRateService.defaultCurrency())
                 .createdBy(currentUser)
                 .isActive(true)
                 .build();
@@ -76,6 +78,7 @@ public class GroupServiceImpl implements GroupService {
     }
 
     @Override
+    @RetryOnConflict
     public GroupResponse addMemberToGroup(Long groupId, AddMemberRequest request, User currentUser) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
@@ -99,11 +102,13 @@ public class GroupServiceImpl implements GroupService {
                 .build();
 
         groupMemberRepository.save(groupMember);
+        balanceSnapshotService.markDirty(group.getId());
 
         return mapToGroupResponse(group, currentUser);
     }
 
     @Override
+    @RetryOnConflict
     public void removeMemberFromGroup(Long groupId, Long userId, User currentUser) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
@@ -118,9 +123,11 @@ public class GroupServiceImpl implements GroupService {
 
         member.setIsActive(false);
         groupMemberRepository.save(member);
+        balanceSnapshotService.markDirty(group.getId());
     }
 
     @Override
+    @RetryOnConflict
     public GroupResponse updateGroup(Long groupId, UpdateGroupRequest request, User currentUser) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
@@ -138,12 +145,17 @@ public class GroupServiceImpl implements GroupService {
         if (request.getIsActive() != null) {
             group.setIsActive(request.getIsActive());
         }
+        if (request.getBaseCurrency() != null) {
+            group.setBaseCurrency(fxRateService.requireSupported(request.getBaseCurrency()));
+        }
 
         group = groupRepository.save(group);
+        balanceSnapshotService.markDirty(group.getId());
         return mapToGroupResponse(group, currentUser);
     }
 
     @Override
+    @RetryOnConflict
     public void deleteGroup(Long groupId, User currentUser) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
@@ -154,6 +166,7 @@ public class GroupServiceImpl implements GroupService {
 
         group.setIsActive(false);
         groupRepository.save(group);
+        balanceSnapshotService.evict(group.getId());
     }
 
     @Override
@@ -182,108 +195,8 @@ public class GroupServiceImpl implements GroupService {
             throw new RuntimeException("Bu gruba erişim yetkiniz yok");
         }
 
-        // Grup üyelerini al
-        List<GroupMember> activeMembers = groupMemberRepository.findByGroupAndIsActiveTrue(group);
-        Map<Long, UserResponse> userMap = new HashMap<>();
-        Map<Long, BigDecimal> userPaidMap = new HashMap<>();
-        Map<Long, BigDecimal> userOwedMap = new HashMap<>();
-        
-        // Kullanıcı bilgilerini hazırla
-        for (GroupMember member : activeMembers) {
-            User user = member.getUser();
-            userMap.put(user.getId(), mapToUserResponse(user));
-            userPaidMap.put(user.getId(), BigDecimal.ZERO);
-            userOwedMap.put(user.getId(), BigDecimal.ZERO);
-        }
-
-        // Tüm grup harcamalarını al
-        List<com.fistein.entity.Expense> expenses = expenseRepository.findByGroupOrderByCreatedAtDesc(group, null).getContent();
-        BigDecimal totalExpenses = BigDecimal.ZERO;
-
-        // Her harcama için ödeme ve borç hesapla
-        for (com.fistein.entity.Expense expense : expenses) {
-            totalExpenses = totalExpenses.add(expense.getAmount());
-            
-            // Ödeyenin toplam ödemesini güncelle
-            Long payerId = expense.getPaidBy().getId();
-            userPaidMap.put(payerId, userPaidMap.get(payerId).add(expense.getAmount()));
-            
-            // Her kullanıcının payını hesapla
-            for (com.fistein.entity.ExpenseShare share : expense.getShares()) {
-                if (!share.getIsSettled()) {
-                    Long userId = share.getUser().getId();
-                    userOwedMap.put(userId, userOwedMap.get(userId).add(share.getShareAmount()));
-                }
-            }
-        }
-
-        // Kullanıcı bakiyelerini hesapla
-        List<GroupBalanceResponse.UserBalanceInfo> userBalances = new ArrayList<>();
-        for (Long userId : userMap.keySet()) {
-            BigDecimal paid = userPaidMap.get(userId);
-            BigDecimal owed = userOwedMap.get(userId);
-            BigDecimal balance = paid.subtract(owed);
-            
-            userBalances.add(GroupBalanceResponse.UserBalanceInfo.builder()
-                    .user(userMap.get(userId))
-                    .totalPaid(paid)
-                    .totalOwed(owed)
-                    .balance(balance)
-                    .build());
-        }
-
-        // Borç ilişkilerini hesapla (basitleştirilmiş)
-        List<GroupBalanceResponse.DebtInfo> debts = calculateDebts(userBalances);
-
-        return GroupBalanceResponse.builder()
-                .groupId(group.getId())
-                .groupName(group.getName())
-                .totalExpenses(totalExpenses)
-                .userBalances(userBalances)
-                .debts(debts)
-                .build();
-    }
-
-    private List<GroupBalanceResponse.DebtInfo> calculateDebts(List<GroupBalanceResponse.UserBalanceInfo> userBalances) {
-        List<GroupBalanceResponse.DebtInfo> debts = new ArrayList<>();
-        
-        // Alacaklıları ve borçluları ayır
-        List<GroupBalanceResponse.UserBalanceInfo> creditors = userBalances.stream()
-                .filter(ub -> ub.getBalance().compareTo(BigDecimal.ZERO) > 0)
-                .sorted((a, b) -> b.getBalance().compareTo(a.getBalance()))
-                .collect(Collectors.toList());
-                
-        List<GroupBalanceResponse.UserBalanceInfo> debtors = userBalances.stream()
-                .filter(ub -> ub.getBalance().compareTo(BigDecimal.ZERO) < 0)
-                .map(ub -> {
-                    ub.setBalance(ub.getBalance().abs());
-                    return ub;
-                })
-                .sorted((a, b) -> b.getBalance().compareTo(a.getBalance()))
-                .collect(Collectors.toList());
-
-        // Basit borç eşleştirme algoritması
-        for (GroupBalanceResponse.UserBalanceInfo debtor : debtors) {
-            BigDecimal remainingDebt = debtor.getBalance();
-            
-            for (GroupBalanceResponse.UserBalanceInfo creditor : creditors) {
-                if (remainingDebt.compareTo(BigDecimal.ZERO) == 0) break;
-                if (creditor.getBalance().compareTo(BigDecimal.ZERO) == 0) continue;
-                
-                BigDecimal amount = remainingDebt.min(creditor.getBalance());
-                
-                debts.add(GroupBalanceResponse.DebtInfo.builder()
-                        .debtor(debtor.getUser())
-                        .creditor(creditor.getUser())
-                        .amount(amount)
-                        .build());
-                
-                remainingDebt = remainingDebt.subtract(amount);
-                creditor.setBalance(creditor.getBalance().subtract(amount));
-            }
-        }
-        
-        return debts;
+        // Son hesaplanan sonuç döner; yazma dalgasında her okuma yeniden hesaplamaz
+        return balanceSnapshotService.getBalances(group.getId());
     }
 
     private boolean isUserMemberOfGroup(Group group, User user) {
@@ -304,6 +217,7 @@ public class GroupServiceImpl implements GroupService {
                 .id(group.getId())
                 .name(group.getName())
                 .description(group.getDescription())
+                .baseCurrency(group.getBaseCurrency())
                 .createdBy(mapToUserResponse(group.getCreatedBy()))
                 .createdAt(group.getCreatedAt())
                 .memberCount(memberCount)
@@ -0,0 +1,193 @@
+package com.fistein.service.impl;
+
+import com.fistein.entity.IdempotencyKey;
+import com.fistein.repository.IdempotencyKeyRepository;
+import com.fistein.service.IdempotencyService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration inProgressTimeout;
+
+    // Son tamamlanan cevaplar; tekrar denemeler veritabanına gitmeden buradan cevaplanır.
+    // Her kayıt anahtarın veritabanındaki ömrü (createdAt + ttl) dolunca düşer
+    private final Cache<String, CachedResponse> recentResponses;
+    // Bu node'da işlenmekte olan anahtarlar; eşzamanlı ikinci istek ilkinin sonucunu bekler
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${fistein.idempotency.cache-size:10000}") int cacheSize,
+                                  @Value("${fistein.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${fistein.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                                  @Value("${fistein.idempotency.in-progress-timeout:2m}") Duration inProgressTimeout) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.inProgressTimeout = inProgressTimeout;
+        this.recentResponses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(Expiry.creating((String key, CachedResponse cached) -> cached.remaining()))
+                .build();
+    }
+
+    @Override
+    public Claim claim(String scopedKey, String requestFingerprint) {
+        CachedResponse cached = recentResponses.getIfPresent(scopedKey);
+        if (cached != null) {
+            return replayIfSameRequest(cached.response(), requestFingerprint);
+        }
+
+        CompletableFuture<StoredResponse> ownFuture = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(scopedKey, ownFuture);
+        if (existing != null) {
+            return awaitConcurrentRequest(existing, requestFingerprint);
+        }
+
+        try {
+            Claim claim = claimInDatabase(scopedKey, requestFingerprint);
+            if (claim.outcome() != Outcome.ACQUIRED) {
+                finishInFlight(scopedKey, claim.response());
+            }
+            return claim;
+        } catch (RuntimeException e) {
+            finishInFlight(scopedKey, null);
+            throw e;
+        }
+    }
+
+    @Override
+    public void complete(String scopedKey, StoredResponse response) {
+        try {
+            LocalDateTime expiresAt = transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.findByScopedKey(scopedKey).map(record -> {
+                        record.setStatus(IdempotencyKey.Status.COMPLETED);
+                        record.setResponseStatus(response.status());
+                        record.setContentType(response.contentType());
+                        record.setResponseBody(response.body());
+                        return record.getCreatedAt().plus(ttl);
+                    }).orElse(null));
+            if (expiresAt != null) {
+                recentResponses.put(scopedKey, new CachedResponse(response, expiresAt));
+            }
+        } finally {
+            finishInFlight(scopedKey, response);
+        }
+    }
+
+    @Override
+    public void release(String scopedKey) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteByScopedKey(scopedKey));
+        } finally {
+            finishInFlight(scopedKey, null);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${fistein.idempotency.purge-interval:1h}")
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        Integer deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteOlderThan(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("{} süresi dolmuş idempotency anahtarı silindi", deleted);
+        }
+        return deleted != null ? deleted : 0;
+    }
+
+    private Claim claimInDatabase(String scopedKey, String requestFingerprint) {
+        // Read-only değil, yani primary'den okur: replica gecikmesinde tamamlanmış anahtar kaçırılıp
+        // insert unique ihlaline düşmesin
+        Optional<IdempotencyKey> existing = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.findByScopedKey(scopedKey));
+        if (existing.isPresent()) {
+            IdempotencyKey record = existing.get();
+            LocalDateTime expiresAt = record.getCreatedAt().plus(ttl);
+            if (record.getStatus() == IdempotencyKey.Status.COMPLETED && expiresAt.isAfter(LocalDateTime.now())) {
+                StoredResponse stored = new StoredResponse(record.getRequestFingerprint(), record.getResponseStatus(),
+                        record.getContentType(), record.getResponseBody());
+                recentResponses.put(scopedKey, new CachedResponse(stored, expiresAt));
+                return replayIfSameRequest(stored, requestFingerprint);
+            }
+            if (record.getStatus() == IdempotencyKey.Status.IN_PROGRESS
+                    && record.getCreatedAt().isAfter(LocalDateTime.now().minus(inProgressTimeout))) {
+                return Claim.of(Outcome.IN_PROGRESS);
+            }
+            // Süresi dolmuş ama henüz silinmemiş ya da çökmüş bir node'dan kalan kayıt: sahipliği devral
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteByScopedKey(scopedKey));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                    .scopedKey(scopedKey)
+                    .requestFingerprint(requestFingerprint)
+                    .status(IdempotencyKey.Status.IN_PROGRESS)
+                    .createdAt(LocalDateTime.now())
+                    .build()));
+            return Claim.acquired();
+        } catch (DataIntegrityViolationException e) {
+            // Başka bir node aynı anahtarı bizden önce aldı
+            return Claim.of(Outcome.IN_PROGRESS);
+        }
+    }
+
+    private Claim awaitConcurrentRequest(CompletableFuture<StoredResponse> existing, String requestFingerprint) {
+        try {
+            StoredResponse response = existing.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return response != null ? replayIfSameRequest(response, requestFingerprint) : Claim.of(Outcome.IN_PROGRESS);
+        } catch (TimeoutException | ExecutionException e) {
+            return Claim.of(Outcome.IN_PROGRESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Claim.of(Outcome.IN_PROGRESS);
+        }
+    }
+
+    private Claim replayIfSameRequest(StoredResponse stored, String requestFingerprint) {
+        if (!stored.requestFingerprint().equals(requestFingerprint)) {
+            return Claim.of(Outcome.MISMATCH);
+        }
+        return Claim.replay(stored);
+    }
+
+    private record CachedResponse(StoredResponse response, LocalDateTime expiresAt) {
+
+        Duration remaining() {
+            Duration remaining = Duration.between(LocalDateTime.now(), expiresAt);
+            return remaining.isNegative() ? Duration.ZERO : remaining;
+        }
+    }
+
+    private void finishInFlight(String scopedKey, StoredResponse response) {
+        CompletableFuture<StoredResponse> future = inFlight.remove(scopedKey);
+        if (future != null) {
+            future.complete(response);
+        }
+    }
+}
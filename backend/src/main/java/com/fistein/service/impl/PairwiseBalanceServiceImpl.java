@@ -0,0 +1,210 @@
+package com.fistein.service.impl;
+
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.PairwiseBalanceRepository;
+import com.fistein.repository.PairwiseBalanceRow;
+import com.fistein.service.PairwiseBalanceDelta;
+import com.fistein.service.PairwiseBalanceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * pairwise_balances tablosunu farklarla günceller. Var olan çift tek bir artış UPDATE'iyle yazılır;
+ * ilk kez görülen çift için önce ON CONFLICT DO NOTHING ile sıfır satırı eklenir. Aynı çifti aynı anda
+ * ekleyen iki yazma benzersizlik hatası almaz ve ikinci bir bağlantı gerekmez.
+ * <p>
+ * Fark yazanlar grubun satırını paylaşımlı kilitler. Yeniden kurulum ve denetim grup grup, grubun satırını
+ * özel kilitleyerek ve tek düğümde çalışır: yarıda kalmış bir yazmanın farkı ne kaybolur ne iki kez sayılır.
+ */
+@Slf4j
+@Service
+public class PairwiseBalanceServiceImpl implements PairwiseBalanceService {
+
+    static final String LOCK_NAME = "pairwise-balances";
+
+    private final PairwiseBalanceRepository pairwiseBalanceRepository;
+    private final GroupRepository groupRepository;
+    private final SchedulerLockManager lockManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${fistein.pairwise-balances.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${fistein.pairwise-balances.check-enabled:false}")
+    private boolean checkEnabled;
+
+    @Value("${fistein.pairwise-balances.repair:true}")
+    private boolean repair;
+
+    @Value("${fistein.pairwise-balances.batch-size:500}")
+    private int batchSize;
+
+    @Value("${fistein.pairwise-balances.lock-lease:10m}")
+    private Duration lockLease;
+
+    public PairwiseBalanceServiceImpl(PairwiseBalanceRepository pairwiseBalanceRepository,
+                                      GroupRepository groupRepository,
+                                      SchedulerLockManager lockManager,
+                                      PlatformTransactionManager transactionManager) {
+        this.pairwiseBalanceRepository = pairwiseBalanceRepository;
+        this.groupRepository = groupRepository;
+        this.lockManager = lockManager;
+        // Denetim replica'dan değil birincil veritabanından okur; gecikme tutarsızlık sayılmasın
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Tablo yeni eklendiyse mevcut borçlar bir kez paylardan taşınır
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && pairwiseBalanceRepository.count() == 0) {
+            int rows = rebuild();
+            log.info("pairwise_balances paylardan dolduruldu: {} satır", rows);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${fistein.pairwise-balances.check-initial-delay:1m}",
+               fixedDelayString = "${fistein.pairwise-balances.check-interval:6h}")
+    public void scheduledCheck() {
+        if (checkEnabled) {
+            checkConsistency(repair);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(PairwiseBalanceDelta delta) {
+        List<PairwiseBalanceDelta.Entry> entries = delta.entries();
+        if (entries.isEmpty()) {
+            return;
+        }
+        // Yeniden kurulan grup bitene kadar beklenir; yazanlar birbirini beklemez
+        Set<Long> groupIds = entries.stream().map(PairwiseBalanceDelta.Entry::groupId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        groupRepository.lockSharedByIdIn(groupIds);
+        for (PairwiseBalanceDelta.Entry entry : entries) {
+            if (increment(entry) == 0) {
+                pairwiseBalanceRepository.insertIfAbsent(entry.groupId(), entry.debtorId(), entry.creditorId(),
+                        entry.currency());
+                increment(entry);
+            }
+        }
+    }
+
+    @Override
+    public int rebuild() {
+        int[] rows = {0};
+        boolean ran = forEachGroupLocked(groupId -> rows[0] += rebuildGroup(groupId));
+        if (!ran) {
+            log.info("pairwise_balances başka bir düğümde kuruluyor ya da denetleniyor, atlandı");
+        }
+        return rows[0];
+    }
+
+    @Override
+    public ConsistencyReport checkConsistency(boolean repair) {
+        long[] counts = new long[3];
+        boolean ran = forEachGroupLocked(groupId -> {
+            counts[0]++;
+            if (!expectedRows(groupId).equals(actualRows(groupId))) {
+                counts[1]++;
+                if (repair) {
+                    rebuildGroup(groupId);
+                    counts[2]++;
+                }
+            }
+        });
+        if (!ran) {
+            log.debug("pairwise_balances denetimi başka bir düğümde çalışıyor");
+        }
+
+        ConsistencyReport report = new ConsistencyReport(counts[0], counts[1], counts[2]);
+        if (report.consistent()) {
+            log.debug("pairwise_balances tutarlı ({} grup)", counts[0]);
+        } else {
+            log.warn("pairwise_balances tutarsız: {} grup denetlendi, {} grupta fark, {} grup yeniden kuruldu",
+                    counts[0], counts[1], counts[2]);
+        }
+        return report;
+    }
+
+    // Her grup kendi kısa transaction'ında ve grup satırı özel kilitliyken işlenir; kilit alınamazsa false
+    private boolean forEachGroupLocked(Consumer<Long> action) {
+        Optional<String> lock = lockManager.tryLock(LOCK_NAME, lockLease);
+        if (lock.isEmpty()) {
+            return false;
+        }
+        try {
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<Long> groupIds = transactionTemplate.execute(status ->
+                        groupRepository.findIdsAfter(from, PageRequest.of(0, batchSize)));
+                if (groupIds.isEmpty()) {
+                    break;
+                }
+                afterId = groupIds.get(groupIds.size() - 1);
+
+                for (Long groupId : groupIds) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> groupRepository.lockById(groupId)
+                                .ifPresent(group -> action.accept(groupId)));
+                    } catch (DataAccessException e) {
+                        log.warn("Grup {} pairwise_balances satırları işlenemedi: {}", groupId, e.getMessage());
+                    }
+                }
+
+                if (groupIds.size() < batchSize || !lockManager.extend(LOCK_NAME, lock.get(), lockLease)) {
+                    break;
+                }
+            }
+        } finally {
+            lockManager.unlock(LOCK_NAME, lock.get());
+        }
+        return true;
+    }
+
+    private int rebuildGroup(Long groupId) {
+        pairwiseBalanceRepository.deleteByGroupId(groupId);
+        return pairwiseBalanceRepository.insertFromUnsettledShares(groupId);
+    }
+
+    private Set<PairwiseBalanceRow> expectedRows(Long groupId) {
+        return normalized(pairwiseBalanceRepository.sumUnsettledSharesByGroupId(groupId));
+    }
+
+    private Set<PairwiseBalanceRow> actualRows(Long groupId) {
+        return normalized(pairwiseBalanceRepository.findOpenByGroupId(groupId));
+    }
+
+    // Ölçek farkı (20 ve 20.00) fark sayılmasın
+    private static Set<PairwiseBalanceRow> normalized(List<PairwiseBalanceRow> rows) {
+        return rows.stream()
+                .map(row -> new PairwiseBalanceRow(row.debtorId(), row.creditorId(), row.currency(),
+                        row.amount().setScale(2, RoundingMode.HALF_UP), row.shareCount()))
+                .collect(Collectors.toSet());
+    }
+
+    private int increment(PairwiseBalanceDelta.Entry entry) {
+        return pairwiseBalanceRepository.increment(entry.groupId(), entry.debtorId(), entry.creditorId(),
+                entry.currency(), entry.amount(), entry.shareCount());
+    }
+}
@@ -0,0 +1,392 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.CreateRecurringExpenseRequest;
+import com.fistein.dto.ExpenseShareResponse;
+import com.fistein.dto.RecurringExpenseResponse;
+import com.fistein.dto.UserResponse;
+import com.fistein.entity.*;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.RecurringExpenseRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseReadModelService;
+import com.fistein.service.FxRateService;
+import com.fistein.service.GroupBalanceSnapshotService;
+import com.fistein.service.PairwiseBalanceDelta;
+import com.fistein.service.PairwiseBalanceService;
+import com.fistein.service.RecurringExpenseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class RecurringExpenseServiceImpl implements RecurringExpenseService {
+
+    static final String LOCK_NAME = "recurring-expenses";
+
+    private final RecurringExpenseRepository recurringExpenseRepository;
+    private final ExpenseRepository expenseRepository;
+    private final GroupRepository groupRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final UserRepository userRepository;
+    private final ExpenseShareCalculator shareCalculator;
+    private final SchedulerLockManager lockManager;
+    private final FxRateService fxRateService;
+    private final ExpenseReadModelService readModelService;
+    private final GroupBalanceSnapshotService balanceSnapshotService;
+    private final PairwiseBalanceService pairwiseBalanceService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${fistein.recurring.enabled:false}")
+    private boolean enabled;
+
+    // Bir transaction'da üretilecek en fazla harcama sayısı
+    @Value("${fistein.recurring.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${fistein.recurring.lock-lease:10m}")
+    private Duration lockLease;
+
+    public RecurringExpenseServiceImpl(RecurringExpenseRepository recurringExpenseRepository,
+                                       ExpenseRepository expenseRepository,
+                                       GroupRepository groupRepository,
+                                       GroupMemberRepository groupMemberRepository,
+                                       UserRepository userRepository,
+                                       ExpenseShareCalculator shareCalculator,
+                                       SchedulerLockManager lockManager,
+                                       FxRateService fxRateService,
+                                       ExpenseReadModelService readModelService,
+                                       GroupBalanceSnapshotService balanceSnapshotService,
+                                       PairwiseBalanceService pairwiseBalanceService,
+                                       PlatformTransactionManager transactionManager) {
+        this.recurringExpenseRepository = recurringExpenseRepository;
+        this.expenseRepository = expenseRepository;
+        this.groupRepository = groupRepository;
+        this.groupMemberRepository = groupMemberRepository;
+        this.userRepository = userRepository;
+        this.shareCalculator = shareCalculator;
+        this.lockManager = lockManager;
+        this.fxRateService = fxRateService;
+        this.readModelService = readModelService;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.pairwiseBalanceService = pairwiseBalanceService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Scheduled(cron = "${fistein.recurring.cron:0 * * * * *}")
+    public void scheduledGeneration() {
+        if (enabled) {
+            generateDueExpenses(LocalDateTime.now());
+        }
+    }
+
+    @Override
+    public RecurringExpenseResponse createRecurringExpense(Long groupId, CreateRecurringExpenseRequest request,
+                                                           User currentUser) {
+        CronExpression cron = parseSchedule(request.getSchedule());
+        LocalDateTime startsAt = request.getStartsAt() != null ? request.getStartsAt() : LocalDateTime.now();
+        // Başlangıç anı plana uyuyorsa ilk tarih odur
+        LocalDateTime first = cron.next(startsAt.minusNanos(1));
+        if (first == null || (request.getEndsAt() != null && first.isAfter(request.getEndsAt()))) {
+            throw new FisteinException("Tekrar planı bitiş tarihinden önce hiç çalışmıyor",
+                    FisteinException.ErrorType.BAD_REQUEST);
+        }
+
+        return transactionTemplate.execute(status -> {
+            Group group = groupRepository.findById(groupId)
+                    .orElseThrow(() -> new RuntimeException("Grup bulunamadı"));
+
+            if (!groupMemberRepository.existsByGroupAndUserAndIsActiveTrue(group, currentUser)) {
+                throw new RuntimeException("Bu gruba erişim yetkiniz yok");
+            }
+
+            // Şablon şimdi doğrulanır; hatalı tanım üretim sırasında fark edilmesin
+            shareCalculator.calculate(group, request.getSplitType(), request.getAmount(), request.getShares());
+
+            List<RecurringExpense.ShareTemplate> shares = new ArrayList<>();
+            if (request.getSplitType() != Expense.SplitType.EQUAL) {
+                for (CreateExpenseRequest.ExpenseShareRequest share : request.getShares()) {
+                    shares.add(new RecurringExpense.ShareTemplate(share.getUserId(), share.getAmount(), share.getPercentage()));
+                }
+            }
+
+            RecurringExpense recurring = recurringExpenseRepository.save(RecurringExpense.builder()
+                    .group(group)
+                    .paidBy(currentUser)
+                    .description(request.getDescription())
+                    .amount(request.getAmount())
+                    .currency(request.getCurrency() != null
+                            ? fxRateService.requireSupported(request.getCurrency()) : group.getBaseCurrency())
+                    .splitType(request.getSplitType())
+                    .notes(request.getNotes())
+                    .schedule(request.getSchedule().trim())
+                    .nextOccurrence(first)
+                    .endsAt(request.getEndsAt())
+                    .shares(shares)
+                    .build());
+            return mapToResponse(recurring);
+        });
+    }
+
+    @Override
+    public List<RecurringExpenseResponse> getGroupRecurringExpenses(Long groupId, User currentUser) {
+        return readOnlyTransaction.execute(status -> {
+            if (!groupMemberRepository.existsByGroupIdAndUserAndIsActiveTrue(groupId, currentUser)) {
+                throw new RuntimeException("Bu gruba erişim yetkiniz yok");
+            }
+            return recurringExpenseRepository.findActiveWithSharesByGroupId(groupId).stream()
+                    .map(this::mapToResponse)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public void deactivateRecurringExpense(Long recurringExpenseId, User currentUser) {
+        transactionTemplate.executeWithoutResult(status -> {
+            RecurringExpense recurring = recurringExpenseRepository.findById(recurringExpenseId)
+                    .orElseThrow(() -> new RuntimeException("Tekrarlayan harcama bulunamadı"));
+
+            boolean isAdmin = groupMemberRepository.findByGroupAndUser(recurring.getGroup(), currentUser)
+                    .map(GroupMember::getIsAdmin)
+                    .orElse(false);
+            if (!recurring.getPaidBy().getId().equals(currentUser.getId()) && !isAdmin) {
+                throw new RuntimeException("Bu tekrarlayan harcamayı silme yetkiniz yok");
+            }
+
+            // Üretilmiş harcamalar kalır; yalnızca yeni tarih üretilmez
+            recurring.setActive(false);
+        });
+    }
+
+    @Override
+    public int generateDueExpenses(LocalDateTime now) {
+        Optional<String> lock = lockManager.tryLock(LOCK_NAME, lockLease);
+        if (lock.isEmpty()) {
+            log.debug("Tekrarlayan harcama üretimi başka bir düğümde çalışıyor");
+            return 0;
+        }
+
+        int generated = 0;
+        int batches = 0;
+        try {
+            while (true) {
+                List<Long> dueIds = recurringExpenseRepository.findDueIds(now, PageRequest.of(0, batchSize));
+                if (dueIds.isEmpty()) {
+                    break;
+                }
+                // Her parti kendi transaction'ında: tarihler ve nextOccurrence birlikte commit edilir
+                Integer count = transactionTemplate.execute(status -> generateBatch(dueIds, now));
+                if (count == null) {
+                    // Partinin tamamı başka transaction'larda kilitli; bir sonraki çalıştırmada yeniden seçilir
+                    break;
+                }
+                generated += count;
+                batches++;
+
+                if (!lockManager.extend(LOCK_NAME, lock.get(), lockLease)) {
+                    log.warn("Tekrarlayan harcama kilidi kaybedildi, üretim durduruldu");
+                    break;
+                }
+            }
+        } finally {
+            lockManager.unlock(LOCK_NAME, lock.get());
+        }
+
+        if (generated > 0) {
+            log.info("{} tekrarlayan harcama {} partide üretildi", generated, batches);
+        }
+        return generated;
+    }
+
+    private Integer generateBatch(List<Long> dueIds, LocalDateTime now) {
+        List<Long> claimedIds = recurringExpenseRepository.lockDueForGeneration(dueIds, now).stream()
+                .map(RecurringExpense::getId)
+                .collect(Collectors.toList());
+        if (claimedIds.isEmpty()) {
+            return null;
+        }
+        List<RecurringExpense> definitions = recurringExpenseRepository.findWithSharesByIdIn(claimedIds);
+
+        // Üye listesi grup başına bir kez çözülür, partideki tüm EQUAL tanımlar paylaşır.
+        // Katılma tarihine göre sıralıdır: bir tarihte katılmış üyeler listenin bir ön ekidir
+        Set<Long> equalGroupIds = definitions.stream()
+                .filter(recurring -> recurring.getSplitType() == Expense.SplitType.EQUAL)
+                .map(recurring -> recurring.getGroup().getId())
+                .collect(Collectors.toSet());
+        Map<Long, List<GroupMember>> membersByGroup = equalGroupIds.isEmpty() ? Map.of()
+                : groupMemberRepository.findActiveWithUserByGroupIdIn(equalGroupIds).stream()
+                        .sorted(Comparator.comparing(GroupMember::getJoinedAt))
+                        .collect(Collectors.groupingBy(member -> member.getGroup().getId()));
+
+        Set<Long> templateUserIds = definitions.stream()
+                .flatMap(recurring -> recurring.getShares().stream())
+                .map(RecurringExpense.ShareTemplate::getUserId)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = templateUserIds.isEmpty() ? Map.of()
+                : userRepository.findAllById(templateUserIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Expense> expenses = new ArrayList<>();
+        for (RecurringExpense recurring : definitions) {
+            if (expenses.size() >= batchSize) {
+                // Kalan tanımlar bir sonraki partide yeniden seçilir
+                break;
+            }
+            List<GroupMember> members = membersByGroup.getOrDefault(recurring.getGroup().getId(), List.of());
+            // EQUAL'da pay planı o tarihe kadar katılmış üye sayısına göre bir kez hesaplanır
+            Map<Integer, List<ExpenseShareCalculator.PlannedShare>> plannedByMemberCount = new HashMap<>();
+            CronExpression cron;
+            try {
+                cron = CronExpression.parse(recurring.getSchedule());
+                plannedByMemberCount.put(members.size(), plan(recurring, members, members.size(), users));
+            } catch (RuntimeException e) {
+                // Her dakika aynı hatayı tekrarlamamak için tanım durdurulur
+                log.warn("Tekrarlayan harcama {} durduruldu: {}", recurring.getId(), e.getMessage());
+                recurring.setActive(false);
+                continue;
+            }
+
+            LocalDateTime occurrence = recurring.getNextOccurrence();
+            while (occurrence != null && !occurrence.isAfter(now) && expenses.size() < batchSize) {
+                if (recurring.getEndsAt() != null && occurrence.isAfter(recurring.getEndsAt())) {
+                    occurrence = null;
+                    break;
+                }
+                int memberCount = recurring.getSplitType() == Expense.SplitType.EQUAL
+                        ? membersJoinedBy(members, occurrence)
+                        : members.size();
+                List<ExpenseShareCalculator.PlannedShare> planned = plannedByMemberCount.computeIfAbsent(memberCount,
+                        count -> plan(recurring, members, count, users));
+                expenses.add(newExpense(recurring, occurrence, planned));
+                occurrence = cron.next(occurrence);
+            }
+
+            if (occurrence == null || (recurring.getEndsAt() != null && occurrence.isAfter(recurring.getEndsAt()))) {
+                recurring.setActive(false);
+            } else {
+                recurring.setNextOccurrence(occurrence);
+            }
+        }
+
+        // Harcamalar ve paylaşımlar (cascade) sequence id'leriyle JDBC batch olarak eklenir
+        expenseRepository.saveAll(expenses);
+        PairwiseBalanceDelta delta = new PairwiseBalanceDelta();
+        expenses.forEach(expense -> delta.add(expense.getShares()));
+        pairwiseBalanceService.apply(delta);
+        readModelService.refresh(expenses);
+        expenses.stream().map(Expense::getGroupId).distinct().forEach(balanceSnapshotService::markDirty);
+        return expenses.size();
+    }
+
+    private List<ExpenseShareCalculator.PlannedShare> plan(RecurringExpense recurring, List<GroupMember> members,
+                                                           int memberCount, Map<Long, User> users) {
+        List<User> activeMembers = members.subList(0, memberCount).stream()
+                .map(GroupMember::getUser)
+                .collect(Collectors.toList());
+        return shareCalculator.calculate(recurring.getSplitType(), recurring.getAmount(), activeMembers,
+                shareRequests(recurring), users);
+    }
+
+    // Tarihte katılmış olan ve hâlâ aktif üyeler. Ayrılma tarihi tutulmadığı için sonradan ayrılanlar
+    // geçmiş tarihlere de katılmaz. O tarihte kimse katılmamışsa bugünkü üyeler kullanılır
+    private static int membersJoinedBy(List<GroupMember> members, LocalDateTime occurrence) {
+        int count = 0;
+        while (count < members.size() && !members.get(count).getJoinedAt().isAfter(occurrence)) {
+            count++;
+        }
+        return count == 0 ? members.size() : count;
+    }
+
+    private static Expense newExpense(RecurringExpense recurring, LocalDateTime occurrence,
+                                      List<ExpenseShareCalculator.PlannedShare> planned) {
+        Expense expense = Expense.builder()
+                .description(recurring.getDescription())
+                .amount(recurring.getAmount())
+                .currency(recurring.getCurrency())
+                .group(recurring.getGroup())
+                .paidBy(recurring.getPaidBy())
+                .expenseDate(occurrence)
+                .splitType(recurring.getSplitType())
+                .notes(recurring.getNotes())
+                .recurringExpenseId(recurring.getId())
+                .build();
+        for (ExpenseShareCalculator.PlannedShare share : planned) {
+            expense.getShares().add(ExpenseShare.builder()
+                    .expense(expense)
+                    .user(share.user())
+                    .shareAmount(share.amount())
+                    .percentage(share.percentage())
+                    .isSettled(false)
+                    .build());
+        }
+        return expense;
+    }
+
+    private static List<CreateExpenseRequest.ExpenseShareRequest> shareRequests(RecurringExpense recurring) {
+        List<CreateExpenseRequest.ExpenseShareRequest> requests = new ArrayList<>(recurring.getShares().size());
+        for (RecurringExpense.ShareTemplate template : recurring.getShares()) {
+            CreateExpenseRequest.ExpenseShareRequest request = new CreateExpenseRequest.ExpenseShareRequest();
+            request.setUserId(template.getUserId());
+            request.setAmount(template.getAmount());
+            request.setPercentage(template.getPercentage());
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private static CronExpression parseSchedule(String schedule) {
+        try {
+            return CronExpression.parse(schedule.trim());
+        } catch (IllegalArgumentException e) {
+            throw new FisteinException("Geçersiz tekrar planı: " + schedule, FisteinException.ErrorType.BAD_REQUEST);
+        }
+    }
+
+    private RecurringExpenseResponse mapToResponse(RecurringExpense recurring) {
+        User paidBy = recurring.getPaidBy();
+        return RecurringExpenseResponse.builder()
+                .id(recurring.getId())
+                .groupId(recurring.getGroup().getId())
+                .description(recurring.getDescription())
+                .amount(recurring.getAmount())
+                .currency(recurring.getCurrency())
+                .splitType(recurring.getSplitType())
+                .notes(recurring.getNotes())
+                .paidBy(UserResponse.builder()
+                        .id(paidBy.getId())
+                        .username(paidBy.getEmail())
+                        .email(paidBy.getEmail())
+                        .fullName(paidBy.getName())
+                        .build())
+                .schedule(recurring.getSchedule())
+                .nextOccurrence(recurring.getNextOccurrence())
+                .endsAt(recurring.getEndsAt())
+                .active(recurring.getActive())
+                .shares(recurring.getShares().stream()
+                        .map(template -> ExpenseShareResponse.builder()
+                                .userId(template.getUserId())
+                                .shareAmount(template.getAmount())
+                                .percentage(template.getPercentage())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
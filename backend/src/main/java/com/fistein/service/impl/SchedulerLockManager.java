@@ -0,0 +1,70 @@
+package com.fistein.service.impl;
+
+import com.fistein.entity.SchedulerLock;
+import com.fistein.repository.SchedulerLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * scheduler_locks tablosu üzerinden süreli kilit. Her alımda yeni bir sahip değeri üretilir;
+ * aynı düğümdeki iki çağrı da birbirini dışlar. Kilit kendi transaction'ında alınır ve
+ * hemen commit edilir, böylece diğer düğümler tarafından görülür.
+ */
+@Slf4j
+@Component
+public class SchedulerLockManager {
+
+    private static final String NODE = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final SchedulerLockRepository lockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SchedulerLockManager(SchedulerLockRepository lockRepository, PlatformTransactionManager transactionManager) {
+        this.lockRepository = lockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<String> tryLock(String name, Duration lease) {
+        createIfMissing(name);
+        String owner = NODE + "/" + UUID.randomUUID();
+        return extend(name, owner, lease) ? Optional.of(owner) : Optional.empty();
+    }
+
+    // Uzun süren işler parça aralarında kilidi uzatır; false dönerse kilit başka düğüme geçmiştir
+    public boolean extend(String name, String owner, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status ->
+                lockRepository.tryAcquire(name, owner, now, now.plus(lease)));
+        return updated != null && updated == 1;
+    }
+
+    public void unlock(String name, String owner) {
+        transactionTemplate.executeWithoutResult(status -> lockRepository.release(name, owner, LocalDateTime.now()));
+    }
+
+    private void createIfMissing(String name) {
+        if (lockRepository.existsById(name)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> lockRepository.saveAndFlush(SchedulerLock.builder()
+                    .name(name)
+                    .lockedUntil(LocalDateTime.now().minusSeconds(1))
+                    .build()));
+        } catch (DataAccessException e) {
+            // Başka bir düğüm satırı aynı anda eklemiş; kilit yarışı UPDATE ile çözülür
+            log.debug("Kilit satırı zaten var: {}", name);
+        }
+    }
+}
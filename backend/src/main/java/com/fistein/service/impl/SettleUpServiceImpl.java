@@ -0,0 +1,222 @@
+package com.fistein.service.impl;
+
+import com.fistein.config.RetryOnConflict;
+import com.fistein.dto.AcceptSettleUpRequest;
+import com.fistein.dto.SettleUpPlanResponse;
+import com.fistein.dto.UserResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.ExpenseShare;
+import com.fistein.entity.User;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.repository.ExpenseShareRepository;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.PairAggregateRow;
+import com.fistein.repository.PairwiseBalanceRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseReadModelService;
+import com.fistein.service.FxRateService;
+import com.fistein.service.FxRateSnapshot;
+import com.fistein.service.GroupBalanceSnapshotService;
+import com.fistein.service.PairwiseBalanceDelta;
+import com.fistein.service.PairwiseBalanceService;
+import com.fistein.service.SettleUpService;
+import com.fistein.util.LongLongHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SettleUpServiceImpl implements SettleUpService {
+
+    private static final Comparator<PairAggregateRow> ROW_ORDER = Comparator
+            .comparing(PairAggregateRow::counterpartyId)
+            .thenComparing(PairAggregateRow::groupId)
+            .thenComparing(PairAggregateRow::currency);
+
+    private final ExpenseShareRepository expenseShareRepository;
+    private final PairwiseBalanceRepository pairwiseBalanceRepository;
+    private final PairwiseBalanceService pairwiseBalanceService;
+    private final ExpenseRepository expenseRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final UserRepository userRepository;
+    private final FxRateService fxRateService;
+    private final ExpenseReadModelService readModelService;
+    private final GroupBalanceSnapshotService balanceSnapshotService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public SettleUpPlanResponse getPlan(User currentUser) {
+        // Grup sayısından bağımsız: kişi çifti toplamlarından iki indeks okuması ve karşı taraflar için bir sorgu
+        return buildPlan(pairwiseBalanceRepository.findDebtsPerCreditorAndGroup(currentUser.getId()),
+                pairwiseBalanceRepository.findCreditsPerDebtorAndGroup(currentUser.getId()));
+    }
+
+    @Override
+    @RetryOnConflict
+    public SettleUpPlanResponse acceptPlan(AcceptSettleUpRequest request, User currentUser) {
+        // Plan kapatılacak paylardan yeniden kurulur; kullanıcının gördüğü planla aynı değilse hiçbiri kapanmaz
+        // Aktif gruplar önce okunur; paylar bu grupların bölümlerinden gelir
+        Set<Long> activeGroupIds = groupMemberRepository.findActiveGroupIdsByUser(currentUser);
+        List<ExpenseShare> shares = activeGroupIds.isEmpty() ? List.of()
+                : expenseShareRepository.findUnsettledWithCounterparties(currentUser, activeGroupIds);
+        List<PairAggregateRow> debts = new ArrayList<>();
+        List<PairAggregateRow> credits = new ArrayList<>();
+        aggregate(shares, currentUser, debts, credits);
+        SettleUpPlanResponse plan = buildPlan(debts, credits);
+        if (!plan.getFingerprint().equals(request.getFingerprint())) {
+            throw new FisteinException("Hesaplaşma planı değişti, güncel planı alıp yeniden onaylayın",
+                    FisteinException.ErrorType.CONFLICT);
+        }
+        if (shares.isEmpty()) {
+            return plan;
+        }
+
+        pairwiseBalanceService.apply(new PairwiseBalanceDelta().subtract(shares));
+        Set<Long> expenseIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        for (ExpenseShare share : shares) {
+            share.setIsSettled(true);
+            expenseIds.add(share.getExpense().getId());
+            groupIds.add(share.getGroupId());
+        }
+        // Aynı harcamalar ödeyen ve paylarıyla yüklenir; okuma modeli yazılmadan önce değişiklikler flush edilir
+        readModelService.refresh(expenseRepository.findWithSharesByGroupIdInAndIdIn(groupIds, expenseIds));
+        groupIds.forEach(balanceSnapshotService::markDirty);
+        return plan;
+    }
+
+    private SettleUpPlanResponse buildPlan(List<PairAggregateRow> debts, List<PairAggregateRow> credits) {
+        String currency = fxRateService.defaultCurrency();
+        FxRateSnapshot rates = fxRateService.current();
+
+        // Kuruş cinsinden net tutar: pozitifse karşı taraf öder, negatifse kullanıcı
+        LongLongHashMap netByCounterparty = new LongLongHashMap(debts.size() + credits.size());
+        LongLongHashMap shareCounts = new LongLongHashMap(debts.size() + credits.size());
+        // Netleştirme olmasaydı: grup başına karşı tarafla net tutar
+        Map<Long, LongLongHashMap> netByGroup = new HashMap<>();
+        Map<Long, SortedSet<Long>> groupsByCounterparty = new HashMap<>();
+        for (PairAggregateRow row : debts) {
+            add(row, -toCents(rates.convert(row.amount(), row.currency(), currency)),
+                    netByCounterparty, shareCounts, netByGroup, groupsByCounterparty);
+        }
+        for (PairAggregateRow row : credits) {
+            add(row, toCents(rates.convert(row.amount(), row.currency(), currency)),
+                    netByCounterparty, shareCounts, netByGroup, groupsByCounterparty);
+        }
+
+        long[] counterpartyIds = netByCounterparty.sortedKeys();
+        Map<Long, UserResponse> users = loadUsers(counterpartyIds);
+        List<SettleUpPlanResponse.Transfer> transfers = new ArrayList<>(counterpartyIds.length);
+        int transferCount = 0;
+        for (long counterpartyId : counterpartyIds) {
+            long net = netByCounterparty.get(counterpartyId);
+            if (net != 0) {
+                transferCount++;
+            }
+            transfers.add(SettleUpPlanResponse.Transfer.builder()
+                    .counterparty(users.get(counterpartyId))
+                    .direction(net > 0 ? SettleUpPlanResponse.Direction.RECEIVE
+                            : net < 0 ? SettleUpPlanResponse.Direction.PAY : SettleUpPlanResponse.Direction.NONE)
+                    .amount(BigDecimal.valueOf(Math.abs(net), 2))
+                    .groupIds(new ArrayList<>(groupsByCounterparty.get(counterpartyId)))
+                    .shareCount(shareCounts.get(counterpartyId))
+                    .build());
+        }
+        int withoutNetting = 0;
+        for (LongLongHashMap nets : netByGroup.values()) {
+            int[] nonZero = {0};
+            nets.forEach((counterpartyId, net) -> {
+                if (net != 0) {
+                    nonZero[0]++;
+                }
+            });
+            withoutNetting += nonZero[0];
+        }
+
+        return SettleUpPlanResponse.builder()
+                .currency(currency)
+                .fingerprint(fingerprint(currency, debts, credits, netByCounterparty, counterpartyIds))
+                .transferCount(transferCount)
+                .transferCountWithoutNetting(withoutNetting)
+                .transfers(transfers)
+                .build();
+    }
+
+    private static void add(PairAggregateRow row, long cents, LongLongHashMap netByCounterparty,
+                            LongLongHashMap shareCounts, Map<Long, LongLongHashMap> netByGroup,
+                            Map<Long, SortedSet<Long>> groupsByCounterparty) {
+        netByCounterparty.addTo(row.counterpartyId(), cents);
+        shareCounts.addTo(row.counterpartyId(), row.shareCount());
+        netByGroup.computeIfAbsent(row.groupId(), id -> new LongLongHashMap()).addTo(row.counterpartyId(), cents);
+        groupsByCounterparty.computeIfAbsent(row.counterpartyId(), id -> new TreeSet<>()).add(row.groupId());
+    }
+
+    // Sorgulardaki GROUP BY'ın bellekteki karşılığı: parmak izi iki yoldan da aynı çıkar
+    private static void aggregate(List<ExpenseShare> shares, User currentUser,
+                                  List<PairAggregateRow> debts, List<PairAggregateRow> credits) {
+        Map<List<Object>, PairAggregateRow> rows = new HashMap<>();
+        for (ExpenseShare share : shares) {
+            Expense expense = share.getExpense();
+            boolean owedByUser = share.getUser().getId().equals(currentUser.getId());
+            Long counterpartyId = owedByUser ? expense.getPaidBy().getId() : share.getUser().getId();
+            rows.merge(List.of(owedByUser, counterpartyId, expense.getGroupId(), expense.getCurrency()),
+                    new PairAggregateRow(counterpartyId, expense.getGroupId(), expense.getCurrency(),
+                            share.getShareAmount(), 1L),
+                    (a, b) -> new PairAggregateRow(a.counterpartyId(), a.groupId(), a.currency(),
+                            a.amount().add(b.amount()), a.shareCount() + b.shareCount()));
+        }
+        rows.forEach((key, row) -> (Boolean.TRUE.equals(key.get(0)) ? debts : credits).add(row));
+    }
+
+    private static String fingerprint(String currency, List<PairAggregateRow> debts, List<PairAggregateRow> credits,
+                                      LongLongHashMap netByCounterparty, long[] counterpartyIds) {
+        StringBuilder canonical = new StringBuilder(currency);
+        appendRows(canonical, "D", debts);
+        appendRows(canonical, "C", credits);
+        // Kur değişince tutarlar da değişir
+        for (long counterpartyId : counterpartyIds) {
+            canonical.append("|N:").append(counterpartyId).append('=').append(netByCounterparty.get(counterpartyId));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void appendRows(StringBuilder canonical, String kind, List<PairAggregateRow> rows) {
+        rows.stream().sorted(ROW_ORDER).forEach(row -> canonical.append('|').append(kind).append(':')
+                .append(row.counterpartyId()).append(',').append(row.groupId()).append(',')
+                .append(row.currency()).append(',').append(toCents(row.amount())).append(',')
+                .append(row.shareCount()));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private Map<Long, UserResponse> loadUsers(long[] ids) {
+        if (ids.length == 0) {
+            return Map.of();
+        }
+        List<Long> userIds = Arrays.stream(ids).boxed().toList();
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, user -> UserResponse.builder()
+                        .id(user.getId())
+                        .username(user.getName())
+                        .email(user.getEmail())
+                        .build()));
+    }
+}
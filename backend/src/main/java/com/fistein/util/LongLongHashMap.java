@@ -0,0 +1,144 @@
+package com.fistein.util;
+
+import java.util.Arrays;
+
+/**
+ * long anahtardan long değere açık adresli hash tablosu. Kutulama (Long, BigDecimal) yapmadığı
+ * için çok sayıda kişi/grup üzerinde tutar toplayan hesaplamalarda kullanılır. Thread-safe değildir.
+ */
+public class LongLongHashMap {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1);
+    }
+
+    public long get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : 0L;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, long value) {
+        int slot = slotFor(key);
+        if (!used[slot]) {
+            insert(slot, key, value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Değere delta ekler; anahtar yoksa 0'dan başlar.
+     *
+     * @return yeni değer
+     */
+    public long addTo(long key, long delta) {
+        int slot = slotFor(key);
+        if (!used[slot]) {
+            insert(slot, key, delta);
+            return delta;
+        }
+        values[slot] = Math.addExact(values[slot], delta);
+        return values[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Anahtarları artan sırada döndürür; sonuç sırası hash düzeninden bağımsız olsun diye.
+     */
+    public long[] sortedKeys() {
+        long[] sorted = new long[size];
+        int index = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                sorted[index++] = keys[slot];
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private int find(long key) {
+        int slot = slotFor(key);
+        return used[slot] ? slot : -1;
+    }
+
+    // Anahtarın bulunduğu ya da eklenmesi gereken yuva (doğrusal yoklama)
+    private int slotFor(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * GOLDEN_RATIO) >>> 32) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, long key, long value) {
+        if (size >= resizeAt) {
+            grow();
+            slot = slotFor(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        size++;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length << 1);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                int target = slotFor(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+                used[target] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        // Doluluk 0.5'i geçmez; yoklama zincirleri kısa kalır
+        resizeAt = capacity / 2;
+    }
+}
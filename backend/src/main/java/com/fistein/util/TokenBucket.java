@@ -0,0 +1,56 @@
+package com.fistein.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kilitsiz token bucket. Durum tek bir "teorik varış zamanı" (GCRA) değerinde tutulur,
+ * böylece tüketim tek bir CAS ile yapılır. Kova doluyken ({@link #isFull}) kaydı silmek
+ * davranışı değiştirmez; bu yüzden boşta kalan kovalar güvenle atılabilir.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, int refillTokens, Duration refillPeriod, long nowNanos) {
+        if (capacity <= 0 || refillTokens <= 0) {
+            throw new IllegalArgumentException("capacity ve refillTokens pozitif olmalıdır");
+        }
+        this.emissionIntervalNanos = Math.max(1, refillPeriod.toNanos() / refillTokens);
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Bir token tüketmeyi dener.
+     *
+     * @return 0 ise izin verildi; aksi halde bir sonraki token'a kadar beklenmesi gereken nanosaniye
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long waitNanos = next - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Daha önce başarıyla tüketilmiş bir token'ı geri verir; birden fazla kovadan biri reddettiğinde
+     * diğerlerinde harcanan token'lar böyle iade edilir.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,152 @@
+package com.fistein.config;
+
+import com.fistein.dto.RegisterRequest;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private String token;
+    private long groupId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail("idem-" + UUID.randomUUID() + "@example.com");
+        register.setFullName("Idempotent Kullanıcı");
+        register.setPassword("secret123");
+        token = "Bearer " + authService.register(register).getToken();
+
+        MvcResult group = mockMvc.perform(post("/api/groups")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ev\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        groupId = Long.parseLong(group.getResponse().getContentAsString().replaceAll(".*\"id\":(\\d+).*", "$1"));
+    }
+
+    @Test
+    void retryWithSameKeyReplaysStoredResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = expenseRepository.count();
+
+        MvcResult first = createExpense(key);
+        MvcResult retry = mockMvc.perform(expenseRequest(key))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn();
+
+        assertThat(retry.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(expenseRepository.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void simultaneousRequestsWithSameKeyCreateOneExpense() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long before = expenseRepository.count();
+        int concurrency = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MvcResult>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit((Callable<MvcResult>) () -> {
+                start.await();
+                return mockMvc.perform(expenseRequest(key)).andReturn();
+            }));
+        }
+        start.countDown();
+
+        List<String> createdBodies = new ArrayList<>();
+        for (Future<MvcResult> future : futures) {
+            MvcResult result = future.get();
+            int status = result.getResponse().getStatus();
+            assertThat(status).isIn(201, 409);
+            if (status == 201) {
+                createdBodies.add(result.getResponse().getContentAsString());
+            }
+        }
+        executor.shutdown();
+
+        assertThat(createdBodies).isNotEmpty();
+        assertThat(createdBodies).allMatch(body -> body.equals(createdBodies.get(0)));
+        assertThat(expenseRepository.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void reusingKeyOnAnotherEndpointIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        createExpense(key);
+
+        mockMvc.perform(post("/api/groups")
+                        .header("Authorization", token)
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Başka\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void reusingKeyWithDifferentBodyIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        createExpense(key);
+        long before = expenseRepository.count();
+
+        mockMvc.perform(post("/api/expenses/groups/{groupId}", groupId)
+                        .header("Authorization", token)
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Kira\",\"amount\":900.00,\"splitType\":\"EQUAL\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(expenseRepository.count()).isEqualTo(before);
+    }
+
+    private MvcResult createExpense(String key) throws Exception {
+        return mockMvc.perform(expenseRequest(key))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+
+    private org.springframework.test.web.servlet.RequestBuilder expenseRequest(String key) {
+        return post("/api/expenses/groups/{groupId}", groupId)
+                .header("Authorization", token)
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"Market\",\"amount\":120.00,\"splitType\":\"EQUAL\"}");
+    }
+}
@@ -0,0 +1,139 @@
+package com.fistein.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseShareResponse;
+import com.fistein.dto.UserResponse;
+import com.fistein.entity.Expense;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 20 paylaşımlı 100 harcamalık bir sayfayı varsayılan ve ayarlı ObjectMapper ile yazar;
+ * içeriğin ve cevap şeklinin aynı kaldığını ve gzip ile sıkıştığını doğrular.
+ */
+class JacksonConfigTests {
+
+    private static final int EXPENSES = 100;
+    private static final int SHARES_PER_EXPENSE = 20;
+
+    private final JacksonConfig config = new JacksonConfig();
+
+    @Test
+    void amountsAreWrittenAsPlainNumbersAndNullFieldsKeepTheirShape() throws Exception {
+        ExpenseResponse expense = ExpenseResponse.builder()
+                .id(1L)
+                .description("Kira")
+                .amount(new BigDecimal("1E+3"))
+                .splitType(Expense.SplitType.EQUAL)
+                .build();
+
+        JsonNode json = tunedMapper().readTree(tunedMapper().writeValueAsString(expense));
+
+        assertThat(json.get("amount").isNumber()).isTrue();
+        assertThat(json.get("amount").asText()).isEqualTo("1000");
+        // Genel NON_NULL yok: mevcut cevaplardaki boş alanlar null olarak yazılmaya devam eder
+        assertThat(json.get("notes").isNull()).isTrue();
+        // Yalnızca summary/full görünümlerin boşalttığı alanlar yazılmaz
+        assertThat(json.has("shares")).isFalse();
+        assertThat(json.has("paidById")).isFalse();
+    }
+
+    @Test
+    void emptyBeansStillFailLoudly() {
+        assertThatThrownBy(() -> tunedMapper().writeValueAsString(new Object()))
+                .isInstanceOf(InvalidDefinitionException.class);
+    }
+
+    @Test
+    void tunedMapperKeepsPageShapeAndCompresses() throws Exception {
+        List<ExpenseResponse> page = expensePage();
+        ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json()
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+        ObjectMapper tunedMapper = tunedMapper();
+        // Spring'in mesaj dönüştürücüsü gibi aynı writer tekrar kullanılır; serializer önbelleği ısınır
+        ObjectWriter defaultWriter = defaultMapper.writerFor(defaultMapper.getTypeFactory()
+                .constructCollectionType(List.class, ExpenseResponse.class));
+        ObjectWriter tunedWriter = tunedMapper.writerFor(tunedMapper.getTypeFactory()
+                .constructCollectionType(List.class, ExpenseResponse.class));
+
+        byte[] defaultJson = defaultWriter.writeValueAsBytes(page);
+        byte[] tunedJson = tunedWriter.writeValueAsBytes(page);
+
+        assertThat(tunedMapper.readTree(tunedJson).get(0).get("shares")).hasSize(SHARES_PER_EXPENSE);
+        assertThat(tunedMapper.readTree(tunedJson)).isEqualTo(defaultMapper.readTree(defaultJson));
+        assertThat(gzip(tunedJson).length).isLessThan(tunedJson.length / 5);
+    }
+
+    private ObjectMapper tunedMapper() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        config.fisteinJacksonCustomizer().customize(builder);
+        builder.modulesToInstall(config.blackbirdModule());
+        return builder.build();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ExpenseResponse> expensePage() {
+        List<UserResponse> members = new ArrayList<>();
+        for (int i = 0; i < SHARES_PER_EXPENSE; i++) {
+            members.add(UserResponse.builder()
+                    .id((long) i + 1)
+                    .username("Üye " + i)
+                    .email("uye" + i + "@example.com")
+                    .build());
+        }
+
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<ExpenseResponse> page = new ArrayList<>();
+        for (int e = 0; e < EXPENSES; e++) {
+            BigDecimal amount = new BigDecimal("1000.00").add(BigDecimal.valueOf(e));
+            BigDecimal share = amount.divide(BigDecimal.valueOf(SHARES_PER_EXPENSE), 2, java.math.RoundingMode.HALF_UP);
+            List<ExpenseShareResponse> shares = new ArrayList<>();
+            for (int s = 0; s < SHARES_PER_EXPENSE; s++) {
+                shares.add(ExpenseShareResponse.builder()
+                        .id((long) e * SHARES_PER_EXPENSE + s)
+                        .user(members.get(s))
+                        .shareAmount(share)
+                        .isSettled(s % 3 == 0)
+                        .build());
+            }
+            page.add(ExpenseResponse.builder()
+                    .id((long) e)
+                    .description("Harcama " + e)
+                    .amount(amount)
+                    .groupId(1L)
+                    .groupName("Ev")
+                    .paidBy(members.get(e % SHARES_PER_EXPENSE))
+                    .createdAt(now.plusMinutes(e))
+                    .expenseDate(now.plusMinutes(e))
+                    .splitType(Expense.SplitType.EQUAL)
+                    .shares(shares)
+                    .currentUserShare(share)
+                    .isCurrentUserPayer(e % SHARES_PER_EXPENSE == 0)
+                    .build());
+        }
+        return page;
+    }
+}
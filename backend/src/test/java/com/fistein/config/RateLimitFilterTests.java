@@ -0,0 +1,136 @@
+package com.fistein.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fistein.dto.JwtResponse;
+import com.fistein.dto.RegisterRequest;
+import com.fistein.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "fistein.rate-limit.routes[0].name=group-balances-group",
+        "fistein.rate-limit.routes[0].pattern=/api/groups/{groupId}/balances",
+        "fistein.rate-limit.routes[0].method=GET",
+        "fistein.rate-limit.routes[0].scope=GROUP",
+        "fistein.rate-limit.routes[0].capacity=2",
+        "fistein.rate-limit.routes[0].refill-tokens=1",
+        "fistein.rate-limit.routes[0].refill-period=1h",
+        "fistein.rate-limit.routes[1].name=group-balances-user",
+        "fistein.rate-limit.routes[1].pattern=/api/groups/{groupId}/balances",
+        "fistein.rate-limit.routes[1].method=GET",
+        "fistein.rate-limit.routes[1].scope=USER",
+        "fistein.rate-limit.routes[1].capacity=3",
+        "fistein.rate-limit.routes[1].refill-tokens=1",
+        "fistein.rate-limit.routes[1].refill-period=1h"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JwtResponse ayse;
+    private JwtResponse mehmet;
+    private JwtResponse outsider;
+    private long groupId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ayse = register("ayse");
+        mehmet = register("mehmet");
+        outsider = register("yabanci");
+        String body = mockMvc.perform(post("/api/groups")
+                        .header("Authorization", "Bearer " + ayse.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ev\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        groupId = objectMapper.readTree(body).get("id").asLong();
+        mockMvc.perform(post("/api/groups/{groupId}/members", groupId)
+                        .header("Authorization", "Bearer " + ayse.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + mehmet.getUser().getEmail() + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousCallersAndNonMembersCannotDrainGroupBucket() throws Exception {
+        // Anonim istekler IP başına kovaya düşer
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/groups/{groupId}/balances", groupId))
+                    .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(get("/api/groups/{groupId}/balances", groupId))
+                .andExpect(status().isTooManyRequests());
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(balances(outsider)).andExpect(notThrottled());
+        }
+        // Üye olmayanın kendi kullanıcı kovası yine sınırlıdır
+        mockMvc.perform(balances(outsider)).andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(balances(ayse)).andExpect(status().isOk());
+        mockMvc.perform(balances(mehmet)).andExpect(status().isOk());
+        mockMvc.perform(balances(mehmet))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void rejectedRequestsDoNotSpendOtherBuckets() throws Exception {
+        mockMvc.perform(balances(ayse)).andExpect(status().isOk());
+        mockMvc.perform(balances(ayse)).andExpect(status().isOk());
+        // Grup kovası boş: Mehmet'in istekleri reddedilir ama kullanıcı kovasından token harcamaz
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(balances(mehmet)).andExpect(status().isTooManyRequests());
+        }
+
+        long otherGroupId = objectMapper.readTree(mockMvc.perform(post("/api/groups")
+                        .header("Authorization", "Bearer " + mehmet.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"İş\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/groups/{groupId}/balances", otherGroupId)
+                            .header("Authorization", "Bearer " + mehmet.getToken()))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private static ResultMatcher notThrottled() {
+        return result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(429);
+    }
+
+    private RequestBuilder balances(JwtResponse user) {
+        return get("/api/groups/{groupId}/balances", groupId).header("Authorization", "Bearer " + user.getToken());
+    }
+
+    private JwtResponse register(String name) {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+        register.setFullName(name);
+        register.setPassword("secret123");
+        return authService.register(register);
+    }
+}
@@ -0,0 +1,139 @@
+package com.fistein.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTests {
+
+    private MutableClock clock;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("routing_primary");
+        DataSource replica = h2("routing_replica");
+        new JdbcTemplate(primary).execute("CREATE TABLE marker (name VARCHAR(20))");
+        new JdbcTemplate(primary).execute("INSERT INTO marker VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE marker (name VARCHAR(20))");
+        new JdbcTemplate(replica).execute("INSERT INTO marker VALUES ('replica')");
+
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(Duration.ofSeconds(5), clock);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primary,
+                ReplicaRoutingDataSource.REPLICA, replica
+        ));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        for (String db : List.of("routing_primary", "routing_replica")) {
+            new JdbcTemplate(h2(db)).execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertThat(readMarker(readOnlyTx)).isEqualTo("replica");
+        assertThat(readMarker(writeTx)).isEqualTo("primary");
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryUntilWindowPasses() {
+        login("ayse@example.com");
+        writeTx.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET name = name"));
+
+        assertThat(readMarker(readOnlyTx)).isEqualTo("primary");
+
+        login("mehmet@example.com");
+        assertThat(readMarker(readOnlyTx)).isEqualTo("replica");
+
+        login("ayse@example.com");
+        clock.advance(Duration.ofSeconds(6));
+        assertThat(readMarker(readOnlyTx)).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWritesDoNotPinUserToPrimary() {
+        login("ayse@example.com");
+        writeTx.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE marker SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readMarker(readOnlyTx)).isEqualTo("replica");
+    }
+
+    private String readMarker(TransactionTemplate tx) {
+        return tx.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private void login(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.fistein.config;
+
+import com.fistein.dto.CreateGroupRequest;
+import com.fistein.dto.GroupResponse;
+import com.fistein.dto.JwtResponse;
+import com.fistein.dto.RegisterRequest;
+import com.fistein.entity.User;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.AuthService;
+import com.fistein.service.GroupService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Replica havuzu yalnızca SELECT yetkisi olan ayrı bir kullanıcıyla bağlanır. Aynı istekte önce
+ * read-only transaction'da okuyup sonra yazan bir uçta, okumanın aldığı replica bağlantısı yazmaya
+ * taşınırsa yazma yetki hatasıyla düşer.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(ReplicaRoutingJpaTests.ReadThenWriteController.class)
+class ReplicaRoutingJpaTests {
+
+    private static final String URL =
+            "jdbc:h2:mem:routing_jpa;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS,USER,VALUE";
+    // Veritabanı ayarları yönetici ister; replica kullanıcısı yalnızca oturum ayarını verir
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing_jpa;NON_KEYWORDS=GROUPS,USER,VALUE";
+
+    @DynamicPropertySource
+    static void dataSources(DynamicPropertyRegistry registry) {
+        JdbcTemplate admin = jdbc(URL, "sa", "");
+        admin.execute("CREATE USER IF NOT EXISTS replica PASSWORD 'replica'");
+        admin.execute("GRANT SELECT ON SCHEMA PUBLIC TO replica");
+        registry.add("spring.datasource.url", () -> URL);
+        registry.add("fistein.datasource.replica.url", () -> REPLICA_URL);
+        registry.add("fistein.datasource.replica.username", () -> "replica");
+        registry.add("fistein.datasource.replica.password", () -> "replica");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Test
+    void writeAfterReplicaReadInSameRequestGoesToPrimary() throws Exception {
+        JwtResponse ayse = register("ayse-" + UUID.randomUUID() + "@example.com");
+        JdbcTemplate replica = jdbc(REPLICA_URL, "replica", "replica");
+        assertThatThrownBy(() -> replica.update("UPDATE users SET name = name"))
+                .hasMessageContaining("Not enough rights");
+
+        String groupName = "Grup " + UUID.randomUUID();
+        mockMvc.perform(post("/api/test/users/{userId}/groups", ayse.getUser().getId())
+                        .param("name", groupName)
+                        .header("Authorization", "Bearer " + ayse.getToken()))
+                .andExpect(status().isOk());
+
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM groups WHERE name = ?", Integer.class, groupName))
+                .isEqualTo(1);
+    }
+
+    @RestController
+    static class ReadThenWriteController {
+
+        private final UserRepository userRepository;
+        private final GroupService groupService;
+
+        ReadThenWriteController(UserRepository userRepository, GroupService groupService) {
+            this.userRepository = userRepository;
+            this.groupService = groupService;
+        }
+
+        // findById read-only transaction'da çalışır (replica); createGroup yazar (primary)
+        @PostMapping("/api/test/users/{userId}/groups")
+        GroupResponse createGroup(@PathVariable Long userId, @RequestParam String name) {
+            User user = userRepository.findById(userId).orElseThrow();
+            CreateGroupRequest request = new CreateGroupRequest();
+            request.setName(name);
+            return groupService.createGroup(request, user);
+        }
+    }
+
+    private static JdbcTemplate jdbc(String url, String user, String password) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser(user);
+        dataSource.setPassword(password);
+        return new JdbcTemplate(dataSource);
+    }
+
+    private JwtResponse register(String email) {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail(email);
+        register.setFullName("Ayşe");
+        register.setPassword("secret123");
+        return authService.register(register);
+    }
+}
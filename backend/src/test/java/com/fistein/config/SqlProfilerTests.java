@@ -0,0 +1,179 @@
+package com.fistein.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fistein.dto.JwtResponse;
+import com.fistein.dto.RegisterRequest;
+import com.fistein.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlProfilerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void normalizesLiteralsWhitespaceAndParameterLists() {
+        assertThat(SqlProfiler.normalize("select e1_0.id\n  from expenses e1_0 where e1_0.group_id in (?, ?,?) " +
+                "and e1_0.description = 'kira' limit 20"))
+                .isEqualTo("select e1_0.id from expenses e1_0 where e1_0.group_id in (?, ...) " +
+                        "and e1_0.description = ? limit ?");
+        assertThat(SqlProfiler.normalize("select * from users where id in (?, ?)"))
+                .isEqualTo(SqlProfiler.normalize("select * from users where id in (?,?,?,?)"));
+    }
+
+    @Test
+    void masksBoundValuesInPlansButKeepsEstimates() {
+        assertThat(SqlProfiler.maskLiterals("SELECT \"ID\" FROM \"PUBLIC\".\"USERS\" /* PUBLIC.IDX_USERS_EMAIL */ "
+                + "WHERE (\"EMAIL\" = 'ayse@example.com') AND (\"ID\" > CAST(42 AS BIGINT))"))
+                .isEqualTo("SELECT \"ID\" FROM \"PUBLIC\".\"USERS\" /* PUBLIC.IDX_USERS_EMAIL */ "
+                        + "WHERE (\"EMAIL\" = '?') AND (\"ID\" > CAST(? AS BIGINT))");
+        assertThat(SqlProfiler.maskLiterals("Index Scan using users_pkey on users u1_0  (cost=0.29..8.30 rows=1 width=8)\n"
+                + "  Index Cond: (id = 42)\n  Filter: ((email)::text = 'o''brien@example.com'::text)"))
+                .isEqualTo("Index Scan using users_pkey on users u1_0  (cost=0.29..8.30 rows=1 width=8)\n"
+                        + "  Index Cond: (id = ?)\n  Filter: ((email)::text = '?'::text)");
+    }
+
+    @Test
+    void countsRowsAndBindShapesAndCapturesPlansOfSlowQueries() throws Exception {
+        // Eşik sıfır: her SELECT yavaş sayılır ve planı alınır
+        SqlProfiler profiler = new SqlProfiler(ObservationRegistry.NOOP, new SimpleMeterRegistry(), 50,
+                Duration.ZERO, Duration.ofMinutes(10), Duration.ofSeconds(5), 8);
+        DataSource target = ((ProfilingDataSource) dataSource).getTargetDataSource();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new ProfilingDataSource(target, profiler));
+        String prefix = "profil-" + UUID.randomUUID();
+        register(prefix + "-1@example.com");
+        register(prefix + "-2@example.com");
+
+        for (int i = 0; i < 3; i++) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE ? AND id > ?",
+                    Long.class, prefix + "%", 0L);
+            assertThat(ids).hasSize(2);
+        }
+        int updated = jdbcTemplate.update("UPDATE users SET name = ? WHERE email LIKE ?", "Profil", prefix + "%");
+        assertThat(updated).isEqualTo(2);
+
+        SqlProfiler.StatementReport select = awaitPlan(profiler, "SELECT id FROM users");
+        assertThat(select.count()).isEqualTo(3);
+        assertThat(select.rows()).isEqualTo(6);
+        assertThat(select.maxRows()).isEqualTo(2);
+        assertThat(select.bindShapes()).containsEntry("String,Long", 3L);
+        assertThat(select.slowCount()).isEqualTo(3);
+        assertThat(select.plan()).containsIgnoringCase("users");
+        // Bağlı değerler plana yazılmaz
+        assertThat(select.plan()).doesNotContain(prefix);
+
+        SqlProfiler.StatementReport update = find(profiler.report("count", 10), "UPDATE users");
+        assertThat(update.rows()).isEqualTo(2);
+        // Yazma sorgularının planı alınmaz
+        assertThat(update.plan()).isNull();
+        profiler.destroy();
+    }
+
+    @Test
+    void keepsMostExpensiveStatementsWhenFull() {
+        SqlProfiler profiler = new SqlProfiler(ObservationRegistry.NOOP, new SimpleMeterRegistry(), 2,
+                Duration.ofSeconds(1), Duration.ofMinutes(10), Duration.ofSeconds(5), 8);
+
+        profiler.record(dataSource, "select 1 from a", "", 5_000_000, 1, null, false);
+        profiler.record(dataSource, "select 1 from b", "", 1_000_000, 1, null, false);
+        profiler.record(dataSource, "select 1 from c", "", 9_000_000, 1, null, false);
+
+        SqlProfiler.Report report = profiler.report(null, 10);
+        assertThat(report.statements()).extracting(SqlProfiler.StatementReport::sql)
+                .containsExactly("select ? from c", "select ? from a");
+        assertThat(report.evictedStatements()).isEqualTo(1);
+        profiler.destroy();
+    }
+
+    @Test
+    void endpointIsLimitedToAdminsAndShowsQueryOrigins() throws Exception {
+        JwtResponse user = register("kullanici-" + UUID.randomUUID() + "@example.com");
+        JwtResponse admin = register("sql-admin@example.com");
+
+        mockMvc.perform(get("/actuator/slowqueries").header("Authorization", "Bearer " + user.getToken()))
+                .andExpect(status().isForbidden());
+        // health dışındaki diğer yönetim uçları da yalnızca yöneticilere açıktır
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + user.getToken()))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator").header("Authorization", "Bearer " + user.getToken()))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health").header("Authorization", "Bearer " + user.getToken()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + admin.getToken()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/actuator/slowqueries").header("Authorization", "Bearer " + admin.getToken()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/groups").header("Authorization", "Bearer " + user.getToken()))
+                .andExpect(status().isOk());
+
+        String body = mockMvc.perform(get("/actuator/slowqueries")
+                        .param("sort", "count")
+                        .header("Authorization", "Bearer " + admin.getToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode report = objectMapper.readTree(body);
+        assertThat(report.get("executions").asLong()).isPositive();
+        List<String> origins = new ArrayList<>();
+        for (JsonNode statement : report.get("statements")) {
+            statement.get("origins").forEach(origin -> origins.add(origin.asText()));
+        }
+        assertThat(origins).contains("UserRepository.findByEmail");
+    }
+
+    private static SqlProfiler.StatementReport awaitPlan(SqlProfiler profiler, String sqlPrefix)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        SqlProfiler.StatementReport report = find(profiler.report(null, 50), sqlPrefix);
+        while (report.plan() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            report = find(profiler.report(null, 50), sqlPrefix);
+        }
+        return report;
+    }
+
+    private static SqlProfiler.StatementReport find(SqlProfiler.Report report, String sqlPrefix) {
+        return report.statements().stream()
+                .filter(statement -> statement.sql().startsWith(sqlPrefix))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private JwtResponse register(String email) {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail(email);
+        register.setFullName("Profil");
+        register.setPassword("secret123");
+        return authService.register(register);
+    }
+}
@@ -0,0 +1,139 @@
+package com.fistein.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fistein.dto.JwtResponse;
+import com.fistein.dto.RegisterRequest;
+import com.fistein.service.AuthService;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+class TracingTests {
+
+    private static final Path SPAN_FILE = createSpanFile();
+
+    @DynamicPropertySource
+    static void tracingProperties(DynamicPropertyRegistry registry) {
+        registry.add("management.tracing.sampling.probability", () -> "1.0");
+        registry.add("fistein.tracing.file.enabled", () -> "true");
+        registry.add("fistein.tracing.file.path", SPAN_FILE::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Test
+    void balanceRequestIsTracedFromFilterChainToRepositoryInOneTrace() throws Exception {
+        JwtResponse ayse = register("ayse");
+        String body = mockMvc.perform(post("/api/groups")
+                        .header("Authorization", "Bearer " + ayse.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Grup\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long groupId = objectMapper.readTree(body).get("id").asLong();
+        flushSpans();
+        long offset = Files.size(SPAN_FILE);
+
+        mockMvc.perform(get("/api/expenses/groups/{groupId}/balance", groupId)
+                        .header("Authorization", "Bearer " + ayse.getToken()))
+                .andExpect(status().isOk());
+        flushSpans();
+
+        List<JsonNode> spans = readSpans(offset);
+        JsonNode http = spans.stream()
+                .filter(span -> span.get("parentSpanId") == null && span.get("kind").asText().equals("SERVER"))
+                .findFirst()
+                .orElseThrow();
+        List<JsonNode> trace = spans.stream()
+                .filter(span -> span.get("traceId").equals(http.get("traceId")))
+                .toList();
+        List<String> names = trace.stream().map(span -> span.get("name").asText()).toList();
+
+        // Span adları köprüde küçük harf-tire biçimine çevrilir; tam adlar etiketlerde kalır
+        assertThat(names).contains(
+                "fistein.security.jwt",
+                "expense-service.get-user-balance",
+                "fistein.http.serialization");
+        assertThat(names).anyMatch(name -> name.startsWith("security filterchain"));
+
+        JsonNode serialization = trace.stream()
+                .filter(span -> span.get("name").asText().equals("fistein.http.serialization"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(serialization.get("attributes").get("type").asText()).isEqualTo("UserBalanceResponse");
+
+        JsonNode query = trace.stream()
+                .filter(span -> span.get("name").asText().equals("pairwise-balance-repository.find-debts-in-group"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(query.get("attributes").get("repository").asText()).isEqualTo("PairwiseBalanceRepository");
+        assertThat(query.get("attributes").get("method").asText()).isEqualTo("findDebtsInGroup");
+        assertThat(query.get("attributes").get("db.rows").asText()).isEqualTo("0");
+        assertThat(trace).allMatch(span -> span == http || span.get("parentSpanId") != null);
+    }
+
+    private void flushSpans() {
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+    }
+
+    private List<JsonNode> readSpans(long offset) throws IOException {
+        List<JsonNode> spans = new ArrayList<>();
+        String content = Files.readString(SPAN_FILE).substring((int) offset);
+        for (String line : content.split("\n")) {
+            if (!line.isBlank()) {
+                spans.add(objectMapper.readTree(line));
+            }
+        }
+        return spans;
+    }
+
+    private JwtResponse register(String name) {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+        register.setFullName(name);
+        register.setPassword("secret123");
+        return authService.register(register);
+    }
+
+    private static Path createSpanFile() {
+        try {
+            return Files.createTempDirectory("fistein-traces").resolve("spans.jsonl");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.fistein.controller;
+
+import com.fistein.dto.JwtResponse;
+import com.fistein.dto.RegisterRequest;
+import com.fistein.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExpenseControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    private String token;
+    private long groupId;
+    private long expenseId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JwtResponse payer = registerWithEmail("odeyen-" + UUID.randomUUID() + "@example.com");
+        token = "Bearer " + payer.getToken();
+        List<Long> memberIds = new ArrayList<>(List.of(payer.getUser().getId()));
+        MvcResult group = mockMvc.perform(post("/api/groups")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ev\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        groupId = idOf(group);
+
+        for (String member : new String[]{"ikinci", "ucuncu"}) {
+            String email = member + "-" + UUID.randomUUID() + "@example.com";
+            memberIds.add(registerWithEmail(email).getUser().getId());
+            mockMvc.perform(post("/api/groups/{groupId}/members", groupId)
+                            .header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"" + email + "\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            MvcResult expense = mockMvc.perform(post("/api/expenses/groups/{groupId}", groupId)
+                            .header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"description\":\"Market " + i + "\",\"amount\":120.00,\"splitType\":\"EXACT\"," +
+                                    "\"shares\":[" +
+                                    "{\"userId\":" + memberIds.get(0) + ",\"amount\":50.00}," +
+                                    "{\"userId\":" + memberIds.get(1) + ",\"amount\":40.00}," +
+                                    "{\"userId\":" + memberIds.get(2) + ",\"amount\":30.00}]}"))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            expenseId = idOf(expense);
+        }
+    }
+
+    @Test
+    void defaultListKeepsEmbeddedShareUsers() throws Exception {
+        mockMvc.perform(get("/api/expenses/groups/{groupId}", groupId).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].shares", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].shares[0].user.email").exists())
+                .andExpect(jsonPath("$.users").doesNotExist());
+    }
+
+    @Test
+    void summaryViewOmitsShares() throws Exception {
+        mockMvc.perform(get("/api/expenses/groups/{groupId}", groupId)
+                        .param("view", "summary")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].shares").doesNotExist())
+                .andExpect(jsonPath("$.content[0].paidBy.email").exists())
+                .andExpect(jsonPath("$.content[0].currentUserShare").value(50.00))
+                .andExpect(jsonPath("$.content[0].isCurrentUserPayer").value(true));
+
+        mockMvc.perform(get("/api/expenses/{expenseId}", expenseId)
+                        .param("view", "summary")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Market 2"))
+                .andExpect(jsonPath("$.shares").doesNotExist());
+    }
+
+    @Test
+    void fullViewWritesEachUserOnce() throws Exception {
+        mockMvc.perform(get("/api/expenses/groups/{groupId}", groupId)
+                        .param("view", "full")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.users", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].paidById").isNumber())
+                .andExpect(jsonPath("$.content[0].paidBy").doesNotExist())
+                .andExpect(jsonPath("$.content[0].shares[0].userId").isNumber())
+                .andExpect(jsonPath("$.content[0].shares[0].user").doesNotExist());
+
+        mockMvc.perform(get("/api/expenses/{expenseId}", expenseId)
+                        .param("view", "full")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(3)))
+                .andExpect(jsonPath("$.shares", hasSize(3)));
+    }
+
+    @Test
+    void fieldsSelectsRequestedProperties() throws Exception {
+        mockMvc.perform(get("/api/expenses/groups/{groupId}", groupId)
+                        .param("fields", "description,amount")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].description").exists())
+                .andExpect(jsonPath("$.content[0].amount").value(120.00))
+                .andExpect(jsonPath("$.content[0].paidBy").doesNotExist())
+                .andExpect(jsonPath("$.content[0].groupName").doesNotExist());
+    }
+
+    @Test
+    void unknownViewIsRejected() throws Exception {
+        mockMvc.perform(get("/api/expenses/groups/{groupId}", groupId)
+                        .param("view", "compact")
+                        .header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void batchGetKeysExpensesAndErrorsById() throws Exception {
+        JwtResponse outsider = registerWithEmail("disaridan-" + UUID.randomUUID() + "@example.com");
+        String outsiderToken = "Bearer " + outsider.getToken();
+        long otherGroupId = idOf(mockMvc.perform(post("/api/groups")
+                        .header("Authorization", outsiderToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Başka\"}"))
+                .andExpect(status().isCreated())
+                .andReturn());
+        long foreignExpenseId = idOf(mockMvc.perform(post("/api/expenses/groups/{groupId}", otherGroupId)
+                        .header("Authorization", outsiderToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Taksi\",\"amount\":20.00,\"splitType\":\"EXACT\"," +
+                                "\"shares\":[{\"userId\":" + outsider.getUser().getId() + ",\"amount\":20.00}]}"))
+                .andExpect(status().isCreated())
+                .andReturn());
+        long missingId = Long.MAX_VALUE;
+
+        mockMvc.perform(post("/api/expenses/batch-get")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + expenseId + "," + foreignExpenseId + "," + missingId + "," + expenseId + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expenses.length()").value(1))
+                .andExpect(jsonPath("$.expenses['" + expenseId + "'].description").value("Market 2"))
+                .andExpect(jsonPath("$.expenses['" + expenseId + "'].groupName").value("Ev"))
+                .andExpect(jsonPath("$.expenses['" + expenseId + "'].shares", hasSize(3)))
+                .andExpect(jsonPath("$.errors['" + foreignExpenseId + "'].status").value(403))
+                .andExpect(jsonPath("$.errors['" + missingId + "'].status").value(404))
+                .andExpect(jsonPath("$.errors['" + missingId + "'].detail").value("Harcama bulunamadı"));
+    }
+
+    @Test
+    void batchGetRejectsEmptyAndOversizedRequests() throws Exception {
+        mockMvc.perform(post("/api/expenses/batch-get")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        String tooMany = LongStream.rangeClosed(1, 101).mapToObj(Long::toString).collect(Collectors.joining(","));
+        mockMvc.perform(post("/api/expenses/batch-get")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + tooMany + "]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.ids").exists());
+    }
+
+    private JwtResponse registerWithEmail(String email) {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail(email);
+        register.setFullName("Test Kullanıcı");
+        register.setPassword("secret123");
+        return authService.register(register);
+    }
+
+    private static long idOf(MvcResult result) throws Exception {
+        return Long.parseLong(result.getResponse().getContentAsString().replaceFirst(".*?\"id\":(\\d+).*", "$1"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.fistein.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fistein.dto.JwtResponse;
+import com.fistein.dto.RegisterRequest;
+import com.fistein.service.AuthService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private JwtResponse ayse;
+    private JwtResponse mehmet;
+
+    @BeforeEach
+    void setUp() {
+        ayse = register("ayse");
+        mehmet = register("mehmet");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void balancesMatchPerGroupEndpointWithConstantQueryCount() throws Exception {
+        long firstGroup = createGroupWithExpenses();
+        long queriesForOneGroup = countStatements();
+
+        createGroupWithExpenses();
+        createGroupWithExpenses();
+        long queriesForThreeGroups = countStatements();
+        assertThat(queriesForThreeGroups).isEqualTo(queriesForOneGroup);
+
+        JsonNode balances = getJson("/api/users/me/balances", ayse);
+        JsonNode perGroup = getJson("/api/expenses/groups/" + firstGroup + "/balance", ayse);
+
+        assertThat(balances.get("groups")).hasSize(3);
+        JsonNode group = balances.get("groups").get(0);
+        assertThat(group.get("groupId").asLong()).isEqualTo(firstGroup);
+        assertThat(group.get("totalPaid").decimalValue()).isEqualByComparingTo(perGroup.get("totalPaid").decimalValue());
+        assertThat(group.get("totalOwed").decimalValue()).isEqualByComparingTo(perGroup.get("totalOwed").decimalValue());
+        assertThat(group.get("balance").decimalValue()).isEqualByComparingTo(perGroup.get("balance").decimalValue());
+
+        // Her grupta: Ayşe 120 ödedi (payı 50), Mehmet 30 ödedi (Ayşe'nin payı 10)
+        assertThat(balances.get("totalPaid").decimalValue()).isEqualByComparingTo(new BigDecimal("360"));
+        assertThat(balances.get("totalOwed").decimalValue()).isEqualByComparingTo(new BigDecimal("180"));
+        assertThat(balances.get("balance").decimalValue()).isEqualByComparingTo(new BigDecimal("180"));
+        assertThat(balances.get("credits")).hasSize(1);
+        assertThat(balances.get("credits").get(0).get("debtor").get("id").asLong()).isEqualTo(mehmet.getUser().getId());
+        assertThat(balances.get("credits").get(0).get("amount").decimalValue()).isEqualByComparingTo(new BigDecimal("210"));
+        assertThat(balances.get("credits").get(0).get("expenseCount").asInt()).isEqualTo(3);
+        assertThat(balances.get("debts").get(0).get("amount").decimalValue()).isEqualByComparingTo(new BigDecimal("30"));
+    }
+
+    private long countStatements() throws Exception {
+        statistics.clear();
+        getJson("/api/users/me/balances", ayse);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long createGroupWithExpenses() throws Exception {
+        String body = mockMvc.perform(post("/api/groups")
+                        .header("Authorization", bearer(ayse))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Grup\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long groupId = objectMapper.readTree(body).get("id").asLong();
+
+        mockMvc.perform(post("/api/groups/{groupId}/members", groupId)
+                        .header("Authorization", bearer(ayse))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + mehmet.getUser().getEmail() + "\"}"))
+                .andExpect(status().isOk());
+
+        createExpense(groupId, ayse, "120.00", "50.00", "70.00");
+        createExpense(groupId, mehmet, "30.00", "10.00", "20.00");
+        return groupId;
+    }
+
+    private void createExpense(long groupId, JwtResponse payer, String amount, String ayseShare, String mehmetShare)
+            throws Exception {
+        mockMvc.perform(post("/api/expenses/groups/{groupId}", groupId)
+                        .header("Authorization", bearer(payer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Harcama\",\"amount\":" + amount + ",\"splitType\":\"EXACT\"," +
+                                "\"shares\":[" +
+                                "{\"userId\":" + ayse.getUser().getId() + ",\"amount\":" + ayseShare + "}," +
+                                "{\"userId\":" + mehmet.getUser().getId() + ",\"amount\":" + mehmetShare + "}]}"))
+                .andExpect(status().isCreated());
+    }
+
+    private JsonNode getJson(String path, JwtResponse user) throws Exception {
+        String body = mockMvc.perform(get(path).header("Authorization", bearer(user)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JwtResponse register(String name) {
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+        register.setFullName(name);
+        register.setPassword("secret123");
+        return authService.register(register);
+    }
+
+    private static String bearer(JwtResponse user) {
+        return "Bearer " + user.getToken();
+    }
+}
@@ -0,0 +1,67 @@
+package com.fistein.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fistein.security.PasswordHashingService;
+import com.fistein.service.ExpenseReadModelService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gömülü H2 üzerinde uygulamayı gerçek bir HTTP portunda başlatır, sentetik veri yükler ve
+ * karışık bir istek yükü uygular. Varsayılan test çalıştırmasına dahil değildir: {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // Hız sınırı tek makineden gelen yükü ölçmeyi anlamsız kılar
+        properties = "fistein.rate-limit.enabled=false")
+// İzleme üretimdeki gibi açık; örnekleme -Dmanagement.tracing.sampling.probability ile değiştirilir
+@AutoConfigureObservability
+class FisteinLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExpenseReadModelService readModelService;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        SyntheticDataSeeder seeder = new SyntheticDataSeeder(jdbcTemplate,
+                passwordHashingService.encode(SyntheticDataSeeder.PASSWORD));
+        SyntheticDataSeeder.SeededData data = seeder.seed(settings);
+        System.out.printf("Sentetik veri: %d kullanıcı, %d grup, %d harcama (%d ms)%n",
+                settings.users(), settings.groups(), settings.expenses(), data.seedMillis());
+        // JDBC ile yüklenen harcamaların liste satırları denetimin onarımıyla üretilir
+        long readModelStart = System.nanoTime();
+        ExpenseReadModelService.ConsistencyReport readModel = readModelService.checkConsistency(true);
+        System.out.printf("Okuma modeli: %d satır (%d ms)%n",
+                readModel.repaired(), (System.nanoTime() - readModelStart) / 1_000_000);
+
+        LoadReport report = new LoadDriver(URI.create("http://localhost:" + port), data, settings, objectMapper).run();
+        report.write(settings.report(), objectMapper);
+        System.out.print(report.summary());
+        System.out.println("Rapor: " + settings.report().toAbsolutePath());
+
+        assertThat(report.totalRequests()).isPositive();
+        assertThat(report.totalErrors()).isLessThanOrEqualTo(report.totalRequests() / 100);
+    }
+}
@@ -0,0 +1,270 @@
+package com.fistein.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seçilen karışımı kapalı döngüde (her işçi bir cevap alınca sıradakini gönderir) çalıştırır ve
+ * endpoint başına gecikmeyi HdrHistogram ile toplar. Isınma süresince gelen cevaplar ölçüme katılmaz.
+ * <p>
+ * Java 17'de sanal thread olmadığı için işçiler sabit boyutlu bir platform thread havuzundadır;
+ * eşzamanlılık {@code fistein.load.concurrency} ile ayarlanır.
+ */
+class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] WORDS = {"market", "kira", "fatura", "taksi", "yemek", "benzin", "otel", "bilet",
+            "kahve", "hediye", "elektrik", "internet", "sinema", "eczane"};
+
+    private final URI baseUri;
+    private final SyntheticDataSeeder.SeededData data;
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper;
+    private final int[] cumulativeWeights;
+    private final Map<LoadOperation, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> tokens;
+    private final HttpClient httpClient;
+
+    private volatile boolean measuring;
+
+    LoadDriver(URI baseUri, SyntheticDataSeeder.SeededData data, LoadTestSettings settings, ObjectMapper objectMapper) {
+        this.baseUri = baseUri;
+        this.data = data;
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.tokens = new AtomicReferenceArray<>(data.emails().length);
+        int[] weights = LoadOperation.weights(settings.mix());
+        this.cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Yük karışımında en az bir işlemin ağırlığı pozitif olmalı");
+        }
+        for (LoadOperation operation : LoadOperation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    LoadReport run() throws InterruptedException, ExecutionException {
+        ExecutorService workers = Executors.newFixedThreadPool(settings.concurrency());
+        long warmupEnd = System.nanoTime() + settings.warmup().toNanos();
+        long end = warmupEnd + settings.duration().toNanos();
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            long workerSeed = settings.seed() + i;
+            running.add(workers.submit(() -> work(new SplittableRandom(workerSeed), end)));
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        stats.values().forEach(EndpointStats::reset);
+        measuring = true;
+        long measureStart = System.nanoTime();
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        workers.shutdown();
+
+        Map<String, LoadReport.EndpointReport> endpoints = new LinkedHashMap<>();
+        for (LoadOperation operation : LoadOperation.values()) {
+            EndpointStats endpoint = stats.get(operation);
+            Histogram histogram = endpoint.recorder.getIntervalHistogram();
+            if (histogram.getTotalCount() > 0) {
+                endpoints.put(operation.route(), LoadReport.EndpointReport.of(histogram, endpoint.errors.sum(),
+                        endpoint.statusCounts(), seconds));
+            }
+        }
+        return new LoadReport(settings, data, seconds, endpoints);
+    }
+
+    private Void work(SplittableRandom random, long end) {
+        while (System.nanoTime() < end) {
+            int userIndex = random.nextInt(data.emails().length);
+            VirtualUser user = new VirtualUser(userIndex, random);
+            if (tokens.get(userIndex) == null) {
+                String token = login(user);
+                if (token == null) {
+                    continue;
+                }
+                tokens.set(userIndex, token);
+            }
+            execute(pick(random, user), user);
+        }
+        return null;
+    }
+
+    private LoadOperation pick(SplittableRandom random, VirtualUser user) {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        LoadOperation operation = LoadOperation.values()[0];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                operation = LoadOperation.values()[i];
+                break;
+            }
+        }
+        // Grubu olmayan kullanıcı yalnızca grup listesine bakabilir
+        if (operation.needsGroup() && data.userGroups()[user.userIndex].length == 0) {
+            return LoadOperation.LIST_GROUPS;
+        }
+        if (operation == LoadOperation.GET_EXPENSE && !user.groupHasExpenses()) {
+            return LoadOperation.LIST_GROUP_EXPENSES;
+        }
+        return operation;
+    }
+
+    private String login(VirtualUser user) {
+        HttpResponse<String> response = execute(LoadOperation.LOGIN, user);
+        if (response == null || response.statusCode() != 200) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(response.body()).path("token").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private HttpResponse<String> execute(LoadOperation operation, VirtualUser user) {
+        EndpointStats endpoint = stats.get(operation);
+        HttpRequest request = operation.request(user);
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        int status;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long micros = (System.nanoTime() - start) / 1_000;
+        if (measuring) {
+            endpoint.recorder.recordValue(micros);
+            endpoint.statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+            if (status < 200 || status >= 300) {
+                endpoint.errors.increment();
+            }
+        }
+        return response;
+    }
+
+    private static final class EndpointStats {
+        private final Recorder recorder = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void reset() {
+            recorder.reset();
+            errors.reset();
+            statuses.clear();
+        }
+
+        Map<String, Long> statusCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status < 0 ? "io-error" : String.valueOf(status), count.sum()));
+            return counts;
+        }
+    }
+
+    /**
+     * Tek bir isteği oluşturmak için gereken kullanıcı bağlamı: seçilen grup ve harcama bu kullanıcının
+     * üyesi olduğu gruplardan gelir, böylece istekler yetki hatasına düşmez.
+     */
+    final class VirtualUser {
+
+        private final int userIndex;
+        private final SplittableRandom random;
+        private int groupIndex = -1;
+
+        private VirtualUser(int userIndex, SplittableRandom random) {
+            this.userIndex = userIndex;
+            this.random = random;
+        }
+
+        int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+
+        String word() {
+            return WORDS[random.nextInt(WORDS.length)];
+        }
+
+        long groupId() {
+            return data.groupIds()[groupIndex()];
+        }
+
+        long expenseId() {
+            long[] sample = data.expenseSamples()[groupIndex()];
+            return sample[random.nextInt(sample.length)];
+        }
+
+        boolean groupHasExpenses() {
+            return data.expenseSamples()[groupIndex()].length > 0;
+        }
+
+        private int groupIndex() {
+            if (groupIndex < 0) {
+                int[] groups = data.userGroups()[userIndex];
+                groupIndex = groups[random.nextInt(groups.length)];
+            }
+            return groupIndex;
+        }
+
+        HttpRequest get(String path) {
+            return authorized(path).GET().build();
+        }
+
+        HttpRequest post(String path, String json) {
+            return authorized(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        HttpRequest loginRequest() {
+            return HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + data.emails()[userIndex]
+                            + "\",\"password\":\"" + SyntheticDataSeeder.PASSWORD + "\"}"))
+                    .build();
+        }
+
+        private HttpRequest.Builder authorized(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Authorization", "Bearer " + tokens.get(userIndex));
+        }
+    }
+}
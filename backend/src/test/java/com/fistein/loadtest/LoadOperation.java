@@ -0,0 +1,117 @@
+package com.fistein.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Yük karışımındaki istek türleri ve varsayılan ağırlıkları. Ağırlıklar
+ * {@code -Dfistein.load.mix=create-expense=30,login=0} gibi değiştirilebilir.
+ */
+enum LoadOperation {
+
+    LIST_GROUPS("GET /api/groups", 15) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            return user.get("/api/groups");
+        }
+    },
+    GET_GROUP("GET /api/groups/{groupId}", 10) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            return user.get("/api/groups/" + user.groupId());
+        }
+    },
+    LIST_GROUP_EXPENSES("GET /api/expenses/groups/{groupId}", 25) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            // Çoğu kullanıcı ilk sayfalara bakar
+            return user.get("/api/expenses/groups/" + user.groupId() + "?size=20&page=" + user.nextInt(3));
+        }
+    },
+    GET_EXPENSE("GET /api/expenses/{expenseId}", 10) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            return user.get("/api/expenses/" + user.expenseId());
+        }
+    },
+    USER_BALANCE("GET /api/expenses/groups/{groupId}/balance", 10) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            return user.get("/api/expenses/groups/" + user.groupId() + "/balance");
+        }
+    },
+    GROUP_BALANCES("GET /api/groups/{groupId}/balances", 5) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            return user.get("/api/groups/" + user.groupId() + "/balances");
+        }
+    },
+    SEARCH_EXPENSES("GET /api/groups/{groupId}/expenses/search", 5) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            return user.get("/api/groups/" + user.groupId() + "/expenses/search?q="
+                    + URLEncoder.encode(user.word().substring(0, 3), StandardCharsets.UTF_8));
+        }
+    },
+    CREATE_EXPENSE("POST /api/expenses/groups/{groupId}", 15) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            BigDecimal amount = BigDecimal.valueOf(100 + user.nextInt(20_000), 2);
+            return user.post("/api/expenses/groups/" + user.groupId(), "{\"description\":\"yük " + user.word()
+                    + "\",\"amount\":" + amount.toPlainString() + ",\"splitType\":\"EQUAL\"}");
+        }
+    },
+    LOGIN("POST /api/auth/login", 5) {
+        @Override
+        HttpRequest request(LoadDriver.VirtualUser user) {
+            return user.loginRequest();
+        }
+    };
+
+    private final String route;
+    private final int defaultWeight;
+
+    LoadOperation(String route, int defaultWeight) {
+        this.route = route;
+        this.defaultWeight = defaultWeight;
+    }
+
+    abstract HttpRequest request(LoadDriver.VirtualUser user);
+
+    String route() {
+        return route;
+    }
+
+    boolean needsGroup() {
+        return this != LIST_GROUPS && this != LOGIN;
+    }
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    static int[] weights(String override) {
+        Map<String, LoadOperation> byKey = Arrays.stream(values())
+                .collect(Collectors.toMap(LoadOperation::key, Function.identity()));
+        int[] weights = Arrays.stream(values()).mapToInt(operation -> operation.defaultWeight).toArray();
+        if (override != null && !override.isBlank()) {
+            for (String entry : override.split(",")) {
+                String[] parts = entry.trim().split("=");
+                LoadOperation operation = byKey.get(parts[0].trim());
+                if (operation == null || parts.length != 2) {
+                    throw new IllegalArgumentException("Geçersiz yük karışımı girdisi: " + entry
+                            + " (beklenen: <işlem>=<ağırlık>, işlemler: " + byKey.keySet() + ")");
+                }
+                weights[operation.ordinal()] = Integer.parseInt(parts[1].trim());
+            }
+        }
+        return weights;
+    }
+}
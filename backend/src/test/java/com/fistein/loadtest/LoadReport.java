@@ -0,0 +1,96 @@
+package com.fistein.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Çalıştırmalar arasında diff'lenebilen JSON rapor: anahtar sırası sabittir ve zaman damgası içermez.
+ * Gecikmeler milisaniye cinsindendir.
+ */
+record LoadReport(Map<String, Object> settings, Map<String, Object> dataset, double measuredSeconds,
+                  Map<String, EndpointReport> endpoints) {
+
+    LoadReport(LoadTestSettings settings, SyntheticDataSeeder.SeededData data, double measuredSeconds,
+               Map<String, EndpointReport> endpoints) {
+        this(describe(settings), describe(settings, data), round(measuredSeconds), endpoints);
+    }
+
+    record EndpointReport(long requests, long errors, double throughputPerSecond, Map<String, Double> latencyMs,
+                          Map<String, Long> statuses) {
+
+        static EndpointReport of(Histogram micros, long errors, Map<String, Long> statuses, double seconds) {
+            Map<String, Double> latency = new LinkedHashMap<>();
+            latency.put("mean", millis(micros.getMean()));
+            latency.put("p50", millis(micros.getValueAtPercentile(50)));
+            latency.put("p90", millis(micros.getValueAtPercentile(90)));
+            latency.put("p99", millis(micros.getValueAtPercentile(99)));
+            latency.put("p99.9", millis(micros.getValueAtPercentile(99.9)));
+            latency.put("max", millis(micros.getMaxValue()));
+            return new EndpointReport(micros.getTotalCount(), errors, round(micros.getTotalCount() / seconds),
+                    latency, statuses);
+        }
+    }
+
+    long totalRequests() {
+        return endpoints.values().stream().mapToLong(EndpointReport::requests).sum();
+    }
+
+    long totalErrors() {
+        return endpoints.values().stream().mapToLong(EndpointReport::errors).sum();
+    }
+
+    void write(Path path, ObjectMapper objectMapper) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(path.toFile(), this);
+    }
+
+    String summary() {
+        StringBuilder table = new StringBuilder(String.format("%-45s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "istek", "hata", "istek/sn", "p50 ms", "p99 ms", "max ms"));
+        endpoints.forEach((route, endpoint) -> table.append(String.format("%-45s %9d %7d %9.1f %9.2f %9.2f %9.2f%n",
+                route, endpoint.requests(), endpoint.errors(), endpoint.throughputPerSecond(),
+                endpoint.latencyMs().get("p50"), endpoint.latencyMs().get("p99"), endpoint.latencyMs().get("max"))));
+        table.append(String.format("Toplam: %d istek, %d hata, %.1f istek/sn%n",
+                totalRequests(), totalErrors(), totalRequests() / measuredSeconds));
+        return table.toString();
+    }
+
+    private static Map<String, Object> describe(LoadTestSettings settings) {
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("concurrency", settings.concurrency());
+        described.put("warmup", settings.warmup().toString());
+        described.put("duration", settings.duration().toString());
+        described.put("seed", settings.seed());
+        described.put("mix", settings.mix().isBlank() ? "default" : settings.mix());
+        return described;
+    }
+
+    private static Map<String, Object> describe(LoadTestSettings settings, SyntheticDataSeeder.SeededData data) {
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("users", settings.users());
+        described.put("groups", settings.groups());
+        described.put("membersPerGroup", settings.membersPerGroup());
+        described.put("expenses", settings.expenses());
+        described.put("seedMillis", data.seedMillis());
+        return described;
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1_000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.fistein.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Yük testinin ölçeği ve süresi. Tüm değerler {@code -Dfistein.load.*} sistem özellikleriyle değiştirilebilir;
+ * örneğin üretim ölçeği için:
+ * <pre>
+ * mvn -Pload-test test -Dfistein.load.users=10000 -Dfistein.load.groups=1000 \
+ *     -Dfistein.load.expenses=1000000 -Dfistein.load.heap=6g
+ * </pre>
+ */
+record LoadTestSettings(
+        int users,
+        int groups,
+        int membersPerGroup,
+        int expenses,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        long seed,
+        String mix,
+        Path report) {
+
+    static LoadTestSettings fromSystemProperties() {
+        int users = intProperty("users", 2_000);
+        int groups = intProperty("groups", 200);
+        // Varsayılan: her kullanıcı en az bir gruba düşsün
+        int defaultMembers = Math.max(3, (users + groups - 1) / groups);
+        return new LoadTestSettings(
+                users,
+                groups,
+                Math.min(users, intProperty("members-per-group", defaultMembers)),
+                intProperty("expenses", 100_000),
+                intProperty("concurrency", 16),
+                Duration.parse(System.getProperty("fistein.load.warmup", "PT10S")),
+                Duration.parse(System.getProperty("fistein.load.duration", "PT60S")),
+                Long.getLong("fistein.load.seed", 42L),
+                System.getProperty("fistein.load.mix", ""),
+                Path.of(System.getProperty("fistein.load.report", "target/load-test/report.json")));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger("fistein.load." + name, defaultValue);
+    }
+}
@@ -0,0 +1,178 @@
+package com.fistein.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Sentetik kullanıcı, grup, üyelik, harcama ve pay verisini doğrudan JDBC batch'leriyle yazar.
+ * Servis katmanı üzerinden bir milyon harcama saatler sürer; burada paylar grup başına tek bir
+ * INSERT ... SELECT ile üretilir.
+ */
+class SyntheticDataSeeder {
+
+    static final String PASSWORD = "yuk-testi-parola";
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int EXPENSE_SAMPLE_SIZE = 32;
+    private static final String INSERT_USER = "INSERT INTO users (name, email, password, created_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_GROUP = "INSERT INTO groups (name, base_currency, created_by_id, created_at, " +
+            "is_active) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_MEMBER = "INSERT INTO group_members (group_id, user_id, joined_at, is_admin, " +
+            "is_active) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_EXPENSE = "INSERT INTO expenses (id, description, notes, amount, currency, " +
+            "group_id, paid_by_user_id, created_at, expense_date, split_type) " +
+            "VALUES (nextval('expenses_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String[] WORDS = {"market", "kira", "fatura", "taksi", "yemek", "benzin", "otel", "bilet",
+            "kahve", "hediye", "elektrik", "internet", "sinema", "kırtasiye", "eczane"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String passwordHash;
+
+    SyntheticDataSeeder(JdbcTemplate jdbcTemplate, String passwordHash) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordHash = passwordHash;
+    }
+
+    /**
+     * @param emails         kullanıcı indeksine göre e-posta
+     * @param groupIds       grup indeksine göre veritabanı kimliği
+     * @param groupMembers   grup indeksine göre üye kullanıcı indeksleri
+     * @param userGroups     kullanıcı indeksine göre üyesi olduğu grup indeksleri
+     * @param expenseSamples grup indeksine göre son harcamalardan bir örnek
+     */
+    record SeededData(String[] emails, long[] userIds, long[] groupIds, int[][] groupMembers, int[][] userGroups,
+                      long[][] expenseSamples, long seedMillis) {
+    }
+
+    SeededData seed(LoadTestSettings settings) {
+        long start = System.nanoTime();
+        Random random = new Random(settings.seed());
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        LocalDateTime now = LocalDateTime.now();
+
+        String[] emails = new String[settings.users()];
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < emails.length; i++) {
+            emails[i] = "yuk-" + run + "-" + i + "@example.com";
+            rows.add(new Object[]{"Kullanıcı " + i, emails[i], passwordHash, Timestamp.valueOf(now)});
+            flushIfFull(INSERT_USER, rows);
+        }
+        flush(INSERT_USER, rows);
+        long[] userIds = loadIds("SELECT id, email FROM users WHERE email LIKE ?", "yuk-" + run + "-%", emails.length);
+
+        // Üyelik: ardışık dilimler, böylece grup sayısı x üye sayısı >= kullanıcı sayısı ise herkes bir gruptadır
+        int[][] groupMembers = new int[settings.groups()][];
+        List<List<Integer>> userGroupLists = new ArrayList<>(emails.length);
+        for (int i = 0; i < emails.length; i++) {
+            userGroupLists.add(new ArrayList<>());
+        }
+        for (int g = 0; g < groupMembers.length; g++) {
+            groupMembers[g] = new int[settings.membersPerGroup()];
+            for (int k = 0; k < groupMembers[g].length; k++) {
+                int user = (g * settings.membersPerGroup() + k) % emails.length;
+                groupMembers[g][k] = user;
+                userGroupLists.get(user).add(g);
+            }
+        }
+
+        String[] groupNames = new String[settings.groups()];
+        for (int g = 0; g < groupNames.length; g++) {
+            groupNames[g] = "yuk-" + run + "-" + g;
+            rows.add(new Object[]{groupNames[g], "TRY", userIds[groupMembers[g][0]], Timestamp.valueOf(now), true});
+            flushIfFull(INSERT_GROUP, rows);
+        }
+        flush(INSERT_GROUP, rows);
+        long[] groupIds = loadIds("SELECT id, name FROM groups WHERE name LIKE ?", "yuk-" + run + "-%", groupNames.length);
+
+        for (int g = 0; g < groupMembers.length; g++) {
+            for (int k = 0; k < groupMembers[g].length; k++) {
+                rows.add(new Object[]{groupIds[g], userIds[groupMembers[g][k]], Timestamp.valueOf(now), k == 0, true});
+                flushIfFull(INSERT_MEMBER, rows);
+            }
+        }
+        flush(INSERT_MEMBER, rows);
+
+        long[][] expenseSamples = new long[groupIds.length][];
+        for (int g = 0; g < groupIds.length; g++) {
+            int count = expensesForGroup(g, settings);
+            for (int i = 0; i < count; i++) {
+                Timestamp date = Timestamp.valueOf(now.minusMinutes(random.nextInt(365 * 24 * 60)));
+                String word = WORDS[random.nextInt(WORDS.length)];
+                rows.add(new Object[]{
+                        word + " " + i,
+                        random.nextInt(4) == 0 ? "not " + WORDS[random.nextInt(WORDS.length)] : null,
+                        BigDecimal.valueOf(500 + random.nextInt(50_000), 2),
+                        "TRY",
+                        groupIds[g],
+                        userIds[groupMembers[g][random.nextInt(groupMembers[g].length)]],
+                        date, date, "EQUAL"});
+                flushIfFull(INSERT_EXPENSE, rows);
+            }
+            flush(INSERT_EXPENSE, rows);
+
+            // Eski payların bir kısmı ödenmiş sayılır. Bölen tiplenmezse H2 bölümü sınırsız ölçekle hesaplar.
+            jdbcTemplate.update("INSERT INTO expense_shares (id, expense_id, group_id, user_id, share_amount, is_settled) " +
+                    "SELECT nextval('expense_shares_seq'), e.id, e.group_id, m.user_id, " +
+                    "CAST(e.amount / CAST(? AS INTEGER) AS DECIMAL(10, 2)), " +
+                    "CASE WHEN MOD(e.id + m.user_id, 10) < 3 THEN TRUE ELSE FALSE END " +
+                    "FROM expenses e JOIN group_members m ON m.group_id = e.group_id WHERE e.group_id = ?",
+                    groupMembers[g].length, groupIds[g]);
+            // Servisin farklarla tuttuğu kişi çifti toplamları aynı paylardan
+            jdbcTemplate.update("INSERT INTO pairwise_balances (group_id, debtor_id, creditor_id, currency, amount, share_count) " +
+                    "SELECT s.group_id, s.user_id, e.paid_by_user_id, e.currency, SUM(s.share_amount), COUNT(*) " +
+                    "FROM expense_shares s JOIN expenses e ON e.id = s.expense_id " +
+                    "WHERE s.group_id = ? AND s.is_settled = FALSE AND s.user_id <> e.paid_by_user_id " +
+                    "GROUP BY s.group_id, s.user_id, e.paid_by_user_id, e.currency", groupIds[g]);
+            expenseSamples[g] = jdbcTemplate.queryForList("SELECT id FROM expenses WHERE group_id = ? " +
+                    "ORDER BY id DESC LIMIT " + EXPENSE_SAMPLE_SIZE, Long.class, groupIds[g]).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        }
+
+        int[][] userGroups = userGroupLists.stream()
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+        return new SeededData(emails, userIds, groupIds, groupMembers, userGroups, expenseSamples,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Dengesiz dağılım: ilk yarıdaki gruplar iki kat harcama alır, artan ilk gruba eklenir
+    static int expensesForGroup(int group, LoadTestSettings settings) {
+        int heavy = settings.groups() / 2;
+        int unit = settings.expenses() / (settings.groups() + heavy);
+        int count = group < heavy ? unit * 2 : unit;
+        return group == 0 ? count + settings.expenses() - unit * (settings.groups() + heavy) : count;
+    }
+
+    private void flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() >= BATCH_SIZE) {
+            flush(sql, rows);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    // IDENTITY kimlikleri; sondaki "-<indeks>" ile eşlenir
+    private long[] loadIds(String sql, String pattern, int size) {
+        long[] ids = new long[size];
+        Arrays.fill(ids, -1);
+        jdbcTemplate.query(sql, rs -> {
+            String key = rs.getString(2).replace("@example.com", "");
+            ids[Integer.parseInt(key.substring(key.lastIndexOf('-') + 1))] = rs.getLong(1);
+        }, pattern);
+        return ids;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fistein.security;
+
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class PasswordHashingServiceTests {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void detectsCostChangeAndRehashesInBackground() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordHashingService service = service(new BCryptPasswordEncoder(5), 1, 4, 5);
+
+        assertThat(service.matches("secret", oldHash)).isTrue();
+        assertThat(service.needsRehash(oldHash)).isTrue();
+        assertThat(service.needsRehash(service.encode("secret"))).isFalse();
+
+        service.rehashInBackground(7L, "secret", oldHash);
+        verify(userRepository, timeout(2_000)).updatePasswordIfUnchanged(eq(7L), eq(oldHash), startsWith("$2a$05$"));
+    }
+
+    @Test
+    void usersWithoutPasswordNeverMatch() {
+        PasswordHashingService service = service(new BCryptPasswordEncoder(4), 1, 4, 4);
+
+        assertThat(service.matches("", "")).isFalse();
+        assertThat(service.matches("anything", null)).isFalse();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("a".contentEquals(rawPassword)) {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHashingService service = service(blocking, 1, 1, 4);
+
+        // Biri çalışıyor, biri kuyrukta bekliyor
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a"));
+        started.await(2, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b"));
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> service.encode("c"))
+                .isInstanceOf(FisteinException.class)
+                .extracting("errorType").isEqualTo(FisteinException.ErrorType.SERVICE_UNAVAILABLE);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isNotBlank();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotBlank();
+        service.destroy();
+    }
+
+    private PasswordHashingService service(PasswordEncoder encoder, int threads, int queueCapacity, int strength) {
+        return new PasswordHashingService(encoder, userRepository, new SimpleMeterRegistry(),
+                threads, queueCapacity, Duration.ofSeconds(5), strength);
+    }
+}
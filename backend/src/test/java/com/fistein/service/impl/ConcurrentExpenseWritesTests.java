@@ -0,0 +1,311 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseShareResponse;
+import com.fistein.dto.GroupBalanceResponse;
+import com.fistein.dto.SettleExpenseRequest;
+import com.fistein.dto.UpdateExpenseRequest;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.GroupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ConcurrentExpenseWritesTests {
+
+    private static final int MEMBERS = 4;
+    // Sıcak grupta beklenen en düşük işlem hızı (H2, 1 CPU'da 60-95 işlem/sn ölçüldü); kilitlenme ya da
+    // grup çapında sıralanma gibi çöküşleri yakalar. Makineye göre -Dfistein.load.hot-group-min-ops ile ayarlanır
+    private static final int MIN_OPS_PER_SECOND = Integer.getInteger("fistein.load.hot-group-min-ops", 25);
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<User> members = new ArrayList<>();
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        members.clear();
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(userRepository.save(User.builder().name("Üye " + i)
+                    .email("uye" + i + "-" + run + "@example.com").password("").build()));
+        }
+        group = groupRepository.save(Group.builder().name("Sıcak grup " + run).createdBy(members.get(0)).build());
+        for (int i = 0; i < MEMBERS; i++) {
+            groupMemberRepository.save(GroupMember.builder().group(group).user(members.get(i))
+                    .isAdmin(i == 0).isActive(true).build());
+        }
+    }
+
+    @Test
+    void staleWriteIsRejected() {
+        ExpenseResponse created = createExpense(members.get(0), "100.00");
+        Expense stale = expenseRepository.findById(created.getId()).orElseThrow();
+
+        UpdateExpenseRequest update = new UpdateExpenseRequest();
+        update.setDescription("Güncel");
+        expenseService.updateExpense(created.getId(), update, members.get(0));
+
+        stale.setDescription("Eski kopyadan");
+        assertThatThrownBy(() -> expenseRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(expenseRepository.findById(created.getId()).orElseThrow().getDescription()).isEqualTo("Güncel");
+    }
+
+    // 16 thread ile 2000 işlem; varsayılan çalıştırmaya dahil değildir: mvn -Pload-test test.
+    // İşlem hızı ve çakışma oranı yük testi raporunun yanına hot-group.json olarak yazılır
+    @Test
+    @Tag("load")
+    void concurrentSettlesAndEditsOnHotGroupLoseNoUpdates() throws Exception {
+        int expenses = 10;
+        int threads = 16;
+        int operations = 2_000;
+
+        List<ExpenseResponse> hot = new ArrayList<>();
+        for (int i = 0; i < expenses; i++) {
+            hot.add(createExpense(members.get(i % MEMBERS), "100.00"));
+        }
+        // Her harcama için başarıyla yazılmış tutarlar; son durum bunlardan biri olmalı
+        Map<Long, Set<BigDecimal>> committedAmounts = new ConcurrentHashMap<>();
+        hot.forEach(expense -> committedAmounts.computeIfAbsent(expense.getId(), id -> ConcurrentHashMap.newKeySet())
+                .add(new BigDecimal("100.00")));
+        AtomicInteger nextAmount = new AtomicInteger(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        double retriesBefore = counterSum("fistein.conflict.retries");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < operations / threads; i++) {
+                    ExpenseResponse expense = hot.get(ThreadLocalRandom.current().nextInt(hot.size()));
+                    User payer = payerOf(expense);
+                    int roll = ThreadLocalRandom.current().nextInt(10);
+                    try {
+                        if (roll < 5) {
+                            // Borçlu kendi payını onaylar
+                            User debtor = members.get(ThreadLocalRandom.current().nextInt(MEMBERS));
+                            settleShareOf(expense.getId(), debtor);
+                        } else if (roll < 8) {
+                            // Benzersiz ve 4'e bölünebilen tutar: paylar kuruşsuz eşit bölünür
+                            BigDecimal amount = BigDecimal.valueOf(nextAmount.getAndIncrement() * 4L, 0)
+                                    .setScale(2);
+                            UpdateExpenseRequest update = new UpdateExpenseRequest();
+                            update.setAmount(amount);
+                            update.setSplitType(Expense.SplitType.EQUAL);
+                            expenseService.updateExpense(expense.getId(), update, payer);
+                            committedAmounts.get(expense.getId()).add(amount);
+                        } else {
+                            UpdateExpenseRequest update = new UpdateExpenseRequest();
+                            update.setNotes("not " + i);
+                            expenseService.updateExpense(expense.getId(), update, payer);
+                        }
+                    } catch (FisteinException e) {
+                        assertThat(e.getErrorType()).isEqualTo(FisteinException.ErrorType.CONFLICT);
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        executor.shutdown();
+
+        double retries = counterSum("fistein.conflict.retries") - retriesBefore;
+        double opsPerSecond = operations / seconds;
+        double conflictRatio = (double) conflicts.get() / operations;
+        writeReport(threads, operations, opsPerSecond, retries, conflicts.get());
+
+        assertThat(retries).isPositive();
+        // Yeniden denemeler tükenip 409 dönen işlemler %1'in altında kalmalı
+        assertThat(conflictRatio).isLessThan(0.01);
+        assertThat(opsPerSecond).isGreaterThanOrEqualTo(MIN_OPS_PER_SECOND);
+        for (ExpenseResponse expense : hot) {
+            BigDecimal amount = jdbcTemplate.queryForObject("SELECT amount FROM expenses WHERE id = ?",
+                    BigDecimal.class, expense.getId());
+            List<BigDecimal> shares = jdbcTemplate.queryForList("SELECT share_amount FROM expense_shares " +
+                    "WHERE expense_id = ?", BigDecimal.class, expense.getId());
+            // Tutar ve paylar aynı başarılı düzenlemeden gelmeli; ara karışım kayıp güncelleme demektir
+            assertThat(committedAmounts.get(expense.getId())).anySatisfy(committed ->
+                    assertThat(amount).isEqualByComparingTo(committed));
+            assertThat(shares).hasSize(MEMBERS)
+                    .allSatisfy(share -> assertThat(share.multiply(BigDecimal.valueOf(MEMBERS)))
+                            .isEqualByComparingTo(amount));
+        }
+
+        // Okuma modeli son durumu göstermeli: eşzamanlı onaylar birbirinin payını listeden silmemeli
+        Map<Long, ExpenseResponse> listed = new HashMap<>();
+        expenseService.getGroupExpenses(group.getId(), members.get(0), PageRequest.of(0, expenses))
+                .forEach(expense -> listed.put(expense.getId(), expense));
+        for (ExpenseResponse expense : hot) {
+            Map<Long, Boolean> settled = new HashMap<>();
+            jdbcTemplate.query("SELECT id, is_settled FROM expense_shares WHERE expense_id = ?",
+                    rs -> {
+                        settled.put(rs.getLong(1), rs.getBoolean(2));
+                    }, expense.getId());
+            ExpenseResponse listing = listed.get(expense.getId());
+            assertThat(listing.getAmount()).isEqualByComparingTo(jdbcTemplate.queryForObject(
+                    "SELECT amount FROM expenses WHERE id = ?", BigDecimal.class, expense.getId()));
+            assertThat(listing.getShares()).hasSize(MEMBERS).allSatisfy(share ->
+                    assertThat(share.getIsSettled()).isEqualTo(settled.get(share.getId())));
+        }
+
+        GroupBalanceResponse balances = groupService.getGroupBalances(group.getId(), members.get(0));
+        Map<Long, BigDecimal> expectedNet = expectedNetBalances();
+        // Net tutar ödenen eksi borç; borç eşleştirmesi balance alanını değiştirmez
+        assertThat(balances.getUserBalances()).hasSize(MEMBERS).allSatisfy(info -> {
+            BigDecimal expected = expectedNet.get(info.getUser().getId());
+            assertThat(info.getTotalPaid().subtract(info.getTotalOwed())).isEqualByComparingTo(expected);
+            assertThat(info.getBalance()).isEqualByComparingTo(expected);
+        });
+        // Eşzamanlı farklar kişi çifti toplamlarında kaybolmamalı
+        assertThat(pairwiseBalances("SELECT debtor_id, creditor_id, amount, share_count FROM pairwise_balances " +
+                "WHERE group_id = ? AND share_count > 0"))
+                .isEqualTo(pairwiseBalances("SELECT s.user_id, e.paid_by_user_id, SUM(s.share_amount), COUNT(*) " +
+                        "FROM expense_shares s JOIN expenses e ON e.id = s.expense_id " +
+                        "WHERE e.group_id = ? AND s.is_settled = FALSE AND s.user_id <> e.paid_by_user_id " +
+                        "GROUP BY s.user_id, e.paid_by_user_id"));
+    }
+
+    private void writeReport(int threads, int operations, double opsPerSecond, double retries, int conflicts)
+            throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threads", threads);
+        report.put("operations", operations);
+        report.put("opsPerSecond", Math.round(opsPerSecond));
+        report.put("minOpsPerSecond", MIN_OPS_PER_SECOND);
+        report.put("retries", Math.round(retries));
+        report.put("conflicts", conflicts);
+        Path path = Path.of(System.getProperty("fistein.load.report", "target/load-test/report.json"))
+                .resolveSibling("hot-group.json");
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    private Map<String, String> pairwiseBalances(String sql) {
+        Map<String, String> pairs = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            pairs.put(rs.getLong(1) + "->" + rs.getLong(2), rs.getBigDecimal(3).setScale(2) + " / " + rs.getLong(4));
+        }, group.getId());
+        return pairs;
+    }
+
+    private void settleShareOf(Long expenseId, User debtor) {
+        List<ExpenseShareResponse> shares = expenseService.getExpenseShares(expenseId, debtor);
+        shares.stream()
+                .filter(share -> share.getUser().getId().equals(debtor.getId()) && !Boolean.TRUE.equals(share.getIsSettled()))
+                .findFirst()
+                .ifPresent(share -> {
+                    SettleExpenseRequest settle = new SettleExpenseRequest();
+                    settle.setShareIds(List.of(share.getId()));
+                    expenseService.settleExpense(expenseId, settle, debtor);
+                });
+    }
+
+    private Map<Long, BigDecimal> expectedNetBalances() {
+        Map<Long, BigDecimal> net = new HashMap<>();
+        members.forEach(member -> net.put(member.getId(), BigDecimal.ZERO));
+        jdbcTemplate.query("SELECT paid_by_user_id, SUM(amount) FROM expenses WHERE group_id = ? GROUP BY paid_by_user_id",
+                rs -> {
+                    net.merge(rs.getLong(1), rs.getBigDecimal(2), BigDecimal::add);
+                }, group.getId());
+        jdbcTemplate.query("SELECT s.user_id, SUM(s.share_amount) FROM expense_shares s JOIN expenses e ON e.id = s.expense_id " +
+                        "WHERE e.group_id = ? AND s.is_settled = FALSE GROUP BY s.user_id",
+                rs -> {
+                    net.merge(rs.getLong(1), rs.getBigDecimal(2).negate(), BigDecimal::add);
+                }, group.getId());
+        return net;
+    }
+
+    private double counterSum(String name) {
+        return Search.in(meterRegistry).name(name).counters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private User payerOf(ExpenseResponse expense) {
+        return members.stream().filter(member -> member.getId().equals(expense.getPaidBy().getId()))
+                .findFirst().orElseThrow();
+    }
+
+    private ExpenseResponse createExpense(User payer, String amount) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Kira");
+        request.setAmount(new BigDecimal(amount));
+        request.setSplitType(Expense.SplitType.EQUAL);
+        return expenseService.createExpense(group.getId(), request, payer);
+    }
+}
@@ -0,0 +1,199 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.GroupBalanceResponse;
+import com.fistein.dto.SettleExpenseRequest;
+import com.fistein.dto.UserBalanceResponse;
+import com.fistein.dto.UserBalancesResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.ArchivedExpenseRepository;
+import com.fistein.repository.ExpenseRepository;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseArchiveService;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.FxRateService;
+import com.fistein.service.GroupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ExpenseArchiveServiceImplTests {
+
+    @Autowired
+    private ExpenseArchiveService archiveService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private GroupBalanceCalculator balanceCalculator;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ArchivedExpenseRepository archivedExpenseRepository;
+
+    @Autowired
+    private SchedulerLockManager lockManager;
+
+    private User ayse;
+    private User mehmet;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Ev " + run).createdBy(ayse).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+
+        // Arşivlenmeyi bekleyen parçaları görmek için küçük parça
+        ReflectionTestUtils.setField(archiveService, "chunkSize", 2);
+        ReflectionTestUtils.setField(archiveService, "pauseBetweenChunks", Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(archiveService, "chunkSize", 200);
+    }
+
+    @Test
+    void archivingKeepsBalancesExactAndHistoryReadable() {
+        LocalDateTime threeYearsAgo = LocalDateTime.now().minusYears(3);
+        List<Long> oldSettled = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ExpenseResponse expense = createExpense(i % 2 == 0 ? ayse : mehmet, "100.00", "60.00", "40.00", threeYearsAgo);
+            settleAll(expense);
+            oldSettled.add(expense.getId());
+        }
+        ExpenseResponse oldUnsettled = createExpense(ayse, "50.00", "25.00", "25.00", threeYearsAgo);
+        ExpenseResponse recentSettled = createExpense(mehmet, "30.00", "10.00", "20.00", LocalDateTime.now());
+        settleAll(recentSettled);
+
+        GroupBalanceResponse groupBefore = groupService.getGroupBalances(group.getId(), ayse);
+        UserBalanceResponse ayseBefore = expenseService.getUserBalance(group.getId(), ayse);
+        UserBalancesResponse mehmetBefore = expenseService.getUserBalances(mehmet);
+
+        int archived = archiveService.archiveSettledBefore(LocalDateTime.now().minusYears(2));
+
+        assertThat(archived).isEqualTo(5);
+        assertThat(expenseRepository.findAllById(oldSettled)).isEmpty();
+        assertThat(expenseRepository.findById(oldUnsettled.getId())).isPresent();
+        assertThat(expenseRepository.findById(recentSettled.getId())).isPresent();
+
+        // Arşivleme bakiyeyi değiştirmediği için bellekteki sonucu eskitmez; karşılaştırma baştan hesaplanır
+        GroupBalanceResponse groupAfter = balanceCalculator.calculate(group, fxRateService.current())
+                .toResponse(null, false);
+        assertThat(groupAfter.getTotalExpenses()).isEqualByComparingTo(groupBefore.getTotalExpenses());
+        assertThat(balancesByUser(groupAfter)).isEqualTo(balancesByUser(groupBefore));
+
+        UserBalanceResponse ayseAfter = expenseService.getUserBalance(group.getId(), ayse);
+        assertThat(ayseAfter.getTotalPaid()).isEqualByComparingTo(ayseBefore.getTotalPaid());
+        assertThat(ayseAfter.getBalance()).isEqualByComparingTo(ayseBefore.getBalance());
+        UserBalancesResponse mehmetAfter = expenseService.getUserBalances(mehmet);
+        assertThat(mehmetAfter.getBalance()).isEqualByComparingTo(mehmetBefore.getBalance());
+
+        // Geçmiş arşivden okunur
+        assertThat(archiveService.getArchivedExpenses(group.getId(), mehmet, PageRequest.of(0, 10)).getContent())
+                .hasSize(5)
+                .allSatisfy(expense -> assertThat(expense.getShares()).hasSize(2));
+        ExpenseResponse fromArchive = expenseService.getExpenseById(oldSettled.get(0), ayse);
+        assertThat(fromArchive.getAmount()).isEqualByComparingTo("100.00");
+        assertThat(fromArchive.getPaidBy().getId()).isEqualTo(ayse.getId());
+        assertThat(fromArchive.getCurrentUserShare()).isEqualByComparingTo("60.00");
+
+        // İkinci çalıştırma yapacak iş bulamaz
+        assertThat(archiveService.archiveSettledBefore(LocalDateTime.now().minusYears(2))).isZero();
+        assertThat(archivedExpenseRepository.findByGroupIdOrderByExpenseDateDescIdDesc(group.getId(),
+                PageRequest.of(0, 10)).getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void archivingWaitsForLeaseHeldByAnotherNode() {
+        ExpenseResponse expense = createExpense(ayse, "100.00", "60.00", "40.00", LocalDateTime.now().minusYears(3));
+        settleAll(expense);
+
+        String otherNode = lockManager.tryLock(ExpenseArchiveServiceImpl.LOCK_NAME, Duration.ofMinutes(1)).orElseThrow();
+        try {
+            assertThat(archiveService.archiveSettledBefore(LocalDateTime.now().minusYears(2))).isZero();
+            assertThat(expenseRepository.findById(expense.getId())).isPresent();
+        } finally {
+            lockManager.unlock(ExpenseArchiveServiceImpl.LOCK_NAME, otherNode);
+        }
+
+        assertThat(archiveService.archiveSettledBefore(LocalDateTime.now().minusYears(2))).isPositive();
+        assertThat(expenseRepository.findById(expense.getId())).isEmpty();
+    }
+
+    private ExpenseResponse createExpense(User payer, String amount, String ayseShare, String mehmetShare,
+                                          LocalDateTime expenseDate) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Harcama");
+        request.setAmount(new BigDecimal(amount));
+        request.setSplitType(Expense.SplitType.EXACT);
+        request.setExpenseDate(expenseDate);
+        request.setShares(List.of(share(ayse, ayseShare), share(mehmet, mehmetShare)));
+        return expenseService.createExpense(group.getId(), request, payer);
+    }
+
+    private void settleAll(ExpenseResponse expense) {
+        SettleExpenseRequest settle = new SettleExpenseRequest();
+        settle.setShareIds(expense.getShares().stream().map(share -> share.getId()).toList());
+        User payer = expense.getPaidBy().getId().equals(ayse.getId()) ? ayse : mehmet;
+        expenseService.settleExpense(expense.getId(), settle, payer);
+    }
+
+    private static Map<Long, String> balancesByUser(GroupBalanceResponse balances) {
+        return balances.getUserBalances().stream().collect(Collectors.toMap(
+                info -> info.getUser().getId(),
+                info -> info.getTotalPaid().stripTrailingZeros().toPlainString() + "/"
+                        + info.getTotalOwed().stripTrailingZeros().toPlainString()));
+    }
+
+    private static CreateExpenseRequest.ExpenseShareRequest share(User user, String amount) {
+        CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+        share.setUserId(user.getId());
+        share.setAmount(new BigDecimal(amount));
+        return share;
+    }
+}
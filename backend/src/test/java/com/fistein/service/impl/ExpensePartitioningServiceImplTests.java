@@ -0,0 +1,137 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.UpdateExpenseRequest;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpensePartitioningService;
+import com.fistein.service.ExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Servis varsayılan olarak oluşturulmaz; H2'de bölümleme adımı atlanır, yalnızca doldurma çalışır.
+// Ayrı context ortak veritabanını create-drop ile yeniden kurup diğer context'lerin id dizilerini
+// sıfırlamasın diye kendi veritabanını kullanır
+@SpringBootTest(properties = {
+        "fistein.partitioning.enabled=true",
+        "spring.datasource.url=" + ExpensePartitioningServiceImplTests.URL,
+        "fistein.datasource.replica.url=" + ExpensePartitioningServiceImplTests.URL
+})
+class ExpensePartitioningServiceImplTests {
+
+    // Read-only okumalar replica havuzuna gider; o da aynı ayrı veritabanına bağlanır
+    static final String URL = "jdbc:h2:mem:partitioning;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS,USER,VALUE";
+
+    @Autowired
+    private ExpensePartitioningService partitioningService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User ayse;
+    private User mehmet;
+    private User zeynep;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        zeynep = userRepository.save(User.builder().name("Zeynep").email("zeynep-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Ev " + run).createdBy(ayse).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+    }
+
+    @Test
+    void sharesCarryTheGroupOfTheirExpense() {
+        ExpenseResponse expense = createExpense("90.00");
+        // Sonradan eklenen üye, güncellemede yeni bir pay satırı olarak eklenir
+        groupMemberRepository.save(GroupMember.builder().group(group).user(zeynep).isActive(true).build());
+        UpdateExpenseRequest update = new UpdateExpenseRequest();
+        update.setAmount(new BigDecimal("120.00"));
+        update.setSplitType(Expense.SplitType.EQUAL);
+        expenseService.updateExpense(expense.getId(), update, ayse);
+
+        List<Long> groupIds = jdbcTemplate.queryForList("SELECT group_id FROM expense_shares WHERE expense_id = ?",
+                Long.class, expense.getId());
+        assertThat(groupIds).hasSize(3).containsOnly(group.getId());
+    }
+
+    @Test
+    void backfillFillsMissingShareGroupIdsInBatches() {
+        ExpenseResponse first = createExpense("40.00");
+        ExpenseResponse second = createExpense("60.00");
+        int batchSize = (Integer) ReflectionTestUtils.getField(partitioningService, "batchSize");
+        // Sütunun sonradan eklendiği eski bir şemayı taklit eder
+        jdbcTemplate.execute("ALTER TABLE expense_shares ALTER COLUMN group_id SET NULL");
+        try {
+            ReflectionTestUtils.setField(partitioningService, "batchSize", 1);
+            jdbcTemplate.update("UPDATE expense_shares SET group_id = NULL WHERE expense_id IN (?, ?)",
+                    first.getId(), second.getId());
+
+            assertThat(partitioningService.backfillShareGroupIds()).isEqualTo(4);
+            assertThat(jdbcTemplate.queryForList("SELECT group_id FROM expense_shares WHERE expense_id IN (?, ?)",
+                    Long.class, first.getId(), second.getId())).hasSize(4).containsOnly(group.getId());
+            assertThat(partitioningService.backfillShareGroupIds()).isZero();
+        } finally {
+            ReflectionTestUtils.setField(partitioningService, "batchSize", batchSize);
+            jdbcTemplate.execute("ALTER TABLE expense_shares ALTER COLUMN group_id SET NOT NULL");
+        }
+    }
+
+    @Test
+    void partitioningIsSkippedOutsidePostgres() {
+        assertThat(partitioningService.partitionTables()).isZero();
+        assertThat(partitioningService.isPartitioned()).isFalse();
+    }
+
+    @Test
+    void partitioningRequiresSchemaManagementThatKeepsTables() {
+        ExpensePartitioningServiceImpl.requireSafeDdlAuto("none");
+        ExpensePartitioningServiceImpl.requireSafeDdlAuto("Validate");
+        assertThatThrownBy(() -> ExpensePartitioningServiceImpl.requireSafeDdlAuto("create-drop"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ddl-auto");
+        assertThatThrownBy(() -> ExpensePartitioningServiceImpl.requireSafeDdlAuto("update"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private ExpenseResponse createExpense(String amount) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Market");
+        request.setAmount(new BigDecimal(amount));
+        request.setSplitType(Expense.SplitType.EQUAL);
+        return expenseService.createExpense(group.getId(), request, ayse);
+    }
+}
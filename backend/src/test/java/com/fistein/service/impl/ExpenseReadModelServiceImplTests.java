@@ -0,0 +1,148 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseShareResponse;
+import com.fistein.dto.SettleExpenseRequest;
+import com.fistein.dto.UpdateExpenseRequest;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseReadModelService;
+import com.fistein.service.ExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ExpenseReadModelServiceImplTests {
+
+    @Autowired
+    private ExpenseReadModelService readModelService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User ayse;
+    private User mehmet;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Ev " + run).createdBy(ayse).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+    }
+
+    @Test
+    void listingFollowsEveryWrite() {
+        ExpenseResponse first = createExpense("Market", "50.00", "40.00");
+        ExpenseResponse second = createExpense("Fatura", "30.00", "30.00");
+
+        SettleExpenseRequest settle = new SettleExpenseRequest();
+        settle.setShareIds(List.of(shareOf(first, mehmet).getId()));
+        expenseService.settleExpense(first.getId(), settle, mehmet);
+        UpdateExpenseRequest update = new UpdateExpenseRequest();
+        update.setDescription("Haftalık market");
+        update.setNotes("indirimli");
+        expenseService.updateExpense(first.getId(), update, ayse);
+        expenseService.deleteExpense(second.getId(), ayse);
+
+        List<ExpenseResponse> listed = expenseService.getGroupExpenses(group.getId(), mehmet, PageRequest.of(0, 20))
+                .getContent();
+        ExpenseResponse source = expenseService.getExpenseById(first.getId(), mehmet);
+        assertThat(listed).singleElement().satisfies(listing -> {
+            assertThat(listing.getId()).isEqualTo(source.getId());
+            assertThat(listing.getDescription()).isEqualTo("Haftalık market");
+            assertThat(listing.getNotes()).isEqualTo("indirimli");
+            assertThat(listing.getAmount()).isEqualByComparingTo(source.getAmount());
+            assertThat(listing.getCreatedAt()).isEqualTo(source.getCreatedAt());
+            assertThat(listing.getGroupName()).isEqualTo(group.getName());
+            assertThat(listing.getPaidBy()).isEqualTo(source.getPaidBy());
+            assertThat(listing.getCurrentUserShare()).isEqualByComparingTo("40.00");
+            assertThat(listing.getIsCurrentUserPayer()).isFalse();
+            assertThat(listing.getShares()).usingRecursiveFieldByFieldElementComparator()
+                    .isEqualTo(source.getShares().stream()
+                            .sorted(Comparator.comparing(ExpenseShareResponse::getId))
+                            .toList());
+        });
+        assertThat(shareOf(listed.get(0), mehmet).getIsSettled()).isTrue();
+    }
+
+    @Test
+    void checkerFindsAndRepairsDrift() {
+        ExpenseResponse first = createExpense("Kira", "500.00", "500.00");
+        ExpenseResponse second = createExpense("Aidat", "60.00", "60.00");
+        jdbcTemplate.update("DELETE FROM expense_view WHERE expense_id = ?", first.getId());
+        jdbcTemplate.update("UPDATE expense_view SET description = 'eski', share_count = 1 WHERE expense_id = ?",
+                second.getId());
+        jdbcTemplate.update("INSERT INTO expense_view (expense_id, group_id, created_at, description, amount, currency, " +
+                "paid_by_user_id, paid_by_name, paid_by_email, split_type, share_count, shares_json) " +
+                "SELECT expense_id + 1000000, group_id, created_at, description, amount, currency, paid_by_user_id, " +
+                "paid_by_name, paid_by_email, split_type, share_count, shares_json FROM expense_view WHERE expense_id = ?",
+                second.getId());
+
+        ExpenseReadModelService.ConsistencyReport report = readModelService.checkConsistency(true);
+
+        assertThat(report.missing()).isPositive();
+        assertThat(report.stale()).isPositive();
+        assertThat(report.orphaned()).isPositive();
+        assertThat(report.repaired()).isEqualTo(report.missing() + report.stale() + report.orphaned());
+        assertThat(readModelService.checkConsistency(false).consistent()).isTrue();
+        assertThat(expenseService.getGroupExpenses(group.getId(), ayse, PageRequest.of(0, 20)).getContent())
+                .extracting(ExpenseResponse::getDescription)
+                .containsExactly("Aidat", "Kira");
+    }
+
+    private ExpenseShareResponse shareOf(ExpenseResponse expense, User user) {
+        return expense.getShares().stream()
+                .filter(share -> share.getUser().getId().equals(user.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private ExpenseResponse createExpense(String description, String ayseShare, String mehmetShare) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription(description);
+        request.setAmount(new BigDecimal(ayseShare).add(new BigDecimal(mehmetShare)));
+        request.setSplitType(Expense.SplitType.EXACT);
+        request.setShares(List.of(share(ayse, ayseShare), share(mehmet, mehmetShare)));
+        return expenseService.createExpense(group.getId(), request, ayse);
+    }
+
+    private static CreateExpenseRequest.ExpenseShareRequest share(User user, String amount) {
+        CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+        share.setUserId(user.getId());
+        share.setAmount(new BigDecimal(amount));
+        return share;
+    }
+}
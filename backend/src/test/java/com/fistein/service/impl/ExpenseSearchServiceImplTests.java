@@ -0,0 +1,185 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseSearchResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseSearchService;
+import com.fistein.service.ExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ExpenseSearchServiceImplTests {
+
+    @Autowired
+    private ExpenseSearchService searchService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User ayse;
+    private User mehmet;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Tatil " + run).createdBy(ayse).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+    }
+
+    @Test
+    void matchesWordPrefixesAndRanksDescriptionAboveNotes() {
+        ExpenseResponse taxi = createExpense("Taksi Roma", null, "40.00", "20.00");
+        ExpenseResponse dinner = createExpense("Akşam yemeği", "Roma'da taksiden sonra", "60.00", "30.00");
+        createExpense("Market", "Süt, ekmek", "20.00", "10.00");
+        createExpense("Otostop", null, "10.00", "5.00");
+
+        ExpenseSearchResponse result = searchService.search(group.getId(), "tak ROM", null, 20, mehmet);
+
+        assertThat(result.getContent()).extracting(ExpenseResponse::getId)
+                .containsExactly(taxi.getId(), dinner.getId());
+        assertThat(result.getContent().get(0).getCurrentUserShare()).isEqualByComparingTo("20.00");
+        assertThat(result.getContent().get(0).getShares()).isNull();
+        assertThat(result.getNextCursor()).isNull();
+
+        // Kelimenin ortası eşleşmez: "stop" Otostop'u bulmaz
+        assertThat(searchService.search(group.getId(), "stop", null, 20, ayse).getContent()).isEmpty();
+    }
+
+    @Test
+    void cursorWalksEveryMatchOnceInRankOrder() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Notlarda eşleşenler daha düşük puan alır ve sona düşer
+            expected.add(i < 3
+                    ? createExpense("Benzin " + i, null, "10.00", "5.00").getId()
+                    : createExpense("Yol " + i, "benzin istasyonu", "10.00", "5.00").getId());
+        }
+        createExpense("Otopark", null, "10.00", "5.00");
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ExpenseSearchResponse page = searchService.search(group.getId(), "benz", cursor, 3, ayse);
+            page.getContent().forEach(expense -> seen.add(expense.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        List<Long> descriptionMatches = expected.subList(0, 3).stream().sorted((a, b) -> Long.compare(b, a)).toList();
+        List<Long> notesMatches = expected.subList(3, 7).stream().sorted((a, b) -> Long.compare(b, a)).toList();
+        List<Long> ranked = new ArrayList<>(descriptionMatches);
+        ranked.addAll(notesMatches);
+        assertThat(seen).containsExactlyElementsOf(ranked);
+    }
+
+    @Test
+    void rejectsQueriesWithoutWordsAndForeignUsers() {
+        assertThatThrownBy(() -> searchService.search(group.getId(), " & :* ", null, 20, ayse))
+                .isInstanceOf(FisteinException.class);
+        assertThatThrownBy(() -> searchService.search(group.getId(), "taksi", "bozuk", 20, ayse))
+                .isInstanceOf(FisteinException.class);
+
+        User stranger = userRepository.save(User.builder().name("Yabancı")
+                .email("yabanci-" + UUID.randomUUID() + "@example.com").password("").build());
+        assertThatThrownBy(() -> searchService.search(group.getId(), "taksi", null, 20, stranger))
+                .hasMessage("Bu gruba erişim yetkiniz yok");
+    }
+
+    @Test
+    void searchPagesThroughLargeGroup() {
+        int expenses = 10_000;
+        String[] words = {"market", "kira", "fatura", "taksi", "yemek", "benzin", "otel", "bilet", "kahve", "hediye"};
+        String[] cities = {"Roma", "Paris", "İzmir", "Berlin", "Kars"};
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(1_000);
+        for (int i = 0; i < expenses; i++) {
+            rows.add(new Object[]{
+                    words[i % words.length] + " " + cities[(i / words.length) % cities.length] + " " + i,
+                    i % 4 == 0 ? "not " + words[(i + 3) % words.length] : null,
+                    new BigDecimal("10.00"), "TRY", group.getId(), ayse.getId(), now, now, "EQUAL"});
+            if (rows.size() == 1_000) {
+                insertExpenses(rows);
+                rows.clear();
+            }
+        }
+
+        try {
+            ExpenseSearchResponse first = searchService.search(group.getId(), "taksi rom", null, 20, ayse);
+            assertThat(first.getContent()).hasSize(20)
+                    .allSatisfy(expense -> assertThat(expense.getDescription()).startsWith("taksi Roma"));
+            assertThat(first.getNextCursor()).isNotNull();
+
+            ExpenseSearchResponse second = searchService.search(group.getId(), "taksi rom", first.getNextCursor(), 20, ayse);
+            assertThat(second.getContent()).hasSize(20)
+                    .allSatisfy(expense -> assertThat(expense.getDescription()).startsWith("taksi Roma"));
+            assertThat(second.getContent()).extracting(ExpenseResponse::getId)
+                    .doesNotContainAnyElementsOf(first.getContent().stream().map(ExpenseResponse::getId).toList());
+        } finally {
+            jdbcTemplate.update("DELETE FROM expenses WHERE group_id = ?", group.getId());
+        }
+    }
+
+    private void insertExpenses(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (id, description, notes, amount, currency, group_id, " +
+                "paid_by_user_id, created_at, expense_date, split_type) " +
+                "VALUES (nextval('expenses_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private ExpenseResponse createExpense(String description, String notes, String ayseShare, String mehmetShare) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription(description);
+        request.setNotes(notes);
+        request.setSplitType(Expense.SplitType.EXACT);
+        request.setShares(Arrays.asList(share(ayse, ayseShare), share(mehmet, mehmetShare)));
+        request.setAmount(new BigDecimal(ayseShare).add(new BigDecimal(mehmetShare)));
+        return expenseService.createExpense(group.getId(), request, ayse);
+    }
+
+    private static CreateExpenseRequest.ExpenseShareRequest share(User user, String amount) {
+        CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+        share.setUserId(user.getId());
+        share.setAmount(new BigDecimal(amount));
+        return share;
+    }
+}
@@ -0,0 +1,303 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseBatchResponse;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.ExpenseShareResponse;
+import com.fistein.dto.SettleExpenseRequest;
+import com.fistein.dto.UpdateExpenseRequest;
+import com.fistein.entity.Expense;
+import com.fistein.entity.ExpenseShare;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.ExpenseShareRepository;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ExpenseServiceImplTests {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void equalSplitCreatesOneShareForEveryMember() {
+        List<User> members = createGroupMembers(4);
+        Group group = groupOf(members);
+
+        ExpenseResponse expense = expenseService.createExpense(group.getId(), equalRequest("100.00"), members.get(0));
+
+        assertThat(expense.getShares()).hasSize(4);
+        assertThat(expense.getShares()).allSatisfy(share -> {
+            assertThat(share.getId()).isNotNull();
+            assertThat(share.getShareAmount()).isEqualByComparingTo("25.00");
+        });
+    }
+
+    @Test
+    void updateTouchesOnlyChangedSharesAndKeepsSettlement() {
+        List<User> members = createGroupMembers(3);
+        User payer = members.get(0);
+        ExpenseResponse created = expenseService.createExpense(groupOf(members).getId(),
+                exactRequest(members, "50.00", "40.00", "30.00"), payer);
+        Map<Long, ExpenseShareResponse> before = sharesByUser(created);
+
+        SettleExpenseRequest settle = new SettleExpenseRequest();
+        settle.setShareIds(List.of(before.get(members.get(2).getId()).getId()));
+        expenseService.settleExpense(created.getId(), settle, payer);
+
+        statistics.clear();
+        ExpenseResponse updated = expenseService.updateExpense(created.getId(),
+                exactUpdate(members, "55.00", "35.00", "30.00"), payer);
+
+        // Harcamanın kendisi ve okuma modeli satırı da güncellenir; paylardan yalnızca değişen ikisi
+        assertThat(statistics.getEntityStatistics(ExpenseShare.class.getName()).getUpdateCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+
+        Map<Long, ExpenseShareResponse> after = sharesByUser(updated);
+        for (User member : members) {
+            assertThat(after.get(member.getId()).getId()).isEqualTo(before.get(member.getId()).getId());
+        }
+        assertThat(after.get(members.get(0).getId()).getShareAmount()).isEqualByComparingTo("55.00");
+        assertThat(after.get(members.get(2).getId()).getIsSettled()).isTrue();
+    }
+
+    @Test
+    void updateInsertsAndDeletesByUser() {
+        List<User> members = createGroupMembers(3);
+        User payer = members.get(0);
+        ExpenseResponse created = expenseService.createExpense(groupOf(members).getId(),
+                exactRequest(members.subList(0, 2), "60.00", "60.00"), payer);
+
+        UpdateExpenseRequest request = new UpdateExpenseRequest();
+        request.setShares(List.of(shareRequest(members.get(0), "60.00"), shareRequest(members.get(2), "60.00")));
+        statistics.clear();
+        ExpenseResponse updated = expenseService.updateExpense(created.getId(), request, payer);
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(1);
+        assertThat(sharesByUser(updated).keySet())
+                .containsExactlyInAnyOrder(members.get(0).getId(), members.get(2).getId());
+        assertThat(expenseShareRepository.findAll().stream()
+                .filter(share -> share.getExpense().getId().equals(created.getId()))
+                .count()).isEqualTo(2);
+    }
+
+    @Test
+    void batchGetLoadsEveryExpenseWithTwoQueries() {
+        List<User> members = createGroupMembers(3);
+        Long groupId = groupOf(members).getId();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(expenseService.createExpense(groupId, exactRequest(members, "10.00", "20.00", "30.00"),
+                    members.get(0)).getId());
+        }
+
+        statistics.clear();
+        ExpenseBatchResponse response = expenseService.getExpensesByIds(ids, members.get(1));
+
+        // Harcamalar ödeyen, grup ve paylarıyla tek sorguda; üyelik tüm gruplar için tek sorguda
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(response.getErrors()).isEmpty();
+        assertThat(response.getExpenses().keySet()).containsExactlyElementsOf(ids);
+        assertThat(response.getExpenses().values()).allSatisfy(expense -> {
+            assertThat(expense.getShares()).hasSize(3);
+            assertThat(expense.getCurrentUserShare()).isEqualByComparingTo("20.00");
+        });
+    }
+
+    @Test
+    void batchGetReadsOnlyTheCallersGroupsAndTellsForbiddenFromMissing() {
+        List<User> members = createGroupMembers(2);
+        List<User> others = createGroupMembers(2);
+        Long own = expenseService.createExpense(groupOf(members).getId(),
+                exactRequest(members, "10.00", "10.00"), members.get(0)).getId();
+        Long foreign = expenseService.createExpense(groupOf(others).getId(),
+                exactRequest(others, "10.00", "10.00"), others.get(0)).getId();
+        Long missing = Long.MAX_VALUE;
+
+        ExpenseBatchResponse response = expenseService.getExpensesByIds(List.of(own, foreign, missing), members.get(1));
+
+        assertThat(response.getExpenses().keySet()).containsExactly(own);
+        assertThat(response.getErrors().get(foreign).getStatus()).isEqualTo(403);
+        assertThat(response.getErrors().get(missing).getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void updateCostDoesNotGrowWithShareCount() {
+        long smallGroupStatements = statementsForOneCentMove(5);
+        long largeGroupStatements = statementsForOneCentMove(100);
+
+        assertThat(largeGroupStatements).isEqualTo(smallGroupStatements);
+    }
+
+    // Paylaşımları yükler, iki paylaşım arasında 1 kuruş aktarır; yalnızca o ikisinin güncellendiğini doğrular
+    private long statementsForOneCentMove(int shareCount) {
+        List<User> members = createGroupMembers(shareCount);
+        User payer = members.get(0);
+        String[] amounts = new String[shareCount];
+        Arrays.fill(amounts, "10.00");
+        ExpenseResponse created = expenseService.createExpense(groupOf(members).getId(),
+                exactRequest(members, amounts), payer);
+        Map<Long, Long> shareIds = sharesByUser(created).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getId()));
+
+        statistics.clear();
+        moveOneCent(created.getId(), members, payer, 0);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(statistics.getEntityStatistics(ExpenseShare.class.getName()).getUpdateCount()).isEqualTo(2);
+        assertThat(statistics.getEntityStatistics(ExpenseShare.class.getName()).getInsertCount()).isZero();
+        assertThat(statistics.getEntityStatistics(ExpenseShare.class.getName()).getDeleteCount()).isZero();
+        Map<Long, ExpenseShareResponse> after = sharesByUser(expenseService.getExpenseById(created.getId(), payer));
+        assertThat(after).hasSize(shareCount);
+        after.forEach((userId, share) -> assertThat(share.getId()).isEqualTo(shareIds.get(userId)));
+        return statements;
+    }
+
+    // İlk iki üye arasında 1 kuruş aktarır: yalnızca iki paylaşım değişir
+    private void moveOneCent(Long expenseId, List<User> members, User payer, int direction) {
+        List<String> amounts = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            amounts.add("10.00");
+        }
+        if (members.size() >= 2 && direction == 0) {
+            amounts.set(0, "10.01");
+            amounts.set(1, "9.99");
+        }
+        expenseService.updateExpense(expenseId, exactUpdate(members, amounts.toArray(String[]::new)), payer);
+    }
+
+    private List<User> createGroupMembers(int count) {
+        String run = UUID.randomUUID().toString();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name("Üye " + i)
+                    .email("uye" + i + "-" + run + "@example.com")
+                    .password("")
+                    .build());
+        }
+        users = userRepository.saveAll(users);
+
+        Group group = groupRepository.save(Group.builder()
+                .name("Grup " + run)
+                .createdBy(users.get(0))
+                .build());
+        List<GroupMember> memberships = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            memberships.add(GroupMember.builder()
+                    .group(group)
+                    .user(users.get(i))
+                    .isAdmin(i == 0)
+                    .isActive(true)
+                    .build());
+        }
+        groupMemberRepository.saveAll(memberships);
+        return users;
+    }
+
+    private Group groupOf(List<User> members) {
+        return groupRepository.findAll().stream()
+                .filter(group -> group.getCreatedBy().getId().equals(members.get(0).getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static CreateExpenseRequest equalRequest(String amount) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Market");
+        request.setAmount(new BigDecimal(amount));
+        request.setSplitType(Expense.SplitType.EQUAL);
+        return request;
+    }
+
+    private static CreateExpenseRequest exactRequest(List<User> members, String... amounts) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Market");
+        request.setSplitType(Expense.SplitType.EXACT);
+        request.setShares(shareRequests(members, amounts));
+        request.setAmount(request.getShares().stream()
+                .map(CreateExpenseRequest.ExpenseShareRequest::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return request;
+    }
+
+    private static UpdateExpenseRequest exactUpdate(List<User> members, String... amounts) {
+        UpdateExpenseRequest request = new UpdateExpenseRequest();
+        request.setShares(shareRequests(members, amounts));
+        return request;
+    }
+
+    private static List<CreateExpenseRequest.ExpenseShareRequest> shareRequests(List<User> members, String... amounts) {
+        List<CreateExpenseRequest.ExpenseShareRequest> shares = new ArrayList<>();
+        for (int i = 0; i < amounts.length; i++) {
+            shares.add(shareRequest(members.get(i), amounts[i]));
+        }
+        return shares;
+    }
+
+    private static CreateExpenseRequest.ExpenseShareRequest shareRequest(User user, String amount) {
+        CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+        share.setUserId(user.getId());
+        share.setAmount(new BigDecimal(amount));
+        return share;
+    }
+
+    private static Map<Long, ExpenseShareResponse> sharesByUser(ExpenseResponse expense) {
+        assertThat(new HashSet<>(expense.getShares())).hasSameSizeAs(expense.getShares());
+        return expense.getShares().stream()
+                .collect(Collectors.toMap(share -> share.getUser().getId(), share -> share));
+    }
+}
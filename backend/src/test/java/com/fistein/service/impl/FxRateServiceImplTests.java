@@ -0,0 +1,165 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.GroupBalanceResponse;
+import com.fistein.dto.UserBalanceResponse;
+import com.fistein.dto.UserBalancesResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.FxRateService;
+import com.fistein.service.FxRateSnapshot;
+import com.fistein.service.GroupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class FxRateServiceImplTests {
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    private User ayse;
+    private User mehmet;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Tatil " + run).createdBy(ayse).baseCurrency("TRY").build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+    }
+
+    @Test
+    void ratesFileIsLoadedOnStartup() {
+        FxRateSnapshot rates = fxRateService.current();
+
+        assertThat(rates.date()).isNotNull();
+        assertThat(rates.supports("TRY")).isTrue();
+        assertThat(rates.supports("EUR")).isTrue();
+        assertThat(rates.factor("TRY", "TRY")).isEqualByComparingTo("1");
+        // Çapraz kur pivot üzerinden: USD -> TRY = (TRY/EUR) / (USD/EUR)
+        assertThat(rates.factor("USD", "TRY")).isEqualByComparingTo(
+                rates.ratesPerPivot().get("TRY").divide(rates.ratesPerPivot().get("USD"), 16, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void balancesConvertForeignExpensesToGroupCurrency() {
+        createExpense(ayse, "100.00", "EUR");
+        createExpense(mehmet, "300.00", null);
+        FxRateSnapshot rates = fxRateService.current();
+        BigDecimal eur = rates.factor("EUR", "TRY");
+
+        UserBalanceResponse ayseBalance = expenseService.getUserBalance(group.getId(), ayse);
+        assertThat(ayseBalance.getCurrency()).isEqualTo("TRY");
+        assertThat(ayseBalance.getTotalPaid()).isEqualByComparingTo(scale(new BigDecimal("100.00").multiply(eur)));
+        assertThat(ayseBalance.getTotalOwed()).isEqualByComparingTo(
+                scale(new BigDecimal("50.00").multiply(eur).add(new BigDecimal("150.00"))));
+        assertThat(ayseBalance.getDebts()).singleElement()
+                .satisfies(debt -> assertThat(debt.getAmount()).isEqualByComparingTo("150.00"));
+        assertThat(ayseBalance.getCredits()).singleElement()
+                .satisfies(credit -> assertThat(credit.getAmount()).isEqualByComparingTo(scale(new BigDecimal("50.00").multiply(eur))));
+
+        GroupBalanceResponse groupBalance = groupService.getGroupBalances(group.getId(), mehmet);
+        assertThat(groupBalance.getCurrency()).isEqualTo("TRY");
+        assertThat(groupBalance.getTotalExpenses()).isEqualByComparingTo(
+                scale(new BigDecimal("100.00").multiply(eur)).add(new BigDecimal("300.00")));
+
+        // Grup EUR'ya geçince aynı harcamalar yeni para biriminde görünür
+        group.setBaseCurrency("EUR");
+        groupRepository.save(group);
+        UserBalanceResponse inEuro = expenseService.getUserBalance(group.getId(), mehmet);
+        assertThat(inEuro.getTotalPaid()).isEqualByComparingTo(scale(new BigDecimal("300.00").multiply(rates.factor("TRY", "EUR"))));
+
+        // Gruplar arası toplam varsayılan para biriminde, grup satırı grubun para biriminde
+        UserBalancesResponse all = expenseService.getUserBalances(mehmet);
+        assertThat(all.getCurrency()).isEqualTo(fxRateService.defaultCurrency());
+        assertThat(all.getGroups()).singleElement()
+                .satisfies(row -> assertThat(row.getCurrency()).isEqualTo("EUR"));
+    }
+
+    @Test
+    void rejectsUnknownCurrencies() {
+        assertThatThrownBy(() -> createExpense(ayse, "10.00", "ABC"))
+                .isInstanceOf(FisteinException.class)
+                .hasMessageContaining("Geçersiz para birimi");
+        // Geçerli ISO kodu ama kuru yok
+        assertThatThrownBy(() -> createExpense(ayse, "10.00", "XAU"))
+                .isInstanceOf(FisteinException.class)
+                .hasMessage("XAU için kur bilgisi yok");
+        assertThat(createExpense(ayse, "10.00", "usd").getCurrency()).isEqualTo("USD");
+    }
+
+    @Test
+    void onlyAdminsUpdateRatesAndSnapshotIsSwapped() {
+        FxRateSnapshot before = fxRateService.current();
+        Map<String, BigDecimal> rates = Map.of("TRY", new BigDecimal("40.00"), "USD", new BigDecimal("1.25"),
+                "GBP", new BigDecimal("0.80"));
+        LocalDate next = before.date().plusDays(1);
+
+        assertThatThrownBy(() -> fxRateService.updateRates(next, rates, ayse))
+                .isInstanceOf(FisteinException.class)
+                .satisfies(e -> assertThat(((FisteinException) e).getErrorType())
+                        .isEqualTo(FisteinException.ErrorType.FORBIDDEN));
+        assertThat(fxRateService.current()).isSameAs(before);
+
+        User admin = userRepository.findByEmail("fx-admin@example.com").orElseGet(() -> userRepository.save(
+                User.builder().name("Kur Yöneticisi").email("fx-admin@example.com").password("").build()));
+        FxRateSnapshot after = fxRateService.updateRates(next, rates, admin);
+
+        assertThat(after.date()).isEqualTo(next);
+        assertThat(fxRateService.current()).isSameAs(after);
+        assertThat(after.factor("USD", "TRY")).isEqualByComparingTo("32");
+        // Eski kopyayı tutan okuyucu tutarlı kalır
+        assertThat(before.ratesPerPivot()).isNotEqualTo(after.ratesPerPivot());
+    }
+
+    private ExpenseResponse createExpense(User payer, String amount, String currency) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Harcama");
+        request.setAmount(new BigDecimal(amount));
+        request.setCurrency(currency);
+        request.setSplitType(Expense.SplitType.EQUAL);
+        return expenseService.createExpense(group.getId(), request, payer);
+    }
+
+    private static BigDecimal scale(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,231 @@
+package com.fistein.service.impl;
+
+import com.fistein.config.GoogleOAuthConfig;
+import com.fistein.dto.GoogleLoginRequest;
+import com.fistein.dto.JwtResponse;
+import com.fistein.entity.User;
+import com.fistein.repository.UserRepository;
+import com.fistein.security.CustomUserDetailsService;
+import com.fistein.security.GooglePublicKeysRefresher;
+import com.fistein.util.JwtUtil;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.sun.net.httpserver.HttpServer;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Google ID token doğrulamasını yerel bir sertifika sunucusu ve yerel olarak imzalanmış
+ * token'larla çalıştırır; paylaşılan doğrulayıcının anahtarları girişler boyunca bir kez
+ * indirdiğini, giriş başına doğrulayıcının ise her seferinde indirdiğini doğrular.
+ */
+class GoogleOAuthServiceImplTests {
+
+    private static final String CLIENT_ID = "test-client-id";
+    private static final String KEY_ID = "local-key";
+
+    private HttpServer certsServer;
+    private final AtomicInteger certFetches = new AtomicInteger();
+    private volatile int certsMaxAgeSeconds = 3600;
+    private KeyPair keyPair;
+    private String certsUrl;
+    private UserRepository userRepository;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        String certsJson = "{\"" + KEY_ID + "\":\"" + toPem(selfSignedCertificate(keyPair)).replace("\n", "\\n") + "\"}";
+
+        certsServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        certsServer.createContext("/oauth2/v1/certs", exchange -> {
+            certFetches.incrementAndGet();
+            byte[] body = certsJson.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=" + certsMaxAgeSeconds);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        certsServer.start();
+        certsUrl = "http://127.0.0.1:" + certsServer.getAddress().getPort() + "/oauth2/v1/certs";
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(anyString())).thenAnswer(invocation -> Optional.of(User.builder()
+                .id(1L)
+                .email(invocation.getArgument(0))
+                .name("Google Kullanıcı")
+                .password("")
+                .createdAt(LocalDateTime.now())
+                .build()));
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secretKey",
+                "dGhpc0lzQUdvb2RTZWNyZXRLZXlGb3JKV1RUaGF0SXNBVE1lYXN0MjU2Qml0c0xvbmdGb3JTZWN1cml0eVB1cnBvc2Vz");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 86400);
+    }
+
+    @AfterEach
+    void tearDown() {
+        certsServer.stop(0);
+    }
+
+    @Test
+    void sharedVerifierFetchesKeysOnceAcrossLogins() throws Exception {
+        GoogleOAuthServiceImpl service = serviceWith(sharedVerifier());
+        String token = signToken("ayse@example.com", CLIENT_ID);
+
+        for (int i = 0; i < 50; i++) {
+            JwtResponse response = service.authenticateWithGoogle(loginRequest(token));
+            assertThat(response.getToken()).isNotBlank();
+        }
+
+        assertThat(certFetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void perLoginVerifierBaselineFetchesKeysEveryTime() throws Exception {
+        String token = signToken("ayse@example.com", CLIENT_ID);
+        int logins = 10;
+
+        for (int i = 0; i < logins; i++) {
+            // Eski davranış: her girişte yeni transport ve yeni anahtar önbelleği
+            GoogleIdTokenVerifier perLogin = new GoogleIdTokenVerifier.Builder(
+                    new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                            .setPublicCertsEncodedUrl(certsUrl)
+                            .build())
+                    .setAudience(Collections.singletonList(CLIENT_ID))
+                    .build();
+            serviceWith(perLogin).authenticateWithGoogle(loginRequest(token));
+        }
+
+        assertThat(certFetches.get()).isEqualTo(logins);
+    }
+
+    @Test
+    void refresherRenewsKeysBeforeTheyExpire() throws Exception {
+        certsMaxAgeSeconds = 60;
+        GoogleIdTokenVerifier verifier = sharedVerifier();
+        GooglePublicKeysRefresher refresher = new GooglePublicKeysRefresher(
+                provider(GooglePublicKeysManager.class, verifier.getPublicKeysManager()));
+        ReflectionTestUtils.setField(refresher, "prefetchKeys", true);
+        ReflectionTestUtils.setField(refresher, "refreshAhead", Duration.ofMinutes(10));
+
+        refresher.prefetch();
+        assertThat(certFetches.get()).isEqualTo(1);
+
+        // 60 sn geçerlilik 10 dk'lık ön yenileme eşiğinin altında: her kontrolde yenilenir
+        refresher.refreshIfExpiring();
+        assertThat(certFetches.get()).isEqualTo(2);
+
+        certsMaxAgeSeconds = 3600;
+        refresher.refreshIfExpiring();
+        refresher.refreshIfExpiring();
+        assertThat(certFetches.get()).isEqualTo(3);
+
+        serviceWith(verifier).authenticateWithGoogle(loginRequest(signToken("ayse@example.com", CLIENT_ID)));
+        assertThat(certFetches.get()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsTokenForAnotherAudience() throws Exception {
+        GoogleOAuthServiceImpl service = serviceWith(sharedVerifier());
+
+        assertThatThrownBy(() -> service.authenticateWithGoogle(loginRequest(signToken("ayse@example.com", "other-client"))))
+                .hasMessageContaining("Google authentication failed");
+    }
+
+    private GoogleIdTokenVerifier sharedVerifier() {
+        GoogleOAuthConfig config = new GoogleOAuthConfig();
+        ReflectionTestUtils.setField(config, "googleClientId", CLIENT_ID);
+        ReflectionTestUtils.setField(config, "certsUrl", certsUrl);
+        return config.googleIdTokenVerifier(config.googlePublicKeysManager());
+    }
+
+    private GoogleOAuthServiceImpl serviceWith(GoogleIdTokenVerifier verifier) {
+        return new GoogleOAuthServiceImpl(userRepository, jwtUtil, new CustomUserDetailsService(userRepository),
+                provider(GoogleIdTokenVerifier.class, verifier));
+    }
+
+    // Uygulamadaki lazy bean'lerin yerine hazır nesneyi veren sağlayıcı
+    private static <T> ObjectProvider<T> provider(Class<T> type, T instance) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton(type.getSimpleName(), instance);
+        return beanFactory.getBeanProvider(type);
+    }
+
+    private String signToken(String email, String audience) throws Exception {
+        long now = Instant.now().getEpochSecond();
+        JsonWebSignature.Header header = new JsonWebSignature.Header()
+                .setAlgorithm("RS256")
+                .setKeyId(KEY_ID);
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload()
+                .setIssuer("https://accounts.google.com")
+                .setAudience(audience)
+                .setSubject("google-" + email)
+                .setIssuedAtTimeSeconds(now)
+                .setExpirationTimeSeconds(now + 3600)
+                .setEmail(email);
+        payload.set("name", "Google Kullanıcı");
+        return JsonWebSignature.signUsingRsaSha256(keyPair.getPrivate(), GsonFactory.getDefaultInstance(), header, payload);
+    }
+
+    private static GoogleLoginRequest loginRequest(String token) {
+        GoogleLoginRequest request = new GoogleLoginRequest();
+        request.setIdToken(token);
+        return request;
+    }
+
+    private static X509Certificate selfSignedCertificate(KeyPair keyPair) throws Exception {
+        X500Name subject = new X500Name("CN=local-google-stand-in");
+        Instant now = Instant.now();
+        var builder = new JcaX509v3CertificateBuilder(subject, BigInteger.ONE,
+                Date.from(now.minus(Duration.ofDays(1))), Date.from(now.plus(Duration.ofDays(1))),
+                subject, keyPair.getPublic());
+        var signer = new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+        return new JcaX509CertificateConverter().getCertificate(builder.build(signer));
+    }
+
+    private static String toPem(X509Certificate certificate) throws Exception {
+        String base64 = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII))
+                .encodeToString(certificate.getEncoded());
+        return "-----BEGIN CERTIFICATE-----\n" + base64 + "\n-----END CERTIFICATE-----\n";
+    }
+}
@@ -0,0 +1,239 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.GroupBalanceResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.GroupService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class GroupBalanceSnapshotServiceImplTests {
+
+    private static final int WRITES = 20;
+
+    @Autowired
+    private GroupBalanceSnapshotServiceImpl snapshotService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User ayse;
+    private User mehmet;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Tatil " + run).createdBy(ayse).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+    }
+
+    @Test
+    void burstOfWritesIsRecomputedOnce() throws Exception {
+        createExpense("60.00", "40.00");
+        GroupBalanceResponse first = groupService.getGroupBalances(group.getId(), mehmet);
+        assertThat(first.getStale()).isFalse();
+        assertThat(first.getComputedAt()).isNotNull();
+        assertThat(first.getTotalExpenses()).isEqualByComparingTo("100.00");
+
+        double invalidationsBefore = invalidations();
+        long recomputesBefore = backgroundRecomputes();
+        for (int i = 0; i < WRITES; i++) {
+            createExpense("5.00", "5.00");
+        }
+
+        // Okuma beklemez: önceki sonuç eskimiş olarak işaretlenip döner
+        GroupBalanceResponse stale = groupService.getGroupBalances(group.getId(), mehmet);
+        assertThat(stale.getStale()).isTrue();
+        assertThat(stale.getTotalExpenses()).isEqualByComparingTo("100.00");
+        assertThat(meterRegistry.get("fistein.balance.recompute.queue").gauge().value()).isGreaterThanOrEqualTo(1);
+
+        snapshotService.recomputeDirtyGroups();
+        GroupBalanceResponse fresh = awaitFresh();
+
+        assertThat(fresh.getTotalExpenses()).isEqualByComparingTo("300.00");
+        assertThat(fresh.getComputedAt()).isAfterOrEqualTo(first.getComputedAt());
+        assertThat(fresh.getUserBalances()).anySatisfy(info -> {
+            assertThat(info.getUser().getId()).isEqualTo(mehmet.getId());
+            assertThat(info.getTotalOwed()).isEqualByComparingTo("140.00");
+        });
+        assertThat(invalidations() - invalidationsBefore).isEqualTo(WRITES);
+        assertThat(backgroundRecomputes() - recomputesBefore).isEqualTo(1);
+        assertThat(snapshotService.coalescingRatio()).isPositive();
+    }
+
+    @Test
+    void concurrentFirstReadsShareOneComputation() throws Exception {
+        createExpense("30.00", "20.00");
+        long coldBefore = meterRegistry.get("fistein.balance.recompute").tag("trigger", "read").timer().count();
+
+        int readers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<GroupBalanceResponse>> reads = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                reads.add(pool.submit(() -> {
+                    start.await();
+                    return snapshotService.getBalances(group.getId());
+                }));
+            }
+            start.countDown();
+            for (Future<GroupBalanceResponse> read : reads) {
+                assertThat(read.get().getTotalExpenses()).isEqualByComparingTo("50.00");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(meterRegistry.get("fistein.balance.recompute").tag("trigger", "read").timer().count() - coldBefore)
+                .isEqualTo(1);
+    }
+
+    @Test
+    void firstReadIsServedWhileBackgroundPoolIsFull() {
+        createExpense("30.00", "20.00");
+        ThreadPoolExecutor workers = (ThreadPoolExecutor) ReflectionTestUtils.getField(snapshotService, "workers");
+        CountDownLatch release = new CountDownLatch(1);
+        int blockers = workers.getMaximumPoolSize() + workers.getQueue().remainingCapacity();
+        try {
+            for (int i = 0; i < blockers; i++) {
+                workers.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertThat(workers.getQueue().remainingCapacity()).isZero();
+
+            GroupBalanceResponse balances = snapshotService.getBalances(group.getId());
+
+            assertThat(balances.getStale()).isFalse();
+            assertThat(balances.getTotalExpenses()).isEqualByComparingTo("50.00");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void cachedBalancesAreNotChangedByCallersOrDebtMatching() {
+        createExpense("60.00", "40.00");
+        double hitsBefore = cacheGets("hit");
+        GroupBalanceResponse first = snapshotService.getBalances(group.getId());
+
+        // Borç eşleştirmesi bakiyeleri sıfırlamaz: her üyenin bakiyesi ödenen eksi borç
+        assertThat(first.getUserBalances()).allSatisfy(info ->
+                assertThat(info.getBalance()).isEqualByComparingTo(info.getTotalPaid().subtract(info.getTotalOwed())));
+        assertThat(first.getDebts()).singleElement().satisfies(debt -> {
+            assertThat(debt.getDebtor().getId()).isEqualTo(mehmet.getId());
+            assertThat(debt.getAmount()).isEqualByComparingTo("40.00");
+        });
+
+        first.getUserBalances().forEach(info -> info.setBalance(BigDecimal.ZERO));
+        first.getDebts().clear();
+        GroupBalanceResponse second = snapshotService.getBalances(group.getId());
+
+        assertThat(second.getDebts()).hasSize(1);
+        assertThat(second.getUserBalances()).anySatisfy(info -> {
+            assertThat(info.getUser().getId()).isEqualTo(ayse.getId());
+            assertThat(info.getBalance()).isEqualByComparingTo("40.00");
+        });
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(1);
+        assertThat(meterRegistry.get("fistein.balance.cache.hit.ratio").gauge().value()).isPositive();
+    }
+
+    @Test
+    void deletedGroupIsEvictedAfterCommit() {
+        createExpense("30.00", "20.00");
+        snapshotService.getBalances(group.getId());
+        double missesBefore = cacheGets("miss");
+
+        groupService.deleteGroup(group.getId(), ayse);
+        snapshotService.getBalances(group.getId());
+
+        assertThat(cacheGets("miss") - missesBefore).isEqualTo(1);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "group-balances").tag("result", result)
+                .functionCounter().count();
+    }
+
+    private GroupBalanceResponse awaitFresh() throws InterruptedException {
+        GroupBalanceResponse balances = snapshotService.getBalances(group.getId());
+        for (int i = 0; i < 100 && balances.getStale(); i++) {
+            Thread.sleep(50);
+            balances = snapshotService.getBalances(group.getId());
+        }
+        assertThat(balances.getStale()).isFalse();
+        return balances;
+    }
+
+    private double invalidations() {
+        return meterRegistry.get("fistein.balance.invalidations").counter().count();
+    }
+
+    private long backgroundRecomputes() {
+        return meterRegistry.get("fistein.balance.recompute").tag("trigger", "write").timer().count();
+    }
+
+    private void createExpense(String ayseShare, String mehmetShare) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Yemek");
+        request.setAmount(new BigDecimal(ayseShare).add(new BigDecimal(mehmetShare)));
+        request.setSplitType(Expense.SplitType.EXACT);
+        request.setShares(List.of(share(ayse, ayseShare), share(mehmet, mehmetShare)));
+        expenseService.createExpense(group.getId(), request, ayse);
+    }
+
+    private static CreateExpenseRequest.ExpenseShareRequest share(User user, String amount) {
+        CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+        share.setUserId(user.getId());
+        share.setAmount(new BigDecimal(amount));
+        return share;
+    }
+}
@@ -0,0 +1,47 @@
+package com.fistein.service.impl;
+
+import com.fistein.repository.IdempotencyKeyRepository;
+import com.fistein.service.IdempotencyService.Claim;
+import com.fistein.service.IdempotencyService.Outcome;
+import com.fistein.service.IdempotencyService.StoredResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class IdempotencyServiceImplTests {
+
+    private static final Duration TTL = Duration.ofMillis(300);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void completedKeyIsNotReplayedFromMemoryAfterTtl() throws InterruptedException {
+        IdempotencyServiceImpl service = new IdempotencyServiceImpl(idempotencyKeyRepository, transactionManager,
+                100, TTL, Duration.ofSeconds(1), Duration.ofMinutes(2));
+        String key = "test:" + UUID.randomUUID();
+        StoredResponse response = new StoredResponse("POST /api/groups", 201, "application/json", "{\"id\":1}");
+
+        assertThat(service.claim(key, "POST /api/groups").outcome()).isEqualTo(Outcome.ACQUIRED);
+        service.complete(key, response);
+        Claim retry = service.claim(key, "POST /api/groups");
+        assertThat(retry.outcome()).isEqualTo(Outcome.REPLAY);
+        assertThat(retry.response()).isEqualTo(response);
+
+        Thread.sleep(TTL.toMillis() + 100);
+        service.purgeExpired();
+
+        assertThat(idempotencyKeyRepository.findByScopedKey(key)).isEmpty();
+        assertThat(service.claim(key, "POST /api/groups").outcome()).isEqualTo(Outcome.ACQUIRED);
+    }
+}
@@ -0,0 +1,232 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.SettleExpenseRequest;
+import com.fistein.dto.UpdateExpenseRequest;
+import com.fistein.dto.UserBalanceResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.ExpenseShare;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.PairwiseBalanceDelta;
+import com.fistein.service.PairwiseBalanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PairwiseBalanceServiceImplTests {
+
+    private static final String PAIRWISE_ROWS = "SELECT debtor_id, creditor_id, currency, amount, share_count " +
+            "FROM pairwise_balances WHERE group_id = ? AND share_count > 0";
+    private static final String SHARE_AGGREGATES = "SELECT s.user_id, e.paid_by_user_id, e.currency, " +
+            "SUM(s.share_amount), COUNT(*) FROM expense_shares s JOIN expenses e ON e.id = s.expense_id " +
+            "WHERE e.group_id = ? AND s.is_settled = FALSE AND s.user_id <> e.paid_by_user_id " +
+            "GROUP BY s.user_id, e.paid_by_user_id, e.currency";
+
+    @Autowired
+    private PairwiseBalanceService pairwiseBalanceService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SchedulerLockManager lockManager;
+
+    private User ayse;
+    private User mehmet;
+    private User can;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        can = userRepository.save(User.builder().name("Can").email("can-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Ev " + run).createdBy(ayse).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(can).isActive(true).build());
+    }
+
+    @Test
+    void pairTotalsFollowEveryShareWrite() {
+        ExpenseResponse market = createExpense(ayse, "20.00", "30.00", "50.00");
+        ExpenseResponse fatura = createExpense(mehmet, "20.00", "20.00", "20.00");
+        assertPairsMatchShares();
+
+        // Para birimi ve paylar değişince TRY çiftleri azalır, USD çiftleri açılır
+        UpdateExpenseRequest update = new UpdateExpenseRequest();
+        update.setCurrency("USD");
+        update.setAmount(new BigDecimal("90.00"));
+        update.setSplitType(Expense.SplitType.EQUAL);
+        expenseService.updateExpense(market.getId(), update, ayse);
+        assertPairsMatchShares();
+
+        SettleExpenseRequest settle = new SettleExpenseRequest();
+        settle.setShareIds(List.of(shareIdOf(fatura, can)));
+        expenseService.settleExpense(fatura.getId(), settle, can);
+        assertPairsMatchShares();
+
+        UserBalanceResponse balance = expenseService.getUserBalance(group.getId(), can);
+        assertThat(balance.getDebts()).singleElement().satisfies(debt -> {
+            assertThat(debt.getCreditor().getId()).isEqualTo(ayse.getId());
+            assertThat(debt.getExpenseCount()).isEqualTo(1);
+        });
+        assertThat(expenseService.getUserBalance(group.getId(), mehmet).getCredits())
+                .singleElement()
+                .satisfies(credit -> {
+                    assertThat(credit.getDebtor().getId()).isEqualTo(ayse.getId());
+                    assertThat(credit.getAmount()).isEqualByComparingTo("20.00");
+                });
+
+        expenseService.deleteExpense(market.getId(), ayse);
+        expenseService.deleteExpense(fatura.getId(), mehmet);
+        assertThat(rows(PAIRWISE_ROWS)).isEmpty();
+        assertThat(expenseService.getUserBalance(group.getId(), can).getDebts()).isEmpty();
+    }
+
+    @Test
+    void rebuildProducesTheSameRowsAsDeltas() {
+        createExpense(ayse, "10.00", "15.00", "25.00");
+        ExpenseResponse second = createExpense(can, "5.00", "5.00", "5.00");
+        SettleExpenseRequest settle = new SettleExpenseRequest();
+        settle.setShareIds(List.of(shareIdOf(second, ayse)));
+        expenseService.settleExpense(second.getId(), settle, ayse);
+        Map<String, String> incremental = rows(PAIRWISE_ROWS);
+
+        pairwiseBalanceService.rebuild();
+
+        assertThat(rows(PAIRWISE_ROWS)).isEqualTo(incremental).hasSize(3);
+    }
+
+    @Test
+    void checkRepairsDriftedGroupsOnly() {
+        createExpense(ayse, "10.00", "15.00", "25.00");
+        Map<String, String> correct = rows(PAIRWISE_ROWS);
+        // SQL ile yazılmış bir borç ve kaybolmuş bir çift
+        jdbcTemplate.update("UPDATE pairwise_balances SET amount = amount + 1 WHERE group_id = ? AND debtor_id = ?",
+                group.getId(), mehmet.getId());
+        jdbcTemplate.update("DELETE FROM pairwise_balances WHERE group_id = ? AND debtor_id = ?",
+                group.getId(), can.getId());
+
+        PairwiseBalanceService.ConsistencyReport detected = pairwiseBalanceService.checkConsistency(false);
+        assertThat(detected.inconsistentGroups()).isEqualTo(1);
+        assertThat(detected.repairedGroups()).isZero();
+        assertThat(rows(PAIRWISE_ROWS)).isNotEqualTo(correct);
+
+        PairwiseBalanceService.ConsistencyReport repaired = pairwiseBalanceService.checkConsistency(true);
+        assertThat(repaired.repairedGroups()).isEqualTo(1);
+        assertThat(rows(PAIRWISE_ROWS)).isEqualTo(correct);
+        assertThat(pairwiseBalanceService.checkConsistency(true).consistent()).isTrue();
+    }
+
+    @Test
+    void rebuildWaitsForLeaseHeldByAnotherNode() {
+        createExpense(ayse, "10.00", "15.00", "25.00");
+        jdbcTemplate.update("DELETE FROM pairwise_balances WHERE group_id = ?", group.getId());
+
+        String otherNode = lockManager.tryLock(PairwiseBalanceServiceImpl.LOCK_NAME, Duration.ofMinutes(1)).orElseThrow();
+        try {
+            assertThat(pairwiseBalanceService.rebuild()).isZero();
+            assertThat(rows(PAIRWISE_ROWS)).isEmpty();
+        } finally {
+            lockManager.unlock(PairwiseBalanceServiceImpl.LOCK_NAME, otherNode);
+        }
+
+        pairwiseBalanceService.rebuild();
+        assertPairsMatchShares();
+    }
+
+    @Test
+    void deltaKeepsOnlyTouchedPairs() {
+        User payer = User.builder().id(1L).build();
+        Expense expense = Expense.builder().id(1L).groupId(7L).currency("TRY").paidBy(payer).build();
+        List<ExpenseShare> shares = new ArrayList<>();
+        for (long userId = 1; userId <= 500; userId++) {
+            shares.add(ExpenseShare.builder().expense(expense).user(User.builder().id(userId).build())
+                    .shareAmount(new BigDecimal("2.00")).isSettled(false).build());
+        }
+
+        PairwiseBalanceDelta delta = new PairwiseBalanceDelta().subtract(shares);
+        shares.get(41).setShareAmount(new BigDecimal("3.50"));
+        shares.get(99).setIsSettled(true);
+        delta.add(shares);
+
+        assertThat(delta.entries()).containsExactly(
+                new PairwiseBalanceDelta.Entry(7L, "TRY", 42, 1, 150, 0),
+                new PairwiseBalanceDelta.Entry(7L, "TRY", 100, 1, -200, -1));
+        assertThat(new PairwiseBalanceDelta().add(shares.subList(0, 1)).isEmpty()).isTrue();
+    }
+
+    private void assertPairsMatchShares() {
+        assertThat(rows(PAIRWISE_ROWS)).isEqualTo(rows(SHARE_AGGREGATES)).isNotEmpty();
+    }
+
+    private Map<String, String> rows(String sql) {
+        Map<String, String> rows = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            rows.put(rs.getLong(1) + "->" + rs.getLong(2) + " " + rs.getString(3),
+                    rs.getBigDecimal(4).setScale(2) + " / " + rs.getLong(5));
+        }, group.getId());
+        return rows;
+    }
+
+    private Long shareIdOf(ExpenseResponse expense, User user) {
+        return expenseService.getExpenseShares(expense.getId(), user).stream()
+                .filter(share -> share.getUser().getId().equals(user.getId()))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    // Paylar sırasıyla Ayşe, Mehmet ve Can için
+    private ExpenseResponse createExpense(User payer, String ayseShare, String mehmetShare, String canShare) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Harcama");
+        request.setSplitType(Expense.SplitType.EXACT);
+        List<CreateExpenseRequest.ExpenseShareRequest> shares = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<User, String> entry : Map.of(ayse, ayseShare, mehmet, mehmetShare, can, canShare).entrySet()) {
+            CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+            share.setUserId(entry.getKey().getId());
+            share.setAmount(new BigDecimal(entry.getValue()));
+            shares.add(share);
+            total = total.add(share.getAmount());
+        }
+        request.setAmount(total);
+        request.setShares(shares);
+        return expenseService.createExpense(group.getId(), request, payer);
+    }
+}
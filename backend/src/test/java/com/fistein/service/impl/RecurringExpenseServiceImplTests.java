@@ -0,0 +1,253 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.CreateRecurringExpenseRequest;
+import com.fistein.dto.RecurringExpenseResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.RecurringExpense;
+import com.fistein.entity.SchedulerLock;
+import com.fistein.entity.User;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.RecurringExpenseRepository;
+import com.fistein.repository.SchedulerLockRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.RecurringExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RecurringExpenseServiceImplTests {
+
+    private static final String DAILY_AT_NINE = "0 0 9 * * *";
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDate.now().atTime(12, 0);
+    private User ayse;
+    private User mehmet;
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        ayse = userRepository.save(User.builder().name("Ayşe").email("ayse-" + run + "@example.com").password("").build());
+        mehmet = userRepository.save(User.builder().name("Mehmet").email("mehmet-" + run + "@example.com").password("").build());
+        group = groupRepository.save(Group.builder().name("Ev " + run).createdBy(ayse).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(ayse).isAdmin(true).isActive(true).build());
+        groupMemberRepository.save(GroupMember.builder().group(group).user(mehmet).isActive(true).build());
+    }
+
+    @Test
+    void catchesUpEveryMissedOccurrenceExactlyOnce() {
+        RecurringExpenseResponse rent = recurringExpenseService.createRecurringExpense(group.getId(),
+                request("Kira", "1000.00", Expense.SplitType.EQUAL, DAILY_AT_NINE, now.minusDays(10).toLocalDate().atStartOfDay()),
+                ayse);
+
+        // 10 gün önceden bugüne kadar her gün 09:00
+        recurringExpenseService.generateDueExpenses(now);
+        recurringExpenseService.generateDueExpenses(now);
+
+        assertThat(generatedDates(rent.getId())).hasSize(11)
+                .first().isEqualTo(now.minusDays(10).toLocalDate().atTime(9, 0));
+        assertThat(jdbcTemplate.queryForList("SELECT s.share_amount FROM expense_shares s " +
+                "JOIN expenses e ON e.id = s.expense_id WHERE e.recurring_expense_id = ?", BigDecimal.class, rent.getId()))
+                .hasSize(22)
+                .allSatisfy(amount -> assertThat(amount).isEqualByComparingTo("500.00"));
+        assertThat(recurringExpenseRepository.findById(rent.getId()).orElseThrow().getNextOccurrence())
+                .isEqualTo(now.plusDays(1).toLocalDate().atTime(9, 0));
+        assertThat(expenseService.getUserBalance(group.getId(), mehmet).getBalance()).isEqualByComparingTo("-5500.00");
+    }
+
+    @Test
+    void equalCatchUpSplitsBetweenMembersWhoHadJoinedByEachDate() {
+        // Ayşe 20 gün önce, Mehmet 3 gün önce öğlen katıldı
+        jdbcTemplate.update("UPDATE group_members SET joined_at = ? WHERE group_id = ? AND user_id = ?",
+                now.minusDays(20), group.getId(), ayse.getId());
+        jdbcTemplate.update("UPDATE group_members SET joined_at = ? WHERE group_id = ? AND user_id = ?",
+                now.minusDays(3), group.getId(), mehmet.getId());
+        RecurringExpenseResponse rent = recurringExpenseService.createRecurringExpense(group.getId(),
+                request("Kira", "1000.00", Expense.SplitType.EQUAL, DAILY_AT_NINE, now.minusDays(5).toLocalDate().atStartOfDay()),
+                ayse);
+
+        recurringExpenseService.generateDueExpenses(now);
+
+        // 5, 4 ve 3 gün önceki 09:00 tarihleri yalnızca Ayşe'ye, son üç tarih ikisine bölünür
+        assertThat(generatedDates(rent.getId())).hasSize(6);
+        assertThat(jdbcTemplate.queryForList("SELECT COUNT(*) FROM expense_shares s " +
+                "JOIN expenses e ON e.id = s.expense_id WHERE e.recurring_expense_id = ? " +
+                "GROUP BY e.id ORDER BY MIN(e.expense_date)", Integer.class, rent.getId()))
+                .containsExactly(1, 1, 1, 2, 2, 2);
+        assertThat(expenseService.getUserBalance(group.getId(), mehmet).getBalance()).isEqualByComparingTo("-1500.00");
+    }
+
+    @Test
+    void exactTemplateStopsAfterEndDate() {
+        CreateRecurringExpenseRequest request = request("Netflix", "100.00", Expense.SplitType.EXACT,
+                DAILY_AT_NINE, now.minusDays(5));
+        request.setShares(List.of(share(ayse, "70.00"), share(mehmet, "30.00")));
+        request.setEndsAt(now.minusDays(2));
+        RecurringExpenseResponse netflix = recurringExpenseService.createRecurringExpense(group.getId(), request, ayse);
+
+        recurringExpenseService.generateDueExpenses(now);
+
+        assertThat(generatedDates(netflix.getId())).hasSize(3);
+        assertThat(recurringExpenseRepository.findById(netflix.getId()).orElseThrow().getActive()).isFalse();
+        assertThat(recurringExpenseService.getGroupRecurringExpenses(group.getId(), mehmet)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(s.share_amount) FROM expense_shares s " +
+                "JOIN expenses e ON e.id = s.expense_id WHERE e.recurring_expense_id = ? AND s.user_id = ?",
+                BigDecimal.class, netflix.getId(), mehmet.getId())).isEqualByComparingTo("90.00");
+    }
+
+    @Test
+    void lockHeldByAnotherNodeSkipsGeneration() {
+        RecurringExpenseResponse rent = recurringExpenseService.createRecurringExpense(group.getId(),
+                request("Kira", "1000.00", Expense.SplitType.EQUAL, DAILY_AT_NINE, now.minusDays(1)), ayse);
+        schedulerLockRepository.save(SchedulerLock.builder()
+                .name(RecurringExpenseServiceImpl.LOCK_NAME)
+                .lockedBy("baska-dugum")
+                .lockedUntil(LocalDateTime.now().plusMinutes(5))
+                .build());
+        try {
+            assertThat(recurringExpenseService.generateDueExpenses(now)).isZero();
+            assertThat(generatedDates(rent.getId())).isEmpty();
+        } finally {
+            // Kilit süresi dolmuş gibi: diğer düğüm çökmüş
+            schedulerLockRepository.save(SchedulerLock.builder()
+                    .name(RecurringExpenseServiceImpl.LOCK_NAME)
+                    .lockedBy("baska-dugum")
+                    .lockedUntil(LocalDateTime.now().minusSeconds(1))
+                    .build());
+        }
+
+        recurringExpenseService.generateDueExpenses(now);
+        assertThat(generatedDates(rent.getId())).hasSize(1);
+    }
+
+    @Test
+    void concurrentRunsGenerateEachOccurrenceOnce() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(recurringExpenseService.createRecurringExpense(group.getId(),
+                    request("Abonelik " + i, "10.00", Expense.SplitType.EQUAL, DAILY_AT_NINE, now.minusDays(30)), ayse).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> runs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            runs.add(executor.submit(() -> {
+                start.await();
+                return recurringExpenseService.generateDueExpenses(now);
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> run : runs) {
+            run.get();
+        }
+        executor.shutdown();
+        // Kilidi alamayan çalıştırma bir sonraki dakikada kalanları üretir
+        recurringExpenseService.generateDueExpenses(now);
+
+        for (Long id : ids) {
+            assertThat(generatedDates(id)).hasSize(30).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    void generationCatchesUpEveryDefinitionAcrossBatches() {
+        int definitions = 150;
+        int daysMissed = 10;
+        List<RecurringExpense> recurring = new ArrayList<>(definitions);
+        for (int i = 0; i < definitions; i++) {
+            recurring.add(RecurringExpense.builder()
+                    .group(group)
+                    .paidBy(i % 2 == 0 ? ayse : mehmet)
+                    .description("Abonelik " + i)
+                    .amount(new BigDecimal("20.00"))
+                    .currency("TRY")
+                    .splitType(Expense.SplitType.EQUAL)
+                    .schedule(DAILY_AT_NINE)
+                    .nextOccurrence(now.minusDays(daysMissed - 1).toLocalDate().atTime(9, 0))
+                    .build());
+        }
+        recurring = recurringExpenseRepository.saveAll(recurring);
+
+        // Toplam 1500 tarih varsayılan 1000'lik partiye sığmaz; ikinci parti kalanları üretir
+        assertThat(recurringExpenseService.generateDueExpenses(now)).isEqualTo(definitions * daysMissed);
+
+        for (RecurringExpense definition : recurring) {
+            assertThat(generatedDates(definition.getId())).hasSize(daysMissed).doesNotHaveDuplicates();
+            assertThat(recurringExpenseRepository.findById(definition.getId()).orElseThrow().getNextOccurrence())
+                    .isAfter(now);
+        }
+        assertThat(recurringExpenseService.generateDueExpenses(now)).isZero();
+    }
+
+    private List<LocalDateTime> generatedDates(Long recurringExpenseId) {
+        return jdbcTemplate.queryForList("SELECT expense_date FROM expenses WHERE recurring_expense_id = ? " +
+                "ORDER BY expense_date", Timestamp.class, recurringExpenseId).stream()
+                .map(Timestamp::toLocalDateTime)
+                .toList();
+    }
+
+    private static CreateRecurringExpenseRequest request(String description, String amount, Expense.SplitType splitType,
+                                                         String schedule, LocalDateTime startsAt) {
+        CreateRecurringExpenseRequest request = new CreateRecurringExpenseRequest();
+        request.setDescription(description);
+        request.setAmount(new BigDecimal(amount));
+        request.setSplitType(splitType);
+        request.setSchedule(schedule);
+        request.setStartsAt(startsAt);
+        return request;
+    }
+
+    private static CreateExpenseRequest.ExpenseShareRequest share(User user, String amount) {
+        CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+        share.setUserId(user.getId());
+        share.setAmount(new BigDecimal(amount));
+        return share;
+    }
+}
@@ -0,0 +1,208 @@
+package com.fistein.service.impl;
+
+import com.fistein.dto.AcceptSettleUpRequest;
+import com.fistein.dto.CreateExpenseRequest;
+import com.fistein.dto.ExpenseResponse;
+import com.fistein.dto.SettleUpPlanResponse;
+import com.fistein.entity.Expense;
+import com.fistein.entity.Group;
+import com.fistein.entity.GroupMember;
+import com.fistein.entity.User;
+import com.fistein.exception.FisteinException;
+import com.fistein.repository.GroupMemberRepository;
+import com.fistein.repository.GroupRepository;
+import com.fistein.repository.UserRepository;
+import com.fistein.service.ExpenseService;
+import com.fistein.service.SettleUpService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SettleUpServiceImplTests {
+
+    @Autowired
+    private SettleUpService settleUpService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String run;
+    private User ayse;
+    private User mehmet;
+    private User can;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        run = UUID.randomUUID().toString();
+        ayse = user("ayse");
+        mehmet = user("mehmet");
+        can = user("can");
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void netsDebtsAcrossGroupsIntoOneTransferPerCounterparty() {
+        Group market = group("Market", ayse, mehmet);
+        Group kira = group("Kira", ayse, mehmet);
+        Group tatil = group("Tatil", ayse, mehmet, can);
+        ExpenseResponse ayseOwes = expense(market, mehmet, Map.of(ayse, "60.00", mehmet, "40.00"));
+        expense(kira, ayse, Map.of(ayse, "20.00", mehmet, "30.00"));
+        ExpenseResponse tatilExpense = expense(tatil, ayse, orderedShares(ayse, "20.00", mehmet, "20.00", can, "20.00"));
+
+        SettleUpPlanResponse plan = settleUpService.getPlan(ayse);
+
+        // Mehmet: -60 + 30 + 20; Can: +20. Gruplar ayrı ayrı ödeşse dört ödeme gerekirdi
+        assertThat(plan.getCurrency()).isEqualTo("TRY");
+        assertThat(plan.getTransferCount()).isEqualTo(2);
+        assertThat(plan.getTransferCountWithoutNetting()).isEqualTo(4);
+        assertThat(plan.getTransfers()).hasSize(2);
+        SettleUpPlanResponse.Transfer toMehmet = transferWith(plan, mehmet);
+        assertThat(toMehmet.getDirection()).isEqualTo(SettleUpPlanResponse.Direction.PAY);
+        assertThat(toMehmet.getAmount()).isEqualByComparingTo("10.00");
+        assertThat(toMehmet.getGroupIds()).containsExactly(market.getId(), kira.getId(), tatil.getId());
+        assertThat(toMehmet.getShareCount()).isEqualTo(3);
+        SettleUpPlanResponse.Transfer fromCan = transferWith(plan, can);
+        assertThat(fromCan.getDirection()).isEqualTo(SettleUpPlanResponse.Direction.RECEIVE);
+        assertThat(fromCan.getAmount()).isEqualByComparingTo("20.00");
+
+        AcceptSettleUpRequest accept = new AcceptSettleUpRequest();
+        accept.setFingerprint(plan.getFingerprint());
+        SettleUpPlanResponse accepted = settleUpService.acceptPlan(accept, ayse);
+
+        assertThat(accepted.getFingerprint()).isEqualTo(plan.getFingerprint());
+        assertThat(settleUpService.getPlan(ayse).getTransfers()).isEmpty();
+        assertThat(settleUpService.getPlan(mehmet).getTransfers()).isEmpty();
+        assertThat(settleUpService.getPlan(can).getTransfers()).isEmpty();
+        assertThat(expenseService.getExpenseShares(ayseOwes.getId(), ayse))
+                .filteredOn(share -> share.getUser().getId().equals(ayse.getId()))
+                .singleElement()
+                .satisfies(share -> assertThat(share.getIsSettled()).isTrue());
+        // Ödeyenin kendi payı hesaplaşmanın parçası değil
+        assertThat(expenseService.getExpenseShares(tatilExpense.getId(), ayse))
+                .filteredOn(share -> share.getUser().getId().equals(ayse.getId()))
+                .singleElement()
+                .satisfies(share -> assertThat(share.getIsSettled()).isFalse());
+        // Liste okuma modeli de aynı transaction'da güncellenir
+        assertThat(expenseService.getGroupExpenses(tatil.getId(), can, PageRequest.of(0, 10)).getContent())
+                .singleElement()
+                .satisfies(listed -> assertThat(listed.getShares())
+                        .filteredOn(share -> !share.getUser().getId().equals(ayse.getId()))
+                        .allSatisfy(share -> assertThat(share.getIsSettled()).isTrue()));
+    }
+
+    @Test
+    void changedPlanIsRejectedWithoutSettlingAnything() {
+        Group market = group("Market", ayse, mehmet);
+        ExpenseResponse first = expense(market, mehmet, Map.of(ayse, "25.00", mehmet, "25.00"));
+        SettleUpPlanResponse plan = settleUpService.getPlan(ayse);
+
+        expense(market, ayse, Map.of(ayse, "5.00", mehmet, "5.00"));
+        AcceptSettleUpRequest accept = new AcceptSettleUpRequest();
+        accept.setFingerprint(plan.getFingerprint());
+
+        assertThatThrownBy(() -> settleUpService.acceptPlan(accept, ayse))
+                .isInstanceOfSatisfying(FisteinException.class, e ->
+                        assertThat(e.getErrorType()).isEqualTo(FisteinException.ErrorType.CONFLICT));
+        assertThat(expenseService.getExpenseShares(first.getId(), ayse))
+                .allSatisfy(share -> assertThat(share.getIsSettled()).isFalse());
+        assertThat(transferWith(settleUpService.getPlan(ayse), mehmet).getAmount()).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    void planQueriesDoNotGrowWithGroupCount() {
+        expense(group("Tek", ayse, mehmet), mehmet, Map.of(ayse, "10.00", mehmet, "10.00"));
+        long queriesForOneGroup = countPlanStatements();
+
+        for (int i = 0; i < 30; i++) {
+            Group group = group("Grup " + i, ayse, mehmet, can);
+            expense(group, i % 2 == 0 ? ayse : mehmet, orderedShares(ayse, "10.00", mehmet, "10.00", can, "10.00"));
+        }
+        long queriesForManyGroups = countPlanStatements();
+
+        assertThat(queriesForManyGroups).isEqualTo(queriesForOneGroup);
+        SettleUpPlanResponse plan = settleUpService.getPlan(ayse);
+        assertThat(transferWith(plan, mehmet).getGroupIds()).hasSize(31);
+        assertThat(plan.getTransferCount()).isEqualTo(2);
+    }
+
+    private long countPlanStatements() {
+        statistics.clear();
+        settleUpService.getPlan(ayse);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static SettleUpPlanResponse.Transfer transferWith(SettleUpPlanResponse plan, User counterparty) {
+        return plan.getTransfers().stream()
+                .filter(transfer -> transfer.getCounterparty().getId().equals(counterparty.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private User user(String name) {
+        return userRepository.save(User.builder().name(name).email(name + "-" + run + "@example.com").password("").build());
+    }
+
+    private Group group(String name, User... members) {
+        Group group = groupRepository.save(Group.builder().name(name + " " + run).createdBy(members[0]).build());
+        Arrays.stream(members).forEach(member -> groupMemberRepository.save(GroupMember.builder()
+                .group(group).user(member).isAdmin(member == members[0]).isActive(true).build()));
+        return group;
+    }
+
+    private static Map<User, String> orderedShares(Object... userAndAmount) {
+        Map<User, String> shares = new LinkedHashMap<>();
+        for (int i = 0; i < userAndAmount.length; i += 2) {
+            shares.put((User) userAndAmount[i], (String) userAndAmount[i + 1]);
+        }
+        return shares;
+    }
+
+    private ExpenseResponse expense(Group group, User payer, Map<User, String> shares) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Harcama");
+        request.setSplitType(Expense.SplitType.EXACT);
+        request.setAmount(shares.values().stream().map(BigDecimal::new).reduce(BigDecimal.ZERO, BigDecimal::add));
+        request.setShares(shares.entrySet().stream().map(entry -> {
+            CreateExpenseRequest.ExpenseShareRequest share = new CreateExpenseRequest.ExpenseShareRequest();
+            share.setUserId(entry.getKey().getId());
+            share.setAmount(new BigDecimal(entry.getValue()));
+            return share;
+        }).toList());
+        return expenseService.createExpense(group.getId(), request, payer);
+    }
+}
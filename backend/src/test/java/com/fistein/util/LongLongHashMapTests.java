@@ -0,0 +1,55 @@
+package com.fistein.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTests {
+
+    @Test
+    void addsToMissingKeysFromZero() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThat(map.addTo(7, 150)).isEqualTo(150);
+        assertThat(map.addTo(7, -200)).isEqualTo(-50);
+        map.put(3, 10);
+
+        assertThat(map.get(7)).isEqualTo(-50);
+        assertThat(map.get(3)).isEqualTo(10);
+        assertThat(map.get(99)).isZero();
+        assertThat(map.containsKey(99)).isFalse();
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.sortedKeys()).containsExactly(3, 7);
+    }
+
+    @Test
+    void matchesHashMapAcrossGrowth() {
+        LongLongHashMap map = new LongLongHashMap(2);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(5_000) * 1_000_003L;
+            long delta = random.nextInt(2_001) - 1_000;
+            map.addTo(key, delta);
+            expected.merge(key, delta, Long::sum);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsOverflow() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1, Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> map.addTo(1, 1)).isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.fistein.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void allowsBurstUpToCapacityThenThrottles() {
+        TokenBucket bucket = new TokenBucket(3, 1, Duration.ofSeconds(1), 0);
+
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void refillsOverTimeAndReportsFullWhenIdle() {
+        TokenBucket bucket = new TokenBucket(2, 2, Duration.ofSeconds(1), 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertThat(bucket.tryConsume(0)).isPositive();
+        assertThat(bucket.tryConsume(SECOND / 2)).isZero();
+        assertThat(bucket.isFull(SECOND / 2)).isFalse();
+        assertThat(bucket.isFull(2 * SECOND)).isTrue();
+    }
+
+    @Test
+    void refundedTokenCanBeConsumedAgain() {
+        TokenBucket bucket = new TokenBucket(2, 1, Duration.ofSeconds(1), 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        bucket.refund();
+
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isPositive();
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1_000, 1, Duration.ofHours(1), 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    if (bucket.tryConsume(0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThat(granted.get()).isEqualTo(1_000);
+    }
+}